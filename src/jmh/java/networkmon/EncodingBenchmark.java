@@ -0,0 +1,66 @@
+package networkmon;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Mérési sor kódolása: CSV napló sor és JSON export (minden mérésnél / exportnál lefut).
+// A legacy* változatok a RecordEncoder előtti String.format / SimpleDateFormat formázást
+// mérik összehasonlításként.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EncodingBenchmark {
+
+    private NetworkMonitor.Measurement m;
+    private SimpleDateFormat dateFormat;
+    private RecordEncoder encoder;
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    @Setup
+    public void setup() {
+        m = new NetworkMonitor.Measurement(new Date(1_700_000_000_000L), "Ethernet \"LAN\"",
+                94.3187, 38.0452, 12.75, 1.3333, 0.0, 48.912);
+        dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        encoder = new RecordEncoder();
+    }
+
+    @Benchmark
+    public int csvLine() throws IOException {
+        encoder.reset().csv(m).newLine().writeTo(sink);
+        return encoder.length();
+    }
+
+    @Benchmark
+    public int json() throws IOException {
+        encoder.reset().json(m).writeTo(sink);
+        return encoder.length();
+    }
+
+    @Benchmark
+    public String legacyCsvLine() {
+        return String.format("%s;\"%s\";%.2f;%.2f;%.2f;%.2f;%.2f;%.2f",
+                dateFormat.format(m.timestamp),
+                m.interfaceName.replace("\"", "'"),
+                m.downloadMbps, m.uploadMbps, m.pingAvgMs, m.jitterMs, m.packetLossPercent, m.httpResponseMs);
+    }
+
+    @Benchmark
+    public String legacyJson() {
+        SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+        return String.format(
+                "{\"timestamp\":\"%s\",\"interface\":\"%s\",\"download_mbps\":%.4f," +
+                "\"upload_mbps\":%.4f,\"ping_avg_ms\":%.4f,\"jitter_ms\":%.4f," +
+                "\"packet_loss_percent\":%.4f,\"http_response_ms\":%.4f}",
+                df.format(m.timestamp),
+                m.interfaceName.replace("\\", "\\\\").replace("\"", "\\\""),
+                m.downloadMbps, m.uploadMbps, m.pingAvgMs, m.jitterMs, m.packetLossPercent, m.httpResponseMs);
+    }
+}
@@ -0,0 +1,60 @@
+package networkmon;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Az élő grafikon: pont hozzáadása (mérésenként) és teljes újrarajzolás képernyőn kívüli képre
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GraphPanelBenchmark {
+
+    @Param({"240"})
+    public int points;
+
+    @Param({"false", "true"})
+    public boolean antialias;
+
+    private NetworkMonitor.GraphPanel panel;
+    private BufferedImage image;
+    private Graphics2D g;
+    private Random rnd;
+
+    @Setup
+    public void setup() {
+        panel = new NetworkMonitor.GraphPanel();
+        panel.setSize(900, 320);
+        rnd = new Random(1);
+        for (int i = 0; i < points; i++) {
+            panel.addPoint(50 + rnd.nextDouble() * 50, 20 + rnd.nextDouble() * 20, 10 + rnd.nextDouble() * 30);
+        }
+        image = new BufferedImage(900, 320, BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                antialias ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+    }
+
+    @TearDown
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public void addPoint() {
+        panel.addPoint(rnd.nextDouble() * 100, rnd.nextDouble() * 40, rnd.nextDouble() * 50);
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        panel.paintComponent(g);
+        return image;
+    }
+}
@@ -0,0 +1,141 @@
+package networkmon;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Loopback áteresztőképesség a csomagtesztek adatútján: UDP (UdpBlast csomagformátum +
+// SequenceStats a fogadó oldalon) és TCP (TcpThroughput küldő/fogadó ciklusai).
+// A "bytes" kiegészítő számláló bájt/s-ban jelenik meg az eredményben.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LoopbackThroughputBenchmark {
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Udp {
+        static final int BATCH = 64;
+
+        @Param({"1472"})
+        public int packetSize;
+
+        DatagramChannel sender;
+        DatagramChannel receiver;
+        ByteBuffer out;
+        ByteBuffer in;
+        SequenceStats stats;
+        long seq;
+
+        @Setup
+        public void setup() throws IOException {
+            receiver = DatagramChannel.open();
+            receiver.setOption(StandardSocketOptions.SO_RCVBUF, 4 * 1024 * 1024);
+            receiver.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            receiver.configureBlocking(false);
+            sender = DatagramChannel.open();
+            sender.setOption(StandardSocketOptions.SO_SNDBUF, 4 * 1024 * 1024);
+            sender.connect(receiver.getLocalAddress());
+            out = ByteBuffer.allocateDirect(packetSize);
+            out.putInt(0, UdpBlast.MAGIC).putInt(4, UdpBlast.TYPE_DATA).putInt(8, 1);
+            in = ByteBuffer.allocateDirect(UdpBlast.MAX_PACKET);
+            stats = new SequenceStats();
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            sender.close();
+            receiver.close();
+        }
+    }
+
+    // Egy köteg küldése, majd a fogadó oldal kiürítése és a csomagok statisztikába vétele
+    @Benchmark
+    @OperationsPerInvocation(Udp.BATCH)
+    public long udpDatagrams(Udp u, Bytes b) throws IOException {
+        for (int i = 0; i < Udp.BATCH; i++) {
+            u.out.clear();
+            u.out.putLong(12, u.seq++).putLong(20, Pacer.epochMicros());
+            while (u.sender.write(u.out) == 0) Thread.onSpinWait();
+        }
+        int got = 0;
+        int idle = 0;
+        while (got < Udp.BATCH && idle < 1000) {
+            u.in.clear();
+            if (u.receiver.receive(u.in) == null) {
+                idle++;
+                Thread.onSpinWait();
+                continue;
+            }
+            int len = u.in.position();
+            u.stats.onPacket(u.in.getLong(12), u.in.getLong(20), Pacer.epochMicros(), len, System.nanoTime());
+            b.bytes += len;
+            got++;
+        }
+        return u.stats.received();
+    }
+
+    @State(Scope.Thread)
+    public static class Tcp {
+        @Param({"true", "false"})
+        public boolean zeroCopy;
+
+        ServerSocketChannel server;
+        SocketChannel client;
+        Thread drain;
+        final LongAdder counter = new LongAdder();
+
+        @Setup
+        public void setup() throws IOException {
+            server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            client = SocketChannel.open(server.getLocalAddress());
+            client.setOption(StandardSocketOptions.SO_SNDBUF, 4 * 1024 * 1024);
+            SocketChannel accepted = server.accept();
+            accepted.setOption(StandardSocketOptions.SO_RCVBUF, 4 * 1024 * 1024);
+            drain = new Thread(() -> {
+                try (SocketChannel sc = accepted) {
+                    TcpThroughput.receiveUntilEof(sc, () -> true, new LongAdder());
+                } catch (IOException ignored) {}
+            }, "bench-tcp-drain");
+            drain.setDaemon(true);
+            drain.start();
+        }
+
+        @TearDown
+        public void tearDown() throws IOException, InterruptedException {
+            client.close();
+            drain.join(2000);
+            server.close();
+        }
+    }
+
+    // 10 ms-os küldési szelet a valódi küldő ciklussal (zero-copy transferTo vagy direkt puffer)
+    @Benchmark
+    public long tcpSend(Tcp t, Bytes b) throws IOException {
+        long n = TcpThroughput.sendUntil(t.client, System.nanoTime() + 10_000_000L, t.zeroCopy, () -> true, t.counter);
+        b.bytes += n;
+        return n;
+    }
+}
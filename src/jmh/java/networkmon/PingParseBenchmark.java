@@ -0,0 +1,42 @@
+package networkmon;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// A ping parancs kimenetének soronkénti feldolgozása (singlePing / multi-ping / anycast ICMP)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PingParseBenchmark {
+
+    // Egy tipikus Windows (magyar és angol) és Linux ping kimenet, a nem illeszkedő sorokkal együtt
+    private static final String[] OUTPUT = {
+            "",
+            "Pinging 8.8.8.8 with 32 bytes of data:",
+            "Reply from 8.8.8.8: bytes=32 time=14ms TTL=117",
+            "Válasz 8.8.8.8: bájt=32 idő=15ms TTL=117",
+            "64 bytes from 1.1.1.1: icmp_seq=1 ttl=57 time=9.84 ms",
+            "Request timed out.",
+            "Ping statistics for 8.8.8.8:",
+            "    Packets: Sent = 1, Received = 1, Lost = 0 (0% loss),",
+            "Approximate round trip times in milli-seconds:",
+            "    Minimum = 14ms, Maximum = 14ms, Average = 14ms",
+    };
+
+    @Benchmark
+    public void parseOutput(Blackhole bh) {
+        for (String line : OUTPUT) {
+            bh.consume(NetworkMonitor.parsePingTime(line));
+        }
+    }
+
+    @Benchmark
+    public long parseReplyLine() {
+        return NetworkMonitor.parsePingTime(OUTPUT[2]);
+    }
+}
@@ -0,0 +1,218 @@
+package networkmon;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// Idő alapú sebességmérés: fix bájtszám helyett adott ideig fut, a forgalmat 100 ms-os
+// vödrökbe gyűjti, felismeri a felfutás (TCP slow start) végét, és csak a stabil szakaszból
+// számol átlagot. Ha a célidő végéig nem stabilizálódik, legfeljebb a célidő kétszereséig folytatja.
+final class AdaptiveSpeedTest {
+    static final int BUCKET_MS = 100;
+    private static final long BUCKET_NANOS = BUCKET_MS * 1_000_000L;
+    private static final int WINDOW = 5;              // 500 ms csúszó ablak
+    private static final double STABLE_CV = 0.15;     // ablakon belüli relatív szórás
+    private static final double STABLE_BAND = 0.15;   // eltérés a végső szinttől
+    private static final int IO_TIMEOUT_MS = 8000;
+    private static final String UPLOAD_URL = "https://httpbin.org/post";
+
+    static final class Result {
+        final double mbps;        // stabil szakasz átlaga
+        final double rawMbps;     // teljes mérés átlaga (felfutással együtt)
+        final int rampUpMs;
+        final boolean stable;
+        final long bytes;
+        final double[] curve;     // Mbps vödrönként (BUCKET_MS)
+
+        Result(double mbps, double rawMbps, int rampUpMs, boolean stable, long bytes, double[] curve) {
+            this.mbps = mbps;
+            this.rawMbps = rawMbps;
+            this.rampUpMs = rampUpMs;
+            this.stable = stable;
+            this.bytes = bytes;
+            this.curve = curve;
+        }
+    }
+
+    private final Consumer<String> log;
+
+    AdaptiveSpeedTest(Consumer<String> log) {
+        this.log = log;
+    }
+
+    // Letöltés a megadott URL-ről; ha a fájl a célidő előtt elfogy, újra lekéri
+    Result download(String urlStr, int durationSec) {
+        log.accept("Letöltés mérés (adaptív): " + urlStr + " (" + durationSec + " s)");
+        Buckets b = null;
+        byte[] buf = new byte[64 * 1024];
+        int requests = 0;
+        try {
+            while (b == null || b.shouldContinue(durationSec)) {
+                URLConnection conn = new URL(urlStr).openConnection();
+                conn.setConnectTimeout(IO_TIMEOUT_MS);
+                conn.setReadTimeout(IO_TIMEOUT_MS);
+                try (InputStream in = conn.getInputStream()) {
+                    requests++;
+                    if (b == null) b = new Buckets(System.nanoTime());
+                    int r;
+                    while ((r = in.read(buf)) != -1) {
+                        if (!b.add(System.nanoTime(), r, durationSec)) break;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            if (b == null || b.completed(System.nanoTime()) < WINDOW) {
+                log.accept("Letöltésmérés hiba: " + e.toString());
+                return null;
+            }
+            log.accept("Letöltésmérés megszakadt, a részeredmény számít: " + e.toString());
+        }
+        if (requests > 1) log.accept("  A fájl " + requests + " alkalommal lett lekérve a célidő alatt.");
+        return finish("Letöltés", b);
+    }
+
+    // Feltöltés chunked POST-tal a célidő végéig
+    Result upload(int durationSec) {
+        log.accept("Feltöltés mérés (adaptív): " + UPLOAD_URL + " (" + durationSec + " s)");
+        Buckets b = null;
+        try {
+            HttpURLConnection conn = (HttpURLConnection) new URL(UPLOAD_URL).openConnection();
+            conn.setConnectTimeout(IO_TIMEOUT_MS);
+            conn.setReadTimeout(IO_TIMEOUT_MS);
+            conn.setDoOutput(true);
+            conn.setRequestMethod("POST");
+            conn.setRequestProperty("Content-Type", "application/octet-stream");
+            conn.setChunkedStreamingMode(64 * 1024);
+
+            byte[] buf = new byte[64 * 1024];
+            Arrays.fill(buf, (byte) 65);
+            try (OutputStream out = conn.getOutputStream()) {
+                b = new Buckets(System.nanoTime());
+                do {
+                    out.write(buf);
+                } while (b.add(System.nanoTime(), buf.length, durationSec));
+                out.flush();
+            }
+            // A válasz a szerver oldali fogadás végét jelzi; tartalma nem érdekes
+            try (InputStream in = conn.getInputStream()) {
+                in.read(new byte[1024]);
+            }
+        } catch (Exception e) {
+            if (b == null || b.completed(System.nanoTime()) < WINDOW) {
+                log.accept("Feltöltésmérés hiba: " + e.toString());
+                return null;
+            }
+            log.accept("Feltöltésmérés megszakadt, a részeredmény számít: " + e.toString());
+        }
+        return finish("Feltöltés", b);
+    }
+
+    private Result finish(String what, Buckets b) {
+        Result r = analyze(b.bytes, b.completed(System.nanoTime()));
+        if (r == null) {
+            log.accept(what + "mérés: nincs elég adat");
+            return null;
+        }
+        log.accept(String.format("%s: %.2f Mbps (felfutás %d ms, teljes átlag %.2f Mbps, %d minta, %s)",
+                what, r.mbps, r.rampUpMs, r.rawMbps, r.curve.length, r.stable ? "stabil" : "nem stabilizálódott"));
+        return r;
+    }
+
+    // Párhuzamos, több szerveres mérés összegzése: a sebességek és a görbék vödrönként összeadódnak
+    static Result combine(Result a, Result b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        double[] curve = Arrays.copyOf(a.curve, Math.max(a.curve.length, b.curve.length));
+        for (int i = 0; i < b.curve.length; i++) curve[i] += b.curve[i];
+        return new Result(a.mbps + b.mbps, a.rawMbps + b.rawMbps, Math.max(a.rampUpMs, b.rampUpMs),
+                a.stable && b.stable, a.bytes + b.bytes, curve);
+    }
+
+    // Felfutás felismerése: a végső szint a mérés második felének mediánja; a stabil szakasz az
+    // első olyan 500 ms-os ablaktól indul, amelynek átlaga ±15%-on belül van a végső szinthez
+    // képest és a relatív szórása is kicsi. Így a kezdeti küldőpuffer-feltöltés (kiugró első
+    // vödrök feltöltésnél) sem számít stabilnak. Ha nincs ilyen ablak, a második fél számít.
+    static Result analyze(long[] bucketBytes, int n) {
+        if (n <= 0) return null;
+        double[] curve = new double[n];
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            curve[i] = bucketBytes[i] * 8.0 / 1e6 / (BUCKET_MS / 1000.0);
+            total += bucketBytes[i];
+        }
+        double rawMbps = total * 8.0 / 1e6 / (n * BUCKET_MS / 1000.0);
+        if (total == 0) return null;
+        if (n < 2 * WINDOW) return new Result(rawMbps, rawMbps, 0, false, total, curve);
+
+        double[] tail = Arrays.copyOfRange(curve, n / 2, n);
+        Arrays.sort(tail);
+        double level = tail[tail.length / 2];
+
+        int start = -1;
+        for (int i = 0; i + WINDOW <= n && level > 0; i++) {
+            double sum = 0, sq = 0;
+            for (int k = i; k < i + WINDOW; k++) {
+                sum += curve[k];
+                sq += curve[k] * curve[k];
+            }
+            double mean = sum / WINDOW;
+            double sd = Math.sqrt(Math.max(0, sq / WINDOW - mean * mean));
+            if (Math.abs(mean - level) <= STABLE_BAND * level && sd <= STABLE_CV * mean) {
+                start = i;
+                break;
+            }
+        }
+        boolean stable = start >= 0;
+        if (!stable) start = n / 2;
+
+        long steady = 0;
+        for (int i = start; i < n; i++) steady += bucketBytes[i];
+        double mbps = steady * 8.0 / 1e6 / ((n - start) * BUCKET_MS / 1000.0);
+        return new Result(mbps, rawMbps, start * BUCKET_MS, stable, total, curve);
+    }
+
+    // Vödrös bájtszámláló; csak a mérő szál használja
+    private static final class Buckets {
+        final long start;
+        long[] bytes = new long[128];
+        int lastIndex = -1;
+
+        Buckets(long start) {
+            this.start = start;
+        }
+
+        // false, ha a mérésnek véget kell érnie
+        boolean add(long now, int n, int durationSec) {
+            int idx = (int) ((now - start) / BUCKET_NANOS);
+            if (idx >= bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, idx + 1));
+            bytes[idx] += n;
+            if (idx != lastIndex) {
+                lastIndex = idx;
+                return shouldContinue(durationSec);
+            }
+            return true;
+        }
+
+        // Vödörhatáron értékelődik ki: a célidőig mindig fut, utána a célidő kétszereséig, amíg nem stabil
+        boolean shouldContinue(int durationSec) {
+            if (Thread.currentThread().isInterrupted()) return false;
+            long elapsed = System.nanoTime() - start;
+            long target = durationSec * 1_000_000_000L;
+            if (elapsed < target) return true;
+            if (elapsed >= 2 * target) return false;
+            Result r = analyze(bytes, completed(System.nanoTime()));
+            return r != null && !r.stable;
+        }
+
+        // A lezárt (teljes) vödrök száma; az adat nélküli vödrök is számítanak (0 Mbps)
+        int completed(long now) {
+            int n = (int) ((now - start) / BUCKET_NANOS);
+            if (n > bytes.length) bytes = Arrays.copyOf(bytes, n);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package networkmon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Folyamatos szabálykiértékelés: minden új mérési / csomagteszt mintára csak az érintett
+// szabályok frissülnek, mintánként konstans munkával (időrésekre bontott csúszó ablak,
+// log-skálás hisztogram a percentilisekhez, időarányos EWMA alapvonal). A history lista
+// újraolvasása nélkül jelez riasztást és annak megszűnését.
+//
+// Szabály formátuma (soronként, # után megjegyzés):
+//   <stat> <metrika> <művelet> <küszöb> [window <idő>] [for <idő>]
+//   stat:     avg | min | max | last | ewma | p50 | p95 | p99 ...
+//   küszöb:   szám, vagy <N>% baseline <idő> (a metrika adott időállandójú EWMA alapvonalához képest)
+//   idő:      30s, 5m, 2h, 7d
+// Példák:  p95 ping > 80 window 5m for 5m
+//          avg download < 50% baseline 7d window 30m
+final class AlertEngine {
+    static final String DEFAULT_RULES = String.join("\n",
+            "# stat metrika művelet küszöb [window idő] [for idő]",
+            "# metrikák: download upload ping jitter loss http unicast broadcast multicast udp tcp_up tcp_down",
+            "p95 ping > 80 window 5m for 5m",
+            "avg download < 50% baseline 7d window 30m",
+            "last loss > 10 for 2m",
+            "p95 unicast > 100 window 1m for 1m");
+
+    private static final long DEFAULT_WINDOW_MS = 5 * 60_000L;
+    private static final int SLOTS = 30;
+    // Log-skálás hisztogram: 0.01-től 1.1-es szorzóval (~5% relatív hiba), a 0. vödör a <0.01 értékeké
+    private static final double HIST_MIN = 0.01;
+    private static final double HIST_RATIO = 1.1;
+    private static final int HIST_BUCKETS = 170;
+    private static final double LOG_RATIO = Math.log(HIST_RATIO);
+    // Az alapvonal ennyi minta után számít megbízhatónak
+    private static final int BASELINE_MIN_SAMPLES = 10;
+
+    enum Stat { AVG, MIN, MAX, LAST, EWMA, PERCENTILE }
+
+    static final class Event {
+        final long timeMillis;
+        final boolean raised;     // true: riasztás, false: megszűnt
+        final String rule;
+        final double value;
+        final double threshold;
+
+        Event(long timeMillis, boolean raised, String rule, double value, double threshold) {
+            this.timeMillis = timeMillis;
+            this.raised = raised;
+            this.rule = rule;
+            this.value = value;
+            this.threshold = threshold;
+        }
+    }
+
+    static final class Rule {
+        final String text;
+        final Stat stat;
+        final double percentile;      // PERCENTILE esetén 0..100
+        final String metric;
+        final boolean greater;
+        final boolean orEqual;
+        final double threshold;       // abszolút érték, vagy baseline esetén arány (0.5 = 50%)
+        final long baselineTauMs;     // 0: abszolút küszöb
+        final long windowMs;
+        final long forMs;
+
+        Rule(String text, Stat stat, double percentile, String metric, boolean greater, boolean orEqual,
+             double threshold, long baselineTauMs, long windowMs, long forMs) {
+            this.text = text;
+            this.stat = stat;
+            this.percentile = percentile;
+            this.metric = metric;
+            this.greater = greater;
+            this.orEqual = orEqual;
+            this.threshold = threshold;
+            this.baselineTauMs = baselineTauMs;
+            this.windowMs = windowMs;
+            this.forMs = forMs;
+        }
+    }
+
+    // Szabály futási állapota
+    private static final class RuleState {
+        final Rule rule;
+        final Window window;
+        final Ewma ewma;
+        final Ewma baseline;
+        long conditionSince = -1;
+        boolean active;
+        double lastValue;
+
+        RuleState(Rule rule, Ewma baseline) {
+            this.rule = rule;
+            this.window = new Window(rule.windowMs);
+            this.ewma = new Ewma(rule.windowMs);
+            this.baseline = baseline;
+        }
+    }
+
+    private final Consumer<Event> sink;
+    private final Map<String, List<RuleState>> byMetric = new HashMap<>();
+    // Alapvonalak metrika + időállandó szerint; szabálycsere után is megmaradnak
+    private final Map<String, Ewma> baselines = new HashMap<>();
+
+    AlertEngine(Consumer<Event> sink) {
+        this.sink = sink;
+    }
+
+    synchronized void setRules(List<Rule> rules) {
+        List<RuleState> old = new ArrayList<>();
+        byMetric.values().forEach(old::addAll);
+        byMetric.clear();
+        for (Rule r : rules) {
+            Ewma baseline = null;
+            if (r.baselineTauMs > 0) {
+                baseline = baselines.computeIfAbsent(r.metric + "/" + r.baselineTauMs, k -> new Ewma(r.baselineTauMs));
+            }
+            byMetric.computeIfAbsent(r.metric, k -> new ArrayList<>()).add(new RuleState(r, baseline));
+        }
+        // A lecserélt szabályok aktív riasztásai megszűnnek
+        long now = System.currentTimeMillis();
+        for (RuleState s : old) {
+            if (s.active) sink.accept(new Event(now, false, s.rule.text, s.lastValue, Double.NaN));
+        }
+    }
+
+    void measurement(NetworkMonitor.Measurement m) {
+        long ts = m.timestamp.getTime();
+        double[] values = values(m);
+        for (int i = 0; i < METRICS.length; i++) sample(METRICS[i], ts, values[i]);
+    }
+
+    private static final String[] METRICS = {"download", "upload", "ping", "jitter", "loss", "http"};
+
+    // 100% veszteségnél a ping / jitter 0, sikertelen HTTP-nél a válaszidő -1: ezek nem mért értékek,
+    // a kiesés a loss metrikán látszik, nem húzhatja le a késleltetési ablakot / alapvonalat
+    private static double[] values(NetworkMonitor.Measurement m) {
+        boolean noReply = m.packetLossPercent >= 100.0;
+        return new double[]{m.downloadMbps, m.uploadMbps, noReply ? Double.NaN : m.pingAvgMs,
+                noReply ? Double.NaN : m.jitterMs, m.packetLossPercent, m.httpResponseMs};
+    }
+
+    // Sikertelen mérés (negatív vagy NaN érték): a szabályok nem kapják meg
+    private static boolean failed(double v) {
+        return v < 0 || Double.isNaN(v);
+    }
+
+    // Korábbi mérések betöltése (indításkor a tárból): ablakok és alapvonalak feltöltése riasztás nélkül
+    synchronized void warmUp(NetworkMonitor.Measurement m) {
+        long ts = m.timestamp.getTime();
+        double[] values = values(m);
+        for (int i = 0; i < METRICS.length; i++) {
+            List<RuleState> states = byMetric.get(METRICS[i]);
+            if (states == null || failed(values[i])) continue;
+            for (RuleState s : states) {
+                s.window.add(ts, values[i]);
+                s.ewma.add(ts, values[i]);
+            }
+            updateBaselines(METRICS[i], ts, values[i]);
+        }
+    }
+
+    synchronized void sample(String metric, long ts, double v) {
+        List<RuleState> states = byMetric.get(metric);
+        if (states == null || failed(v)) return;
+        for (RuleState s : states) {
+            s.window.add(ts, v);
+            s.ewma.add(ts, v);
+            evaluate(s, ts, v);
+        }
+        updateBaselines(metric, ts, v);
+    }
+
+    synchronized List<String> activeAlerts() {
+        List<String> out = new ArrayList<>();
+        for (List<RuleState> states : byMetric.values()) {
+            for (RuleState s : states) {
+                if (s.active) out.add(s.rule.text + String.format(Locale.ROOT, "  (érték: %.2f)", s.lastValue));
+            }
+        }
+        return out;
+    }
+
+    private void updateBaselines(String metric, long ts, double v) {
+        // Az alapvonal a kiértékelés után frissül, így az aktuális minta nem húzza maga felé a küszöböt
+        for (Map.Entry<String, Ewma> e : baselines.entrySet()) {
+            if (e.getKey().startsWith(metric + "/")) e.getValue().add(ts, v);
+        }
+    }
+
+    private void evaluate(RuleState s, long ts, double last) {
+        Rule r = s.rule;
+        double value;
+        switch (r.stat) {
+            case AVG: value = s.window.mean(); break;
+            case MIN: value = s.window.min(); break;
+            case MAX: value = s.window.max(); break;
+            case LAST: value = last; break;
+            case EWMA: value = s.ewma.value; break;
+            default: value = s.window.percentile(r.percentile); break;
+        }
+        double threshold = r.threshold;
+        if (s.baseline != null) {
+            if (s.baseline.samples < BASELINE_MIN_SAMPLES) return;
+            threshold = r.threshold * s.baseline.value;
+        }
+        s.lastValue = value;
+        boolean cond = r.greater
+                ? (r.orEqual ? value >= threshold : value > threshold)
+                : (r.orEqual ? value <= threshold : value < threshold);
+        if (cond) {
+            if (s.conditionSince < 0) s.conditionSince = ts;
+            if (!s.active && ts - s.conditionSince >= r.forMs) {
+                s.active = true;
+                sink.accept(new Event(ts, true, r.text, value, threshold));
+            }
+        } else {
+            s.conditionSince = -1;
+            if (s.active) {
+                s.active = false;
+                sink.accept(new Event(ts, false, r.text, value, threshold));
+            }
+        }
+    }
+
+    // ---------- Szabályok értelmezése ----------
+
+    static List<Rule> parse(String text) {
+        List<Rule> rules = new ArrayList<>();
+        String[] lines = text.split("\\R");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            try {
+                rules.add(parseRule(line));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException((i + 1) + ". sor: " + ex.getMessage() + " (" + line + ")");
+            }
+        }
+        return rules;
+    }
+
+    private static Rule parseRule(String line) {
+        String[] t = line.toLowerCase(Locale.ROOT).split("\\s+");
+        if (t.length < 4) throw new IllegalArgumentException("túl rövid szabály");
+        Stat stat;
+        double pct = 0;
+        switch (t[0]) {
+            case "avg": stat = Stat.AVG; break;
+            case "min": stat = Stat.MIN; break;
+            case "max": stat = Stat.MAX; break;
+            case "last": stat = Stat.LAST; break;
+            case "ewma": stat = Stat.EWMA; break;
+            default:
+                if (!t[0].matches("p\\d{1,2}(\\.\\d+)?")) throw new IllegalArgumentException("ismeretlen statisztika: " + t[0]);
+                stat = Stat.PERCENTILE;
+                pct = Double.parseDouble(t[0].substring(1));
+        }
+        String metric = t[1];
+        boolean greater;
+        boolean orEqual;
+        switch (t[2]) {
+            case ">": greater = true; orEqual = false; break;
+            case ">=": greater = true; orEqual = true; break;
+            case "<": greater = false; orEqual = false; break;
+            case "<=": greater = false; orEqual = true; break;
+            default: throw new IllegalArgumentException("ismeretlen művelet: " + t[2]);
+        }
+        int i = 3;
+        double threshold;
+        long baselineTau = 0;
+        if (t[i].endsWith("%")) {
+            threshold = number(t[i].substring(0, t[i].length() - 1)) / 100.0;
+            if (i + 2 >= t.length || !t[i + 1].equals("baseline")) {
+                throw new IllegalArgumentException("százalékos küszöb után 'baseline <idő>' kell");
+            }
+            baselineTau = duration(t[i + 2]);
+            i += 3;
+        } else {
+            threshold = number(t[i]);
+            i++;
+        }
+        long window = DEFAULT_WINDOW_MS;
+        long forMs = 0;
+        while (i < t.length) {
+            if (i + 1 >= t.length) throw new IllegalArgumentException("hiányzó érték: " + t[i]);
+            switch (t[i]) {
+                case "window": window = duration(t[i + 1]); break;
+                case "for": forMs = duration(t[i + 1]); break;
+                default: throw new IllegalArgumentException("ismeretlen kulcsszó: " + t[i]);
+            }
+            i += 2;
+        }
+        return new Rule(line, stat, pct, metric, greater, orEqual, threshold, baselineTau, window, forMs);
+    }
+
+    private static double number(String s) {
+        try {
+            return Double.parseDouble(s.replace(',', '.'));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("hibás szám: " + s);
+        }
+    }
+
+    static long duration(String s) {
+        if (!s.matches("\\d+[smhd]")) throw new IllegalArgumentException("hibás időtartam: " + s + " (pl. 30s, 5m, 2h, 7d)");
+        long n = Long.parseLong(s.substring(0, s.length() - 1));
+        switch (s.charAt(s.length() - 1)) {
+            case 's': return n * 1000L;
+            case 'm': return n * 60_000L;
+            case 'h': return n * 3_600_000L;
+            default: return n * 86_400_000L;
+        }
+    }
+
+    // ---------- Ablakok ----------
+
+    // Időalapú csúszó ablak SLOTS időrésre bontva; résenként darab/összeg/min/max és hisztogram.
+    // Egy minta hozzáadása O(SLOTS + 1), lekérdezés O(SLOTS) ill. O(HIST_BUCKETS): az ablakban
+    // lévő minták számától független.
+    private static final class Window {
+        final long slotMillis;
+        final long[] slotIndex = new long[SLOTS];
+        final int[] count = new int[SLOTS];
+        final double[] sum = new double[SLOTS];
+        final double[] min = new double[SLOTS];
+        final double[] max = new double[SLOTS];
+        final int[][] hist = new int[SLOTS][HIST_BUCKETS];
+        final int[] totalHist = new int[HIST_BUCKETS];
+        int totalCount;
+        double totalSum;
+        long newest = Long.MIN_VALUE;
+
+        Window(long windowMs) {
+            slotMillis = Math.max(1, windowMs / SLOTS);
+            Arrays.fill(slotIndex, Long.MIN_VALUE);
+        }
+
+        void add(long ts, double v) {
+            long idx = Math.floorDiv(ts, slotMillis);
+            if (newest != Long.MIN_VALUE && idx <= newest - SLOTS) return; // az ablaknál régebbi minta
+            if (idx > newest) {
+                newest = idx;
+                expire();
+            }
+            int i = Math.floorMod(idx, SLOTS);
+            if (slotIndex[i] != idx) {
+                clear(i);
+                slotIndex[i] = idx;
+            }
+            int b = bucket(v);
+            if (count[i] == 0) {
+                min[i] = v;
+                max[i] = v;
+            } else {
+                min[i] = Math.min(min[i], v);
+                max[i] = Math.max(max[i], v);
+            }
+            count[i]++;
+            sum[i] += v;
+            hist[i][b]++;
+            totalCount++;
+            totalSum += v;
+            totalHist[b]++;
+        }
+
+        private void expire() {
+            for (int i = 0; i < SLOTS; i++) {
+                if (slotIndex[i] != Long.MIN_VALUE && slotIndex[i] <= newest - SLOTS) clear(i);
+            }
+        }
+
+        private void clear(int i) {
+            if (count[i] > 0) {
+                totalCount -= count[i];
+                totalSum -= sum[i];
+                int[] h = hist[i];
+                for (int b = 0; b < HIST_BUCKETS; b++) {
+                    if (h[b] != 0) {
+                        totalHist[b] -= h[b];
+                        h[b] = 0;
+                    }
+                }
+            }
+            count[i] = 0;
+            sum[i] = 0;
+            slotIndex[i] = Long.MIN_VALUE;
+        }
+
+        double mean() {
+            return totalCount == 0 ? Double.NaN : totalSum / totalCount;
+        }
+
+        double min() {
+            double m = Double.NaN;
+            for (int i = 0; i < SLOTS; i++) {
+                if (count[i] > 0 && !(min[i] >= m)) m = min[i];
+            }
+            return m;
+        }
+
+        double max() {
+            double m = Double.NaN;
+            for (int i = 0; i < SLOTS; i++) {
+                if (count[i] > 0 && !(max[i] <= m)) m = max[i];
+            }
+            return m;
+        }
+
+        // Közelítő percentilis a hisztogramból (a vödör mértani középértéke, ~5% hiba)
+        double percentile(double p) {
+            if (totalCount == 0) return Double.NaN;
+            long rank = (long) Math.ceil(p / 100.0 * totalCount);
+            if (rank < 1) rank = 1;
+            long seen = 0;
+            for (int b = 0; b < HIST_BUCKETS; b++) {
+                seen += totalHist[b];
+                if (seen >= rank) return b == 0 ? 0.0 : HIST_MIN * Math.pow(HIST_RATIO, b - 0.5);
+            }
+            return max();
+        }
+
+        private static int bucket(double v) {
+            if (!(v >= HIST_MIN)) return 0;
+            int b = 1 + (int) (Math.log(v / HIST_MIN) / LOG_RATIO);
+            return Math.min(b, HIST_BUCKETS - 1);
+        }
+    }
+
+    // Időarányos EWMA: alpha = 1 - exp(-dt / tau), így a szabálytalan mintavétel sem torzít
+    private static final class Ewma {
+        final long tauMs;
+        double value = Double.NaN;
+        long lastTs;
+        int samples;
+
+        Ewma(long tauMs) {
+            this.tauMs = Math.max(1, tauMs);
+        }
+
+        void add(long ts, double v) {
+            if (samples == 0) {
+                value = v;
+            } else {
+                long dt = Math.max(0, ts - lastTs);
+                double alpha = 1 - Math.exp(-(double) dt / tauMs);
+                value += alpha * (v - value);
+            }
+            lastTs = Math.max(lastTs, ts);
+            samples++;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package networkmon;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Több anycast végpont egyidejű mérése: körönként minden célpontra párhuzamosan
+// ICMP, TCP connect és HTTP késleltetés, célpontonként külön tárolva. A kiszolgáló
+// POP (catchment) váltását a válasz fejlécekből (cf-ray, x-amz-cf-pop, x-served-by,
+// colo=...) vagy a TCP RTT tartós szintváltásából ismeri fel.
+class AnycastMonitor {
+    static final String DEFAULT_TARGETS =
+            "1.1.1.1|https://1.1.1.1/cdn-cgi/trace, 8.8.8.8|https://dns.google/, 9.9.9.9|https://dns.quad9.net/";
+
+    private static final int TCP_PORT = 443;
+    private static final int TIMEOUT_MS = 5000;
+    private static final int SHIFT_SAMPLES = 5;          // ennyi egymást követő eltérő minta = szintváltás
+    private static final double SHIFT_MIN_MS = 10.0;
+    private static final double SHIFT_RATIO = 0.3;
+
+    private static final Pattern CF_RAY = Pattern.compile("-([A-Z]{3})$");
+    private static final Pattern COLO = Pattern.compile("(?m)^colo=([A-Za-z0-9]+)");
+
+    static class Target {
+        final String ip;
+        final String url;
+
+        // Utolsó minták (ms, -1 = nincs válasz)
+        volatile double icmpMs = -1;
+        volatile double tcpMs = -1;
+        volatile double httpMs = -1;
+        volatile String pop = "?";
+        volatile int popChanges;
+
+        final LatencyHistogram tcpUs = new LatencyHistogram();
+        long icmpSent;
+        long icmpLost;
+
+        // RTT-szintváltás detektálás (TCP connect alapján)
+        private double baselineMs = -1;
+        private int deviating;
+
+        Target(String ip, String url) {
+            this.ip = ip;
+            this.url = url;
+        }
+
+        synchronized double tcpP50() { return tcpUs.percentile(50) / 1000.0; }
+
+        synchronized double icmpLossPercent() {
+            return icmpSent == 0 ? 0.0 : 100.0 * icmpLost / icmpSent;
+        }
+
+        @Override
+        public String toString() { return ip; }
+    }
+
+    private final List<Target> targets;
+    private final ToLongFunction<String> pinger;
+    private final Consumer<String> log;
+    private final Consumer<List<Target>> onRound;
+
+    AnycastMonitor(List<Target> targets, ToLongFunction<String> pinger,
+                   Consumer<String> log, Consumer<List<Target>> onRound) {
+        this.targets = targets;
+        this.pinger = pinger;
+        this.log = log;
+        this.onRound = onRound;
+    }
+
+    // "ip|url, ip|url, ..." formátum; url nélkül https://ip/
+    static List<Target> parseTargets(String spec) {
+        List<Target> list = new ArrayList<>();
+        for (String part : spec.split("[,;\\s]+")) {
+            part = part.trim();
+            if (part.isEmpty()) continue;
+            int bar = part.indexOf('|');
+            String ip = bar < 0 ? part : part.substring(0, bar).trim();
+            String url = bar < 0 ? "https://" + ip + "/" : part.substring(bar + 1).trim();
+            list.add(new Target(ip, url));
+        }
+        return list;
+    }
+
+    // A próbák a Scope alfeladatai (ANYCAST keret): leállításkor a folyamatban lévők is megszakadnak
+    void run(int intervalMs, TaskRuntime.Scope scope) {
+        log.accept("[Anycast] Párhuzamos mérés indul " + targets.size() + " célpontra: " + targets);
+        try {
+            while (scope.isRunning()) {
+                long roundStart = System.nanoTime();
+                List<Callable<Void>> probes = new ArrayList<>();
+                for (Target t : targets) {
+                    probes.add(() -> { probeIcmp(t); return null; });
+                    probes.add(() -> { probeTcp(t); return null; });
+                    probes.add(() -> { probeHttp(t); return null; });
+                }
+                // Minden célpont ugyanabban a körben, egyszerre mérődik – így az értékek egymás mellett összevethetők
+                scope.invokeAll(probes, TIMEOUT_MS * 2L);
+                if (!scope.isRunning()) break;
+                onRound.accept(targets);
+
+                long sleepMs = intervalMs - (System.nanoTime() - roundStart) / 1_000_000;
+                if (sleepMs > 0 && !scope.sleep(sleepMs)) break;
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        log.accept("[Anycast] Párhuzamos mérés leállt.");
+    }
+
+    private void probeIcmp(Target t) {
+        long ms = pinger.applyAsLong(t.ip);
+        synchronized (t) {
+            t.icmpSent++;
+            if (ms < 0) t.icmpLost++;
+        }
+        t.icmpMs = ms;
+    }
+
+    private void probeTcp(Target t) {
+        long start = System.nanoTime();
+        try (Socket s = new Socket()) {
+            s.connect(new InetSocketAddress(t.ip, TCP_PORT), TIMEOUT_MS);
+            long us = (System.nanoTime() - start) / 1000;
+            t.tcpMs = us / 1000.0;
+            synchronized (t) {
+                t.tcpUs.record(us);
+            }
+            detectRttShift(t, us / 1000.0);
+            Diagnostics.probe("tcp connect", t.ip, start, true);
+        } catch (Exception ex) {
+            t.tcpMs = -1;
+            Diagnostics.probe("tcp connect", t.ip, start, false);
+        }
+    }
+
+    private void probeHttp(Target t) {
+        long probeStart = System.nanoTime();
+        try {
+            HttpURLConnection conn = (HttpURLConnection) new URL(t.url).openConnection();
+            conn.setConnectTimeout(TIMEOUT_MS);
+            conn.setReadTimeout(TIMEOUT_MS);
+            conn.setUseCaches(false);
+            conn.setInstanceFollowRedirects(false);
+            long start = System.nanoTime();
+            int code = conn.getResponseCode();
+            t.httpMs = (System.nanoTime() - start) / 1e6;
+
+            String pop = popFromHeaders(conn);
+            InputStream in = code < 400 ? conn.getInputStream() : conn.getErrorStream();
+            if (in != null) {
+                try (InputStream body = in) {
+                    // Kis szöveges válasznál (pl. /cdn-cgi/trace) a törzsből is kiolvassuk a colo-t
+                    byte[] buf = body.readNBytes(4096);
+                    if (pop == null) {
+                        Matcher m = COLO.matcher(new String(buf, StandardCharsets.UTF_8));
+                        if (m.find()) pop = m.group(1).toUpperCase(Locale.ROOT);
+                    }
+                }
+            }
+            if (pop != null) updatePop(t, pop, "fejléc");
+            Diagnostics.probe("http", t.url, probeStart, true);
+        } catch (Exception ex) {
+            t.httpMs = -1;
+            Diagnostics.probe("http", t.url, probeStart, false);
+        }
+    }
+
+    private static String popFromHeaders(HttpURLConnection conn) {
+        String ray = conn.getHeaderField("cf-ray");
+        if (ray != null) {
+            Matcher m = CF_RAY.matcher(ray.trim());
+            if (m.find()) return m.group(1);
+        }
+        String amz = conn.getHeaderField("x-amz-cf-pop");
+        if (amz != null) return amz.trim();
+        String servedBy = conn.getHeaderField("x-served-by");
+        if (servedBy != null) {
+            // Fastly: "cache-fra19129-FRA" – az utolsó elem a POP
+            String[] parts = servedBy.split("-");
+            return parts[parts.length - 1].trim();
+        }
+        String pop = conn.getHeaderField("x-pop");
+        return pop != null ? pop.trim() : null;
+    }
+
+    private void updatePop(Target t, String pop, String reason) {
+        String old = t.pop;
+        if (old.equals(pop)) return;
+        t.pop = pop;
+        if (!"?".equals(old)) {
+            t.popChanges++;
+            log.accept("[Anycast] POP váltás " + t.ip + ": " + old + " -> " + pop + " (" + reason + ")");
+        }
+    }
+
+    // Tartós RTT-szintváltás: SHIFT_SAMPLES egymást követő minta tér el az EWMA alapvonaltól
+    private void detectRttShift(Target t, double ms) {
+        String msg = null;
+        synchronized (t) {
+            if (t.baselineMs < 0) {
+                t.baselineMs = ms;
+                return;
+            }
+            double limit = Math.max(SHIFT_MIN_MS, t.baselineMs * SHIFT_RATIO);
+            if (Math.abs(ms - t.baselineMs) > limit) {
+                if (++t.deviating >= SHIFT_SAMPLES) {
+                    msg = String.format("[Anycast] RTT szintváltás %s: %.1f ms -> %.1f ms (lehetséges catchment váltás)",
+                            t.ip, t.baselineMs, ms);
+                    t.baselineMs = ms;
+                    t.deviating = 0;
+                    t.popChanges++;
+                }
+            } else {
+                t.deviating = 0;
+                t.baselineMs += 0.1 * (ms - t.baselineMs);
+            }
+        }
+        if (msg != null) log.accept(msg);
+    }
+}
@@ -0,0 +1,246 @@
+package networkmon;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+// Ügynök mód: a mérési és csomagteszt rekordok batch-ekben, tömörítve jutnak el a gyűjtőhöz.
+// Minden batch előbb a lemezes sorba (spool) kerül, és csak a gyűjtő nyugtája után törlődik,
+// így a kapcsolat kiesése vagy az alkalmazás újraindítása sem veszít adatot. Kapcsolat nélkül
+// a sor gyűlik, újrakapcsolódás exponenciális várakozással.
+final class CollectorAgent {
+    private static final long FLUSH_MS = 1000;
+    private static final int BATCH_MAX = 2000;
+    private static final int QUEUE_MAX = 100_000;      // memóriabeli sor; felette eldobunk
+    private static final int SPOOL_MAX_FILES = 20_000;  // lemezes sor; felette a legrégebbi törlődik
+    private static final int IN_FLIGHT = 8;             // ennyi nyugtázatlan batch lehet úton
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+    private static final int ACK_TIMEOUT_MS = 15_000;
+    private static final long BACKOFF_MIN_MS = 1000;
+    private static final long BACKOFF_MAX_MS = 30_000;
+
+    private final File spoolDir;
+    private final String agentName;
+    private final String host;
+    private final int port;
+    private final Consumer<String> log;
+
+    private final ConcurrentLinkedQueue<CollectorProtocol.Record> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sentRecords = new AtomicLong();
+    private final AtomicLong sentBytes = new AtomicLong();
+    private final ArrayDeque<File> spool = new ArrayDeque<>();
+    private volatile int spoolSize;
+    private volatile boolean connected;
+    private long nextSeq;
+
+    CollectorAgent(File spoolDir, String agentName, String host, int port, Consumer<String> log) {
+        this.spoolDir = spoolDir;
+        this.agentName = agentName;
+        this.host = host;
+        this.port = port;
+        this.log = log;
+    }
+
+    // Bármely szálról hívható, nem blokkol
+    void offer(CollectorProtocol.Record r) {
+        if (queued.incrementAndGet() > QUEUE_MAX) {
+            queued.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.add(r);
+    }
+
+    String status() {
+        return String.format("%s, sor: %d, lemezen: %d batch, elküldve: %d rekord (%d byte)%s",
+                connected ? "kapcsolódva" : "nincs kapcsolat", queued.get(), spoolSize,
+                sentRecords.get(), sentBytes.get(),
+                dropped.get() > 0 ? ", eldobva: " + dropped.get() : "");
+    }
+
+    void run(TaskRuntime.Scope scope) {
+        BooleanSupplier running = scope.running();
+        try {
+            loadSpool();
+        } catch (IOException ex) {
+            log.accept("[Ügynök] Lemezes sor hiba: " + ex.getMessage());
+            return;
+        }
+        log.accept("[Ügynök] Indul: " + agentName + " -> " + host + ":" + port
+                + (spool.isEmpty() ? "" : ", " + spool.size() + " batch vár küldésre"));
+        long backoff = BACKOFF_MIN_MS;
+        long nextConnect = 0;
+        long nextFlush = System.currentTimeMillis() + FLUSH_MS;
+        Socket socket = null;
+        while (running.getAsBoolean()) {
+            long now = System.currentTimeMillis();
+            if (now >= nextFlush || queued.get() >= BATCH_MAX) {
+                spoolQueued();
+                nextFlush = now + FLUSH_MS;
+            }
+            if (socket == null && !spool.isEmpty() && now >= nextConnect) {
+                try {
+                    socket = scope.register(connect());
+                    connected = true;
+                    backoff = BACKOFF_MIN_MS;
+                    log.accept("[Ügynök] Kapcsolódva a gyűjtőhöz.");
+                } catch (IOException ex) {
+                    if (!running.getAsBoolean()) break;
+                    log.accept("[Ügynök] Kapcsolódási hiba (" + ex.getMessage() + "), újra " + backoff / 1000 + " s múlva.");
+                    nextConnect = now + backoff;
+                    backoff = Math.min(backoff * 2, BACKOFF_MAX_MS);
+                }
+            }
+            if (socket != null && !spool.isEmpty()) {
+                try {
+                    sendSpooled(socket);
+                    continue; // van még küldenivaló: azonnal a következő kör
+                } catch (IOException ex) {
+                    if (running.getAsBoolean()) {
+                        log.accept("[Ügynök] Kapcsolat megszakadt: " + ex.getMessage());
+                    }
+                    scope.unregister(socket);
+                    closeQuietly(socket);
+                    socket = null;
+                    connected = false;
+                    nextConnect = System.currentTimeMillis() + backoff;
+                    backoff = Math.min(backoff * 2, BACKOFF_MAX_MS);
+                }
+            }
+            if (!scope.sleep(100)) break;
+        }
+        // Leállításkor a memóriában lévő rekordok is lemezre kerülnek, a következő indításkor mennek el
+        spoolQueued();
+        if (socket != null) {
+            scope.unregister(socket);
+            closeQuietly(socket);
+        }
+        connected = false;
+        log.accept("[Ügynök] Leállt. " + status());
+    }
+
+    private Socket connect() throws IOException {
+        Socket s = new Socket();
+        try {
+            s.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            s.setSoTimeout(ACK_TIMEOUT_MS);
+            s.setTcpNoDelay(true);
+            s.getOutputStream().write(CollectorProtocol.hello(agentName));
+            return s;
+        } catch (IOException ex) {
+            closeQuietly(s);
+            throw ex;
+        }
+    }
+
+    // A sor elejéről legfeljebb IN_FLIGHT batch küldése, majd a nyugták begyűjtése sorrendben
+    private void sendSpooled(Socket socket) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        List<File> inFlight = new ArrayList<>();
+        for (File f : spool) {
+            if (inFlight.size() >= IN_FLIGHT) break;
+            byte[] frame = Files.readAllBytes(f.toPath());
+            out.write(frame);
+            inFlight.add(f);
+            sentBytes.addAndGet(frame.length);
+        }
+        out.flush();
+        for (File f : inFlight) {
+            long ack = in.readLong();
+            long expected = seqOf(f);
+            if (ack != expected) throw new IOException("Váratlan nyugta: " + ack + " (várt: " + expected + ")");
+            sentRecords.addAndGet(recordCount(f));
+            spool.pollFirst();
+            spoolSize = spool.size();
+            if (!f.delete()) log.accept("[Ügynök] Nem törölhető: " + f.getName());
+        }
+    }
+
+    // Memóriabeli sor -> lemezes batch fájlok (BATCH_MAX rekordonként)
+    private void spoolQueued() {
+        List<CollectorProtocol.Record> batch = new ArrayList<>();
+        CollectorProtocol.Record r;
+        while ((r = queue.poll()) != null) {
+            queued.decrementAndGet();
+            batch.add(r);
+            if (batch.size() >= BATCH_MAX) {
+                writeBatch(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) writeBatch(batch);
+    }
+
+    private void writeBatch(List<CollectorProtocol.Record> batch) {
+        long seq = nextSeq++;
+        File f = new File(spoolDir, String.format("batch-%016d-%d.nmb", seq, batch.size()));
+        File tmp = new File(spoolDir, f.getName() + ".tmp");
+        try {
+            Files.write(tmp.toPath(), CollectorProtocol.frame(seq, batch));
+            // Átnevezés után látszik: félig írt batch nem kerülhet a sorba
+            if (!tmp.renameTo(f)) throw new IOException("átnevezés sikertelen");
+        } catch (IOException ex) {
+            log.accept("[Ügynök] Batch mentési hiba, " + batch.size() + " rekord elveszett: " + ex.getMessage());
+            dropped.addAndGet(batch.size());
+            return;
+        }
+        spool.addLast(f);
+        while (spool.size() > SPOOL_MAX_FILES) {
+            File old = spool.pollFirst();
+            dropped.addAndGet(recordCount(old));
+            old.delete();
+        }
+        spoolSize = spool.size();
+    }
+
+    private void loadSpool() throws IOException {
+        if (!spoolDir.isDirectory() && !spoolDir.mkdirs()) {
+            throw new IOException("Nem hozható létre: " + spoolDir);
+        }
+        File[] stale = spoolDir.listFiles((d, n) -> n.endsWith(".tmp"));
+        if (stale != null) for (File f : stale) f.delete();
+        File[] files = spoolDir.listFiles((d, n) -> n.startsWith("batch-") && n.endsWith(".nmb"));
+        spool.clear();
+        if (files != null) {
+            Arrays.sort(files); // a sorszám fix szélességű, így a név szerinti sorrend a küldési sorrend
+            spool.addAll(Arrays.asList(files));
+        }
+        // A sorszám újraindítás után is növekvő marad (a gyűjtő ez alapján szűri az ismételt batch-eket)
+        nextSeq = Math.max(System.currentTimeMillis() * 1000, spool.isEmpty() ? 0 : seqOf(spool.peekLast()) + 1);
+        spoolSize = spool.size();
+    }
+
+    // batch-<sorszám>-<rekordszám>.nmb
+    private static long seqOf(File f) {
+        String n = f.getName();
+        return Long.parseLong(n.substring(6, 22));
+    }
+
+    private static int recordCount(File f) {
+        String n = f.getName();
+        return Integer.parseInt(n.substring(23, n.length() - 4));
+    }
+
+    private static void closeQuietly(Socket s) {
+        try {
+            s.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
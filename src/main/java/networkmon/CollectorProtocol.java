@@ -0,0 +1,219 @@
+package networkmon;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Ügynök -> gyűjtő bináris protokoll.
+//
+// Kapcsolódáskor:  int MAGIC, int VERSION, short névhossz, név (UTF-8)
+// Keret (batch):   int hossz (a további bájtok), byte flags, long sorszám, int rekordszám,
+//                  int tömörítetlen hossz, tartalom (FLAG_DEFLATE esetén Deflate)
+// Nyugta:          long sorszám – a gyűjtő a tárba írás után küldi, az ügynök csak ekkor törli a batch-et
+//
+// Tartalom rekordonként: byte típus, időbélyeg különbség az előző rekordhoz (zigzag varint, ms),
+// név a batch-en belüli szótárból (varint index; új névnél index == szótárméret, utána varint hossz
+// + UTF-8), majd float értékek (mérésnél 6, csomagteszt mintánál 1).
+final class CollectorProtocol {
+    static final int MAGIC = 0x4E4D4147;          // "NMAG"
+    static final int VERSION = 1;
+    static final int FLAG_DEFLATE = 1;
+    static final int FRAME_HEADER = 1 + 8 + 4 + 4; // a hossz mező utáni fix rész
+    static final int MAX_FRAME = 4 * 1024 * 1024;
+    static final int MAX_NAME = 512;
+    static final byte KIND_MEASUREMENT = 1;
+    static final byte KIND_SAMPLE = 2;
+    private static final int COMPRESS_MIN = 256;
+
+    static final class Record {
+        final byte kind;
+        final long ts;
+        final String name;        // mérésnél az interfész, mintánál a sorozat (pl. "unicast")
+        final float[] values;
+
+        Record(byte kind, long ts, String name, float[] values) {
+            this.kind = kind;
+            this.ts = ts;
+            this.name = name;
+            this.values = values;
+        }
+
+        static Record of(NetworkMonitor.Measurement m) {
+            return new Record(KIND_MEASUREMENT, m.timestamp.getTime(), m.interfaceName, new float[]{
+                    (float) m.downloadMbps, (float) m.uploadMbps, (float) m.pingAvgMs,
+                    (float) m.jitterMs, (float) m.packetLossPercent, (float) m.httpResponseMs});
+        }
+
+        static Record sample(String series, long ts, double v) {
+            return new Record(KIND_SAMPLE, ts, series, new float[]{(float) v});
+        }
+    }
+
+    // Dekódolt rekordok fogadója (a gyűjtő tára)
+    interface Sink {
+        void record(byte kind, long ts, String name, float[] values);
+    }
+
+    static byte[] hello(String agentName) {
+        byte[] name = agentName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME) throw new IllegalArgumentException("Túl hosszú ügynök név");
+        ByteBuffer b = ByteBuffer.allocate(10 + name.length);
+        b.putInt(MAGIC).putInt(VERSION).putShort((short) name.length).put(name);
+        return b.array();
+    }
+
+    // Teljes keret (hossz mezővel együtt), tömörítve ha megéri
+    static byte[] frame(long seq, List<Record> records) {
+        byte[] raw = encode(records);
+        byte[] body = raw;
+        int flags = 0;
+        if (raw.length >= COMPRESS_MIN) {
+            byte[] packed = deflate(raw);
+            if (packed.length < raw.length) {
+                body = packed;
+                flags = FLAG_DEFLATE;
+            }
+        }
+        ByteBuffer b = ByteBuffer.allocate(4 + FRAME_HEADER + body.length);
+        b.putInt(FRAME_HEADER + body.length).put((byte) flags).putLong(seq)
+                .putInt(records.size()).putInt(raw.length).put(body);
+        return b.array();
+    }
+
+    static byte[] encode(List<Record> records) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + records.size() * 16);
+        Map<String, Integer> dict = new HashMap<>();
+        long prevTs = 0;
+        for (Record r : records) {
+            out.write(r.kind);
+            writeVarLong(out, zigzag(r.ts - prevTs));
+            prevTs = r.ts;
+            Integer idx = dict.get(r.name);
+            if (idx != null) {
+                writeVarLong(out, idx);
+            } else {
+                writeVarLong(out, dict.size());
+                dict.put(r.name, dict.size());
+                byte[] name = r.name.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(out, name.length);
+                out.write(name, 0, name.length);
+            }
+            for (float v : r.values) {
+                int bits = Float.floatToIntBits(v);
+                out.write(bits >>> 24);
+                out.write(bits >>> 16);
+                out.write(bits >>> 8);
+                out.write(bits);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    // Keret tartalmának kibontása és dekódolása; hibás tartalomnál IllegalArgumentException
+    static void decode(int flags, int count, int rawLength, ByteBuffer body, Sink sink) {
+        if (rawLength < 0 || rawLength > MAX_FRAME) throw new IllegalArgumentException("Hibás hossz: " + rawLength);
+        ByteBuffer in = body;
+        if ((flags & FLAG_DEFLATE) != 0) in = ByteBuffer.wrap(inflate(body, rawLength));
+        List<String> dict = new ArrayList<>();
+        long ts = 0;
+        try {
+            for (int i = 0; i < count; i++) {
+                byte kind = in.get();
+                int nValues;
+                if (kind == KIND_MEASUREMENT) nValues = 6;
+                else if (kind == KIND_SAMPLE) nValues = 1;
+                else throw new IllegalArgumentException("Ismeretlen rekord típus: " + kind);
+                ts += unzigzag(readVarLong(in));
+                long idx = readVarLong(in);
+                String name;
+                if (idx < dict.size()) {
+                    name = dict.get((int) idx);
+                } else if (idx == dict.size()) {
+                    int len = (int) readVarLong(in);
+                    if (len < 0 || len > MAX_NAME) throw new IllegalArgumentException("Hibás név hossz: " + len);
+                    byte[] b = new byte[len];
+                    in.get(b);
+                    name = new String(b, StandardCharsets.UTF_8);
+                    dict.add(name);
+                } else {
+                    throw new IllegalArgumentException("Hibás szótár index: " + idx);
+                }
+                float[] values = new float[nValues];
+                for (int k = 0; k < nValues; k++) values[k] = in.getFloat();
+                sink.record(kind, ts, name, values);
+            }
+        } catch (java.nio.BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Csonka batch tartalom");
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater d = new Deflater(Deflater.BEST_SPEED);
+        try {
+            d.setInput(raw);
+            d.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] buf = new byte[8192];
+            while (!d.finished()) {
+                int n = d.deflate(buf);
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            d.end();
+        }
+    }
+
+    private static byte[] inflate(ByteBuffer body, int rawLength) {
+        Inflater inf = new Inflater();
+        try {
+            inf.setInput(body);
+            byte[] out = new byte[rawLength];
+            int n = 0;
+            while (n < rawLength) {
+                int r = inf.inflate(out, n, rawLength - n);
+                if (r == 0 && (inf.finished() || inf.needsInput())) break;
+                n += r;
+            }
+            if (n != rawLength) throw new IllegalArgumentException("Hibás tömörített tartalom");
+            return out;
+        } catch (DataFormatException ex) {
+            throw new IllegalArgumentException("Hibás tömörített tartalom: " + ex.getMessage());
+        } finally {
+            inf.end();
+        }
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IllegalArgumentException("Hibás varint");
+    }
+}
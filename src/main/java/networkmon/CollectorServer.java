@@ -0,0 +1,267 @@
+package networkmon;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+// Gyűjtő: egyetlen NIO selector szál fogadja az összes ügynök kapcsolatát (sok ezer ügynökhöz
+// sem kell kapcsolatonként szál), a batch-eket kibontja, a közös tárba írja és nyugtázza.
+// Az ismételten beküldött batch-eket (elveszett nyugta után) ügynökönként a sorszám szűri ki.
+final class CollectorServer {
+    private static final int READ_BUFFER = 64 * 1024;
+
+    // Ügynökönkénti élő állapot a lekérdezési nézethez
+    static final class AgentStats {
+        final String name;
+        volatile boolean connected;
+        volatile String address = "";
+        volatile long lastSeenMillis;
+        volatile long records;
+        volatile long batches;
+        volatile long wireBytes;
+        volatile long rawBytes;
+        volatile long duplicates;
+        volatile float[] lastMeasurement;
+        volatile long lastSeq = Long.MIN_VALUE;
+
+        AgentStats(String name) {
+            this.name = name;
+        }
+    }
+
+    private final CollectorStore store;
+    private final Consumer<String> log;
+    private final Map<String, AgentStats> agents = new ConcurrentHashMap<>();
+    private final AtomicLong totalRecords = new AtomicLong();
+    private volatile double recordsPerSec;
+
+    CollectorServer(CollectorStore store, Consumer<String> log) {
+        this.store = store;
+        this.log = log;
+    }
+
+    List<AgentStats> agents() {
+        List<AgentStats> out = new ArrayList<>(agents.values());
+        out.sort((a, b) -> a.name.compareToIgnoreCase(b.name));
+        return out;
+    }
+
+    long totalRecords() {
+        return totalRecords.get();
+    }
+
+    double recordsPerSec() {
+        return recordsPerSec;
+    }
+
+    // Kapcsolatonkénti állapot
+    private final class Conn {
+        final SocketChannel ch;
+        ByteBuffer in = ByteBuffer.allocate(READ_BUFFER);
+        final ByteBuffer out = ByteBuffer.allocate(8 * 256);
+        AgentStats agent;
+
+        Conn(SocketChannel ch) {
+            this.ch = ch;
+        }
+    }
+
+    void run(int port, BooleanSupplier running) {
+        try (Selector selector = Selector.open();
+             ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(port), 1024);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            log.accept("[Gyűjtő] Figyel a " + port + " porton.");
+            long rateStart = System.nanoTime();
+            long rateBase = totalRecords.get();
+            while (running.getAsBoolean()) {
+                selector.select(250);
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    try {
+                        if (key.isAcceptable()) {
+                            accept(server, selector);
+                        } else {
+                            Conn c = (Conn) key.attachment();
+                            if (key.isReadable()) read(key, c);
+                            if (key.isValid() && key.isWritable()) write(key, c);
+                        }
+                    } catch (IOException | RuntimeException ex) {
+                        close(key, ex.getMessage());
+                    }
+                }
+                long now = System.nanoTime();
+                if (now - rateStart >= 1_000_000_000L) {
+                    long total = totalRecords.get();
+                    recordsPerSec = (total - rateBase) / ((now - rateStart) / 1e9);
+                    rateStart = now;
+                    rateBase = total;
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Conn) close(key, null);
+            }
+        } catch (IOException ex) {
+            log.accept("[Gyűjtő] Hiba: " + ex.toString());
+        } finally {
+            try {
+                store.flush();
+            } catch (IOException ex) {
+                log.accept("[Gyűjtő] Tár írási hiba: " + ex.getMessage());
+            }
+            recordsPerSec = 0;
+        }
+        log.accept("[Gyűjtő] Leállt. Összesen " + totalRecords.get() + " rekord fogadva.");
+    }
+
+    private void accept(ServerSocketChannel server, Selector selector) throws IOException {
+        SocketChannel ch;
+        while ((ch = server.accept()) != null) {
+            ch.configureBlocking(false);
+            ch.socket().setTcpNoDelay(true);
+            ch.register(selector, SelectionKey.OP_READ, new Conn(ch));
+        }
+    }
+
+    private void read(SelectionKey key, Conn c) throws IOException {
+        int n = c.ch.read(c.in);
+        if (n < 0) {
+            close(key, null);
+            return;
+        }
+        c.in.flip();
+        try {
+            if (c.agent == null && !readHello(c)) return;
+            while (readFrame(c)) {
+                // minden teljes keret feldolgozva
+            }
+        } finally {
+            c.in.compact();
+        }
+        store.flush();
+        if (c.out.position() > 0) write(key, c);
+    }
+
+    private boolean readHello(Conn c) {
+        ByteBuffer in = c.in;
+        if (in.remaining() < 10) return false;
+        int p = in.position();
+        if (in.getInt(p) != CollectorProtocol.MAGIC) throw new IllegalStateException("hibás protokoll azonosító");
+        if (in.getInt(p + 4) != CollectorProtocol.VERSION) throw new IllegalStateException("nem támogatott verzió");
+        int len = in.getShort(p + 8) & 0xFFFF;
+        if (len > CollectorProtocol.MAX_NAME) throw new IllegalStateException("túl hosszú ügynök név");
+        if (in.remaining() < 10 + len) return false;
+        byte[] name = new byte[len];
+        in.position(p + 10);
+        in.get(name);
+        String agentName = new String(name, StandardCharsets.UTF_8);
+        AgentStats a = agents.computeIfAbsent(agentName, AgentStats::new);
+        a.connected = true;
+        a.address = String.valueOf(c.ch.socket().getRemoteSocketAddress());
+        a.lastSeenMillis = System.currentTimeMillis();
+        c.agent = a;
+        log.accept("[Gyűjtő] Ügynök kapcsolódott: " + agentName + " (" + a.address + ")");
+        return true;
+    }
+
+    // Egy teljes keret feldolgozása, ha már beérkezett; a bemeneti puffer szükség szerint nő
+    private boolean readFrame(Conn c) throws IOException {
+        ByteBuffer in = c.in;
+        if (in.remaining() < 4) return false;
+        int p = in.position();
+        int len = in.getInt(p);
+        if (len < CollectorProtocol.FRAME_HEADER || len > CollectorProtocol.MAX_FRAME) {
+            throw new IllegalStateException("hibás keret hossz: " + len);
+        }
+        if (in.remaining() < 4 + len) {
+            if (in.capacity() < 4 + len) {
+                ByteBuffer bigger = ByteBuffer.allocate(4 + len);
+                bigger.put(in);
+                bigger.flip();
+                c.in = bigger;
+            }
+            return false;
+        }
+        int flags = in.get(p + 4);
+        long seq = in.getLong(p + 5);
+        int count = in.getInt(p + 13);
+        int rawLength = in.getInt(p + 17);
+        ByteBuffer body = in.duplicate();
+        body.position(p + 4 + CollectorProtocol.FRAME_HEADER).limit(p + 4 + len);
+        in.position(p + 4 + len);
+
+        AgentStats a = c.agent;
+        a.lastSeenMillis = System.currentTimeMillis();
+        a.wireBytes += 4 + len;
+        if (seq <= a.lastSeq) {
+            a.duplicates++;
+        } else {
+            String agentName = a.name;
+            IOException[] failure = new IOException[1];
+            try {
+                CollectorProtocol.decode(flags, count, rawLength, body, (kind, ts, name, values) -> {
+                    if (failure[0] != null) return;
+                    try {
+                        store.append(agentName, kind, ts, name, values);
+                    } catch (IOException ex) {
+                        failure[0] = ex;
+                    }
+                    if (kind == CollectorProtocol.KIND_MEASUREMENT) a.lastMeasurement = values.clone();
+                });
+            } catch (IllegalArgumentException ex) {
+                // A keretezés ép, csak a tartalom hibás: nyugtázzuk, különben az ügynök örökké újraküldené
+                log.accept("[Gyűjtő] Hibás batch (" + agentName + ", #" + seq + "): " + ex.getMessage());
+            }
+            if (failure[0] != null) throw failure[0];
+            a.lastSeq = seq;
+            a.batches++;
+            a.records += count;
+            a.rawBytes += rawLength;
+            totalRecords.addAndGet(count);
+        }
+        if (c.out.remaining() < 8) throw new IllegalStateException("túl sok nyugtázatlan batch");
+        c.out.putLong(seq);
+        return true;
+    }
+
+    private void write(SelectionKey key, Conn c) throws IOException {
+        c.out.flip();
+        c.ch.write(c.out);
+        c.out.compact();
+        int ops = SelectionKey.OP_READ | (c.out.position() > 0 ? SelectionKey.OP_WRITE : 0);
+        key.interestOps(ops);
+    }
+
+    private void close(SelectionKey key, String reason) {
+        Object att = key.attachment();
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+        }
+        if (att instanceof Conn && ((Conn) att).agent != null) {
+            AgentStats a = ((Conn) att).agent;
+            a.connected = false;
+            if (reason != null) log.accept("[Gyűjtő] Kapcsolat bontva: " + a.name + " (" + reason + ")");
+        } else if (reason != null) {
+            log.accept("[Gyűjtő] Hibás kapcsolat bontva: " + reason);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package networkmon;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// A gyűjtő közös tára: minden ügynök rekordja egy érkezési sorrendű, fix rekordméretű
+// naplóba kerül. Az ügynökök órája és a késve (újrapróbálásból) érkező batch-ek miatt
+// az időbélyegek nem monotonok, ezért a MeasurementStore időindexe helyett szegmensenként
+// a legkisebb/legnagyobb időbélyeg alapján szűr a lekérdezés.
+final class CollectorStore implements Closeable {
+    static final int RECORD_SIZE = 40;         // ts(8) + ügynök(4) + név(4, mintánál negatív) + 6 x float(24)
+    static final int SEGMENT_RECORDS = 1 << 20;
+    private static final int WRITE_BUFFER = 64 * 1024;
+
+    // Rekord-bejáró: mérésnél 6 érték, csomagteszt mintánál values[0]
+    interface RecordVisitor {
+        void visit(long ts, String agent, byte kind, String name, float[] values);
+    }
+
+    private static final class Segment {
+        final File file;
+        long count;
+        long minTs = Long.MAX_VALUE;
+        long maxTs = Long.MIN_VALUE;
+
+        Segment(File file) {
+            this.file = file;
+        }
+    }
+
+    private final File dir;
+    private final File namesFile;
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private final List<Segment> segments = new ArrayList<>();
+    private final ByteBuffer pending = ByteBuffer.allocate(WRITE_BUFFER);
+    private FileChannel activeChannel;
+    private Segment active;
+    private long totalRecords;
+
+    private CollectorStore(File dir) {
+        this.dir = dir;
+        this.namesFile = new File(dir, "names.txt");
+    }
+
+    static CollectorStore open(File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Nem hozható létre a gyűjtő tár könyvtár: " + dir);
+        }
+        CollectorStore store = new CollectorStore(dir);
+        store.loadNames();
+        File[] files = dir.listFiles((d, name) -> name.startsWith("col-") && name.endsWith(".dat"));
+        if (files != null) {
+            Arrays.sort(files);
+            for (File f : files) store.segments.add(store.index(f));
+        }
+        return store;
+    }
+
+    private void loadNames() throws IOException {
+        if (!namesFile.exists()) return;
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(namesFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                nameIds.put(line, names.size());
+                names.add(line);
+            }
+        }
+    }
+
+    // Szegmens időtartományának felépítése induláskor (csak az időbélyegek olvasása); a csonka végét levágja
+    private Segment index(File f) throws IOException {
+        Segment s = new Segment(f);
+        try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long whole = ch.size() / RECORD_SIZE;
+            if (ch.size() != whole * RECORD_SIZE) ch.truncate(whole * RECORD_SIZE);
+            ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE * 4096);
+            long pos = 0;
+            while (pos < whole * RECORD_SIZE) {
+                buf.clear();
+                int n = ch.read(buf, pos);
+                if (n <= 0) break;
+                buf.flip();
+                while (buf.remaining() >= RECORD_SIZE) {
+                    long ts = buf.getLong(buf.position());
+                    s.minTs = Math.min(s.minTs, ts);
+                    s.maxTs = Math.max(s.maxTs, ts);
+                    buf.position(buf.position() + RECORD_SIZE);
+                    s.count++;
+                }
+                pos += n - buf.remaining();
+            }
+        }
+        totalRecords += s.count;
+        return s;
+    }
+
+    private int nameId(String name) throws IOException {
+        Integer id = nameIds.get(name);
+        if (id != null) return id;
+        String clean = name.replace('\n', ' ').replace('\r', ' ');
+        try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(new FileOutputStream(namesFile, true), StandardCharsets.UTF_8))) {
+            pw.println(clean);
+        }
+        id = names.size();
+        names.add(clean);
+        nameIds.put(name, id);
+        return id;
+    }
+
+    synchronized void append(String agent, byte kind, long ts, String name, float[] values) throws IOException {
+        if (active == null || active.count >= SEGMENT_RECORDS) rollSegment();
+        if (pending.remaining() < RECORD_SIZE) flushPending();
+        int agentId = nameId(agent);
+        int nid = nameId(name);
+        pending.putLong(ts).putInt(agentId).putInt(kind == CollectorProtocol.KIND_SAMPLE ? -1 - nid : nid);
+        for (int i = 0; i < 6; i++) pending.putFloat(i < values.length ? values[i] : 0f);
+        active.count++;
+        active.minTs = Math.min(active.minTs, ts);
+        active.maxTs = Math.max(active.maxTs, ts);
+        totalRecords++;
+    }
+
+    // A pufferelt rekordok kiírása (a gyűjtő minden batch után hívja, a nyugta előtt)
+    synchronized void flush() throws IOException {
+        flushPending();
+    }
+
+    private void flushPending() throws IOException {
+        if (pending.position() == 0 || activeChannel == null) return;
+        pending.flip();
+        while (pending.hasRemaining()) activeChannel.write(pending);
+        pending.clear();
+    }
+
+    private void rollSegment() throws IOException {
+        flushPending();
+        if (activeChannel != null) activeChannel.close();
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last != null && last.count < SEGMENT_RECORDS && active == null) {
+            active = last; // újranyitás után a félig telt szegmens folytatódik
+        } else {
+            active = new Segment(new File(dir, String.format("col-%08d.dat", segments.size())));
+            segments.add(active);
+        }
+        activeChannel = FileChannel.open(active.file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // [fromMillis, toMillis] tartomány bejárása érkezési sorrendben
+    synchronized void scan(long fromMillis, long toMillis, RecordVisitor v) throws IOException {
+        flushPending();
+        ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE * 16 * 1024);
+        float[] values = new float[6];
+        for (Segment s : segments) {
+            if (s.count == 0 || s.maxTs < fromMillis || s.minTs > toMillis) continue;
+            try (FileChannel ch = FileChannel.open(s.file.toPath(), StandardOpenOption.READ)) {
+                long end = s.count * RECORD_SIZE;
+                long pos = 0;
+                while (pos < end) {
+                    buf.clear();
+                    if (end - pos < buf.capacity()) buf.limit((int) (end - pos));
+                    int n = ch.read(buf, pos);
+                    if (n <= 0) break;
+                    pos += n;
+                    buf.flip();
+                    while (buf.remaining() >= RECORD_SIZE) {
+                        long ts = buf.getLong();
+                        int agentId = buf.getInt();
+                        int nid = buf.getInt();
+                        for (int i = 0; i < 6; i++) values[i] = buf.getFloat();
+                        if (ts < fromMillis || ts > toMillis) continue;
+                        byte kind = nid < 0 ? CollectorProtocol.KIND_SAMPLE : CollectorProtocol.KIND_MEASUREMENT;
+                        v.visit(ts, name(agentId), kind, name(nid < 0 ? -1 - nid : nid), values);
+                    }
+                    pos -= buf.remaining();
+                }
+            }
+        }
+    }
+
+    private String name(int id) {
+        return id >= 0 && id < names.size() ? names.get(id) : "?";
+    }
+
+    synchronized long count() {
+        return totalRecords;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flushPending();
+        if (activeChannel != null) activeChannel.close();
+        activeChannel = null;
+        active = null;
+    }
+}
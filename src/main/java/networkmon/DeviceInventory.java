@@ -0,0 +1,370 @@
+package networkmon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Tartós LAN eszközleltár: MAC szerint (MAC nélkül IP szerint) azonosított eszközök első / utolsó
+// észleléssel, online / offline állapottal és tömör jelenlét-előzménnyel. Egy eszköz előzménye egy
+// SLOTS bites gyűrű (15 perces sávok, 7 nap = 11 long = 88 bájt), így több ezer eszköz is elfér.
+// Az állapotváltások (új eszköz, online, offline, IP-váltás) a leltár mellé CSV eseménynaplóba is
+// kerülnek. Az offline állapothoz OFFLINE_AFTER_MISSES egymás utáni, az eszközt ténylegesen lekérdező
+// kör kell, így egy alvó telefon Wi-Fi-je nem okoz villogást.
+final class DeviceInventory {
+    static final long SLOT_MS = 15 * 60_000L;
+    static final int SLOTS = 7 * 24 * 4;
+    static final int OFFLINE_AFTER_MISSES = 2;
+    static final long RECENT_MS = 60 * 60_000L;        // ennyi ideje látott eszközt az olcsó kör is ellenőriz
+    private static final int MAGIC = 0x4E4D4456;        // "NMDV"
+    private static final int VERSION = 1;
+
+    static final class Device {
+        final String key;
+        String mac = "";
+        String ip = "";
+        String vendor = "";
+        String name = "";
+        // Az utolsó kör adatai (nem tartósak)
+        String sources = "";
+        double rttMs = -1;
+
+        long firstSeen;
+        long lastSeen;
+        long onlineSince = -1;      // -1 = offline
+        long offlineSince = -1;
+        int transitions;
+        int misses;
+        long lastSlot = -1;
+        final long[] presence = new long[(SLOTS + 63) / 64];
+
+        Device(String key) {
+            this.key = key;
+        }
+
+        boolean online() {
+            return onlineSince >= 0;
+        }
+
+        // Jelenlét a most kezdődő sávban; a kimaradt sávok (amikor nem láttuk) törlődnek a gyűrűből
+        private void mark(long now) {
+            long slot = now / SLOT_MS;
+            if (lastSlot >= 0 && slot > lastSlot) {
+                for (long s = lastSlot + 1; s < slot && s <= lastSlot + SLOTS; s++) setBit(s, false);
+            }
+            if (slot >= lastSlot) {
+                setBit(slot, true);
+                lastSlot = slot;
+            }
+        }
+
+        private void setBit(long slot, boolean on) {
+            int i = (int) (slot % SLOTS);
+            if (on) presence[i >>> 6] |= 1L << (i & 63);
+            else presence[i >>> 6] &= ~(1L << (i & 63));
+        }
+
+        boolean present(long slot) {
+            if (slot > lastSlot || slot <= lastSlot - SLOTS) return false;
+            int i = (int) (slot % SLOTS);
+            return (presence[i >>> 6] & (1L << (i & 63))) != 0;
+        }
+
+        // Óránként egy jel az utolsó 'hours' órára (a legrégebbi elöl): '█' ha bármelyik negyedórában látszott
+        String presenceBar(long now, int hours) {
+            long nowSlot = now / SLOT_MS;
+            int perHour = (int) (3600_000L / SLOT_MS);
+            StringBuilder sb = new StringBuilder(hours);
+            for (int h = hours - 1; h >= 0; h--) {
+                boolean any = false;
+                for (int q = 0; q < perHour && !any; q++) any = present(nowSlot - h * perHour - q);
+                sb.append(any ? '█' : '·');
+            }
+            return sb.toString();
+        }
+
+        // A jelen sávok aránya az előzmény ablakában (legfeljebb az első észlelésig visszamenőleg)
+        double presencePercent(long now) {
+            long nowSlot = now / SLOT_MS;
+            long from = Math.max(nowSlot - SLOTS + 1, firstSeen / SLOT_MS);
+            int total = 0;
+            int seen = 0;
+            for (long s = from; s <= nowSlot; s++) {
+                total++;
+                if (present(s)) seen++;
+            }
+            return total == 0 ? 0 : 100.0 * seen / total;
+        }
+
+        private Device copy() {
+            Device d = new Device(key);
+            d.mac = mac;
+            d.ip = ip;
+            d.vendor = vendor;
+            d.name = name;
+            d.sources = sources;
+            d.rttMs = rttMs;
+            d.firstSeen = firstSeen;
+            d.lastSeen = lastSeen;
+            d.onlineSince = onlineSince;
+            d.offlineSince = offlineSince;
+            d.transitions = transitions;
+            d.misses = misses;
+            d.lastSlot = lastSlot;
+            System.arraycopy(presence, 0, d.presence, 0, presence.length);
+            return d;
+        }
+    }
+
+    private final File file;
+    private final File eventsFile;
+    private final Map<String, Device> byKey = new HashMap<>();
+    private final Map<String, Device> byIp = new HashMap<>();
+
+    private DeviceInventory(File dir) {
+        this.file = new File(dir, "devices.dat");
+        this.eventsFile = new File(dir, "device_events.csv");
+    }
+
+    static DeviceInventory open(File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Nem hozható létre a leltár könyvtár: " + dir);
+        }
+        DeviceInventory inv = new DeviceInventory(dir);
+        inv.load();
+        return inv;
+    }
+
+    synchronized int size() {
+        return byKey.size();
+    }
+
+    // Egy lekérdezési kör eredménye. probed: a ténylegesen megpróbált címek (null = a teljes tartomány),
+    // csak ezeknél számít hiányzásnak, ha nem jelentkeztek. Visszaadja az állapotváltások leírását.
+    synchronized List<String> update(List<LanDiscovery.Device> seen, Collection<Inet4Address> probed, long now) {
+        List<String> events = new ArrayList<>();
+        List<String[]> csv = new ArrayList<>();
+        Set<Device> present = new HashSet<>();
+        for (LanDiscovery.Device d : seen) {
+            if (!d.confirmed) continue; // elavult táblabejegyzés: nem bizonyítja a jelenlétet
+            String ip = d.ip();
+            Device dev = find(d.mac, ip);
+            if (dev == null) {
+                dev = new Device(d.mac.isEmpty() ? "ip:" + ip : d.mac);
+                dev.firstSeen = now;
+                byKey.put(dev.key, dev);
+                dev.ip = ip;
+                dev.mac = d.mac;
+                dev.vendor = d.vendor;
+                events.add("ÚJ eszköz: " + label(dev, ip));
+                csv.add(new String[]{"új", ip, d.mac, d.vendor});
+            } else if (!dev.ip.isEmpty() && !dev.ip.equals(ip)) {
+                events.add("IP-váltás: " + label(dev, dev.ip) + " -> " + ip);
+                csv.add(new String[]{"IP-váltás", ip, dev.mac, dev.ip});
+                if (byIp.get(dev.ip) == dev) byIp.remove(dev.ip);
+            }
+            Device prev = byIp.put(ip, dev);
+            if (prev != null && prev != dev && prev.ip.equals(ip)) prev.ip = "";   // a cím már mást jelöl
+            dev.ip = ip;
+            if (!d.vendor.isEmpty()) dev.vendor = d.vendor;
+            dev.sources = d.sourceText();
+            dev.rttMs = d.rttMs;
+            dev.lastSeen = now;
+            dev.misses = 0;
+            dev.mark(now);
+            if (!dev.online()) {
+                if (dev.firstSeen != now) {
+                    events.add("ONLINE: " + label(dev, ip) + (dev.offlineSince >= 0
+                            ? " (offline volt " + durationText(now - dev.offlineSince) + ")" : ""));
+                    csv.add(new String[]{"online", ip, dev.mac, ""});
+                    dev.transitions++;
+                }
+                dev.onlineSince = now;
+                dev.offlineSince = -1;
+            }
+            present.add(dev);
+        }
+        Set<String> probedIps = null;
+        if (probed != null) {
+            probedIps = new HashSet<>();
+            for (Inet4Address a : probed) probedIps.add(a.getHostAddress());
+        }
+        for (Device dev : byKey.values()) {
+            if (present.contains(dev) || !dev.online()) continue;
+            if (probedIps != null && !probedIps.contains(dev.ip)) continue;
+            if (++dev.misses < OFFLINE_AFTER_MISSES) continue;
+            events.add("OFFLINE: " + label(dev, dev.ip) + " (online volt " + durationText(dev.lastSeen - dev.onlineSince) + ")");
+            csv.add(new String[]{"offline", dev.ip, dev.mac, ""});
+            dev.onlineSince = -1;
+            dev.offlineSince = dev.lastSeen;
+            dev.transitions++;
+            dev.sources = "";
+            dev.rttMs = -1;
+        }
+        if (!csv.isEmpty()) appendEvents(csv, now);
+        return events;
+    }
+
+    private Device find(String mac, String ip) {
+        if (!mac.isEmpty()) {
+            Device d = byKey.get(mac);
+            if (d != null) return d;
+            // Korábban MAC nélkül (csak TCP válaszból) látott eszköz: mostantól MAC a kulcsa
+            Device ipOnly = byKey.remove("ip:" + ip);
+            if (ipOnly == null) return null;
+            Device rekeyed = new Device(mac);
+            copyState(ipOnly, rekeyed);
+            rekeyed.mac = mac;
+            byKey.put(mac, rekeyed);
+            if (byIp.get(ip) == ipOnly) byIp.put(ip, rekeyed);
+            return rekeyed;
+        }
+        Device d = byIp.get(ip);
+        return d != null ? d : byKey.get("ip:" + ip);
+    }
+
+    private static void copyState(Device from, Device to) {
+        Device c = from;
+        to.ip = c.ip;
+        to.vendor = c.vendor;
+        to.name = c.name;
+        to.firstSeen = c.firstSeen;
+        to.lastSeen = c.lastSeen;
+        to.onlineSince = c.onlineSince;
+        to.offlineSince = c.offlineSince;
+        to.transitions = c.transitions;
+        to.lastSlot = c.lastSlot;
+        System.arraycopy(c.presence, 0, to.presence, 0, c.presence.length);
+    }
+
+    private static String label(Device d, String ip) {
+        StringBuilder sb = new StringBuilder(ip.isEmpty() ? "?" : ip);
+        if (!d.mac.isEmpty()) sb.append(" [").append(d.mac).append(']');
+        if (!d.name.isEmpty()) sb.append(' ').append(d.name);
+        else if (!d.vendor.isEmpty()) sb.append(' ').append(d.vendor);
+        return sb.toString();
+    }
+
+    // A nemrég látott eszközök címei (az olcsó ellenőrző körhöz)
+    synchronized List<Inet4Address> recentTargets(long now) {
+        List<Inet4Address> out = new ArrayList<>();
+        for (Device d : byKey.values()) {
+            if (d.ip.isEmpty() || !(d.online() || now - d.lastSeen <= RECENT_MS)) continue;
+            try {
+                InetAddress a = InetAddress.getByName(d.ip);
+                if (a instanceof Inet4Address) out.add((Inet4Address) a);
+            } catch (IOException ignored) {}
+        }
+        return out;
+    }
+
+    synchronized void setName(String ip, String name) {
+        Device d = byIp.get(ip);
+        if (d != null) d.name = name;
+    }
+
+    // Másolatok a megjelenítéshez (a hívó szabadon olvashatja őket a zár nélkül)
+    synchronized List<Device> snapshot() {
+        List<Device> out = new ArrayList<>(byKey.size());
+        for (Device d : byKey.values()) out.add(d.copy());
+        return out;
+    }
+
+    static String durationText(long ms) {
+        long min = Math.max(0, ms) / 60_000L;
+        if (min < 60) return min + " perc";
+        if (min < 24 * 60) return (min / 60) + " óra " + (min % 60) + " perc";
+        return (min / (24 * 60)) + " nap " + (min / 60 % 24) + " óra";
+    }
+
+    // ========== Tárolás ==========
+
+    // Teljes pillanatkép ideiglenes fájlba, majd cserével: megszakadt írás sem hagy félkész leltárt
+    synchronized void save() throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(byKey.size());
+            for (Device d : byKey.values()) {
+                out.writeUTF(d.key);
+                out.writeUTF(d.mac);
+                out.writeUTF(d.ip);
+                out.writeUTF(d.vendor);
+                out.writeUTF(d.name);
+                out.writeLong(d.firstSeen);
+                out.writeLong(d.lastSeen);
+                out.writeLong(d.onlineSince);
+                out.writeLong(d.offlineSince);
+                out.writeInt(d.transitions);
+                out.writeInt(d.misses);
+                out.writeLong(d.lastSlot);
+                for (long w : d.presence) out.writeLong(w);
+            }
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void load() throws IOException {
+        if (!file.exists()) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Device d = new Device(in.readUTF());
+                d.mac = in.readUTF();
+                d.ip = in.readUTF();
+                d.vendor = in.readUTF();
+                d.name = in.readUTF();
+                d.firstSeen = in.readLong();
+                d.lastSeen = in.readLong();
+                d.onlineSince = in.readLong();
+                d.offlineSince = in.readLong();
+                d.transitions = in.readInt();
+                d.misses = in.readInt();
+                d.lastSlot = in.readLong();
+                for (int w = 0; w < d.presence.length; w++) d.presence[w] = in.readLong();
+                byKey.put(d.key, d);
+                if (!d.ip.isEmpty()) byIp.put(d.ip, d);
+            }
+        }
+    }
+
+    // timestamp;esemény;ip;mac;megjegyzés (a megjegyzés: gyártó az új eszköznél, a régi cím IP-váltásnál)
+    private void appendEvents(List<String[]> rows, long now) {
+        boolean header = !eventsFile.exists();
+        String ts = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(now));
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(eventsFile, true), StandardCharsets.UTF_8)) {
+            if (header) w.write("timestamp;event;ip;mac;note\n");
+            for (String[] r : rows) {
+                w.write(ts + ";" + r[0] + ";" + r[1] + ";" + r[2] + ";\"" + r[3].replace("\"", "'") + "\"\n");
+            }
+        } catch (IOException ignored) {
+            // az eseménynapló hiánya nem akaszthatja meg a leltárt
+        }
+    }
+}
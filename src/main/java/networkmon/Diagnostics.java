@@ -0,0 +1,365 @@
+package networkmon;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import javax.swing.SwingUtilities;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Az alkalmazás saját műszerezése: mérési szakaszok és próbák időzítése (hisztogram +
+// JFR esemény), végrehajtók állapota, ütemező késése, EDT késleltetés és a naplókimenet
+// (invokeLater) torlódása. Folyamatszintű, statikus: bármelyik motor osztályból hívható.
+final class Diagnostics {
+
+    // ---------- JFR események ----------
+
+    @Name("networkmon.Stage")
+    @Label("Mérési szakasz")
+    @Category({"Network Monitor", "Mérés"})
+    @StackTrace(false)
+    static class StageEvent extends Event {
+        @Label("Szakasz")
+        String stage;
+        @Label("Sikeres")
+        boolean success;
+    }
+
+    @Name("networkmon.Probe")
+    @Label("Próba")
+    @Category({"Network Monitor", "Próbák"})
+    @StackTrace(false)
+    static class ProbeEvent extends Event {
+        @Label("Típus")
+        String kind;
+        @Label("Cél")
+        String target;
+        @Label("Sikeres")
+        boolean success;
+        @Label("Időtartam")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+
+    @Name("networkmon.Health")
+    @Label("Állapot")
+    @Description("Végrehajtók, ütemező, EDT és naplókimenet állapota")
+    @Category({"Network Monitor", "Állapot"})
+    @Period("1 s")
+    @StackTrace(false)
+    static class HealthEvent extends Event {
+        @Label("Aktív szálak (összes végrehajtó)")
+        int executorActive;
+        @Label("Várakozó feladatok (összes végrehajtó)")
+        int executorQueued;
+        @Label("Ütemező késés (µs)")
+        long schedulerLagMicros;
+        @Label("EDT késleltetés (µs)")
+        long edtLatencyMicros;
+        @Label("Függő naplósorok")
+        int logBacklog;
+    }
+
+    // ---------- Állapot ----------
+
+    // Egy időzítő: hisztogram mikroszekundumban + hibaszám (a hisztogram nem szálbiztos, a példányon szinkronizálunk)
+    private static final class Timer {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        long lastMicros;
+        long failures;
+
+        synchronized void record(long micros, boolean success) {
+            histogram.record(micros);
+            lastMicros = micros;
+            if (!success) failures++;
+        }
+    }
+
+    private static final Map<String, Timer> stages = new ConcurrentHashMap<>();
+    private static final Map<String, Timer> probes = new ConcurrentHashMap<>();
+    private static final Map<String, ExecutorService> executors = new ConcurrentHashMap<>();
+    private static final Timer schedulerLag = new Timer();
+    private static final Timer edtLatency = new Timer();
+    private static final AtomicInteger logBacklog = new AtomicInteger();
+    private static final AtomicInteger logBacklogMax = new AtomicInteger();
+    private static final AtomicLong logLines = new AtomicLong();
+    private static final AtomicBoolean started = new AtomicBoolean();
+    private static final long startMillis = System.currentTimeMillis();
+
+    private static volatile MeasurementBus bus;
+    private static volatile TaskRuntime runtime;
+    private static volatile Recording recording;
+    private static volatile File recordingFile;
+
+    private Diagnostics() {
+    }
+
+    // EDT mintavételező indítása és a periodikus JFR állapotesemény regisztrálása (egyszer)
+    static void start() {
+        if (!started.compareAndSet(false, true)) return;
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "diag-edt-sampler");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicBoolean inFlight = new AtomicBoolean();
+        sampler.scheduleAtFixedRate(() -> {
+            // Egyszerre csak egy minta lehet úton, így torlódáskor sem duzzasztjuk az EDT sort
+            if (!inFlight.compareAndSet(false, true)) return;
+            long posted = System.nanoTime();
+            SwingUtilities.invokeLater(() -> {
+                edtLatency.record((System.nanoTime() - posted) / 1000, true);
+                inFlight.set(false);
+            });
+        }, 250, 250, TimeUnit.MILLISECONDS);
+
+        FlightRecorder.addPeriodicEvent(HealthEvent.class, () -> {
+            HealthEvent e = new HealthEvent();
+            for (ExecutorService exec : executors.values()) {
+                if (exec instanceof ThreadPoolExecutor) {
+                    e.executorActive += ((ThreadPoolExecutor) exec).getActiveCount();
+                    e.executorQueued += ((ThreadPoolExecutor) exec).getQueue().size();
+                }
+            }
+            synchronized (schedulerLag) {
+                e.schedulerLagMicros = schedulerLag.lastMicros;
+            }
+            synchronized (edtLatency) {
+                e.edtLatencyMicros = edtLatency.lastMicros;
+            }
+            e.logBacklog = logBacklog.get();
+            e.commit();
+        });
+    }
+
+    // ---------- Szakaszok és próbák ----------
+
+    // Mérési szakasz: try (Diagnostics.Stage s = Diagnostics.stage("download")) { ...; s.ok(); }
+    // Ha ok() nem hívódik meg (kivétel), a szakasz sikertelenként kerül rögzítésre.
+    static final class Stage implements AutoCloseable {
+        private final String name;
+        private final long startNanos = System.nanoTime();
+        private final StageEvent event = new StageEvent();
+        private boolean success;
+
+        private Stage(String name) {
+            this.name = name;
+            event.begin();
+        }
+
+        void ok() {
+            success = true;
+        }
+
+        @Override
+        public void close() {
+            long micros = (System.nanoTime() - startNanos) / 1000;
+            stages.computeIfAbsent(name, k -> new Timer()).record(micros, success);
+            event.end();
+            if (event.shouldCommit()) {
+                event.stage = name;
+                event.success = success;
+                event.commit();
+            }
+        }
+    }
+
+    static Stage stage(String name) {
+        return new Stage(name);
+    }
+
+    // Egy lezajlott próba (ping, HTTP, TCP connect, ...) rögzítése; startNanos = System.nanoTime() a kezdetkor
+    static void probe(String kind, String target, long startNanos, boolean success) {
+        long end = System.nanoTime();
+        probes.computeIfAbsent(kind, k -> new Timer()).record((end - startNanos) / 1000, success);
+        ProbeEvent e = new ProbeEvent();
+        if (e.isEnabled()) {
+            e.elapsed = end - startNanos;
+            e.kind = kind;
+            e.target = target;
+            e.success = success;
+            e.commit();
+        }
+    }
+
+    // ---------- Végrehajtók, ütemező, naplókimenet ----------
+
+    static void watchExecutor(String name, ExecutorService exec) {
+        executors.put(name, exec);
+    }
+
+    static void unwatchExecutor(String name) {
+        executors.remove(name);
+    }
+
+    static void watchBus(MeasurementBus b) {
+        bus = b;
+    }
+
+    static void watchRuntime(TaskRuntime r) {
+        runtime = r;
+    }
+
+    // Fix ütemezésű feladat csomagolása: az indulás késését méri a tervezetthez képest
+    // (az első futás az origó, onnan periodNanos lépésközzel várható a következő)
+    static Runnable trackScheduled(Runnable task, long periodNanos) {
+        AtomicLong origin = new AtomicLong();
+        AtomicLong tick = new AtomicLong();
+        return () -> {
+            long now = System.nanoTime();
+            long n = tick.getAndIncrement();
+            if (n == 0) origin.set(now);
+            else schedulerLag.record(Math.max(0, now - (origin.get() + n * periodNanos)) / 1000, true);
+            task.run();
+        };
+    }
+
+    // Naplósor elküldve az EDT-re (invokeLater) / megjelenítve
+    static void logPosted() {
+        int n = logBacklog.incrementAndGet();
+        logBacklogMax.accumulateAndGet(n, Math::max);
+        logLines.incrementAndGet();
+    }
+
+    static void logDelivered() {
+        logBacklog.decrementAndGet();
+    }
+
+    // ---------- JFR felvétel ----------
+
+    static synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    // Felvétel indítása a JDK "default" profiljával + a saját eseményekkel
+    static synchronized File startRecording() throws IOException, ParseException {
+        if (recording != null) return recordingFile;
+        Recording r = new Recording(Configuration.getConfiguration("default"));
+        r.enable(StageEvent.class);
+        r.enable(ProbeEvent.class);
+        r.enable(HealthEvent.class).withPeriod(java.time.Duration.ofSeconds(1));
+        r.setName("networkmon");
+        r.start();
+        recordingFile = new File("networkmon-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".jfr");
+        recording = r;
+        return recordingFile;
+    }
+
+    // Leállítás és mentés; a mentett fájlt adja vissza (null, ha nem futott felvétel)
+    static synchronized File stopRecording() throws IOException {
+        Recording r = recording;
+        if (r == null) return null;
+        recording = null;
+        try {
+            r.stop();
+            r.dump(recordingFile.toPath());
+        } finally {
+            r.close();
+        }
+        return recordingFile;
+    }
+
+    // ---------- Pillanatkép ----------
+
+    static String report() {
+        StringBuilder sb = new StringBuilder(2048);
+        long up = (System.currentTimeMillis() - startMillis) / 1000;
+        sb.append(String.format("Futásidő: %d:%02d:%02d   JFR felvétel: %s%n%n", up / 3600, up / 60 % 60, up % 60,
+                recording != null ? "fut (" + recordingFile.getName() + ")" : "nincs"));
+
+        sb.append(String.format("%-26s %8s %6s %10s %10s %10s %10s %10s%n",
+                "Mérési szakasz", "db", "hiba", "utolsó ms", "átlag ms", "p50 ms", "p95 ms", "max ms"));
+        appendTimers(sb, stages);
+        sb.append(System.lineSeparator());
+        sb.append(String.format("%-26s %8s %6s %10s %10s %10s %10s %10s%n",
+                "Próba", "db", "hiba", "utolsó ms", "átlag ms", "p50 ms", "p95 ms", "max ms"));
+        appendTimers(sb, probes);
+        sb.append(System.lineSeparator());
+
+        sb.append(String.format("%-26s %8s %8s %8s %8s %12s%n", "Végrehajtó", "aktív", "szálak", "max", "sor", "kész"));
+        for (Map.Entry<String, ExecutorService> e : new TreeMap<>(executors).entrySet()) {
+            if (e.getValue() instanceof ThreadPoolExecutor) {
+                ThreadPoolExecutor tpe = (ThreadPoolExecutor) e.getValue();
+                sb.append(String.format("%-26s %8d %8d %8d %8d %12d%n", e.getKey(), tpe.getActiveCount(),
+                        tpe.getPoolSize(), tpe.getLargestPoolSize(), tpe.getQueue().size(), tpe.getCompletedTaskCount()));
+            } else {
+                sb.append(String.format("%-26s %s%n", e.getKey(), e.getValue().isShutdown() ? "leállítva" : "fut"));
+            }
+        }
+        sb.append(System.lineSeparator());
+
+        TaskRuntime r = runtime;
+        if (r != null) {
+            r.appendReport(sb);
+            sb.append(System.lineSeparator());
+        }
+
+        MeasurementBus b = bus;
+        if (b != null) {
+            b.appendReport(sb);
+            sb.append(System.lineSeparator());
+        }
+
+        Map<String, Timer> latencies = new TreeMap<>();
+        latencies.put("Ütemező késés", schedulerLag);
+        latencies.put("EDT késleltetés", edtLatency);
+        sb.append(String.format("%-26s %8s %6s %10s %10s %10s %10s %10s%n",
+                "Késleltetés", "db", "", "utolsó ms", "átlag ms", "p50 ms", "p95 ms", "max ms"));
+        appendTimers(sb, latencies);
+        sb.append(String.format("%nNaplókimenet: függő sorok %d (max %d), összes sor %d%n",
+                logBacklog.get(), logBacklogMax.get(), logLines.get()));
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long gcCount = 0, gcMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcMillis += Math.max(0, gc.getCollectionTime());
+        }
+        sb.append(String.format("JVM: heap %.1f / %.1f MB, szálak %d, GC %d db (%d ms)%n",
+                heap.getUsed() / 1048576.0, heap.getMax() / 1048576.0,
+                ManagementFactory.getThreadMXBean().getThreadCount(), gcCount, gcMillis));
+        return sb.toString();
+    }
+
+    private static void appendTimers(StringBuilder sb, Map<String, Timer> timers) {
+        if (timers.isEmpty()) {
+            sb.append("  (még nincs adat)").append(System.lineSeparator());
+            return;
+        }
+        for (Map.Entry<String, Timer> e : new TreeMap<>(timers).entrySet()) {
+            Timer t = e.getValue();
+            synchronized (t) {
+                LatencyHistogram h = t.histogram;
+                sb.append(String.format("%-26s %8d %6s %10.2f %10.2f %10.2f %10.2f %10.2f%n", e.getKey(), h.count(),
+                        t.failures == 0 ? "" : Long.toString(t.failures), t.lastMicros / 1000.0, h.mean() / 1000.0,
+                        h.percentile(50) / 1000.0, h.percentile(95) / 1000.0, h.max() / 1000.0));
+            }
+        }
+    }
+}
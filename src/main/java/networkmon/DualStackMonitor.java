@@ -0,0 +1,375 @@
+package networkmon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+// Dual-stack mérés: ugyanazt a célt körönként IPv4-en és IPv6-on is méri (ping, TCP connect,
+// HTTP, UDP echo egyszerre a két családon, letöltés egymás után), családonként külön tárolva.
+// A JVM névfeloldása helyett a cél minden címét kézzel választjuk ki, és a kapcsolatot a konkrét
+// címhez kötjük (HTTPS-nél SNI és tanúsítvány-ellenőrzés a hostnévre). A TCP connect időkből
+// kiszámolja, melyik család nyert volna happy-eyeballs (RFC 8305) kapcsolódásnál.
+final class DualStackMonitor {
+    static final String DEFAULT_URL = "https://www.google.com/";
+    static final String V4 = "IPv4";
+    static final String V6 = "IPv6";
+    static final int HE_ATTEMPT_DELAY_MS = 250; // RFC 8305 "Connection Attempt Delay"
+    private static final int TIMEOUT_MS = 5000;
+    private static final int UDP_TIMEOUT_MS = 1000;
+
+    private static final Pattern PING_FROM = Pattern.compile("from ([0-9a-fA-F:]+:[0-9a-fA-F:]*)");
+    private static final Pattern V6_ADDR = Pattern.compile("\\b((?:fe80|[23][0-9a-f]{3}|f[cd][0-9a-f]{2})(?::[0-9a-f]{0,4}){2,7})(?:%\\S+)?",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern MAC = Pattern.compile("\\b([0-9a-f]{2}(?:[:-][0-9a-f]{2}){5})\\b", Pattern.CASE_INSENSITIVE);
+
+    static final class Family {
+        final String name;
+        volatile String address = "-";
+        // Utolsó minták (ms / Mbps, -1 = nincs válasz / nem mért)
+        volatile double pingMs = -1;
+        volatile double tcpMs = -1;
+        volatile double httpMs = -1;
+        volatile double downloadMbps = -1;
+        volatile double udpMs = -1;
+        volatile int heWins;
+        long pingSent;
+        long pingLost;
+
+        Family(String name) {
+            this.name = name;
+        }
+
+        synchronized double pingLossPercent() {
+            return pingSent == 0 ? 0.0 : 100.0 * pingLost / pingSent;
+        }
+
+        void clearRound() {
+            pingMs = tcpMs = httpMs = udpMs = -1;
+        }
+    }
+
+    private final URL url;
+    private final String downloadUrl;
+    private final int downloadBytes;
+    private final int udpPort;
+    private final ToLongFunction<String> pinger;
+    private final Consumer<String> log;
+    private final Consumer<List<Family>> onRound;
+    private final Family v4 = new Family(V4);
+    private final Family v6 = new Family(V6);
+    private int rounds;
+
+    // downloadUrl == null: nincs letöltés; udpPort <= 0: nincs UDP echo
+    DualStackMonitor(URL url, String downloadUrl, int downloadBytes, int udpPort, ToLongFunction<String> pinger,
+                     Consumer<String> log, Consumer<List<Family>> onRound) {
+        this.url = url;
+        this.downloadUrl = downloadUrl;
+        this.downloadBytes = downloadBytes;
+        this.udpPort = udpPort;
+        this.pinger = pinger;
+        this.log = log;
+        this.onRound = onRound;
+    }
+
+    List<Family> families() {
+        return List.of(v4, v6);
+    }
+
+    // A próbák a Scope alfeladatai (PACKET keret): leállításkor a folyamatban lévők is megszakadnak
+    void run(int intervalMs, TaskRuntime.Scope scope) {
+        log.accept("[Dual-stack] Mérés indul: " + url + (downloadUrl != null ? ", letöltés: " + downloadUrl : ""));
+        try {
+            while (scope.isRunning()) {
+                long roundStart = System.nanoTime();
+                round(scope);
+                if (!scope.isRunning()) break;
+                onRound.accept(families());
+                long sleepMs = intervalMs - (System.nanoTime() - roundStart) / 1_000_000;
+                if (sleepMs > 0 && !scope.sleep(sleepMs)) break;
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        log.accept("[Dual-stack] Mérés leállt. Happy-eyeballs győzelmek: IPv6 " + v6.heWins + ", IPv4 " + v4.heWins);
+    }
+
+    private void round(TaskRuntime.Scope scope) throws InterruptedException {
+        String host = url.getHost();
+        InetAddress[] pair = {null, null};
+        try {
+            pair = resolve(host);
+        } catch (IOException ex) {
+            log.accept("[Dual-stack] Névfeloldási hiba (" + host + "): " + ex.getMessage());
+        }
+        InetAddress a4 = pair[0], a6 = pair[1];
+        v4.clearRound();
+        v6.clearRound();
+        v4.address = a4 != null ? a4.getHostAddress() : "nincs A rekord";
+        v6.address = a6 != null ? a6.getHostAddress() : "nincs AAAA rekord";
+
+        // Késleltetés mérések: mindkét család egyszerre, így ugyanazt a hálózati állapotot látják
+        List<Callable<Void>> probes = new ArrayList<>();
+        for (Family f : families()) {
+            InetAddress a = f == v4 ? a4 : a6;
+            if (a == null) continue;
+            probes.add(() -> { probePing(f, a); return null; });
+            probes.add(() -> { probeTcp(f, a); return null; });
+            probes.add(() -> { probeHttp(f, a); return null; });
+            if (udpPort > 0) probes.add(() -> { probeUdp(f, a); return null; });
+        }
+        scope.invokeAll(probes, TIMEOUT_MS * 2L);
+        happyEyeballs();
+
+        // Letöltés egymás után (párhuzamosan a szűk keresztmetszeten osztoznának); a sorrend
+        // körönként felcserélődik, hogy a TCP ablak / gyorsítótár előnye ne mindig ugyanazé legyen
+        if (downloadUrl != null) {
+            try {
+                URL dl = new URL(downloadUrl);
+                InetAddress[] d = resolve(dl.getHost());
+                Family first = rounds % 2 == 0 ? v6 : v4;
+                Family second = first == v6 ? v4 : v6;
+                for (Family f : List.of(first, second)) {
+                    if (!scope.isRunning()) break;
+                    InetAddress a = f == v4 ? d[0] : d[1];
+                    f.downloadMbps = a != null ? download(dl, a) : -1;
+                }
+            } catch (IOException ex) {
+                log.accept("[Dual-stack] Letöltési cél hiba: " + ex.getMessage());
+            }
+        }
+        rounds++;
+        log.accept(String.format(Locale.ROOT, "[Dual-stack] #%d  IPv4 %s  |  IPv6 %s", rounds, summary(v4), summary(v6)));
+    }
+
+    // A host első IPv4 és első (nem link-local) IPv6 címe, a JVM család-preferenciájától függetlenül
+    static InetAddress[] resolve(String host) throws IOException {
+        InetAddress[] pair = new InetAddress[2];
+        for (InetAddress a : InetAddress.getAllByName(host)) {
+            if (pair[0] == null && a instanceof Inet4Address) pair[0] = a;
+            if (pair[1] == null && a instanceof Inet6Address && !a.isLinkLocalAddress()) pair[1] = a;
+        }
+        return pair;
+    }
+
+    private static String summary(Family f) {
+        return String.format(Locale.ROOT, "ping %s, tcp %s, http %s, udp %s, letöltés %s",
+                ms(f.pingMs), ms(f.tcpMs), ms(f.httpMs), ms(f.udpMs),
+                f.downloadMbps >= 0 ? String.format(Locale.ROOT, "%.2f Mbps", f.downloadMbps) : "-");
+    }
+
+    private static String ms(double v) {
+        return v >= 0 ? String.format(Locale.ROOT, "%.1f ms", v) : "-";
+    }
+
+    // RFC 8305: az IPv6 kísérlet indul először, az IPv4 HE_ATTEMPT_DELAY_MS múlva (vagy azonnal, ha az IPv6 elbukott);
+    // az nyer, amelyik előbb kapcsolódik
+    private void happyEyeballs() {
+        double t6 = v6.tcpMs;
+        double t4 = v4.tcpMs;
+        if (t6 < 0 && t4 < 0) return;
+        double v4Finish = t4 < 0 ? Double.MAX_VALUE : HE_ATTEMPT_DELAY_MS + t4;
+        Family winner = t6 >= 0 && t6 <= v4Finish ? v6 : v4;
+        winner.heWins++;
+        double heMs = winner == v6 ? t6 : (t6 < 0 ? t4 : v4Finish);
+        log.accept(String.format(Locale.ROOT, "[Dual-stack] Happy-eyeballs: %s nyerne (kapcsolódás %.1f ms)%s",
+                winner.name, heMs,
+                winner == v4 && t6 >= 0 ? ", pedig van IPv6 – az IPv6 út " + ms(t6 - t4) + "-mal lassabb" : ""));
+    }
+
+    private void probePing(Family f, InetAddress a) {
+        long ms = pinger.applyAsLong(a.getHostAddress());
+        synchronized (f) {
+            f.pingSent++;
+            if (ms < 0) f.pingLost++;
+        }
+        f.pingMs = ms;
+    }
+
+    private void probeTcp(Family f, InetAddress a) {
+        long start = System.nanoTime();
+        try (Socket s = new Socket()) {
+            s.connect(new InetSocketAddress(a, port(url)), TIMEOUT_MS);
+            f.tcpMs = (System.nanoTime() - start) / 1e6;
+            Diagnostics.probe("tcp connect " + f.name, a.getHostAddress(), start, true);
+        } catch (IOException ex) {
+            Diagnostics.probe("tcp connect " + f.name, a.getHostAddress(), start, false);
+        }
+    }
+
+    // Kapcsolódás + (TLS) + kérés -> első válasz bájt, a HttpURLConnection getResponseCode() idejének megfelelője
+    private void probeHttp(Family f, InetAddress a) {
+        long start = System.nanoTime();
+        try (Socket s = open(url, a)) {
+            InputStream in = request(s, url);
+            if (in.read() < 0) throw new IOException("üres válasz");
+            f.httpMs = (System.nanoTime() - start) / 1e6;
+            Diagnostics.probe("http " + f.name, url.toString(), start, true);
+        } catch (IOException ex) {
+            Diagnostics.probe("http " + f.name, url.toString(), start, false);
+        }
+    }
+
+    private void probeUdp(Family f, InetAddress a) {
+        byte[] msg = ("DU4L_ST4CK_" + f.name).getBytes(StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.setSoTimeout(UDP_TIMEOUT_MS);
+            socket.send(new DatagramPacket(msg, msg.length, a, udpPort));
+            byte[] buf = new byte[1024];
+            socket.receive(new DatagramPacket(buf, buf.length));
+            f.udpMs = (System.nanoTime() - start) / 1e6;
+            Diagnostics.probe("udp echo " + f.name, a.getHostAddress(), start, true);
+        } catch (IOException ex) {
+            Diagnostics.probe("udp echo " + f.name, a.getHostAddress(), start, false);
+        }
+    }
+
+    private double download(URL dl, InetAddress a) {
+        long start = System.nanoTime();
+        try (Socket s = open(dl, a)) {
+            InputStream in = request(s, dl);
+            skipHeaders(in);
+            byte[] buf = new byte[16 * 1024];
+            long total = 0;
+            long bodyStart = System.nanoTime();
+            while (total < downloadBytes) {
+                int r = in.read(buf, 0, (int) Math.min(buf.length, downloadBytes - total));
+                if (r < 0) break;
+                total += r;
+            }
+            double sec = (System.nanoTime() - bodyStart) / 1e9;
+            Diagnostics.probe("letöltés " + (a instanceof Inet6Address ? V6 : V4), dl.toString(), start, total > 0);
+            return total > 0 && sec > 0 ? total * 8.0 / 1e6 / sec : -1;
+        } catch (IOException ex) {
+            Diagnostics.probe("letöltés " + (a instanceof Inet6Address ? V6 : V4), dl.toString(), start, false);
+            log.accept("[Dual-stack] Letöltés hiba (" + a.getHostAddress() + "): " + ex.getMessage());
+            return -1;
+        }
+    }
+
+    // A megadott címhez kötött kapcsolat; HTTPS-nél a TLS a hostnévre ellenőriz (SNI + tanúsítvány)
+    private static Socket open(URL u, InetAddress a) throws IOException {
+        Socket raw = new Socket();
+        try {
+            raw.connect(new InetSocketAddress(a, port(u)), TIMEOUT_MS);
+            raw.setSoTimeout(TIMEOUT_MS);
+            if (!"https".equalsIgnoreCase(u.getProtocol())) return raw;
+            SSLSocket ssl = (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault())
+                    .createSocket(raw, u.getHost(), port(u), true);
+            SSLParameters params = ssl.getSSLParameters();
+            params.setEndpointIdentificationAlgorithm("HTTPS");
+            ssl.setSSLParameters(params);
+            ssl.startHandshake();
+            return ssl;
+        } catch (IOException ex) {
+            raw.close();
+            throw ex;
+        }
+    }
+
+    private static InputStream request(Socket s, URL u) throws IOException {
+        String path = u.getFile().isEmpty() ? "/" : u.getFile();
+        String req = "GET " + path + " HTTP/1.1\r\nHost: " + u.getHost()
+                + "\r\nUser-Agent: NetworkMonitor\r\nAccept-Encoding: identity\r\nConnection: close\r\n\r\n";
+        OutputStream out = s.getOutputStream();
+        out.write(req.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return s.getInputStream();
+    }
+
+    private static void skipHeaders(InputStream in) throws IOException {
+        String end = "\r\n\r\n";
+        int matched = 0; // a fejlécet lezáró üres sor eddig illeszkedő bájtjai
+        while (matched < end.length()) {
+            int c = in.read();
+            if (c < 0) throw new IOException("csonka HTTP fejléc");
+            if (c == end.charAt(matched)) matched++;
+            else matched = c == '\r' ? 1 : 0;
+        }
+    }
+
+    private static int port(URL u) {
+        return u.getPort() > 0 ? u.getPort() : u.getDefaultPort();
+    }
+
+    // IPv6 szomszédfelderítés: ping a link-local "összes csomópont" (ff02::1) csoportra az interfészen,
+    // majd a rendszer szomszédtáblájának (NDP) kiolvasása. Cím -> MAC ("" ha nem ismert).
+    static Map<String, String> discoverNeighbors(NetworkInterface ni, Consumer<String> log) {
+        Map<String, String> found = new LinkedHashMap<>();
+        String os = System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
+        boolean windows = os.contains("win");
+        boolean mac = os.contains("mac");
+        String group = "ff02::1%" + (windows ? String.valueOf(ni.getIndex()) : ni.getName());
+        log.accept("IPv6 szomszédfelderítés: " + group);
+
+        List<String> ping = windows ? List.of("ping", "-n", "3", group)
+                : mac ? List.of("ping6", "-c", "3", group)
+                : List.of("ping", "-6", "-c", "3", "-w", "4", group);
+        for (String line : exec(ping)) {
+            // Linux / macOS: minden válaszoló csomópont külön sorban ("64 bytes from fe80::1%eth0: ...")
+            Matcher m = PING_FROM.matcher(line);
+            if (m.find()) found.putIfAbsent(m.group(1).toLowerCase(Locale.ROOT), "");
+        }
+
+        List<String> neigh = windows ? List.of("netsh", "interface", "ipv6", "show", "neighbors", "interface=" + ni.getIndex())
+                : mac ? List.of("ndp", "-an")
+                : List.of("ip", "-6", "neigh", "show", "dev", ni.getName());
+        for (String line : exec(neigh)) {
+            if (mac && !line.contains("%" + ni.getName())) continue;
+            String lower = line.toLowerCase(Locale.ROOT);
+            if (lower.contains("failed") || lower.contains("unreachable") || lower.contains("incomplete")) continue;
+            Matcher a = V6_ADDR.matcher(line);
+            if (!a.find()) continue;
+            String addr = a.group(1).toLowerCase(Locale.ROOT);
+            if (addr.startsWith("ff")) continue;
+            Matcher m = MAC.matcher(line);
+            String macAddr = m.find() ? m.group(1).toLowerCase(Locale.ROOT).replace('-', ':') : "";
+            if (macAddr.equals("00:00:00:00:00:00")) continue;
+            found.merge(addr, macAddr, (old, n) -> n.isEmpty() ? old : n);
+        }
+        return found;
+    }
+
+    static List<String> exec(List<String> cmd) {
+        List<String> lines = new ArrayList<>();
+        try {
+            Process p = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), Charset.defaultCharset()))) {
+                String line;
+                while ((line = br.readLine()) != null) lines.add(line);
+            }
+            if (!p.waitFor(10, TimeUnit.SECONDS)) p.destroyForcibly();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ignored) {
+            // a parancs nem érhető el ezen a rendszeren
+        }
+        return lines;
+    }
+}
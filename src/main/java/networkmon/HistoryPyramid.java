@@ -0,0 +1,358 @@
+package networkmon;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+// Többfelbontású összesítő piramis a bináris mérési tár fölött a nagyítható előzmény grafikonhoz.
+// Szintenként fix szélességű időrekeszek (1 perc, 16 perc, ~4,3 óra, ~2,8 nap), rekeszenként
+// darabszám és metrikánként min / max / átlag. A rekeszek szintenként egy ritka (sparse) fájlban,
+// az időből számolt pozíción vannak; a lekérdezés 256 rekeszes csempéket olvas, és csak a látható
+// tartomány csempéit tölti be (LRU gyorsítótárral). Az 1 percnél finomabb nézet közvetlenül a
+// tárból, képpontonként összesítve készül.
+final class HistoryPyramid implements Closeable {
+    static final String[] METRICS = {"Letöltés (Mbps)", "Feltöltés (Mbps)", "Ping (ms)", "Jitter (ms)",
+            "Veszteség (%)", "HTTP válaszidő (ms)"};
+    static final long[] LEVEL_MS = {60_000L, 16 * 60_000L, 256 * 60_000L, 4096 * 60_000L};
+    static final int TILE_BUCKETS = 256;
+    static final int BUCKET_SIZE = 4 + 6 * 3 * 4; // darabszám + metrikánként min, max, átlag (float)
+    private static final int META_MAGIC = 0x4E4D5059; // "NMPY"
+    private static final int TILE_CACHE = 512;         // ~10 MB
+    private static final long TOP_MS = LEVEL_MS[LEVEL_MS.length - 1];
+
+    // Egy metrika látható pontjai időrendben; raw = közvetlenül a tárból összesítve
+    static final class Series {
+        final long[] t;
+        final float[] min;
+        final float[] max;
+        final float[] avg;
+        final int n;
+        final long bucketMs;
+        final boolean raw;
+
+        Series(long[] t, float[] min, float[] max, float[] avg, int n, long bucketMs, boolean raw) {
+            this.t = t;
+            this.min = min;
+            this.max = max;
+            this.avg = avg;
+            this.n = n;
+            this.bucketMs = bucketMs;
+            this.raw = raw;
+        }
+    }
+
+    // Épülő rekesz (szintenként egy)
+    private static final class Acc {
+        long idx = Long.MIN_VALUE;
+        int count;
+        final float[] min = new float[6];
+        final float[] max = new float[6];
+        final double[] sum = new double[6];
+
+        void reset(long idx) {
+            this.idx = idx;
+            count = 0;
+            Arrays.fill(sum, 0);
+        }
+
+        void add(double[] v) {
+            for (int k = 0; k < 6; k++) {
+                float f = (float) v[k];
+                if (count == 0 || f < min[k]) min[k] = f;
+                if (count == 0 || f > max[k]) max[k] = f;
+                sum[k] += v[k];
+            }
+            count++;
+        }
+    }
+
+    private final MeasurementStore store;
+    private final File metaFile;
+    private final FileChannel[] levels = new FileChannel[LEVEL_MS.length];
+    private final Acc[] cur = new Acc[LEVEL_MS.length];
+    private final ByteBuffer bucketBuf = ByteBuffer.allocate(BUCKET_SIZE);
+    private final Map<Long, ByteBuffer> tiles = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, ByteBuffer> eldest) {
+            return size() > TILE_CACHE;
+        }
+    };
+    private long origin = -1;     // a fájlpozíciók 0 pontja (TOP_MS-re igazítva)
+    private long resumeTs;        // innen folytatódik az építés
+    private int doneAtResume;     // a resumeTs időbélyegű, már feldolgozott rekordok száma
+    private long builtUpTo = -1;  // az utolsó feldolgozott rekord időbélyege
+    private long processed = -1;  // a tár ennyi rekordja van feldolgozva (-1: újranyitás után nem ismert)
+
+    private HistoryPyramid(MeasurementStore store, File dir) {
+        this.store = store;
+        this.metaFile = new File(dir, "pyramid.meta");
+    }
+
+    static HistoryPyramid open(MeasurementStore store, File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Nem hozható létre a piramis könyvtár: " + dir);
+        }
+        HistoryPyramid p = new HistoryPyramid(store, dir);
+        for (int l = 0; l < LEVEL_MS.length; l++) {
+            p.levels[l] = FileChannel.open(new File(dir, "level-" + l + ".dat").toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            p.cur[l] = new Acc();
+        }
+        p.loadMeta();
+        return p;
+    }
+
+    // Újranyitáskor a legdurvább szint utolsó (félkész) rekeszétől építünk újra: a rekeszek írása
+    // mindig felülírás, így egy félbeszakadt építés sem számol semmit kétszer
+    private void loadMeta() throws IOException {
+        if (!metaFile.exists()) return;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(metaFile))) {
+            if (in.readInt() != META_MAGIC) return;
+            origin = in.readLong();
+            builtUpTo = in.readLong();
+        }
+        resumeTs = builtUpTo < 0 ? origin : Math.floorDiv(builtUpTo, TOP_MS) * TOP_MS;
+    }
+
+    private void saveMeta() throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(metaFile))) {
+            out.writeInt(META_MAGIC);
+            out.writeLong(origin);
+            out.writeLong(builtUpTo);
+        }
+    }
+
+    long firstTimestamp() {
+        return store.firstTimestamp();
+    }
+
+    long lastTimestamp() {
+        return store.lastTimestamp();
+    }
+
+    // A tár új rekordjainak feldolgozása; hosszú (első) építésnél lépésenként engedi el a zárat,
+    // így közben is lehet lekérdezni. Igaz, ha mindent feldolgozott.
+    boolean catchUp(BooleanSupplier running) throws IOException {
+        while (running.getAsBoolean()) {
+            if (!step()) return true;
+        }
+        return false;
+    }
+
+    // Egy legdurvább szintű rekesznyi tartomány feldolgozása; hamis, ha nincs több új adat
+    private synchronized boolean step() throws IOException {
+        long count = store.count();
+        long last = store.lastTimestamp();
+        if (last < 0 || count == processed) return false;
+        if (origin < 0) {
+            origin = Math.floorDiv(store.firstTimestamp(), TOP_MS) * TOP_MS;
+            resumeTs = origin;
+        }
+        long to = Math.floorDiv(resumeTs, TOP_MS) * TOP_MS + TOP_MS - 1;
+        long[] touched = new long[LEVEL_MS.length];
+        Arrays.fill(touched, Long.MAX_VALUE);
+        double[] v = new double[6];
+        int[] skip = {doneAtResume};
+        long[] lastTs = {resumeTs};
+        int[] atLast = {doneAtResume};
+        IOException[] failure = new IOException[1];
+        store.scan(resumeTs, to, (ts, iface, dl, ul, ping, jitter, loss, http) -> {
+            if (failure[0] != null) return;
+            if (ts == resumeTs && skip[0] > 0) {
+                skip[0]--;
+                return;
+            }
+            v[0] = dl; v[1] = ul; v[2] = ping; v[3] = jitter; v[4] = loss; v[5] = http;
+            try {
+                for (int l = 0; l < LEVEL_MS.length; l++) {
+                    Acc a = cur[l];
+                    long idx = Math.floorDiv(ts - origin, LEVEL_MS[l]);
+                    if (a.idx != idx) {
+                        if (a.idx != Long.MIN_VALUE && a.count > 0) write(l, a);
+                        a.reset(idx);
+                        touched[l] = Math.min(touched[l], idx);
+                    }
+                    a.add(v);
+                }
+            } catch (IOException ex) {
+                failure[0] = ex;
+            }
+            if (ts == lastTs[0]) atLast[0]++;
+            else {
+                lastTs[0] = ts;
+                atLast[0] = 1;
+            }
+        });
+        if (failure[0] != null) throw failure[0];
+        // A félkész rekeszek is kiíródnak, hogy a lekérdezés a legfrissebb adatot is lássa
+        for (int l = 0; l < LEVEL_MS.length; l++) {
+            if (cur[l].idx != Long.MIN_VALUE && cur[l].count > 0) {
+                write(l, cur[l]);
+                touched[l] = Math.min(touched[l], cur[l].idx);
+            }
+        }
+        if (last > to) {
+            resumeTs = to + 1;
+            doneAtResume = 0;
+        } else {
+            resumeTs = lastTs[0];
+            doneAtResume = atLast[0];
+            processed = count;
+        }
+        builtUpTo = Math.min(last, to);
+        invalidate(touched);
+        saveMeta();
+        return true;
+    }
+
+    private void write(int level, Acc a) throws IOException {
+        ByteBuffer b = bucketBuf;
+        b.clear();
+        b.putInt(a.count);
+        for (int k = 0; k < 6; k++) {
+            b.putFloat(a.min[k]).putFloat(a.max[k]).putFloat((float) (a.sum[k] / a.count));
+        }
+        b.flip();
+        long pos = a.idx * BUCKET_SIZE;
+        while (b.hasRemaining()) pos += levels[level].write(b, pos);
+    }
+
+    private void invalidate(long[] touched) {
+        Iterator<Map.Entry<Long, ByteBuffer>> it = tiles.entrySet().iterator();
+        while (it.hasNext()) {
+            long key = it.next().getKey();
+            int level = (int) (key >>> 56);
+            long tile = key & 0x00FF_FFFF_FFFF_FFFFL;
+            if (touched[level] != Long.MAX_VALUE && (tile + 1) * TILE_BUCKETS > touched[level]) it.remove();
+        }
+    }
+
+    // Képpontnyi rekeszek: a piramis rekeszei és a nyers rekordok is ide gyűlnek, így a grafikon
+    // legfeljebb annyi pontot kap, ahány képpont széles (az átlag darabszámmal súlyozott)
+    private static final class Bins {
+        final long from;
+        final long binMs;
+        final long[] first;
+        final float[] min;
+        final float[] max;
+        final double[] sum;
+        final long[] count;
+
+        Bins(long from, long to, int pixels) {
+            this.from = from;
+            this.binMs = Math.max(1, (to - from + pixels) / pixels);
+            first = new long[pixels + 1];
+            min = new float[pixels + 1];
+            max = new float[pixels + 1];
+            sum = new double[pixels + 1];
+            count = new long[pixels + 1];
+        }
+
+        void add(long ts, float mn, float mx, double avg, long n) {
+            int i = (int) Math.max(0, Math.min(count.length - 1, (ts - from) / binMs));
+            if (count[i] == 0) {
+                first[i] = ts;
+                min[i] = mn;
+                max[i] = mx;
+            } else {
+                if (mn < min[i]) min[i] = mn;
+                if (mx > max[i]) max[i] = mx;
+            }
+            sum[i] += avg * n;
+            count[i] += n;
+        }
+
+        Series toSeries(long bucketMs, boolean raw) {
+            int len = count.length;
+            long[] t = new long[len];
+            float[] mn = new float[len];
+            float[] mx = new float[len];
+            float[] avg = new float[len];
+            int n = 0;
+            for (int i = 0; i < len; i++) {
+                if (count[i] == 0) continue;
+                // Egyetlen forrásrekesz / rekord esetén a saját ideje, egyébként a képpont közepe
+                t[n] = min[i] == max[i] && count[i] == 1 ? first[i] : from + i * binMs + binMs / 2;
+                mn[n] = min[i];
+                mx[n] = max[i];
+                avg[n] = (float) (sum[i] / count[i]);
+                n++;
+            }
+            return new Series(t, mn, mx, avg, n, Math.max(bucketMs, binMs), raw);
+        }
+    }
+
+    // A [from, to] tartomány egy metrikája legfeljebb 'pixels' pontban: a legdurvább olyan szintről,
+    // ahol még legalább egy rekesz jut egy képpontra; ennél finomabb nézet a tárból
+    synchronized Series query(int metric, long from, long to, int pixels) throws IOException {
+        pixels = Math.max(1, pixels);
+        long perPixel = Math.max(1, (to - from) / pixels);
+        int level = -1;
+        for (int l = 0; l < LEVEL_MS.length; l++) {
+            if (LEVEL_MS[l] <= perPixel) level = l;
+        }
+        Bins bins = new Bins(from, to, pixels);
+        if (level < 0 || origin < 0) {
+            store.scan(from, to, (ts, iface, dl, ul, ping, jitter, loss, http) -> {
+                double v = metric == 0 ? dl : metric == 1 ? ul : metric == 2 ? ping
+                        : metric == 3 ? jitter : metric == 4 ? loss : http;
+                bins.add(ts, (float) v, (float) v, v, 1);
+            });
+            return bins.toSeries(1, true);
+        }
+
+        long bucketMs = LEVEL_MS[level];
+        long firstIdx = Math.max(0, Math.floorDiv(from - origin, bucketMs));
+        long lastIdx = Math.floorDiv(to - origin, bucketMs);
+        for (long tile = firstIdx / TILE_BUCKETS; lastIdx >= 0 && tile <= lastIdx / TILE_BUCKETS; tile++) {
+            ByteBuffer tb = tile(level, tile);
+            long base = tile * TILE_BUCKETS;
+            int i0 = (int) Math.max(0, firstIdx - base);
+            int i1 = (int) Math.min(TILE_BUCKETS - 1, lastIdx - base);
+            for (int i = i0; i <= i1; i++) {
+                int off = i * BUCKET_SIZE;
+                int n = tb.getInt(off);
+                if (n == 0) continue;
+                int m = off + 4 + metric * 12;
+                long t = origin + (base + i) * bucketMs + bucketMs / 2;
+                bins.add(t, tb.getFloat(m), tb.getFloat(m + 4), tb.getFloat(m + 8), n);
+            }
+        }
+        return bins.toSeries(bucketMs, false);
+    }
+
+    private ByteBuffer tile(int level, long tile) throws IOException {
+        long key = ((long) level << 56) | tile;
+        ByteBuffer tb = tiles.get(key);
+        if (tb != null) return tb;
+        tb = ByteBuffer.allocate(TILE_BUCKETS * BUCKET_SIZE);
+        long pos = tile * TILE_BUCKETS * BUCKET_SIZE;
+        while (tb.hasRemaining()) {
+            int r = levels[level].read(tb, pos + tb.position());
+            if (r <= 0) break; // a fájl vége után üres (0 darabszámú) rekeszek
+        }
+        tb.clear();
+        tiles.put(key, tb);
+        return tb;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (FileChannel ch : levels) {
+            if (ch != null) ch.close();
+        }
+        tiles.clear();
+    }
+}
@@ -0,0 +1,352 @@
+package networkmon;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Szintetikus HTTP ellenőrzések sok URL-re: egyetlen közös, kapcsolatokat újrahasznosító,
+// HTTP/2-képes kliens (java.net.http), amely a köröket párhuzamosan, hosztonként korlátozott
+// egyidejűséggel futtatja. HTTP/2-n az egy hoszthoz tartozó kérések egy kapcsolaton
+// multiplexelődnek. Ellenőrizhető a státuszkód, a válasz mérete és SHA-256 kivonata; a törzs
+// folyamként kerül feldolgozásra, így nagy válasz sem marad a memóriában.
+// Az eredmény a saját mérési tárba kerül (network_store/http_checks), URL-enként külön
+// "interfész" azonosítóval: httpResponseMs = teljes idő, pingAvgMs = fejlécig eltelt idő (TTFB),
+// downloadMbps = a törzs átviteli sebessége, packetLossPercent = 0 (rendben) / 100 (hiba).
+final class HttpCheckFleet {
+    static final int DEFAULT_PER_HOST = 6;
+
+    static final class Check {
+        final String name;
+        final URI uri;
+        final int statusMin;
+        final int statusMax;
+        final long sizeMin;            // -1 = nincs feltétel
+        final long sizeMax;
+        final String sha256;           // kisbetűs hex, null = nincs feltétel
+
+        // Utolsó eredmény (a kör végén olvasva)
+        volatile Result last;
+        long runs;
+        long failures;
+
+        Check(String name, URI uri, int statusMin, int statusMax, long sizeMin, long sizeMax, String sha256) {
+            this.name = name;
+            this.uri = uri;
+            this.statusMin = statusMin;
+            this.statusMax = statusMax;
+            this.sizeMin = sizeMin;
+            this.sizeMax = sizeMax;
+            this.sha256 = sha256;
+        }
+
+        String host() {
+            return uri.getScheme() + "://" + uri.getAuthority();
+        }
+    }
+
+    static final class Result {
+        final long timestamp;
+        final int status;
+        final String protocol;
+        final long bytes;
+        final double ttfbMs;
+        final double totalMs;
+        final String error;            // null = minden feltétel teljesült
+
+        Result(long timestamp, int status, String protocol, long bytes, double ttfbMs, double totalMs, String error) {
+            this.timestamp = timestamp;
+            this.status = status;
+            this.protocol = protocol;
+            this.bytes = bytes;
+            this.ttfbMs = ttfbMs;
+            this.totalMs = totalMs;
+            this.error = error;
+        }
+
+        boolean ok() {
+            return error == null;
+        }
+    }
+
+    // Hosztonkénti sor: legfeljebb perHost kérés fut egyszerre
+    private static final class HostQueue {
+        final ArrayDeque<Check> waiting = new ArrayDeque<>();
+        int active;
+    }
+
+    private final List<Check> checks;
+    private final int perHost;
+    private final Duration timeout;
+    private final MeasurementStore store;
+    private final Consumer<String> log;
+    private final Consumer<List<Check>> onRound;
+    private final Map<String, HostQueue> hosts = new HashMap<>();
+    private HttpClient client;
+    private CountDownLatch pending;
+    private volatile boolean stopped;
+
+    HttpCheckFleet(List<Check> checks, int perHost, Duration timeout, MeasurementStore store,
+                   Consumer<String> log, Consumer<List<Check>> onRound) {
+        this.checks = checks;
+        this.perHost = Math.max(1, perHost);
+        this.timeout = timeout;
+        this.store = store;
+        this.log = log;
+        this.onRound = onRound;
+    }
+
+    // Soronként egy ellenőrzés: [név=]URL [status=200|2xx|200-399] [size=N|size>=N|size<=N] [sha256=hex]
+    static List<Check> parseChecks(String text, Consumer<String> log) {
+        List<Check> out = new ArrayList<>();
+        for (String line : text.split("\\R")) {
+            int hash = line.indexOf('#');
+            String s = (hash >= 0 ? line.substring(0, hash) : line).trim();
+            if (s.isEmpty()) continue;
+            String[] parts = s.split("\\s+");
+            String first = parts[0];
+            String name = null;
+            int eq = first.indexOf('=');
+            if (eq > 0 && !first.regionMatches(true, 0, "http", 0, 4)) {
+                name = first.substring(0, eq);
+                first = first.substring(eq + 1);
+            }
+            URI uri;
+            try {
+                uri = URI.create(first);
+                if (uri.getHost() == null || !(uri.getScheme().equalsIgnoreCase("http") || uri.getScheme().equalsIgnoreCase("https"))) {
+                    throw new IllegalArgumentException("nem http(s) URL");
+                }
+            } catch (IllegalArgumentException ex) {
+                log.accept("[HTTP] Hibás URL: " + first);
+                continue;
+            }
+            int statusMin = 200, statusMax = 299;
+            long sizeMin = -1, sizeMax = -1;
+            String sha = null;
+            try {
+                for (int i = 1; i < parts.length; i++) {
+                    String p = parts[i].toLowerCase(Locale.ROOT);
+                    if (p.startsWith("status=")) {
+                        String v = p.substring(7);
+                        if (v.endsWith("xx")) {
+                            statusMin = Integer.parseInt(v.substring(0, 1)) * 100;
+                            statusMax = statusMin + 99;
+                        } else if (v.contains("-")) {
+                            statusMin = Integer.parseInt(v.substring(0, v.indexOf('-')));
+                            statusMax = Integer.parseInt(v.substring(v.indexOf('-') + 1));
+                        } else {
+                            statusMin = statusMax = Integer.parseInt(v);
+                        }
+                    } else if (p.startsWith("size>=")) {
+                        sizeMin = Long.parseLong(p.substring(6));
+                    } else if (p.startsWith("size<=")) {
+                        sizeMax = Long.parseLong(p.substring(6));
+                    } else if (p.startsWith("size=")) {
+                        sizeMin = sizeMax = Long.parseLong(p.substring(5));
+                    } else if (p.startsWith("sha256=")) {
+                        // A kivonat kisbetűs hexként kerül összevetésre; elírt (nem 64 jegyű) kivonat sosem egyezne
+                        sha = parts[i].substring(7).toLowerCase(Locale.ROOT);
+                        if (!sha.matches("[0-9a-f]{64}")) throw new NumberFormatException("sha256: " + sha);
+                    } else {
+                        log.accept("[HTTP] Ismeretlen feltétel (" + first + "): " + parts[i]);
+                    }
+                }
+            } catch (NumberFormatException ex) {
+                log.accept("[HTTP] Hibás feltétel: " + s);
+                continue;
+            }
+            out.add(new Check(name != null ? name : uri.getHost() + uri.getPath(), uri, statusMin, statusMax, sizeMin, sizeMax, sha));
+        }
+        return out;
+    }
+
+    // A kliens aszinkron feladatai a Scope alfeladatai (PACKET keret), leállításkor megszakadnak
+    void run(TaskRuntime.Scope scope, long intervalMs) {
+        try {
+            client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .connectTimeout(timeout)
+                    .executor(scope::fork)
+                    .build();
+            for (Check c : checks) hosts.computeIfAbsent(c.host(), h -> new HostQueue());
+            log.accept(String.format("[HTTP] %d ellenőrzés, %d hoszt, hosztonként max. %d egyidejű kérés, %d s időköz",
+                    checks.size(), hosts.size(), perHost, intervalMs / 1000));
+            long round = 0;
+            while (scope.isRunning()) {
+                long start = System.nanoTime();
+                runRound(scope);
+                if (!scope.isRunning()) break;
+                round++;
+                double sec = (System.nanoTime() - start) / 1e9;
+                int failed = 0;
+                for (Check c : checks) if (c.last != null && !c.last.ok()) failed++;
+                log.accept(String.format("[HTTP] %d. kör: %d / %d rendben, %.2f s", round, checks.size() - failed, checks.size(), sec));
+                onRound.accept(checks);
+                long waitMs = intervalMs - (long) (sec * 1000);
+                if (waitMs <= 0) {
+                    log.accept("[HTTP] A kör tovább tartott az időköznél, a következő azonnal indul.");
+                } else if (!scope.sleep(waitMs)) {
+                    break;
+                }
+            }
+        } finally {
+            stopped = true;
+        }
+    }
+
+    private void runRound(TaskRuntime.Scope scope) {
+        pending = new CountDownLatch(checks.size());
+        for (Check c : checks) submit(c);
+        try {
+            while (!pending.await(200, TimeUnit.MILLISECONDS) && scope.isRunning()) {
+                // leállításkor nem várjuk meg a még futó kéréseket
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(Check c) {
+        HostQueue q = hosts.get(c.host());
+        synchronized (q) {
+            if (q.active >= perHost) {
+                q.waiting.addLast(c);
+                return;
+            }
+            q.active++;
+        }
+        start(c, q);
+    }
+
+    private void start(Check c, HostQueue q) {
+        HttpRequest req = HttpRequest.newBuilder(c.uri).timeout(timeout).GET()
+                .header("User-Agent", "NetworkMonitor-check").build();
+        long[] headersAt = {0};
+        long startNanos = System.nanoTime();
+        CompletableFuture<HttpResponse<long[]>> f;
+        try {
+            f = client.sendAsync(req, info -> {
+                headersAt[0] = System.nanoTime();
+                return HttpResponse.BodySubscribers.fromSubscriber(new DigestSubscriber(), DigestSubscriber::result);
+            });
+        } catch (RuntimeException ex) {
+            f = CompletableFuture.failedFuture(ex);
+        }
+        f.whenComplete((resp, err) -> {
+            long end = System.nanoTime();
+            Result r;
+            if (err != null) {
+                Throwable cause = err.getCause() != null ? err.getCause() : err;
+                r = new Result(System.currentTimeMillis(), 0, "-", 0, 0, (end - startNanos) / 1e6,
+                        cause.getClass().getSimpleName() + (cause.getMessage() != null ? ": " + cause.getMessage() : ""));
+            } else {
+                long[] body = resp.body();
+                r = validate(c, resp, body[0], DigestSubscriber.hex(body), (headersAt[0] - startNanos) / 1e6, (end - startNanos) / 1e6);
+            }
+            record(c, r);
+            Check next;
+            synchronized (q) {
+                next = q.waiting.pollFirst();
+                if (next == null) q.active--;
+            }
+            if (next != null) start(next, q);
+            pending.countDown();
+        });
+    }
+
+    private static Result validate(Check c, HttpResponse<?> resp, long bytes, String sha, double ttfbMs, double totalMs) {
+        String protocol = resp.version() == HttpClient.Version.HTTP_2 ? "HTTP/2" : "HTTP/1.1";
+        int status = resp.statusCode();
+        String error = null;
+        if (status < c.statusMin || status > c.statusMax) {
+            error = "státusz " + status + " (várt " + (c.statusMin == c.statusMax ? c.statusMin : c.statusMin + "-" + c.statusMax) + ")";
+        } else if (c.sizeMin >= 0 && bytes < c.sizeMin || c.sizeMax >= 0 && bytes > c.sizeMax) {
+            error = "méret " + bytes + " byte (várt " + (c.sizeMin == c.sizeMax ? String.valueOf(c.sizeMin)
+                    : (c.sizeMin >= 0 ? ">=" + c.sizeMin : "") + (c.sizeMax >= 0 ? " <=" + c.sizeMax : "")) + ")";
+        } else if (c.sha256 != null && !c.sha256.equals(sha)) {
+            error = "SHA-256 eltér (" + sha.substring(0, 12) + "...)";
+        }
+        return new Result(System.currentTimeMillis(), status, protocol, bytes, ttfbMs, totalMs, error);
+    }
+
+    private void record(Check c, Result r) {
+        if (stopped) return;  // leállítás után befutó válasz: a tár már lezárulhatott
+        synchronized (c) {
+            c.runs++;
+            if (!r.ok()) c.failures++;
+        }
+        c.last = r;
+        if (!r.ok()) log.accept("[HTTP] " + c.name + ": " + r.error);
+        if (store != null) {
+            double mbps = r.ok() && r.totalMs > r.ttfbMs ? r.bytes * 8 / 1000.0 / (r.totalMs - r.ttfbMs) : 0;
+            try {
+                store.append(new NetworkMonitor.Measurement(new java.util.Date(r.timestamp), c.name, mbps, 0,
+                        r.ttfbMs, 0, r.ok() ? 0 : 100, r.totalMs));
+            } catch (IOException ex) {
+                log.accept("[HTTP] Tár írás hiba: " + ex.getMessage());
+            }
+        }
+    }
+
+    // Törzs feldolgozása tárolás nélkül: bájtszám és SHA-256; eredmény: [bájtszám, kivonat 4 long-ban]
+    private static final class DigestSubscriber implements Flow.Subscriber<List<ByteBuffer>> {
+        private final MessageDigest digest;
+        private long bytes;
+
+        DigestSubscriber() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+            s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            for (ByteBuffer b : items) {
+                bytes += b.remaining();
+                digest.update(b);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        long[] result() {
+            ByteBuffer d = ByteBuffer.wrap(digest.digest());
+            return new long[]{bytes, d.getLong(), d.getLong(), d.getLong(), d.getLong()};
+        }
+
+        static String hex(long[] r) {
+            return String.format("%016x%016x%016x%016x", r[1], r[2], r[3], r[4]);
+        }
+    }
+}
@@ -0,0 +1,496 @@
+package networkmon;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.ConnectException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// LAN leltár a rendszer szomszédtáblájából (ARP) ahelyett, hogy címenként pingelnénk:
+//  1. a tábla kiolvasása (Linuxon ip neigh / /proc/net/arp, máshol arp -a) - ami már benne van, forgalom nélkül,
+//  2. egy-egy 1 bájtos UDP csomag a tartomány minden címére: a kernelnek ARP-vel fel kell oldania a
+//     címzettet, így a tábla a tűzfalas (pingre nem válaszoló) gépekkel is feltöltődik,
+//  3. ezzel párhuzamosan nem-blokkoló TCP connect próbák egyetlen NIO szálról (SYN-ACK vagy RST = él, RTT),
+//  4. a határidő után a tábla újraolvasása és összefésülés; a gyártó a MAC OUI részéből.
+// Egy /24 teljes leltára így ~1 s, a régi címenkénti isReachable(300) akár 76 s is volt.
+final class LanDiscovery {
+    static final int DEFAULT_TIMEOUT_MS = 800;
+    static final int[] PROBE_PORTS = {80, 445};          // webes eszközök / Windows (SMB); RST bármelyikről elég
+    private static final int SWEEP_PORT = 9;             // discard: a válasz nem érdekes, csak az ARP feloldás
+
+    // Forrás bitek: honnan tudunk az eszközről
+    static final int SRC_TABLE = 1;                      // már a seprés előtt a táblában volt
+    static final int SRC_ARP = 2;                        // a seprés után került / frissült a táblába
+    static final int SRC_TCP = 4;                        // TCP próbára válaszolt
+    static final int SRC_SELF = 8;                       // a saját interfész
+
+    private static final Pattern IPV4 = Pattern.compile("\\b(\\d{1,3}(?:\\.\\d{1,3}){3})\\b");
+    // macOS az egyjegyű oktetteket vezető nulla nélkül írja (0:1b:...)
+    private static final Pattern MAC = Pattern.compile("\\b([0-9a-f]{1,2}(?:[:-][0-9a-f]{1,2}){5})\\b", Pattern.CASE_INSENSITIVE);
+
+    static final class Device {
+        final Inet4Address address;
+        String mac = "";
+        String vendor = "";
+        double rttMs = -1;
+        int sources;
+        boolean confirmed;     // friss ARP válasz vagy TCP válasz (nem csak elavult táblabejegyzés)
+
+        Device(Inet4Address address) {
+            this.address = address;
+        }
+
+        String ip() {
+            return address.getHostAddress();
+        }
+
+        String sourceText() {
+            StringBuilder sb = new StringBuilder();
+            if ((sources & SRC_SELF) != 0) sb.append("saját");
+            if ((sources & SRC_TABLE) != 0) sb.append(sb.length() > 0 ? "+" : "").append("tábla");
+            if ((sources & SRC_ARP) != 0) sb.append(sb.length() > 0 ? "+" : "").append("ARP");
+            if ((sources & SRC_TCP) != 0) sb.append(sb.length() > 0 ? "+" : "").append("TCP");
+            return sb.toString();
+        }
+    }
+
+    // Szomszédtábla bejegyzés; state: REACHABLE / STALE / ... (ip neigh), "" ha a forrás nem adja meg
+    static final class Neighbor {
+        final String ip;
+        final String mac;
+        final String state;
+
+        Neighbor(String ip, String mac, String state) {
+            this.ip = ip;
+            this.mac = mac;
+            this.state = state;
+        }
+
+        boolean fresh() {
+            return state.isEmpty() || state.equals("REACHABLE") || state.equals("PERMANENT");
+        }
+    }
+
+    private final NetworkInterface ni;
+    private final Inet4Address self;
+    private final int prefixLength;
+    private final int timeoutMs;
+    private final Consumer<String> log;
+
+    LanDiscovery(NetworkInterface ni, Inet4Address self, int prefixLength, int timeoutMs, Consumer<String> log) {
+        this.ni = ni;
+        this.self = self;
+        this.prefixLength = prefixLength;
+        this.timeoutMs = timeoutMs;
+        this.log = log;
+    }
+
+    // A tartomány leltára címsorrendben; a hívó szálat a határidőig (timeoutMs) foglalja
+    List<Device> run() {
+        int base = toInt(self) & mask(prefixLength);
+        int hosts = (1 << (32 - prefixLength)) - 2;
+        int[] ips = new int[hosts];
+        for (int i = 0; i < hosts; i++) ips[i] = base + 1 + i;
+        return scan(ips, "teljes seprés");
+    }
+
+    // Olcsó ellenőrzés: csak a megadott (nemrég látott) címekre megy UDP / TCP próba; a szomszédtábla
+    // többi bejegyzése forgalom nélkül, ingyen kerül az eredménybe
+    List<Device> verify(Collection<Inet4Address> targets) {
+        int[] ips = new int[targets.size()];
+        int n = 0;
+        for (Inet4Address a : targets) ips[n++] = toInt(a);
+        return scan(Arrays.copyOf(ips, n), "ellenőrzés");
+    }
+
+    private List<Device> scan(int[] ips, String mode) {
+        long start = System.nanoTime();
+        int base = toInt(self) & mask(prefixLength);
+        Map<Integer, Device> devices = new TreeMap<>(Integer::compareUnsigned);
+
+        Device me = device(devices, self);
+        me.sources |= SRC_SELF;
+        me.confirmed = true;
+        try {
+            byte[] hw = ni.getHardwareAddress();
+            if (hw != null && hw.length == 6) me.mac = formatMac(hw);
+        } catch (IOException ignored) {}
+
+        List<Neighbor> before = readNeighbors(ni.getName());
+        for (Neighbor n : before) {
+            Device d = inRange(devices, n.ip, base);
+            if (d != null) {
+                d.sources |= SRC_TABLE;
+                d.mac = n.mac;
+            }
+        }
+        log.accept("[LAN] Szomszédtábla: " + (devices.size() - 1) + " ismert eszköz a tartományban (forgalom nélkül).");
+
+        int sent = udpSweep(ips);
+        int answered = probe(devices, ips, start + timeoutMs * 1_000_000L);
+
+        int learned = 0;
+        Set<Integer> present = new HashSet<>();
+        for (Neighbor n : readNeighbors(ni.getName())) {
+            Device d = inRange(devices, n.ip, base);
+            if (d == null) continue;
+            present.add(toInt(d.address));
+            if ((d.sources & SRC_TABLE) == 0 || n.fresh()) {
+                if ((d.sources & SRC_TABLE) == 0) learned++;
+                d.sources |= SRC_ARP;
+            }
+            d.mac = n.mac;
+            if (n.fresh()) d.confirmed = true;
+        }
+        // A seprés közben kiesett (FAILED lett) régi bejegyzések eltűnnek; a TCP-n válaszolók akkor is
+        // maradnak, ha a táblában nincsenek (pl. proxy-ARP mögötti gép)
+        devices.values().removeIf(d -> d.sources == SRC_TABLE && !present.contains(toInt(d.address)));
+
+        for (Device d : devices.values()) {
+            if (!d.mac.isEmpty()) d.vendor = vendor(d.mac);
+        }
+        log.accept(String.format("[LAN] %s: %d UDP csomag, %d TCP válasz, %d új táblabejegyzés; %d eszköz %.0f ms alatt.",
+                mode, sent, answered, learned, devices.size(), (System.nanoTime() - start) / 1e6));
+        return new ArrayList<>(devices.values());
+    }
+
+    // Egy-egy 1 bájtos datagram minden címre egyetlen nem-blokkoló csatornáról
+    private int udpSweep(int[] ips) {
+        int sent = 0;
+        try (DatagramChannel ch = DatagramChannel.open()) {
+            ch.configureBlocking(false);
+            ch.bind(new InetSocketAddress(self, 0));
+            ByteBuffer one = ByteBuffer.allocate(1);
+            for (int ip : ips) {
+                if (ip == toInt(self)) continue;
+                one.clear();
+                try {
+                    if (ch.send(one, new InetSocketAddress(toAddress(ip), SWEEP_PORT)) > 0) sent++;
+                } catch (IOException ignored) {
+                    // pl. EHOSTUNREACH egy már FAILED bejegyzésre - a következő címmel folytatjuk
+                }
+            }
+        } catch (IOException ex) {
+            log.accept("[LAN] UDP seprés nem sikerült: " + ex.getMessage());
+        }
+        return sent;
+    }
+
+    // Nem-blokkoló TCP connect a címekre, címenként a PROBE_PORTS portokra; a határidőig gyűjti a válaszokat
+    private int probe(Map<Integer, Device> devices, int[] ips, long deadline) {
+        int answered = 0;
+        int selfIp = toInt(self);
+        try (Selector selector = Selector.open()) {
+            for (int ip : ips) {
+                if (ip == selfIp) continue;
+                for (int port : PROBE_PORTS) {
+                    SocketChannel ch = null;
+                    try {
+                        ch = SocketChannel.open();
+                        ch.configureBlocking(false);
+                        ch.setOption(StandardSocketOptions.SO_LINGER, 0);
+                        long sentAt = System.nanoTime();
+                        if (ch.connect(new InetSocketAddress(toAddress(ip), port))) {
+                            answered += reply(devices, ip, sentAt, System.nanoTime());
+                            ch.close();
+                        } else {
+                            ch.register(selector, SelectionKey.OP_CONNECT, new long[]{sentAt, ip});
+                        }
+                    } catch (IOException ex) {
+                        if (ch != null) closeQuietly(ch);
+                    }
+                }
+            }
+            while (!selector.keys().isEmpty()) {
+                long waitMs = (deadline - System.nanoTime() + 999_999) / 1_000_000;
+                if (waitMs <= 0) break;
+                selector.select(waitMs);
+                long at = System.nanoTime();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    SocketChannel ch = (SocketChannel) key.channel();
+                    long[] probe = (long[]) key.attachment();
+                    long sentAt = probe[0];
+                    int ip = (int) probe[1];
+                    try {
+                        ch.finishConnect();
+                        answered += reply(devices, ip, sentAt, at);
+                    } catch (ConnectException ex) {
+                        // RST: a gép él, csak a port zárt
+                        String msg = ex.getMessage();
+                        if (msg != null && msg.toLowerCase(Locale.ROOT).contains("refused")) answered += reply(devices, ip, sentAt, at);
+                    } catch (IOException ignored) {
+                        // nincs útvonal / ARP hiba
+                    }
+                    key.cancel();
+                    closeQuietly(ch);
+                }
+                selector.selectedKeys().clear();
+            }
+            for (SelectionKey key : selector.keys()) closeQuietly(key.channel());
+        } catch (IOException ex) {
+            log.accept("[LAN] TCP próbák nem indíthatók: " + ex.getMessage());
+        }
+        return answered;
+    }
+
+    private int reply(Map<Integer, Device> devices, int ip, long sentAt, long at) {
+        Device d = device(devices, toAddress(ip));
+        double ms = (at - sentAt) / 1e6;
+        boolean first = (d.sources & SRC_TCP) == 0;
+        d.sources |= SRC_TCP;
+        d.confirmed = true;
+        if (d.rttMs < 0 || ms < d.rttMs) d.rttMs = ms;
+        Diagnostics.probe("lan elérhetőség", d.ip(), sentAt, true);
+        return first ? 1 : 0;
+    }
+
+    private Device inRange(Map<Integer, Device> devices, String ip, int base) {
+        try {
+            InetAddress a = InetAddress.getByName(ip);
+            if (!(a instanceof Inet4Address)) return null;
+            int v = toInt((Inet4Address) a);
+            if ((v & mask(prefixLength)) != base || v == base || v == (base | ~mask(prefixLength))) return null;
+            return device(devices, (Inet4Address) a);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private static Device device(Map<Integer, Device> devices, Inet4Address a) {
+        return devices.computeIfAbsent(toInt(a), k -> new Device(a));
+    }
+
+    // ========== Szomszédtábla ==========
+
+    // IPv4 szomszédok az interfészen (nem teljes / hibás bejegyzések nélkül)
+    static List<Neighbor> readNeighbors(String ifName) {
+        String os = System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
+        List<Neighbor> out = new ArrayList<>();
+        if (os.contains("win")) {
+            // "Interface: 192.168.1.10 --- 0xb" szakaszonként; az interfészt a hívó tartományszűrése választja ki
+            parseLines(DualStackMonitor.exec(List.of("arp", "-a")), out);
+        } else if (os.contains("mac")) {
+            // "? (192.168.1.1) at 0:1b:2c:3d:4e:5f on en0 ifscope [ethernet]"
+            List<String> lines = new ArrayList<>();
+            for (String line : DualStackMonitor.exec(List.of("arp", "-an"))) {
+                if (line.contains(" on " + ifName + " ") || line.endsWith(" on " + ifName)) lines.add(line);
+            }
+            parseLines(lines, out);
+        } else {
+            // ip neigh az állapotot is megadja (REACHABLE / STALE / DELAY ...); ha nincs iproute2, a /proc tábla
+            for (String line : DualStackMonitor.exec(List.of("ip", "-4", "neigh", "show", "dev", ifName))) {
+                String[] f = line.trim().split("\\s+");
+                if (f.length < 4 || !f[1].equals("lladdr")) continue;
+                String state = f[f.length - 1];
+                if (state.equals("FAILED") || state.equals("INCOMPLETE")) continue;
+                String mac = normalizeMac(f[2]);
+                if (mac != null) out.add(new Neighbor(f[0], mac, state));
+            }
+            if (out.isEmpty()) readProcArp(ifName, out);
+        }
+        return out;
+    }
+
+    // IP address  HW type  Flags  HW address  Mask  Device; Flags & 0x2 (ATF_COM) = feloldott bejegyzés
+    private static void readProcArp(String ifName, List<Neighbor> out) {
+        Path arp = Path.of("/proc/net/arp");
+        if (!Files.isReadable(arp)) return;
+        try {
+            for (String line : Files.readAllLines(arp, StandardCharsets.US_ASCII)) {
+                String[] f = line.trim().split("\\s+");
+                if (f.length < 6 || !f[5].equals(ifName)) continue;
+                int flags;
+                try {
+                    flags = Integer.decode(f[2]);
+                } catch (NumberFormatException ex) {
+                    continue;
+                }
+                String mac = normalizeMac(f[3]);
+                if ((flags & 0x2) != 0 && mac != null) out.add(new Neighbor(f[0], mac, ""));
+            }
+        } catch (IOException ignored) {}
+    }
+
+    private static void parseLines(List<String> lines, List<Neighbor> out) {
+        for (String line : lines) {
+            String lower = line.toLowerCase(Locale.ROOT);
+            if (lower.contains("incomplete")) continue;
+            Matcher a = IPV4.matcher(line);
+            Matcher m = MAC.matcher(line);
+            if (!a.find() || !m.find()) continue;
+            String mac = normalizeMac(m.group(1));
+            if (mac != null) out.add(new Neighbor(a.group(1), mac, ""));
+        }
+    }
+
+    // "0:1B:2c:3d:4e:5f" / "00-1b-..." -> "00:1b:2c:3d:4e:5f"; null a nulla, broadcast és hibás címekre
+    static String normalizeMac(String text) {
+        String[] parts = text.trim().split("[:-]");
+        if (parts.length != 6) return null;
+        byte[] b = new byte[6];
+        try {
+            for (int i = 0; i < 6; i++) b[i] = (byte) Integer.parseInt(parts[i], 16);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+        String mac = formatMac(b);
+        return mac.equals("00:00:00:00:00:00") || mac.equals("ff:ff:ff:ff:ff:ff") ? null : mac;
+    }
+
+    private static String formatMac(byte[] b) {
+        StringBuilder sb = new StringBuilder(17);
+        for (int i = 0; i < b.length; i++) {
+            if (i > 0) sb.append(':');
+            sb.append(Character.forDigit((b[i] >> 4) & 0xF, 16)).append(Character.forDigit(b[i] & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    // ========== OUI gyártóadatbázis ==========
+
+    // Gyártó a MAC első 3 bájtja alapján; helyileg adminisztrált címnél (telefonok véletlen MAC-je) nincs gyártó
+    static String vendor(String mac) {
+        int prefix;
+        try {
+            prefix = Integer.parseInt(mac.substring(0, 2) + mac.substring(3, 5) + mac.substring(6, 8), 16);
+        } catch (RuntimeException ex) {
+            return "";
+        }
+        if ((prefix & 0x020000) != 0) return "(helyi / véletlen MAC)";
+        String v = Oui.INDEX.lookup(prefix);
+        return v == null ? "" : v;
+    }
+
+    static int ouiSize() {
+        return Oui.INDEX.prefixes.length;
+    }
+
+    // Tömör prefix index: rendezett int[] (24 bites OUI) + párhuzamos névindex, a nevek egyszer tárolva;
+    // a teljes IEEE lista (~35 000 sor) így is csak ~300 KB, a keresés bináris.
+    private static final class Oui {
+        static final Oui INDEX = load();
+
+        final int[] prefixes;
+        final int[] nameIndex;
+        final String[] names;
+
+        private Oui(int[] prefixes, int[] nameIndex, String[] names) {
+            this.prefixes = prefixes;
+            this.nameIndex = nameIndex;
+            this.names = names;
+        }
+
+        String lookup(int prefix) {
+            int i = Arrays.binarySearch(prefixes, prefix);
+            return i < 0 ? null : names[nameIndex[i]];
+        }
+
+        // Beépített részlet, majd a gépen talált teljes adatbázisok (a későbbi felülírja a korábbit)
+        private static Oui load() {
+            TreeMap<Integer, String> map = new TreeMap<>();
+            try (InputStream in = LanDiscovery.class.getResourceAsStream("oui.txt")) {
+                if (in != null) parse(in, map);
+            } catch (IOException ignored) {}
+            for (String path : new String[]{"/usr/share/ieee-data/oui.txt", "/usr/share/misc/oui.txt",
+                    "/usr/share/nmap/nmap-mac-prefixes", "/usr/share/wireshark/manuf", "oui.txt"}) {
+                File f = new File(path);
+                if (!f.isFile()) continue;
+                try (InputStream in = new FileInputStream(f)) {
+                    parse(in, map);
+                } catch (IOException ignored) {}
+            }
+            int[] prefixes = new int[map.size()];
+            int[] nameIndex = new int[map.size()];
+            Map<String, Integer> ids = new HashMap<>();
+            List<String> names = new ArrayList<>();
+            int i = 0;
+            for (Map.Entry<Integer, String> e : map.entrySet()) {
+                prefixes[i] = e.getKey();
+                nameIndex[i++] = ids.computeIfAbsent(e.getValue(), n -> {
+                    names.add(n);
+                    return names.size() - 1;
+                });
+            }
+            return new Oui(prefixes, nameIndex, names.toArray(new String[0]));
+        }
+
+        // Elfogadott sorok: "001B63<TAB>Apple" (beépített / nmap), "00-1B-63   (hex)  Apple" (IEEE),
+        // "00:1B:63<TAB>Apple<TAB>Apple, Inc." (Wireshark, a hosszú név). A 28/36 bites blokkok kimaradnak.
+        private static void parse(InputStream in, Map<Integer, String> map) throws IOException {
+            BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty() || Character.isWhitespace(line.charAt(0)) || line.charAt(0) == '#') continue;
+                int end = 0;
+                while (end < line.length() && !Character.isWhitespace(line.charAt(end))) end++;
+                String key = line.substring(0, end);
+                if (key.indexOf('/') >= 0) continue;
+                String hex = key.replace(":", "").replace("-", "").replace(".", "");
+                if (hex.length() != 6) continue;
+                int prefix;
+                try {
+                    prefix = Integer.parseInt(hex, 16);
+                } catch (NumberFormatException ex) {
+                    continue;
+                }
+                String rest = line.substring(end).replace("(hex)", "").replace("(base 16)", "").trim();
+                int tab = rest.lastIndexOf('\t');
+                if (tab >= 0) rest = rest.substring(tab + 1).trim();
+                if (!rest.isEmpty()) map.put(prefix, rest);
+            }
+        }
+    }
+
+    // ========== Címszámítás ==========
+
+    private static int mask(int prefixLength) {
+        return prefixLength == 0 ? 0 : -1 << (32 - prefixLength);
+    }
+
+    static int toInt(Inet4Address a) {
+        byte[] b = a.getAddress();
+        return (b[0] & 0xFF) << 24 | (b[1] & 0xFF) << 16 | (b[2] & 0xFF) << 8 | (b[3] & 0xFF);
+    }
+
+    static Inet4Address toAddress(int ip) {
+        try {
+            return (Inet4Address) InetAddress.getByAddress(new byte[]{(byte) (ip >>> 24), (byte) (ip >>> 16), (byte) (ip >>> 8), (byte) ip});
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void closeQuietly(java.nio.channels.Channel ch) {
+        try {
+            ch.close();
+        } catch (IOException ignored) {}
+    }
+}
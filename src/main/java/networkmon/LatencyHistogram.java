@@ -0,0 +1,84 @@
+package networkmon;
+
+import java.util.Arrays;
+
+// Log-lineáris hisztogram nemnegatív long értékekre (pl. mikroszekundum).
+// 64 alatt pontos, felette kettő-hatványonként 32 al-vödör (~3% relatív hiba),
+// így a percentilisek fix memóriával, rendezés nélkül számolhatók.
+class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;     // 32
+    private static final int LINEAR_LIMIT = SUB_COUNT * 2;  // 64
+    private static final int MAX_EXPONENT = 46;
+    private static final int BUCKETS = LINEAR_LIMIT + (MAX_EXPONENT - SUB_BITS) * SUB_COUNT;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private double sum;
+
+    void record(long value) {
+        if (value < 0) value = 0;
+        counts[indexOf(value)]++;
+        total++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) counts[i] += other.counts[i];
+        total += other.total;
+        sum += other.sum;
+        if (other.min < min) min = other.min;
+        if (other.max > max) max = other.max;
+    }
+
+    void reset() {
+        Arrays.fill(counts, 0L);
+        total = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+    }
+
+    long count() { return total; }
+    long min() { return total == 0 ? 0 : min; }
+    long max() { return total == 0 ? 0 : max; }
+    double mean() { return total == 0 ? 0.0 : sum / total; }
+
+    // p: 0..100
+    long percentile(double p) {
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(p / 100.0 * total);
+        if (rank < 1) rank = 1;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long v = upperBoundOf(i);
+                return Math.max(min, Math.min(max, v));
+            }
+        }
+        return max;
+    }
+
+    private static int indexOf(long v) {
+        if (v < LINEAR_LIMIT) return (int) v;
+        int e = 63 - Long.numberOfLeadingZeros(v);
+        if (e >= MAX_EXPONENT + 1) return BUCKETS - 1;
+        int shift = e - SUB_BITS;
+        int mantissa = (int) (v >>> shift) - SUB_COUNT;
+        return LINEAR_LIMIT + (e - SUB_BITS - 1) * SUB_COUNT + mantissa;
+    }
+
+    private static long upperBoundOf(int idx) {
+        if (idx < LINEAR_LIMIT) return idx;
+        int rel = idx - LINEAR_LIMIT;
+        int e = rel / SUB_COUNT + SUB_BITS + 1;
+        int mantissa = rel % SUB_COUNT + SUB_COUNT;
+        int shift = e - SUB_BITS;
+        return (((long) mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,433 @@
+package networkmon;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Historikus elemzés a mérési naplók felett (network_log.csv, network_log.json export,
+// vagy a bináris tár). A szöveges naplót bájt-tartományokra (sorhatárra igazított
+// darabokra) bontja, és fork-join módon párhuzamosan, memória-leképezve parszolja.
+// Oszloponként: óra/nap/hét napja szerinti aggregátumok, percentilisek,
+// rendelkezésre állás és a legrosszabb órák.
+class LogAnalytics {
+    static final String[] COLUMNS = {"download_mbps", "upload_mbps", "ping_avg_ms", "jitter_ms",
+            "packet_loss_percent", "http_resp_ms"};
+    static final int COLS = COLUMNS.length;
+
+    private static final String[] WEEKDAYS = {"Hétfő", "Kedd", "Szerda", "Csütörtök", "Péntek", "Szombat", "Vasárnap"};
+    private static final int MIN_CHUNK = 1 << 20;
+    private static final double SCALE = 100.0; // percentilis hisztogram: 0.01 pontosság
+    private static final int WORST_COUNT = 5;
+
+    // ---------- Aggregátumok ----------
+
+    static class Agg {
+        long count;
+        long unavailable;
+        final double[] sum = new double[COLS];
+        final double[] min = new double[COLS];
+        final double[] max = new double[COLS];
+
+        Agg() {
+            Arrays.fill(min, Double.MAX_VALUE);
+            Arrays.fill(max, -Double.MAX_VALUE);
+        }
+
+        void add(double[] v, boolean available) {
+            count++;
+            if (!available) unavailable++;
+            for (int c = 0; c < COLS; c++) {
+                sum[c] += v[c];
+                if (v[c] < min[c]) min[c] = v[c];
+                if (v[c] > max[c]) max[c] = v[c];
+            }
+        }
+
+        void merge(Agg o) {
+            count += o.count;
+            unavailable += o.unavailable;
+            for (int c = 0; c < COLS; c++) {
+                sum[c] += o.sum[c];
+                if (o.min[c] < min[c]) min[c] = o.min[c];
+                if (o.max[c] > max[c]) max[c] = o.max[c];
+            }
+        }
+
+        double mean(int c) { return count == 0 ? 0.0 : sum[c] / count; }
+
+        double availability() { return count == 0 ? 0.0 : 100.0 * (count - unavailable) / count; }
+    }
+
+    static class Partial {
+        final Agg overall = new Agg();
+        final Agg[] byHourOfDay = new Agg[24];
+        final Agg[] byWeekday = new Agg[7];
+        final Map<Integer, Agg> byDay = new HashMap<>();
+        final Map<Long, Agg> byHour = new HashMap<>();
+        final LatencyHistogram[] hist = new LatencyHistogram[COLS];
+        long badLines;
+        long firstEpochHour = Long.MAX_VALUE;
+        long lastEpochHour = Long.MIN_VALUE;
+        private int lastDay;
+        private Agg lastDayAgg;
+        private long lastHour;
+        private Agg lastHourAgg;
+
+        Partial() {
+            for (int i = 0; i < 24; i++) byHourOfDay[i] = new Agg();
+            for (int i = 0; i < 7; i++) byWeekday[i] = new Agg();
+            for (int c = 0; c < COLS; c++) hist[c] = new LatencyHistogram();
+        }
+
+        // epochDay: helyi naptári nap (1970-01-01 = 0), hour: 0..23
+        void add(int epochDay, int hour, double[] v) {
+            // Elérhetetlen: teljes csomagvesztés vagy sikertelen ping (a mérés 0-t ír ilyenkor)
+            boolean available = v[4] < 100.0 && v[2] > 0.0;
+            overall.add(v, available);
+            byHourOfDay[hour].add(v, available);
+            byWeekday[Math.floorMod(epochDay + 3, 7)].add(v, available);
+            // A napló időrendű: az előző sor napja/órája szinte mindig egyezik, így nincs map-keresés
+            if (epochDay != lastDay || lastDayAgg == null) {
+                lastDay = epochDay;
+                lastDayAgg = byDay.computeIfAbsent(epochDay, k -> new Agg());
+            }
+            lastDayAgg.add(v, available);
+            long eh = epochDay * 24L + hour;
+            if (eh != lastHour || lastHourAgg == null) {
+                lastHour = eh;
+                lastHourAgg = byHour.computeIfAbsent(eh, k -> new Agg());
+            }
+            lastHourAgg.add(v, available);
+            if (eh < firstEpochHour) firstEpochHour = eh;
+            if (eh > lastEpochHour) lastEpochHour = eh;
+            for (int c = 0; c < COLS; c++) hist[c].record(Math.round(v[c] * SCALE));
+        }
+
+        Partial merge(Partial o) {
+            overall.merge(o.overall);
+            for (int i = 0; i < 24; i++) byHourOfDay[i].merge(o.byHourOfDay[i]);
+            for (int i = 0; i < 7; i++) byWeekday[i].merge(o.byWeekday[i]);
+            o.byDay.forEach((k, a) -> byDay.computeIfAbsent(k, x -> new Agg()).merge(a));
+            o.byHour.forEach((k, a) -> byHour.computeIfAbsent(k, x -> new Agg()).merge(a));
+            for (int c = 0; c < COLS; c++) hist[c].merge(o.hist[c]);
+            badLines += o.badLines;
+            firstEpochHour = Math.min(firstEpochHour, o.firstEpochHour);
+            lastEpochHour = Math.max(lastEpochHour, o.lastEpochHour);
+            return this;
+        }
+
+        double percentile(int col, double p) { return hist[col].percentile(p) / SCALE; }
+    }
+
+    // ---------- Bemenetek ----------
+
+    static Partial analyze(File input) throws IOException {
+        if (input.isDirectory()) return analyzeStore(input);
+        boolean json = input.getName().toLowerCase(Locale.ROOT).endsWith(".json");
+        try (FileChannel ch = FileChannel.open(input.toPath(), StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(ch, ForkJoinPool.commonPool().getParallelism() * 4);
+            return ForkJoinPool.commonPool().invoke(new ChunkTask(ch, bounds, 0, bounds.length - 1, json));
+        }
+    }
+
+    private static Partial analyzeStore(File dir) throws IOException {
+        Partial p = new Partial();
+        TimeZone tz = TimeZone.getDefault();
+        double[] v = new double[COLS];
+        try (MeasurementStore store = MeasurementStore.open(dir)) {
+            store.scan(Long.MIN_VALUE, Long.MAX_VALUE, (ts, iface, dl, ul, ping, jitter, loss, http) -> {
+                long local = ts + tz.getOffset(ts);
+                int epochDay = (int) Math.floorDiv(local, 86_400_000L);
+                int hour = (int) (Math.floorMod(local, 86_400_000L) / 3_600_000L);
+                v[0] = dl; v[1] = ul; v[2] = ping; v[3] = jitter; v[4] = loss; v[5] = http;
+                p.add(epochDay, hour, v);
+            });
+        }
+        return p;
+    }
+
+    // Sorhatárra igazított darabhatárok: [0, b1, b2, ..., size]
+    private static long[] chunkBounds(FileChannel ch, int targetChunks) throws IOException {
+        long size = ch.size();
+        long chunk = Math.max(MIN_CHUNK, size / Math.max(1, targetChunks));
+        List<Long> list = new ArrayList<>();
+        list.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long pos = chunk;
+        while (pos < size) {
+            // A következő '\n' utánig lépünk
+            long p = pos;
+            boolean found = false;
+            while (!found && p < size) {
+                probe.clear();
+                int n = ch.read(probe, p);
+                if (n <= 0) break;
+                for (int i = 0; i < n; i++) {
+                    if (probe.get(i) == '\n') {
+                        p += i + 1;
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) p += n;
+            }
+            if (p >= size) break;
+            list.add(p);
+            pos = p + chunk;
+        }
+        list.add(size);
+        long[] out = new long[list.size()];
+        for (int i = 0; i < out.length; i++) out[i] = list.get(i);
+        return out;
+    }
+
+    private static class ChunkTask extends RecursiveTask<Partial> {
+        private final FileChannel ch;
+        private final long[] bounds;
+        private final int lo, hi; // darabindexek [lo, hi)
+        private final boolean json;
+
+        ChunkTask(FileChannel ch, long[] bounds, int lo, int hi, boolean json) {
+            this.ch = ch;
+            this.bounds = bounds;
+            this.lo = lo;
+            this.hi = hi;
+            this.json = json;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (hi - lo <= 1) {
+                try {
+                    return parseChunk(ch, bounds[lo], bounds[hi], json);
+                } catch (IOException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+            int mid = (lo + hi) >>> 1;
+            ChunkTask left = new ChunkTask(ch, bounds, lo, mid, json);
+            left.fork();
+            Partial right = new ChunkTask(ch, bounds, mid, hi, json).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private static Partial parseChunk(FileChannel ch, long start, long end, boolean json) throws IOException {
+        Partial p = new Partial();
+        if (end <= start) return p;
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        int limit = buf.limit();
+        int lineStart = 0;
+        double[] v = new double[COLS];
+        int[] dt = new int[2];
+        for (int i = 0; i <= limit; i++) {
+            if (i == limit || buf.get(i) == '\n') {
+                if (i > lineStart) {
+                    boolean ok = json ? parseJsonLine(buf, lineStart, i, dt, v) : parseCsvLine(buf, lineStart, i, dt, v);
+                    if (ok) p.add(dt[0], dt[1], v);
+                    else if (!isIgnorable(buf, lineStart, i)) p.badLines++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        return p;
+    }
+
+    private static boolean isIgnorable(ByteBuffer b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte c = b.get(i);
+            if (c == 't' || c == '[' || c == ']') return true; // fejléc / JSON tömb zárójelek
+            if (c != ' ' && c != '\r' && c != '\t') return false;
+        }
+        return true;
+    }
+
+    // ---------- Parszolás (String allokáció nélkül) ----------
+
+    // "yyyy-MM-dd HH:mm:ss" vagy "yyyy-MM-ddTHH:mm:ss" a from pozíciótól
+    private static boolean parseTimestamp(ByteBuffer b, int from, int to, int[] dt) {
+        if (to - from < 19) return false;
+        int y = digits(b, from, 4), mo = digits(b, from + 5, 2), d = digits(b, from + 8, 2), h = digits(b, from + 11, 2);
+        if (y < 0 || mo < 1 || mo > 12 || d < 1 || d > 31 || h < 0 || h > 23) return false;
+        dt[0] = (int) epochDay(y, mo, d);
+        dt[1] = h;
+        return true;
+    }
+
+    private static int digits(ByteBuffer b, int from, int n) {
+        int v = 0;
+        for (int i = 0; i < n; i++) {
+            int c = b.get(from + i) - '0';
+            if (c < 0 || c > 9) return -1;
+            v = v * 10 + c;
+        }
+        return v;
+    }
+
+    // Proleptikus Gergely-naptár: napok 1970-01-01 óta
+    static long epochDay(int y, int m, int d) {
+        y -= m <= 2 ? 1 : 0;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long doy = (153L * (m + (m > 2 ? -3 : 9)) + 2) / 5 + d - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    // Szám olvasása; tizedesjel lehet '.' vagy ',' (a napló a rendszer-locale szerint íródik).
+    // Visszaadja a szám utáni pozíciót, az értéket out[0]-ba írja; -1 hiba esetén.
+    private static int parseNumber(ByteBuffer b, int pos, int to, double[] out, int idx) {
+        while (pos < to && b.get(pos) == ' ') pos++;
+        boolean neg = false;
+        if (pos < to && b.get(pos) == '-') { neg = true; pos++; }
+        long ip = 0;
+        int start = pos;
+        while (pos < to && b.get(pos) >= '0' && b.get(pos) <= '9') ip = ip * 10 + (b.get(pos++) - '0');
+        if (pos == start) return -1;
+        double v = ip;
+        if (pos + 1 < to && (b.get(pos) == '.' || b.get(pos) == ',') && b.get(pos + 1) >= '0' && b.get(pos + 1) <= '9') {
+            pos++;
+            long frac = 0;
+            long div = 1;
+            while (pos < to && b.get(pos) >= '0' && b.get(pos) <= '9') {
+                if (div < 1_000_000_000_000L) {
+                    frac = frac * 10 + (b.get(pos) - '0');
+                    div *= 10;
+                }
+                pos++;
+            }
+            v += (double) frac / div;
+        }
+        out[idx] = neg ? -v : v;
+        return pos;
+    }
+
+    // timestamp;"interface";dl;ul;ping;jitter;loss;http
+    private static boolean parseCsvLine(ByteBuffer b, int from, int to, int[] dt, double[] v) {
+        if (!parseTimestamp(b, from, to, dt)) return false;
+        int pos = from + 19;
+        if (pos >= to || b.get(pos) != ';') return false;
+        pos++;
+        // Interfész mező: idézőjelben, ';' lehet benne
+        if (pos < to && b.get(pos) == '"') {
+            pos++;
+            while (pos < to && b.get(pos) != '"') pos++;
+            pos++;
+        } else {
+            while (pos < to && b.get(pos) != ';') pos++;
+        }
+        for (int c = 0; c < COLS; c++) {
+            if (pos >= to || b.get(pos) != ';') return false;
+            pos = parseNumber(b, pos + 1, to, v, c);
+            if (pos < 0) return false;
+        }
+        return true;
+    }
+
+    // {"timestamp":"...","interface":"...","download_mbps":1.0,...}
+    private static boolean parseJsonLine(ByteBuffer b, int from, int to, int[] dt, double[] v) {
+        int ts = indexOf(b, from, to, "\"timestamp\":\"");
+        if (ts < 0 || !parseTimestamp(b, ts, to, dt)) return false;
+        int pos = ts;
+        for (int c = 0; c < COLS; c++) {
+            String key = c == 5 ? "\"http_response_ms\":" : "\"" + COLUMNS[c] + "\":";
+            int at = indexOf(b, pos, to, key);
+            if (at < 0) return false;
+            pos = parseNumber(b, at, to, v, c);
+            if (pos < 0) return false;
+        }
+        return true;
+    }
+
+    // A minta utáni pozíció, vagy -1
+    private static int indexOf(ByteBuffer b, int from, int to, String pattern) {
+        int n = pattern.length();
+        outer:
+        for (int i = from; i + n <= to; i++) {
+            for (int j = 0; j < n; j++) {
+                if (b.get(i + j) != pattern.charAt(j)) continue outer;
+            }
+            return i + n;
+        }
+        return -1;
+    }
+
+    // ---------- Riport ----------
+
+    static String report(Partial p, String source, long elapsedNanos) {
+        StringBuilder sb = new StringBuilder();
+        Formatter f = new Formatter(sb);
+        f.format("Forrás: %s%n", source);
+        f.format("Sorok: %d (hibás: %d), feldolgozás: %.2f s (%.0f sor/s)%n", p.overall.count, p.badLines,
+                elapsedNanos / 1e9, p.overall.count / Math.max(1e-9, elapsedNanos / 1e9));
+        if (p.overall.count == 0) return sb.toString();
+        f.format("Időszak: %s – %s%n", hourLabel(p.firstEpochHour), hourLabel(p.lastEpochHour));
+        f.format("Rendelkezésre állás: %.3f %% (%d elérhetetlen minta)%n%n", p.overall.availability(), p.overall.unavailable);
+
+        f.format("%-20s %10s %10s %10s %10s %10s %10s%n", "Oszlop", "átlag", "min", "p50", "p95", "p99", "max");
+        for (int c = 0; c < COLS; c++) {
+            f.format("%-20s %10.2f %10.2f %10.2f %10.2f %10.2f %10.2f%n", COLUMNS[c], p.overall.mean(c),
+                    p.overall.min[c], p.percentile(c, 50), p.percentile(c, 95), p.percentile(c, 99), p.overall.max[c]);
+        }
+
+        f.format("%nÓránként (a nap órája szerint, átlagok):%n");
+        aggHeader(f, "Óra");
+        for (int h = 0; h < 24; h++) aggRow(f, String.format("%02d:00", h), p.byHourOfDay[h]);
+
+        f.format("%nA hét napjai szerint:%n");
+        aggHeader(f, "Nap");
+        for (int d = 0; d < 7; d++) aggRow(f, WEEKDAYS[d], p.byWeekday[d]);
+
+        f.format("%nNaponta:%n");
+        aggHeader(f, "Dátum");
+        for (Map.Entry<Integer, Agg> e : new TreeMap<>(p.byDay).entrySet()) {
+            aggRow(f, dayLabel(e.getKey()), e.getValue());
+        }
+
+        f.format("%nLegrosszabb órák:%n");
+        worst(f, p, "legnagyobb átlag ping", Comparator.comparingDouble((Agg a) -> -a.mean(2)), 2);
+        worst(f, p, "legnagyobb átlag veszteség", Comparator.comparingDouble((Agg a) -> -a.mean(4)), 4);
+        worst(f, p, "legkisebb átlag letöltés", Comparator.comparingDouble((Agg a) -> a.mean(0)), 0);
+        worst(f, p, "legrosszabb rendelkezésre állás", Comparator.comparingDouble(Agg::availability), -1);
+        return sb.toString();
+    }
+
+    private static void aggHeader(Formatter f, String label) {
+        f.format("%-12s %8s %9s %9s %9s %9s %9s %9s %9s%n", label, "minta", "le Mbps", "fel Mbps",
+                "ping ms", "jitter", "veszt.%", "http ms", "elérh.%");
+    }
+
+    private static void aggRow(Formatter f, String label, Agg a) {
+        if (a.count == 0) {
+            f.format("%-12s %8d%n", label, 0);
+            return;
+        }
+        f.format("%-12s %8d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", label, a.count, a.mean(0), a.mean(1),
+                a.mean(2), a.mean(3), a.mean(4), a.mean(5), a.availability());
+    }
+
+    private static void worst(Formatter f, Partial p, String title, Comparator<Agg> order, int col) {
+        List<Map.Entry<Long, Agg>> hours = new ArrayList<>(p.byHour.entrySet());
+        hours.sort((x, y) -> order.compare(x.getValue(), y.getValue()));
+        f.format("  %s:%n", title);
+        for (int i = 0; i < Math.min(WORST_COUNT, hours.size()); i++) {
+            Agg a = hours.get(i).getValue();
+            f.format("    %s  %s (%d minta)%n", hourLabel(hours.get(i).getKey()),
+                    col < 0 ? String.format("%.2f %%", a.availability()) : String.format("%.2f", a.mean(col)), a.count);
+        }
+    }
+
+    private static String dayLabel(long epochDay) {
+        return java.time.LocalDate.ofEpochDay(epochDay).toString();
+    }
+
+    private static String hourLabel(long epochHour) {
+        return dayLabel(Math.floorDiv(epochHour, 24)) + String.format(" %02d:00", Math.floorMod(epochHour, 24));
+    }
+}
@@ -0,0 +1,227 @@
+package networkmon;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+// Rögzített mérési napló (network_log.csv vagy JSON export) visszajátszása az élő feldolgozási
+// úton: valós időben, N-szeres sebességgel vagy ütemezés nélkül (a lehető leggyorsabban).
+// A felület lemaradását a busy jelzés fékezi, így a mért rekord/s az, amit a feldolgozás és a
+// kirajzolás ténylegesen elnyel – nem az, amit a sorba tenni lehet.
+final class LogReplay {
+    private static final long MAX_WAIT_MS = 5000;      // hosszabb szünet a naplóban (pl. kikapcsolt gép) átugorva
+    private static final long PROGRESS_NANOS = 1_000_000_000L;
+
+    static final class Stats {
+        long records;
+        long skipped;
+        long elapsedNanos;
+
+        double perSecond() {
+            return elapsedNanos == 0 ? 0 : records / (elapsedNanos / 1e9);
+        }
+    }
+
+    private final File input;
+    private final double speed;                  // 0 = ütemezés nélkül
+    private final BooleanSupplier busy;
+    private final Consumer<String> log;
+    private final Consumer<NetworkMonitor.Measurement> sink;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    LogReplay(File input, double speed, BooleanSupplier busy, Consumer<String> log,
+              Consumer<NetworkMonitor.Measurement> sink) {
+        this.input = input;
+        this.speed = speed;
+        this.busy = busy;
+        this.log = log;
+        this.sink = sink;
+    }
+
+    Stats run(TaskRuntime.Scope scope) throws IOException {
+        Stats stats = new Stats();
+        log.accept("[Visszajátszás] " + input.getName() + ", "
+                + (speed <= 0 ? "ütemezés nélkül" : speed == 1 ? "valós időben" : (speed == Math.rint(speed) ? String.valueOf((long) speed) : String.valueOf(speed)) + "x sebességgel"));
+        long start = System.nanoTime();
+        long nextProgress = start + PROGRESS_NANOS;
+        long progressBase = 0;
+        long firstTs = Long.MIN_VALUE;
+        long shiftMs = 0;  // az átugrott szünetek összege
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8), 1 << 16)) {
+            String line;
+            while ((line = br.readLine()) != null && scope.isRunning()) {
+                NetworkMonitor.Measurement m = parse(line);
+                if (m == null) {
+                    if (!line.isBlank() && !line.startsWith("timestamp") && !line.startsWith("[") && !line.startsWith("]")) {
+                        stats.skipped++;
+                    }
+                    continue;
+                }
+                long ts = m.timestamp.getTime();
+                if (speed > 0) {
+                    if (firstTs == Long.MIN_VALUE) firstTs = ts;
+                    long dueNanos = start + (long) ((ts - firstTs - shiftMs) * 1e6 / speed);
+                    long waitMs = (dueNanos - System.nanoTime()) / 1_000_000;
+                    if (waitMs > MAX_WAIT_MS) {
+                        long skipMs = (long) ((waitMs - MAX_WAIT_MS) * speed);
+                        shiftMs += skipMs;
+                        log.accept("[Visszajátszás] Szünet a naplóban, " + skipMs / 1000 + " s átugorva.");
+                        waitMs = MAX_WAIT_MS;
+                    }
+                    if (waitMs > 0 && !scope.sleep(waitMs)) break;
+                }
+                // Visszanyomás: amíg a felület le van maradva, nem adunk újabb rekordot
+                while (busy.getAsBoolean()) {
+                    if (!scope.isRunning()) break;
+                    Thread.onSpinWait();
+                    Thread.yield();
+                }
+                sink.accept(m);
+                stats.records++;
+                long now = System.nanoTime();
+                if (now >= nextProgress) {
+                    log.accept(String.format("[Visszajátszás] %d rekord, %.0f rekord/s", stats.records,
+                            (stats.records - progressBase) / ((now - nextProgress + PROGRESS_NANOS) / 1e9)));
+                    progressBase = stats.records;
+                    nextProgress = now + PROGRESS_NANOS;
+                }
+            }
+        }
+        stats.elapsedNanos = System.nanoTime() - start;
+        log.accept(String.format("[Visszajátszás] %s: %d rekord %.2f s alatt (%.0f rekord/s)%s",
+                scope.isRunning() ? "Kész" : "Leállítva", stats.records, stats.elapsedNanos / 1e9, stats.perSecond(),
+                stats.skipped > 0 ? ", " + stats.skipped + " hibás sor kihagyva" : ""));
+        return stats;
+    }
+
+    // CSV naplósor vagy JSON export sor; null, ha nem mérési rekord
+    NetworkMonitor.Measurement parse(String line) {
+        String s = line.trim();
+        if (s.startsWith("{")) return parseJson(s);
+        if (s.length() < 20 || !Character.isDigit(s.charAt(0))) return null;
+        return parseCsv(s);
+    }
+
+    // timestamp;"interface";dl;ul;ping;jitter;loss;http (tizedesjel: a rögzítő gép locale-ja szerint)
+    private NetworkMonitor.Measurement parseCsv(String s) {
+        long ts = timestamp(s, 0);
+        if (ts == Long.MIN_VALUE || s.charAt(19) != ';') return null;
+        int pos = 20;
+        String iface;
+        if (pos < s.length() && s.charAt(pos) == '"') {
+            int end = s.indexOf('"', pos + 1);
+            if (end < 0) return null;
+            iface = s.substring(pos + 1, end);
+            pos = end + 1;
+        } else {
+            int end = s.indexOf(';', pos);
+            if (end < 0) return null;
+            iface = s.substring(pos, end);
+            pos = end;
+        }
+        double[] v = new double[6];
+        for (int c = 0; c < 6; c++) {
+            if (pos >= s.length() || s.charAt(pos) != ';') return null;
+            int end = s.indexOf(';', pos + 1);
+            if (end < 0) end = s.length();
+            Double d = number(s.substring(pos + 1, end));
+            if (d == null) return null;
+            v[c] = d;
+            pos = end;
+        }
+        return new NetworkMonitor.Measurement(new Date(ts), iface, v[0], v[1], v[2], v[3], v[4], v[5]);
+    }
+
+    private static final String[] JSON_KEYS = {"\"download_mbps\":", "\"upload_mbps\":", "\"ping_avg_ms\":",
+            "\"jitter_ms\":", "\"packet_loss_percent\":", "\"http_response_ms\":"};
+
+    private NetworkMonitor.Measurement parseJson(String s) {
+        int t = s.indexOf("\"timestamp\":\"");
+        if (t < 0) return null;
+        long ts = timestamp(s, t + 13);
+        if (ts == Long.MIN_VALUE) return null;
+        String iface = "";
+        int i = s.indexOf("\"interface\":\"");
+        if (i >= 0) {
+            StringBuilder sb = new StringBuilder();
+            for (int p = i + 13; p < s.length() && s.charAt(p) != '"'; p++) {
+                char c = s.charAt(p);
+                if (c == '\\' && p + 1 < s.length()) c = s.charAt(++p);
+                sb.append(c);
+            }
+            iface = sb.toString();
+        }
+        double[] v = new double[6];
+        for (int c = 0; c < 6; c++) {
+            int k = s.indexOf(JSON_KEYS[c]);
+            if (k < 0) return null;
+            int p = k + JSON_KEYS[c].length();
+            int end = p;
+            // A tizedesjel lehet ',' is: vessző után számjegy = a szám része, különben mezőhatár
+            while (end < s.length()) {
+                char ch = s.charAt(end);
+                if (ch == '-' || ch == '.' || Character.isDigit(ch)
+                        || (ch == ',' && end + 1 < s.length() && Character.isDigit(s.charAt(end + 1)) && end > p)) {
+                    end++;
+                } else {
+                    break;
+                }
+            }
+            Double d = number(s.substring(p, end));
+            if (d == null) return null;
+            v[c] = d;
+        }
+        return new NetworkMonitor.Measurement(new Date(ts), iface, v[0], v[1], v[2], v[3], v[4], v[5],
+                curve(s, "\"download_curve_mbps\":["), curve(s, "\"upload_curve_mbps\":["));
+    }
+
+    // Az átviteli görbék mindig '.' tizedesjellel, ','-vel elválasztva íródnak
+    private static double[] curve(String s, String key) {
+        int k = s.indexOf(key);
+        if (k < 0) return NetworkMonitor.NO_CURVE;
+        int end = s.indexOf(']', k);
+        if (end < 0) return NetworkMonitor.NO_CURVE;
+        String body = s.substring(k + key.length(), end).trim();
+        if (body.isEmpty()) return NetworkMonitor.NO_CURVE;
+        String[] parts = body.split(",");
+        double[] out = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            Double d = number(parts[i]);
+            if (d == null) return NetworkMonitor.NO_CURVE;
+            out[i] = d;
+        }
+        return out;
+    }
+
+    private static Double number(String text) {
+        try {
+            return Double.parseDouble(text.trim().replace(',', '.'));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    // "yyyy-MM-dd HH:mm:ss" vagy "yyyy-MM-ddTHH:mm:ss" helyi idő szerint, a naplóíró időzónájában
+    private long timestamp(String s, int from) {
+        if (s.length() < from + 19) return Long.MIN_VALUE;
+        try {
+            int y = Integer.parseInt(s, from, from + 4, 10);
+            int mo = Integer.parseInt(s, from + 5, from + 7, 10);
+            int d = Integer.parseInt(s, from + 8, from + 10, 10);
+            int h = Integer.parseInt(s, from + 11, from + 13, 10);
+            int mi = Integer.parseInt(s, from + 14, from + 16, 10);
+            int sec = Integer.parseInt(s, from + 17, from + 19, 10);
+            return LocalDateTime.of(y, mo, d, h, mi, sec).atZone(zone).toInstant().toEpochMilli();
+        } catch (RuntimeException ex) {
+            return Long.MIN_VALUE;
+        }
+    }
+}
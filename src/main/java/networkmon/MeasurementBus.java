@@ -0,0 +1,276 @@
+package networkmon;
+
+import java.io.OutputStream;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Mérési eseménybusz (Disruptor jellegű gyűrű): a próbák egy előre lefoglalt eseménytömb következő
+// helyére írnak, a fogyasztók (CSV, bináris tár, grafikon / címkék, riasztások, gyűjtő) saját szálon,
+// saját kurzorral olvasnak. Így egy lassú lemez vagy foglalt EDT nem késlelteti a mérést.
+// Fogyasztónkénti visszanyomás:
+//  - BLOCK: a termelő nem írhat rá olyan helyre, amit ez a fogyasztó még nem dolgozott fel (semmi nem vész el);
+//    a gyűrű mérete a puffer, a termelő csak ennyi esemény lemaradás után vár,
+//  - DROP: a termelő nem vár rá; ha körbeérik, a fogyasztó a legrégebbi még érvényes eseménynél folytatja,
+//    a kimaradtakat számolja (felület, továbbítás - a frissebb adat többet ér).
+// Termelő több szál is lehet (ütemező, csomagtesztek, visszajátszás): a sorszámot CAS-sal foglalják,
+// a hely bélyege jelzi a közzétételt. A DROP fogyasztó seqlock módon olvas: másol, majd újraellenőrzi a bélyeget.
+final class MeasurementBus {
+
+    enum Kind { MEASUREMENT, PACKET_SAMPLE, THROUGHPUT_SAMPLE }
+
+    enum Policy { BLOCK, DROP }
+
+    static final class Event {
+        Kind kind;
+        NetworkMonitor.Measurement measurement;
+        String series;
+        long timeMillis;
+        double value;
+        // Visszajátszás: a CSV / JSON sor ide kerül az élő napló helyett, tár és gyűjtő nem kapja meg
+        OutputStream replayCsv;
+        OutputStream replayJson;
+
+        boolean replay() {
+            return replayCsv != null;
+        }
+
+        private void copyFrom(Event o) {
+            kind = o.kind;
+            measurement = o.measurement;
+            series = o.series;
+            timeMillis = o.timeMillis;
+            value = o.value;
+            replayCsv = o.replayCsv;
+            replayJson = o.replayJson;
+        }
+
+        private void clear() {
+            measurement = null;
+            series = null;
+            replayCsv = null;
+            replayJson = null;
+        }
+    }
+
+    interface Handler {
+        // endOfBatch: nincs több azonnal olvasható esemény - itt érdemes üríteni / kirajzolni
+        void onEvent(Event e, long sequence, boolean endOfBatch) throws Exception;
+    }
+
+    private static final long WRITING = Long.MIN_VALUE;
+    private static final int SPINS = 64;
+
+    private static final class Slot {
+        volatile long stamp;     // az utoljára közzétett sorszám ezen a helyen, írás közben WRITING
+        final Event event = new Event();
+    }
+
+    final class Subscriber implements Runnable {
+        final String name;
+        final Policy policy;
+        private final Handler handler;
+        volatile long sequence = -1;          // az utolsó feldolgozott (vagy átugrott) sorszám
+        final AtomicLong processed = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        private volatile long maxLag;
+        private volatile boolean waiting;
+        private Thread thread;
+        private long lastErrorLog;
+
+        private Subscriber(String name, Policy policy, Handler handler) {
+            this.name = name;
+            this.policy = policy;
+            this.handler = handler;
+        }
+
+        long lag() {
+            return Math.max(0, claimed.get() - sequence);
+        }
+
+        @Override
+        public void run() {
+            Event local = new Event();
+            long next = sequence + 1;
+            int idle = 0;
+            while (running) {
+                Slot slot = ring[(int) next & mask];
+                long st = slot.stamp;
+                if (st == next) {
+                    local.copyFrom(slot.event);
+                    VarHandle.loadLoadFence();
+                    if (slot.stamp != next) continue;   // felülírták másolás közben: a következő körben átugorjuk
+                    long lag = claimed.get() - next;
+                    if (lag > maxLag) maxLag = lag;
+                    boolean end = ring[(int) (next + 1) & mask].stamp != next + 1;
+                    try {
+                        handler.onEvent(local, next, end);
+                    } catch (Exception | LinkageError ex) {
+                        errors.incrementAndGet();
+                        long now = System.currentTimeMillis();
+                        if (now - lastErrorLog > 5000) {
+                            lastErrorLog = now;
+                            log.accept("[Busz] " + name + " hiba: " + ex);
+                        }
+                    }
+                    local.clear();
+                    processed.incrementAndGet();
+                    sequence = next++;
+                    idle = 0;
+                } else if (policy == Policy.DROP && (st > next || (st == WRITING && claimed.get() >= next + ring.length))) {
+                    // Körbeértek: a legrégebbi még nem felülírt eseménynél folytatjuk
+                    // (BLOCK fogyasztót nem érhetnek körbe, ott a WRITING a saját sorszámunk lassú írója)
+                    long resume = Math.max(next + 1, claimed.get() - ring.length + 1);
+                    dropped.addAndGet(resume - next);
+                    next = resume;
+                    sequence = next - 1;
+                } else if (idle < SPINS) {
+                    idle++;
+                    Thread.onSpinWait();
+                } else {
+                    waiting = true;
+                    if (ring[(int) next & mask].stamp == st && running) LockSupport.parkNanos(this, 100_000_000L);
+                    waiting = false;
+                }
+            }
+        }
+    }
+
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final AtomicLong producerWaits = new AtomicLong();
+    private volatile Subscriber[] subscribers = new Subscriber[0];
+    private volatile Subscriber[] gating = new Subscriber[0];
+    private volatile boolean running = true;
+    private final Consumer<String> log;
+
+    MeasurementBus(int capacity, Consumer<String> log) {
+        if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("A kapacitás 2 hatványa legyen: " + capacity);
+        this.ring = new Slot[capacity];
+        this.mask = capacity - 1;
+        this.log = log;
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Slot();
+            ring[i].stamp = i - capacity;   // "az előző kör már közzétett": a 0. kör szabadon írható
+        }
+    }
+
+    // Új fogyasztó saját (démon) szálon; csak a közzététel előtt regisztrált fogyasztó lát minden eseményt
+    synchronized Subscriber subscribe(String name, Policy policy, TaskRuntime.Feature feature, Handler handler) {
+        Subscriber s = new Subscriber(name, policy, handler);
+        s.sequence = claimed.get();
+        Subscriber[] all = java.util.Arrays.copyOf(subscribers, subscribers.length + 1);
+        all[all.length - 1] = s;
+        subscribers = all;
+        if (policy == Policy.BLOCK) {
+            Subscriber[] g = java.util.Arrays.copyOf(gating, gating.length + 1);
+            g[g.length - 1] = s;
+            gating = g;
+        }
+        s.thread = TaskRuntime.threadFactory(feature).newThread(s);
+        s.thread.setName("nm-bus-" + name.replace(' ', '-'));
+        s.thread.start();
+        return s;
+    }
+
+    long publishMeasurement(NetworkMonitor.Measurement m, OutputStream replayCsv, OutputStream replayJson) {
+        long seq = claim();
+        Event e = ring[(int) seq & mask].event;
+        e.kind = Kind.MEASUREMENT;
+        e.measurement = m;
+        e.series = null;
+        e.timeMillis = m.timestamp.getTime();
+        e.value = 0;
+        e.replayCsv = replayCsv;
+        e.replayJson = replayJson;
+        commit(seq);
+        return seq;
+    }
+
+    long publishSample(Kind kind, String series, long timeMillis, double value) {
+        long seq = claim();
+        Event e = ring[(int) seq & mask].event;
+        e.kind = kind;
+        e.measurement = null;
+        e.series = series;
+        e.timeMillis = timeMillis;
+        e.value = value;
+        e.replayCsv = null;
+        e.replayJson = null;
+        commit(seq);
+        return seq;
+    }
+
+    // Sorszám foglalás; ha egy BLOCK fogyasztó egy teljes körrel le van maradva, megvárjuk
+    private long claim() {
+        long seq = claimed.incrementAndGet();
+        long wrap = seq - ring.length;
+        if (wrap >= 0) {
+            boolean waited = false;
+            for (int i = 0; minGating() < wrap && running; i++) {
+                waited = true;
+                if (i < SPINS) Thread.onSpinWait();
+                else LockSupport.parkNanos(50_000L);
+            }
+            if (waited) producerWaits.incrementAndGet();
+            // Ugyanerre a helyre az előző körben író (lassabb) termelő még nem végzett
+            Slot slot = ring[(int) seq & mask];
+            while (slot.stamp != wrap && running) Thread.onSpinWait();
+        }
+        ring[(int) seq & mask].stamp = WRITING;
+        VarHandle.storeStoreFence();
+        return seq;
+    }
+
+    private void commit(long seq) {
+        ring[(int) seq & mask].stamp = seq;
+        for (Subscriber s : subscribers) {
+            if (s.waiting) LockSupport.unpark(s.thread);
+        }
+    }
+
+    private long minGating() {
+        long min = Long.MAX_VALUE;
+        for (Subscriber s : gating) min = Math.min(min, s.sequence);
+        return min;
+    }
+
+    // Megvárja, hogy minden fogyasztó túljusson a sorszámon (pl. visszajátszás végén a kimenet lezárása előtt)
+    boolean awaitConsumed(long seq, long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        for (Subscriber s : subscribers) {
+            while (s.sequence < seq) {
+                if (!running || System.nanoTime() > deadline) return false;
+                LockSupport.parkNanos(1_000_000L);
+            }
+        }
+        return true;
+    }
+
+    long published() {
+        return claimed.get() + 1;
+    }
+
+    int capacity() {
+        return ring.length;
+    }
+
+    void shutdown() {
+        running = false;
+        for (Subscriber s : subscribers) LockSupport.unpark(s.thread);
+    }
+
+    void appendReport(StringBuilder sb) {
+        sb.append(String.format("Eseménybusz: %d esemény, gyűrű %d, termelői várakozás %d alkalommal%n",
+                published(), ring.length, producerWaits.get()));
+        sb.append(String.format("%-26s %8s %12s %8s %8s %10s%n", "Fogyasztó", "mód", "feldolgozva", "lemarad", "max", "eldobva"));
+        for (Subscriber s : subscribers) {
+            sb.append(String.format("%-26s %8s %12d %8d %8d %10d%s%n", s.name, s.policy, s.processed.get(), s.lag(),
+                    s.maxLag, s.dropped.get(), s.errors.get() > 0 ? "   hiba: " + s.errors.get() : ""));
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package networkmon;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// Csak hozzáfűzhető, fix rekordméretű bináris mérési tár memória-leképezett
+// szegmensfájlokban. Rekord: időbélyeg + a Measurement double mezői + interfész azonosító.
+// A szegmensek kezdő időpontja szerinti index és a szegmensen belüli bináris keresés
+// gyors időtartomány-lekérdezést ad; szöveg újraparszolása nélkül tölthető vissza.
+class MeasurementStore implements Closeable {
+    static final int MAGIC = 0x4E4D5354;     // "NMST"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 64;       // ts(8) + 6 x double(48) + ifaceId(4) + tartalék(4)
+    static final int SEGMENT_RECORDS = 65_536;
+
+    private static final int OFF_COUNT = 16;
+    private static final int OFF_FIRST_TS = 24;
+    private static final int OFF_LAST_TS = 32;
+
+    // Rekord-bejáró: allokáció nélküli olvasáshoz (elemzés, grafikon piramis)
+    interface RecordVisitor {
+        void visit(long tsMillis, int ifaceId, double downloadMbps, double uploadMbps, double pingAvgMs,
+                   double jitterMs, double packetLossPercent, double httpResponseMs);
+    }
+
+    private static class Segment {
+        final File file;
+        final FileChannel channel;
+        final MappedByteBuffer buf;
+        final long firstTs;
+
+        Segment(File file, FileChannel channel, MappedByteBuffer buf, long firstTs) {
+            this.file = file;
+            this.channel = channel;
+            this.buf = buf;
+            this.firstTs = firstTs;
+        }
+
+        int count() { return buf.getInt(OFF_COUNT); }
+        long lastTs() { return buf.getLong(OFF_LAST_TS); }
+        long tsAt(int i) { return buf.getLong(HEADER_SIZE + i * RECORD_SIZE); }
+    }
+
+    private final File dir;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final List<String> interfaces = new ArrayList<>();
+    private final Map<String, Integer> interfaceIds = new HashMap<>();
+    private final File interfacesFile;
+    private Segment active;
+    private long clampedTimestamps;
+
+    private MeasurementStore(File dir) {
+        this.dir = dir;
+        this.interfacesFile = new File(dir, "interfaces.txt");
+    }
+
+    static MeasurementStore open(File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Nem hozható létre a tár könyvtár: " + dir);
+        }
+        MeasurementStore store = new MeasurementStore(dir);
+        store.loadInterfaces();
+        File[] files = dir.listFiles((d, name) -> name.startsWith("seg-") && name.endsWith(".dat"));
+        if (files != null) {
+            for (File f : files) {
+                Segment s = store.mapSegment(f);
+                if (s != null) store.segments.put(s.firstTs, s);
+            }
+        }
+        if (!store.segments.isEmpty()) {
+            Segment last = store.segments.lastEntry().getValue();
+            if (last.count() < SEGMENT_RECORDS) store.active = last;
+        }
+        return store;
+    }
+
+    private void loadInterfaces() throws IOException {
+        if (!interfacesFile.exists()) return;
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(interfacesFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                interfaceIds.put(line, interfaces.size());
+                interfaces.add(line);
+            }
+        }
+    }
+
+    private int interfaceId(String name) throws IOException {
+        Integer id = interfaceIds.get(name);
+        if (id != null) return id;
+        String clean = name.replace('\n', ' ').replace('\r', ' ');
+        try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(new FileOutputStream(interfacesFile, true), StandardCharsets.UTF_8))) {
+            pw.println(clean);
+        }
+        id = interfaces.size();
+        interfaces.add(clean);
+        interfaceIds.put(name, id);
+        return id;
+    }
+
+    synchronized String interfaceName(int id) {
+        return id >= 0 && id < interfaces.size() ? interfaces.get(id) : "?";
+    }
+
+    private Segment mapSegment(File f) throws IOException {
+        FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = HEADER_SIZE + (long) SEGMENT_RECORDS * RECORD_SIZE;
+        if (ch.size() < size) {
+            ch.close();
+            return null; // sérült / idegen fájl
+        }
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (buf.getInt(0) != MAGIC || buf.getInt(8) != RECORD_SIZE) {
+            ch.close();
+            return null;
+        }
+        return new Segment(f, ch, buf, buf.getLong(OFF_FIRST_TS));
+    }
+
+    private Segment createSegment(long firstTs) throws IOException {
+        File f = new File(dir, String.format("seg-%013d.dat", firstTs));
+        FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = HEADER_SIZE + (long) SEGMENT_RECORDS * RECORD_SIZE;
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buf.putInt(0, MAGIC);
+        buf.putInt(4, VERSION);
+        buf.putInt(8, RECORD_SIZE);
+        buf.putInt(12, SEGMENT_RECORDS);
+        buf.putInt(OFF_COUNT, 0);
+        buf.putLong(OFF_FIRST_TS, firstTs);
+        buf.putLong(OFF_LAST_TS, firstTs);
+        Segment s = new Segment(f, ch, buf, firstTs);
+        segments.put(firstTs, s);
+        return s;
+    }
+
+    synchronized void append(NetworkMonitor.Measurement m) throws IOException {
+        append(m.timestamp.getTime(), interfaceId(m.interfaceName), m.downloadMbps, m.uploadMbps,
+                m.pingAvgMs, m.jitterMs, m.packetLossPercent, m.httpResponseMs);
+    }
+
+    synchronized void append(long ts, int ifaceId, double dl, double ul, double ping,
+                             double jitter, double loss, double http) throws IOException {
+        if (active != null && active.count() > 0 && ts < active.lastTs()) {
+            ts = active.lastTs(); // az időindex monoton – óraugrásnál nem engedünk visszalépni
+            clampedTimestamps++;
+        }
+        if (active == null || active.count() >= SEGMENT_RECORDS) {
+            active = createSegment(ts);
+        }
+        MappedByteBuffer b = active.buf;
+        int n = active.count();
+        int off = HEADER_SIZE + n * RECORD_SIZE;
+        b.putLong(off, ts);
+        b.putDouble(off + 8, dl);
+        b.putDouble(off + 16, ul);
+        b.putDouble(off + 24, ping);
+        b.putDouble(off + 32, jitter);
+        b.putDouble(off + 40, loss);
+        b.putDouble(off + 48, http);
+        b.putInt(off + 56, ifaceId);
+        // A darabszám a rekord után íródik: félbeszakadt írás nem válik láthatóvá
+        b.putLong(OFF_LAST_TS, ts);
+        b.putInt(OFF_COUNT, n + 1);
+    }
+
+    // [fromMillis, toMillis] zárt tartomány bejárása időrendben.
+    // A zár alatt csak a szegmenseket és a rekordszámukat rögzítjük; a darabszám alatti rekordok
+    // már nem változnak, így a bejárás (és a látogató, pl. fájlírás) nem tartja fel az append-et.
+    void scan(long fromMillis, long toMillis, RecordVisitor v) {
+        List<Segment> snapshot = new ArrayList<>();
+        int[] counts;
+        synchronized (this) {
+            Long startKey = segments.floorKey(fromMillis);
+            SortedMap<Long, Segment> tail = startKey == null ? segments : segments.tailMap(startKey);
+            for (Segment s : tail.values()) {
+                if (s.firstTs > toMillis) break;
+                snapshot.add(s);
+            }
+            counts = new int[snapshot.size()];
+            for (int k = 0; k < counts.length; k++) counts[k] = snapshot.get(k).count();
+        }
+        for (int k = 0; k < counts.length; k++) {
+            Segment s = snapshot.get(k);
+            int n = counts[k];
+            if (n == 0 || s.tsAt(n - 1) < fromMillis) continue;
+            MappedByteBuffer b = s.buf;
+            for (int i = lowerBound(s, n, fromMillis); i < n; i++) {
+                int off = HEADER_SIZE + i * RECORD_SIZE;
+                long ts = b.getLong(off);
+                if (ts > toMillis) return;
+                v.visit(ts, b.getInt(off + 56), b.getDouble(off + 8), b.getDouble(off + 16), b.getDouble(off + 24),
+                        b.getDouble(off + 32), b.getDouble(off + 40), b.getDouble(off + 48));
+            }
+        }
+    }
+
+    // Első rekord indexe, amelynek időbélyege >= ts
+    private static int lowerBound(Segment s, int n, long ts) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (s.tsAt(mid) < ts) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    List<NetworkMonitor.Measurement> query(long fromMillis, long toMillis) {
+        List<NetworkMonitor.Measurement> out = new ArrayList<>();
+        scan(fromMillis, toMillis, (ts, iface, dl, ul, ping, jitter, loss, http) ->
+                out.add(new NetworkMonitor.Measurement(new Date(ts), interfaceName(iface), dl, ul, ping, jitter, loss, http)));
+        return out;
+    }
+
+    // Óraugrás miatt a legutóbbi időbélyegre igazított rekordok száma
+    synchronized long clampedTimestamps() {
+        return clampedTimestamps;
+    }
+
+    synchronized long count() {
+        long total = 0;
+        for (Segment s : segments.values()) total += s.count();
+        return total;
+    }
+
+    synchronized long firstTimestamp() {
+        for (Segment s : segments.values()) if (s.count() > 0) return s.tsAt(0);
+        return -1;
+    }
+
+    synchronized long lastTimestamp() {
+        for (Segment s : segments.descendingMap().values()) if (s.count() > 0) return s.lastTs();
+        return -1;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment s : segments.values()) {
+            s.buf.force();
+            s.channel.close();
+        }
+        segments.clear();
+        active = null;
+    }
+}
@@ -0,0 +1,178 @@
+package networkmon;
+
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+// Tartós multicast munkamenet: a küldő és a fogadók végig a csoportban maradnak,
+// a küldő sorszámozott, időbélyeges csomagfolyamot küld adott csomagsebességgel és
+// mérettel, a fogadó küldőnként méri az áteresztést, veszteséget, átrendeződést és
+// a késleltetés-eloszlást (IPTV / tőzsdei adatfolyam jellegű terhelés validálására).
+class MulticastStream {
+    static final int MAGIC = 0x4D435354; // "MCST"
+    static final int HEADER_SIZE = 24;   // magic(4) + senderId(4) + seq(8) + sentMicros(8)
+    static final int MAX_PACKET = 65_507;
+
+    private static final long REPORT_NANOS = 1_000_000_000L;
+
+    private final InetAddress group;
+    private final int port;
+    private final NetworkInterface nif;      // null = alapértelmezett interfész
+    private final Consumer<String> log;
+    private final DoubleConsumer graph;
+
+    MulticastStream(InetAddress group, int port, NetworkInterface nif,
+                    Consumer<String> log, DoubleConsumer graph) {
+        this.group = group;
+        this.port = port;
+        this.nif = nif;
+        this.log = log;
+        this.graph = graph;
+    }
+
+    // ---------- Küldő ----------
+
+    void runSender(double packetsPerSec, int packetSize, int ttl, BooleanSupplier running) {
+        int size = Math.max(HEADER_SIZE, Math.min(MAX_PACKET, packetSize));
+        int senderId = (int) (System.nanoTime() ^ ProcessHandle.current().pid());
+        byte[] data = new byte[size];
+        ByteBuffer bb = ByteBuffer.wrap(data);
+        DatagramPacket out = new DatagramPacket(data, size, group, port);
+
+        try (MulticastSocket socket = new MulticastSocket()) {
+            socket.setTimeToLive(ttl);
+            socket.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+            if (nif != null) socket.setNetworkInterface(nif);
+            socket.setSendBufferSize(Math.max(socket.getSendBufferSize(), 4 * 1024 * 1024));
+
+            log.accept(String.format("[Multicast stream] Küldés indul: %s:%d, %.0f csomag/s, %d byte, TTL=%d, azonosító=%08x",
+                    group.getHostAddress(), port, packetsPerSec, size, ttl, senderId));
+
+            Pacer pacer = new Pacer(packetsPerSec, 64);
+            long seq = 0;
+            long sentInInterval = 0;
+            long errors = 0;
+            long lastReport = System.nanoTime();
+
+            while (running.getAsBoolean() && !Thread.currentThread().isInterrupted()) {
+                int due = pacer.awaitBatch();
+                for (int i = 0; i < due; i++) {
+                    bb.clear();
+                    bb.putInt(MAGIC).putInt(senderId).putLong(seq).putLong(Pacer.epochMicros());
+                    try {
+                        socket.send(out);
+                        seq++;
+                        sentInInterval++;
+                    } catch (java.io.IOException ioe) {
+                        errors++; // pl. ENOBUFS – a sorszámot nem léptetjük, nem számít veszteségnek
+                    }
+                }
+
+                long now = System.nanoTime();
+                if (now - lastReport >= REPORT_NANOS) {
+                    double sec = (now - lastReport) / 1e9;
+                    double pps = sentInInterval / sec;
+                    log.accept(String.format("[Multicast stream] Küldve: %d csomag (%.0f csomag/s, %.2f Mbps), küldési hiba: %d",
+                            seq, pps, pps * size * 8 / 1e6, errors));
+                    sentInInterval = 0;
+                    lastReport = now;
+                }
+            }
+            log.accept("[Multicast stream] Küldés leállt, összesen " + seq + " csomag.");
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            log.accept("[Multicast stream] Küldés megszakítva.");
+        } catch (Exception ex) {
+            log.accept("[Multicast stream] Küldési hiba: " + ex.toString());
+        }
+    }
+
+    // ---------- Fogadó ----------
+
+    void runReceiver(BooleanSupplier running) {
+        Map<String, SequenceStats> senders = new LinkedHashMap<>();
+        InetSocketAddress groupAddr = new InetSocketAddress(group, 0);
+
+        try (MulticastSocket socket = new MulticastSocket(port)) {
+            socket.setSoTimeout(200);
+            socket.setReceiveBufferSize(Math.max(socket.getReceiveBufferSize(), 8 * 1024 * 1024));
+            socket.joinGroup(groupAddr, nif);
+            log.accept("[Multicast stream] Fogadás indul (csoporttag marad): " + group.getHostAddress() + ":" + port
+                    + ", vételi puffer: " + socket.getReceiveBufferSize() + " byte");
+
+            byte[] buf = new byte[MAX_PACKET];
+            DatagramPacket in = new DatagramPacket(buf, buf.length);
+            ByteBuffer bb = ByteBuffer.wrap(buf);
+            long lastReport = System.nanoTime();
+            long foreign = 0;
+
+            try {
+                while (running.getAsBoolean() && !Thread.currentThread().isInterrupted()) {
+                    try {
+                        in.setLength(buf.length);
+                        socket.receive(in);
+                        long arrivalUs = Pacer.epochMicros();
+                        long arrivalNanos = System.nanoTime();
+                        if (in.getLength() < HEADER_SIZE || bb.getInt(0) != MAGIC) {
+                            foreign++;
+                        } else {
+                            int senderId = bb.getInt(4);
+                            long seq = bb.getLong(8);
+                            long sentUs = bb.getLong(16);
+                            String key = in.getAddress().getHostAddress() + "#" + String.format("%08x", senderId);
+                            SequenceStats st = senders.get(key);
+                            if (st == null) {
+                                st = new SequenceStats();
+                                senders.put(key, st);
+                                log.accept("[Multicast stream] Új küldő: " + key);
+                            }
+                            st.onPacket(seq, sentUs, arrivalUs, in.getLength(), arrivalNanos);
+                        }
+                    } catch (SocketTimeoutException ignored) {
+                        // csak a leállítás-ellenőrzés miatt
+                    }
+
+                    long now = System.nanoTime();
+                    if (now - lastReport >= REPORT_NANOS) {
+                        report(senders, (now - lastReport) / 1e9, foreign, false);
+                        foreign = 0;
+                        lastReport = now;
+                    }
+                }
+            } finally {
+                socket.leaveGroup(groupAddr, nif);
+            }
+            report(senders, 0, 0, true);
+            log.accept("[Multicast stream] Fogadás leállt.");
+        } catch (Exception ex) {
+            log.accept("[Multicast stream] Fogadási hiba: " + ex.toString());
+        }
+    }
+
+    private void report(Map<String, SequenceStats> senders, double intervalSec, long foreign, boolean summary) {
+        if (senders.isEmpty()) {
+            if (!summary) log.accept("[Multicast stream] Nincs beérkező stream csomag"
+                    + (foreign > 0 ? " (" + foreign + " idegen csomag)" : "") + ".");
+            return;
+        }
+        for (Map.Entry<String, SequenceStats> e : senders.entrySet()) {
+            SequenceStats st = e.getValue();
+            long[] iv = st.drainInterval();
+            String rate = summary
+                    ? String.format("átlag %.2f Mbps", st.averageMbps())
+                    : String.format("%.0f csomag/s, %.2f Mbps", iv[0] / intervalSec, iv[1] * 8 / 1e6 / intervalSec);
+            log.accept(String.format("[Multicast stream]%s %s: %s, fogadva %d, veszteség %d (%.2f %%, %d löket, max %d), "
+                            + "átrendezett %d, duplikált %d, egyirányú késl. min/p50/p95/p99/max "
+                            + "%.2f/%.2f/%.2f/%.2f/%.2f ms, jitter %.3f ms",
+                    summary ? " Összesítés" : "", e.getKey(), rate, st.received(), st.lost(), st.lossPercent(),
+                    st.lossBursts(), st.maxBurst(), st.reordered(), st.duplicates(),
+                    st.minDelayMs(), st.delayPercentileMs(50), st.delayPercentileMs(95),
+                    st.delayPercentileMs(99), st.maxDelayMs(), st.jitterMs()));
+            if (!summary) graph.accept(st.delayPercentileMs(50));
+        }
+    }
+}
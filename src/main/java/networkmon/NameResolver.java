@@ -0,0 +1,384 @@
+package networkmon;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+// Felderített LAN címek nevei három forrásból egyszerre, a leltárt nem feltartva:
+//  - fordított DNS: blokkoló JVM hívás, ezért korlátozott számú munkaszál veszi a címeket egy közös sorból,
+//  - mDNS: PTR kérdések (x.x.x.x.in-addr.arpa) csomagonként MDNS_BATCH címre a 224.0.0.251:5353 csoportnak,
+//    QU bittel és nem 5353-as forrásporttal, így a válasz unicastban jön vissza (RFC 6762 6.7),
+//  - NetBIOS node status ("*" NBSTAT) minden címre az UDP 137-es portra; a Windows / Samba gépek neve.
+// Az mDNS és a NetBIOS egyetlen szálon, egy selectorral fut (küldés, majd egy ismétlés a választ nem adóknak).
+// A nevek forrásonként TTL-lel kerülnek a gyorsítótárba (a sikertelen lekérdezés is, rövidebb ideig),
+// így egy újabb feltérképezés csak a lejárt vagy új címeket kérdezi le. Minden új név azonnal visszahívást ad.
+final class NameResolver {
+    static final int RDNS_THREADS = 16;
+    static final int MDNS_BATCH = 16;                    // kérdés / csomag (~30 bájt kérdésenként)
+    private static final int UDP_ROUND_MS = 700;
+    private static final int UDP_ATTEMPTS = 2;
+    private static final long POSITIVE_TTL_MS = 10 * 60_000L;
+    private static final long NEGATIVE_TTL_MS = 2 * 60_000L;
+    private static final long MAX_MDNS_TTL_MS = 60 * 60_000L;
+    private static final InetSocketAddress MDNS_GROUP = new InetSocketAddress("224.0.0.251", 5353);
+    private static final int NETBIOS_PORT = 137;
+
+    static final int DNS = 0;
+    static final int MDNS = 1;
+    static final int NETBIOS = 2;
+    private static final String[] SOURCE_NAMES = {"DNS", "mDNS", "NetBIOS"};
+
+    // Egy cím ismert nevei forrásonként ("" = a forrás nem adott nevet, null = még nem kérdeztük / lejárt)
+    static final class Names {
+        private final String[] names = new String[3];
+        private final long[] expires = new long[3];
+
+        synchronized String get(int source) {
+            return expires[source] > System.currentTimeMillis() ? names[source] : null;
+        }
+
+        synchronized void put(int source, String name, long ttlMs) {
+            names[source] = name;
+            expires[source] = System.currentTimeMillis() + ttlMs;
+        }
+
+        // A különböző nevek forrással, pl. "nas.lan (DNS), NAS (NetBIOS)"
+        synchronized String display() {
+            StringBuilder sb = new StringBuilder();
+            List<String> seen = new ArrayList<>();
+            for (int s = 0; s < 3; s++) {
+                String n = names[s];
+                if (n == null || n.isEmpty()) continue;
+                String key = n.toLowerCase(Locale.ROOT).replaceAll("\\.(local|lan|home)$", "");
+                if (seen.contains(key)) continue;
+                seen.add(key);
+                if (sb.length() > 0) sb.append(", ");
+                sb.append(n).append(" (").append(SOURCE_NAMES[s]).append(')');
+            }
+            return sb.toString();
+        }
+    }
+
+    private final Map<Inet4Address, Names> cache = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor exec;
+    private final Consumer<String> log;
+
+    NameResolver(Consumer<String> log) {
+        this.log = log;
+        exec = new ThreadPoolExecutor(RDNS_THREADS + 1, RDNS_THREADS + 1, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), TaskRuntime.threadFactory(TaskRuntime.Feature.LAN_SCAN));
+        exec.allowCoreThreadTimeOut(true);
+        Diagnostics.watchExecutor("névfeloldás", exec);
+    }
+
+    void shutdown() {
+        exec.shutdownNow();
+        Diagnostics.unwatchExecutor("névfeloldás");
+    }
+
+    // Azonnal visszatér; a gyorsítótárban lévő nevek még a hívás alatt, a többi érkezéskor jön
+    // vissza (a hívó szálán kívül). Az onUpdate címenként többször is hívódhat, ahogy a források válaszolnak.
+    void resolve(NetworkInterface ni, List<Inet4Address> addresses, BiConsumer<Inet4Address, Names> onUpdate) {
+        Queue<Inet4Address> dnsQueue = new ConcurrentLinkedQueue<>();
+        List<Inet4Address> mdns = new ArrayList<>();
+        List<Inet4Address> netbios = new ArrayList<>();
+        int cached = 0;
+        for (Inet4Address a : addresses) {
+            Names n = cache.computeIfAbsent(a, k -> new Names());
+            boolean any = false;
+            String name;
+            if ((name = n.get(DNS)) == null) dnsQueue.add(a); else any |= !name.isEmpty();
+            if ((name = n.get(MDNS)) == null) mdns.add(a); else any |= !name.isEmpty();
+            if ((name = n.get(NETBIOS)) == null) netbios.add(a); else any |= !name.isEmpty();
+            if (any) {
+                cached++;
+                onUpdate.accept(a, n);
+            }
+        }
+        log.accept(String.format("[Nevek] %d cím: %d név a gyorsítótárból; lekérdezés: DNS %d, mDNS %d, NetBIOS %d",
+                addresses.size(), cached, dnsQueue.size(), mdns.size(), netbios.size()));
+        long start = System.nanoTime();
+        int workers = Math.min(RDNS_THREADS, dnsQueue.size());
+        for (int i = 0; i < workers; i++) {
+            exec.execute(() -> {
+                Inet4Address a;
+                while ((a = dnsQueue.poll()) != null && !exec.isShutdown()) reverseDns(a, onUpdate);
+            });
+        }
+        if (!mdns.isEmpty() || !netbios.isEmpty()) {
+            exec.execute(() -> {
+                int found = queryUdp(ni, mdns, netbios, onUpdate);
+                log.accept(String.format("[Nevek] mDNS / NetBIOS: %d név %.0f ms alatt", found, (System.nanoTime() - start) / 1e6));
+            });
+        }
+    }
+
+    private void reverseDns(Inet4Address a, BiConsumer<Inet4Address, Names> onUpdate) {
+        String name = "";
+        try {
+            // Friss objektum: az InetAddress a saját példányában megjegyzi a nevet, a TTL-t itt kezeljük
+            String host = InetAddress.getByAddress(a.getAddress()).getCanonicalHostName();
+            if (!host.equals(a.getHostAddress())) name = host;
+        } catch (IOException ignored) {}
+        update(a, DNS, name, name.isEmpty() ? NEGATIVE_TTL_MS : POSITIVE_TTL_MS, onUpdate);
+    }
+
+    private void update(Inet4Address a, int source, String name, long ttlMs, BiConsumer<Inet4Address, Names> onUpdate) {
+        Names n = cache.computeIfAbsent(a, k -> new Names());
+        n.put(source, name, ttlMs);
+        if (!name.isEmpty()) onUpdate.accept(a, n);
+    }
+
+    // ========== mDNS + NetBIOS (egy szál, egy selector) ==========
+
+    private int queryUdp(NetworkInterface ni, List<Inet4Address> mdns, List<Inet4Address> netbios,
+                         BiConsumer<Inet4Address, Names> onUpdate) {
+        Map<Inet4Address, Boolean> pendingMdns = new HashMap<>();
+        Map<Inet4Address, Boolean> pendingNb = new HashMap<>();
+        for (Inet4Address a : mdns) pendingMdns.put(a, Boolean.TRUE);
+        for (Inet4Address a : netbios) pendingNb.put(a, Boolean.TRUE);
+        int found = 0;
+        try (Selector selector = Selector.open();
+             DatagramChannel mdnsCh = DatagramChannel.open();
+             DatagramChannel nbCh = DatagramChannel.open()) {
+            mdnsCh.configureBlocking(false);
+            mdnsCh.bind(new InetSocketAddress(0));
+            try {
+                mdnsCh.setOption(StandardSocketOptions.IP_MULTICAST_IF, ni);
+                mdnsCh.setOption(StandardSocketOptions.IP_MULTICAST_TTL, 255);
+            } catch (IOException | UnsupportedOperationException ignored) {}
+            nbCh.configureBlocking(false);
+            nbCh.bind(new InetSocketAddress(0));
+            mdnsCh.register(selector, SelectionKey.OP_READ, MDNS);
+            nbCh.register(selector, SelectionKey.OP_READ, NETBIOS);
+            ByteBuffer in = ByteBuffer.allocate(9000);
+
+            for (int attempt = 0; attempt < UDP_ATTEMPTS && !(pendingMdns.isEmpty() && pendingNb.isEmpty()); attempt++) {
+                List<Inet4Address> batch = new ArrayList<>(pendingMdns.keySet());
+                for (int i = 0; i < batch.size(); i += MDNS_BATCH) {
+                    sendQuietly(mdnsCh, mdnsQuery(batch.subList(i, Math.min(batch.size(), i + MDNS_BATCH))), MDNS_GROUP);
+                }
+                int id = 0;
+                for (Inet4Address a : pendingNb.keySet()) {
+                    sendQuietly(nbCh, nodeStatusQuery(id++), new InetSocketAddress(a, NETBIOS_PORT));
+                }
+                long deadline = System.nanoTime() + UDP_ROUND_MS * 1_000_000L;
+                while (!(pendingMdns.isEmpty() && pendingNb.isEmpty()) && !exec.isShutdown()) {
+                    long waitMs = (deadline - System.nanoTime() + 999_999) / 1_000_000;
+                    if (waitMs <= 0) break;
+                    selector.select(waitMs);
+                    for (SelectionKey key : selector.selectedKeys()) {
+                        DatagramChannel ch = (DatagramChannel) key.channel();
+                        SocketAddress from;
+                        while (true) {
+                            in.clear();
+                            from = ch.receive(in);
+                            if (from == null) break;
+                            in.flip();
+                            if ((int) key.attachment() == MDNS) {
+                                for (Map.Entry<Inet4Address, Ptr> e : parseMdns(in).entrySet()) {
+                                    if (pendingMdns.remove(e.getKey()) == null) continue;
+                                    Ptr p = e.getValue();
+                                    update(e.getKey(), MDNS, p.name, Math.min(MAX_MDNS_TTL_MS, Math.max(60_000L, p.ttlSeconds * 1000L)), onUpdate);
+                                    found++;
+                                }
+                            } else {
+                                Inet4Address a = (Inet4Address) ((InetSocketAddress) from).getAddress();
+                                String name = parseNodeStatus(in);
+                                if (name == null || pendingNb.remove(a) == null) continue;
+                                update(a, NETBIOS, name, POSITIVE_TTL_MS, onUpdate);
+                                found++;
+                            }
+                        }
+                    }
+                    selector.selectedKeys().clear();
+                }
+            }
+        } catch (IOException ex) {
+            log.accept("[Nevek] mDNS / NetBIOS lekérdezés hiba: " + ex.getMessage());
+        }
+        // Akik nem válaszoltak: negatív bejegyzés, hogy a következő kör ne kérdezze újra őket azonnal
+        for (Inet4Address a : pendingMdns.keySet()) update(a, MDNS, "", NEGATIVE_TTL_MS, onUpdate);
+        for (Inet4Address a : pendingNb.keySet()) update(a, NETBIOS, "", NEGATIVE_TTL_MS, onUpdate);
+        return found;
+    }
+
+    private static void sendQuietly(DatagramChannel ch, ByteBuffer packet, InetSocketAddress to) {
+        try {
+            ch.send(packet, to);
+        } catch (IOException ignored) {
+            // pl. nincs útvonal a multicast csoporthoz ezen az interfészen
+        }
+    }
+
+    // Fejléc (id 0, egyszerű lekérdezés) + címenként egy PTR kérdés QU (unicast válasz) bittel
+    static ByteBuffer mdnsQuery(List<Inet4Address> addresses) {
+        ByteBuffer b = ByteBuffer.allocate(12 + addresses.size() * 34);
+        b.putShort((short) 0).putShort((short) 0).putShort((short) addresses.size()).putShort((short) 0)
+                .putShort((short) 0).putShort((short) 0);
+        for (Inet4Address a : addresses) {
+            byte[] ip = a.getAddress();
+            for (int i = 3; i >= 0; i--) label(b, String.valueOf(ip[i] & 0xFF));
+            label(b, "in-addr");
+            label(b, "arpa");
+            b.put((byte) 0);
+            b.putShort((short) 12).putShort((short) 0x8001);
+        }
+        b.flip();
+        return b;
+    }
+
+    private static void label(ByteBuffer b, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.US_ASCII);
+        b.put((byte) bytes.length).put(bytes);
+    }
+
+    static final class Ptr {
+        final String name;
+        final long ttlSeconds;
+
+        Ptr(String name, long ttlSeconds) {
+            this.name = name;
+            this.ttlSeconds = ttlSeconds;
+        }
+    }
+
+    // A válasz (answer + additional) összes x.x.x.x.in-addr.arpa PTR rekordja: cím -> név
+    static Map<Inet4Address, Ptr> parseMdns(ByteBuffer packet) {
+        Map<Inet4Address, Ptr> out = new HashMap<>();
+        byte[] p = new byte[packet.remaining()];
+        packet.get(p);
+        if (p.length < 12) return out;
+        int qd = u16(p, 4);
+        int records = u16(p, 6) + u16(p, 8) + u16(p, 10);
+        int[] pos = {12};
+        try {
+            for (int i = 0; i < qd; i++) {
+                readName(p, pos);
+                pos[0] += 4;
+            }
+            for (int i = 0; i < records; i++) {
+                String owner = readName(p, pos);
+                int type = u16(p, pos[0]);
+                long ttl = ((long) u16(p, pos[0] + 4) << 16) | u16(p, pos[0] + 6);
+                int len = u16(p, pos[0] + 8);
+                int rdata = pos[0] + 10;
+                if (type == 12 && owner.endsWith(".in-addr.arpa")) {
+                    Inet4Address a = reverseOwner(owner);
+                    String name = readName(p, new int[]{rdata});
+                    if (a != null && !name.isEmpty()) out.put(a, new Ptr(name, ttl));
+                }
+                pos[0] = rdata + len;
+            }
+        } catch (RuntimeException ignored) {
+            // csonka / hibás csomag: ami addig értelmezhető volt, marad
+        }
+        return out;
+    }
+
+    private static Inet4Address reverseOwner(String owner) {
+        String[] parts = owner.substring(0, owner.length() - ".in-addr.arpa".length()).split("\\.");
+        if (parts.length != 4) return null;
+        byte[] ip = new byte[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                int v = Integer.parseInt(parts[3 - i]);
+                if (v < 0 || v > 255) return null;
+                ip[i] = (byte) v;
+            }
+            return (Inet4Address) InetAddress.getByAddress(ip);
+        } catch (NumberFormatException | IOException ex) {
+            return null;
+        }
+    }
+
+    // DNS név tömörítéssel (RFC 1035 4.1.4); pos a név utáni első bájtra lép, a záró pont nélkül
+    private static String readName(byte[] p, int[] pos) {
+        StringBuilder sb = new StringBuilder();
+        int i = pos[0];
+        int end = -1;
+        for (int jumps = 0; jumps < 32; ) {
+            int len = p[i] & 0xFF;
+            if ((len & 0xC0) == 0xC0) {
+                if (end < 0) end = i + 2;
+                i = ((len & 0x3F) << 8) | (p[i + 1] & 0xFF);
+                jumps++;
+                continue;
+            }
+            if (len == 0) {
+                pos[0] = end < 0 ? i + 1 : end;
+                return sb.toString();
+            }
+            if (sb.length() > 0) sb.append('.');
+            sb.append(new String(p, i + 1, len, StandardCharsets.UTF_8));
+            i += 1 + len;
+        }
+        throw new IllegalArgumentException("DNS név hurok");
+    }
+
+    private static int u16(byte[] p, int i) {
+        return ((p[i] & 0xFF) << 8) | (p[i + 1] & 0xFF);
+    }
+
+    // ========== NetBIOS node status (RFC 1002 4.2.17) ==========
+
+    // "*" + 15 nulla bájt első szintű kódolással ("CKAAAA..."), NBSTAT (0x21) / IN
+    static ByteBuffer nodeStatusQuery(int id) {
+        ByteBuffer b = ByteBuffer.allocate(50);
+        b.putShort((short) id).putShort((short) 0).putShort((short) 1).putShort((short) 0)
+                .putShort((short) 0).putShort((short) 0);
+        b.put((byte) 32).put((byte) 'C').put((byte) 'K');
+        for (int i = 0; i < 30; i++) b.put((byte) 'A');
+        b.put((byte) 0).putShort((short) 0x21).putShort((short) 1);
+        b.flip();
+        return b;
+    }
+
+    // A gép (munkaállomás) neve: az első egyedi (nem csoport) név 0x00 utótaggal; null, ha nincs ilyen
+    static String parseNodeStatus(ByteBuffer packet) {
+        byte[] p = new byte[packet.remaining()];
+        packet.get(p);
+        try {
+            if (p.length < 12 || u16(p, 6) == 0) return null;
+            int[] pos = {12};
+            readName(p, pos);
+            int i = pos[0];
+            if (u16(p, i) != 0x21) return null;
+            int count = p[i + 10] & 0xFF;
+            int entry = i + 11;
+            String fallback = null;
+            for (int n = 0; n < count && entry + 18 <= p.length; n++, entry += 18) {
+                String name = new String(p, entry, 15, StandardCharsets.ISO_8859_1).trim();
+                int suffix = p[entry + 15] & 0xFF;
+                boolean group = (p[entry + 16] & 0x80) != 0;
+                if (suffix == 0x00 && !group && !name.isEmpty()) return name;
+                if (fallback == null && suffix == 0x20 && !group && !name.isEmpty()) fallback = name;
+            }
+            return fallback;
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package networkmon;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Hálózati körülmény-emulátor a 127.0.0.1 hurokcímen: TCP vagy UDP proxy egy célcím elé, amely
+// irányonként késleltetést, normál eloszlású jittert és sávszélesség-korlátot ad a forgalomhoz,
+// UDP-nél csomagot is dob (véletlen veszteség és tele sor) és sorrendet cserél. A mérőfunkciók
+// pontosságát így ismert, megismételhető körülmények között lehet ellenőrizni.
+// TCP-nél a veszteség és a sorrendcsere nem értelmezhető (a bájtfolyam megbízható), ott csak a
+// késleltetés, a jitter (sorrendtartó módon) és a sávszélesség hat.
+final class NetEmulator implements AutoCloseable {
+    private static final int TCP_CHUNK = 4096;
+    private static final int TCP_WINDOW_CHUNKS = 64;     // irányonként max. 256 KB úton lévő adat
+    private static final long UDP_QUEUE_NANOS = 100_000_000L;  // drop-tail sor: 100 ms-nyi adat
+    private static final long REORDER_HOLD_MIN_MS = 10;
+
+    enum Protocol { TCP, UDP }
+
+    static final class Conditions {
+        static final Conditions NONE = new Conditions(0, 0, 0, 0, 0);
+
+        final double delayMs;        // egyirányú késleltetés (a körülfordulási idő ennek kétszerese)
+        final double jitterMs;       // a késleltetés szórása irányonként
+        final double lossPercent;    // UDP csomagvesztés irányonként
+        final double reorderPercent; // UDP: a csomagok ennyi %-a visszatartva, a későbbiek megelőzik
+        final double rateMbps;       // sávszélesség irányonként, 0 = korlátlan
+
+        Conditions(double delayMs, double jitterMs, double lossPercent, double reorderPercent, double rateMbps) {
+            this.delayMs = delayMs;
+            this.jitterMs = jitterMs;
+            this.lossPercent = lossPercent;
+            this.reorderPercent = reorderPercent;
+            this.rateMbps = rateMbps;
+        }
+
+        String describe() {
+            return String.format("késleltetés %.1f ms, jitter %.1f ms, veszteség %.1f %%, sorrendcsere %.1f %%, %s",
+                    delayMs, jitterMs, lossPercent, reorderPercent,
+                    rateMbps > 0 ? String.format("%.1f Mbps", rateMbps) : "korlátlan sávszélesség");
+        }
+    }
+
+    // Egy irány: eldönti, mikor (és egyáltalán) továbbítható egy adag
+    private static final class Link {
+        private final Conditions c;
+        private final Random rnd;
+        private long busyUntil;
+        private long lastRelease;
+        final AtomicLong dropped = new AtomicLong();
+
+        Link(Conditions c, long seed) {
+            this.c = c;
+            this.rnd = new Random(seed);
+        }
+
+        // Továbbítási időpont (nanoTime), vagy -1, ha az adag elvész
+        synchronized long release(int bytes, boolean datagram) {
+            long now = System.nanoTime();
+            if (datagram && c.lossPercent > 0 && rnd.nextDouble() * 100 < c.lossPercent) {
+                dropped.incrementAndGet();
+                return -1;
+            }
+            long tx = now;
+            if (c.rateMbps > 0) {
+                long start = Math.max(now, busyUntil);
+                if (datagram && start - now > UDP_QUEUE_NANOS) {
+                    dropped.incrementAndGet();
+                    return -1;
+                }
+                busyUntil = start + (long) (bytes * 8 * 1000 / c.rateMbps);
+                tx = busyUntil;
+            }
+            double delay = Math.max(0, c.delayMs + (c.jitterMs > 0 ? rnd.nextGaussian() * c.jitterMs : 0));
+            if (datagram && c.reorderPercent > 0 && rnd.nextDouble() * 100 < c.reorderPercent) {
+                delay += Math.max(REORDER_HOLD_MIN_MS, c.delayMs);
+            }
+            long release = tx + (long) (delay * 1_000_000);
+            if (!datagram) {
+                // A TCP folyam sorrendje nem változhat: a jitter csak a későbbi adagokat tolhatja
+                release = Math.max(release, lastRelease);
+                lastRelease = release;
+            }
+            return release;
+        }
+    }
+
+    // Időzített UDP továbbítás (a DelayQueue a kiadási idő szerint rendez)
+    private static final class Pending implements Delayed {
+        private static final AtomicLong ORDER = new AtomicLong();
+        final long releaseNanos;
+        final long order = ORDER.incrementAndGet();
+        final DatagramSocket socket;
+        final DatagramPacket packet;
+
+        Pending(long releaseNanos, DatagramSocket socket, DatagramPacket packet) {
+            this.releaseNanos = releaseNanos;
+            this.socket = socket;
+            this.packet = packet;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(releaseNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            Pending p = (Pending) o;
+            int cmp = Long.compare(releaseNanos, p.releaseNanos);
+            return cmp != 0 ? cmp : Long.compare(order, p.order);
+        }
+    }
+
+    private final Protocol protocol;
+    private final InetSocketAddress target;
+    private final Conditions conditions;
+    private final Consumer<String> log;
+    private final ThreadFactory threads = TaskRuntime.threadFactory(TaskRuntime.Feature.TOOLS);
+    private final Link up;
+    private final Link down;
+    private final DelayQueue<Pending> pending = new DelayQueue<>();
+    private final Map<SocketAddress, DatagramSocket> udpSessions = new ConcurrentHashMap<>();
+    private final Map<AutoCloseable, Boolean> openResources = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+    private ServerSocket tcpListener;
+    private DatagramSocket udpFront;
+    private Thread dispatcher;
+
+    NetEmulator(Protocol protocol, InetSocketAddress target, Conditions conditions, long seed, Consumer<String> log) {
+        this.protocol = protocol;
+        this.target = target;
+        this.conditions = conditions;
+        this.log = log;
+        this.up = new Link(conditions, seed);
+        this.down = new Link(conditions, seed * 31 + 7);
+    }
+
+    // Elindítja a proxyt a 127.0.0.1:listenPort címen (0 = szabad port); a tényleges portot adja vissza
+    int start(int listenPort) throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        if (protocol == Protocol.TCP) {
+            tcpListener = new ServerSocket(listenPort, 50, loopback);
+            thread("accept", this::acceptLoop);
+            listenPort = tcpListener.getLocalPort();
+        } else {
+            udpFront = new DatagramSocket(new InetSocketAddress(loopback, listenPort));
+            dispatcher = thread("dispatch", this::dispatchLoop);
+            thread("front", this::udpFrontLoop);
+            listenPort = udpFront.getLocalPort();
+        }
+        log.accept("[Emulátor] " + protocol + " 127.0.0.1:" + listenPort + " -> "
+                + target.getHostString() + ":" + target.getPort() + " (" + conditions.describe() + ")");
+        return listenPort;
+    }
+
+    long droppedUp() {
+        return up.dropped.get();
+    }
+
+    long droppedDown() {
+        return down.dropped.get();
+    }
+
+    private Thread thread(String name, Runnable body) {
+        Thread t = threads.newThread(body);
+        t.setName("emu-" + name + "-" + t.getName());
+        t.start();
+        return t;
+    }
+
+    // ---------- TCP ----------
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket client = tcpListener.accept();
+                Socket server = new Socket();
+                try {
+                    server.connect(target, 5000);
+                } catch (IOException ex) {
+                    log.accept("[Emulátor] Cél nem érhető el: " + ex.getMessage());
+                    client.close();
+                    continue;
+                }
+                client.setTcpNoDelay(true);
+                server.setTcpNoDelay(true);
+                openResources.put(client, Boolean.TRUE);
+                openResources.put(server, Boolean.TRUE);
+                AtomicInteger open = new AtomicInteger(2);
+                pump(client, server, up, open);
+                pump(server, client, down, open);
+            } catch (IOException ex) {
+                if (running) log.accept("[Emulátor] TCP hiba: " + ex.getMessage());
+            }
+        }
+    }
+
+    // Egy irány: az olvasó adagokra bont és időbélyegez, az író a kiadási időig vár
+    // Ha mindkét irány lezárult (vagy hiba volt), a két socket bezárul.
+    private void pump(Socket from, Socket to, Link link, AtomicInteger open) {
+        BlockingQueue<Object[]> queue = new ArrayBlockingQueue<>(TCP_WINDOW_CHUNKS);
+        byte[] eof = new byte[0];
+        thread("tcp-read", () -> {
+            try (InputStream in = from.getInputStream()) {
+                byte[] buf = new byte[TCP_CHUNK];
+                int r;
+                while ((r = in.read(buf)) > 0) {
+                    queue.put(new Object[]{link.release(r, false), Arrays.copyOf(buf, r)});
+                }
+            } catch (IOException | InterruptedException ignored) {
+            } finally {
+                try {
+                    queue.put(new Object[]{0L, eof});
+                } catch (InterruptedException ignored) {}
+            }
+        });
+        thread("tcp-write", () -> {
+            try {
+                OutputStream out = to.getOutputStream();
+                while (true) {
+                    Object[] item = queue.take();
+                    byte[] data = (byte[]) item[1];
+                    if (data == eof) {
+                        to.shutdownOutput();
+                        break;
+                    }
+                    sleepUntil((Long) item[0]);
+                    out.write(data);
+                }
+            } catch (IOException | InterruptedException ex) {
+                open.set(1);
+            }
+            if (open.decrementAndGet() <= 0) {
+                closeQuietly(from);
+                closeQuietly(to);
+                openResources.remove(from);
+                openResources.remove(to);
+            }
+        });
+    }
+
+    private static void sleepUntil(long nanos) throws InterruptedException {
+        long wait;
+        while ((wait = nanos - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    // ---------- UDP ----------
+
+    private void udpFrontLoop() {
+        byte[] buf = new byte[65_535];
+        while (running) {
+            try {
+                DatagramPacket p = new DatagramPacket(buf, buf.length);
+                udpFront.receive(p);
+                SocketAddress client = p.getSocketAddress();
+                DatagramSocket back = udpSessions.computeIfAbsent(client, this::openUdpSession);
+                if (back == null) continue;
+                schedule(up, back, new DatagramPacket(Arrays.copyOf(p.getData(), p.getLength()), p.getLength(), target));
+            } catch (IOException ex) {
+                if (running) log.accept("[Emulátor] UDP hiba: " + ex.getMessage());
+            }
+        }
+    }
+
+    // Kliensenként külön hátsó socket, így a cél felől érkező válasz a megfelelő kliensnek megy vissza
+    private DatagramSocket openUdpSession(SocketAddress client) {
+        try {
+            DatagramSocket back = new DatagramSocket();
+            openResources.put(back, Boolean.TRUE);
+            thread("back", () -> {
+                byte[] buf = new byte[65_535];
+                while (running && !back.isClosed()) {
+                    try {
+                        DatagramPacket p = new DatagramPacket(buf, buf.length);
+                        back.receive(p);
+                        schedule(down, udpFront, new DatagramPacket(Arrays.copyOf(p.getData(), p.getLength()), p.getLength(), client));
+                    } catch (IOException ex) {
+                        // ICMP port unreachable a célról, vagy lezárt socket
+                    }
+                }
+            });
+            return back;
+        } catch (IOException ex) {
+            log.accept("[Emulátor] UDP munkamenet nem nyitható: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private void schedule(Link link, DatagramSocket via, DatagramPacket packet) {
+        long release = link.release(packet.getLength() + 28, true);
+        if (release >= 0) pending.add(new Pending(release, via, packet));
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                Pending p = pending.take();
+                p.socket.send(p.packet);
+            } catch (InterruptedException ex) {
+                return;
+            } catch (IOException ex) {
+                if (running) log.accept("[Emulátor] Továbbítási hiba: " + ex.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        closeQuietly(tcpListener);
+        closeQuietly(udpFront);
+        for (AutoCloseable r : openResources.keySet()) closeQuietly(r);
+        openResources.clear();
+        if (dispatcher != null) dispatcher.interrupt();
+        pending.clear();
+        log.accept(String.format("[Emulátor] Leállítva (eldobva: oda %d, vissza %d).", droppedUp(), droppedDown()));
+    }
+
+    private static void closeQuietly(AutoCloseable c) {
+        if (c == null) return;
+        try {
+            c.close();
+        } catch (Exception ignored) {}
+    }
+
+    // ---------- Helyi célpontok a pontossági ellenőrzéshez ----------
+
+    // HTTP szerver: "/" rövid válasz (válaszidő), "/data" a kért számú bájt (letöltés)
+    static HttpServer httpTarget(int dataBytes) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        byte[] ok = "ok".getBytes();
+        server.createContext("/", ex -> {
+            ex.sendResponseHeaders(200, ok.length);
+            try (OutputStream os = ex.getResponseBody()) {
+                os.write(ok);
+            }
+        });
+        byte[] block = new byte[64 * 1024];
+        new Random(42).nextBytes(block);
+        server.createContext("/data", ex -> {
+            ex.sendResponseHeaders(200, dataBytes);
+            try (OutputStream os = ex.getResponseBody()) {
+                for (int left = dataBytes; left > 0; left -= block.length) {
+                    os.write(block, 0, Math.min(left, block.length));
+                }
+            }
+        });
+        server.setExecutor(null);
+        server.start();
+        return server;
+    }
+
+    // UDP echo szerver a hurokcímen; a lezárásig fut
+    static DatagramSocket udpEchoTarget() throws IOException {
+        DatagramSocket socket = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        Thread t = TaskRuntime.threadFactory(TaskRuntime.Feature.TOOLS).newThread(() -> {
+            byte[] buf = new byte[65_535];
+            while (!socket.isClosed()) {
+                try {
+                    DatagramPacket p = new DatagramPacket(buf, buf.length);
+                    socket.receive(p);
+                    socket.send(new DatagramPacket(p.getData(), p.getLength(), p.getSocketAddress()));
+                } catch (IOException ignored) {
+                }
+            }
+        });
+        t.setName("emu-echo-" + t.getName());
+        t.start();
+        return socket;
+    }
+
+    // ---------- Pontossági ellenőrzés ----------
+
+    static final class Check {
+        final String name;
+        final String unit;
+        final double expected;
+        final double tolerance;
+        final double measured;
+
+        Check(String name, String unit, double expected, double tolerance, double measured) {
+            this.name = name;
+            this.unit = unit;
+            this.expected = expected;
+            this.tolerance = tolerance;
+            this.measured = measured;
+        }
+
+        boolean passed() {
+            return !Double.isNaN(measured) && Math.abs(measured - expected) <= tolerance;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %-34s várt %8.2f ± %-6.2f %-4s mért %8.2f", passed() ? "[OK]     " : "[ELTÉRÉS]",
+                    name, expected, tolerance, unit, measured);
+        }
+    }
+}
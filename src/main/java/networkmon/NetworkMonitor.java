@@ -0,0 +1,4363 @@
+// NetworkMonitor.java - Max feature + packet tests edition:
+// - Download & upload speed
+// - Multi-ping stats (avg, jitter, loss)
+// - HTTP válaszidő
+// - Live graph (sebesség + ping)
+// - Traceroute
+// - Netstat viewer
+// - LAN leltár (/24): ARP / szomszédtábla + UDP seprés + TCP próbák, MAC gyártó beépített OUI indexből;
+//   nevek háttérben (fordított DNS, mDNS, NetBIOS egyszerre, TTL-es gyorsítótárral)
+// - Eszközleltár: tartós, MAC/IP szerinti leltár ütemezett olcsó ellenőrzéssel és ritka teljes sepréssel,
+//   online/offline váltások eseménynaplóval, 7 napos negyedórás jelenlét-előzmény eszközönként
+// - UPnP port forward (Add/DeletePortMapping)
+// - Unicast / Broadcast / Multicast tesztek + külön grafikon a válaszidőkre
+// - Anycast: több végpont párhuzamos ICMP/TCP/HTTP mérése, POP váltás felismerés
+// - Memória-leképezett bináris mérési tár (gyors visszatöltés indításkor, CSV export)
+// - Historikus elemzés (párhuzamos fork-join naplófeldolgozás, aggregátumok, percentilisek)
+// - Tartós multicast stream (sorszámozott, időbélyeges folyam; veszteség/átrendeződés/késleltetés)
+// - UDP áteresztőképesség-teszt (kliens/szerver, ütemezett küldés, szerver riportok)
+// - TCP áteresztőképesség-teszt saját szerverrel (zero-copy, több stream, kétirányú)
+// - Diagnosztika: mérési szakaszok, végrehajtók, EDT késleltetés, JFR események és felvétel
+// - Feladat-futtató: funkciónként korlátos, priorizált szálkészlet, leállítható feladat-scope-ok
+// - Adaptív sebességmérés: idő alapú, 100 ms-os mintavétel, felfutás kiszűrése, átviteli görbe
+// - Szerverválasztás: jelöltek párhuzamos előmérése (késleltetés + löket), legjobb K, gyorsítótárazva
+// - Riasztások: folyamatos szabálykiértékelés (csúszó ablak, percentilis, EWMA alapvonal), eseménynapló
+// - Gyűjtő / ügynök: mérések továbbítása tömörített bináris batch-ekben, lemezes újrapróbálási sor
+// - Méret-sweep: UDP echo / ICMP próbák csomagméret szerint (RTT, veszteség, goodput), útvonal MTU keresés
+// - Dual-stack: ping/TCP/HTTP/UDP/letöltés IPv4-en és IPv6-on egyszerre, happy-eyeballs összevetés, ff02::1 felderítés
+// - Előzmények: nagyítható / görgethető idővonal a bináris tárból, többfelbontású min/max/átlag piramissal
+// - Visszajátszás: CSV / JSON napló újrajátszása az élő feldolgozási úton (valós idő, N-szeres, max sebesség)
+// - Emulátor: hurokcímes TCP/UDP proxy késleltetéssel, jitterrel, veszteséggel, sorrendcserével, sávkorláttal; pontossági ellenőrzés
+// - Ping flotta: több száz célpont folyamatos, eltolt ütemezésű TCP-connect próbája egy NIO szálról, késleltetés/veszteség hőtérkép
+// - HTTP ellenőrzések: sok URL közös HTTP/2 klienssel, hosztonkénti korláttal; státusz / méret / SHA-256 ellenőrzés, saját tárba
+// - Eseménybusz: előre lefoglalt gyűrű a mérések / minták számára, fogyasztónként saját szál, kurzor és visszanyomás
+package networkmon;
+
+import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.xml.parsers.*;
+import org.w3c.dom.*;
+
+public class NetworkMonitor extends JFrame {
+
+    // Tabs
+    private JTabbedPane tabs;
+
+    // Monitor tab
+    private JComboBox<NetworkInterfaceWrapper> interfaceCombo;
+    private JLabel downloadLabel;
+    private JLabel uploadLabel;
+    private JLabel pingLabel;
+    private JLabel jitterLabel;
+    private JLabel lossLabel;
+    private JLabel httpRespLabel;
+
+    private JTextArea logArea;
+    private GraphPanel graphPanel;
+    private JButton startButton;
+    private JButton stopButton;
+    private JSpinner intervalSpinner; // sec
+
+    // Traceroute tab
+    private JTextField tracerouteField;
+    private JButton tracerouteButton;
+    private JTextArea tracerouteArea;
+
+    // Netstat tab
+    private JButton refreshNetstatButton;
+    private JTextArea netstatArea;
+
+    // LAN scan tab
+    private JTextArea lanScanArea;
+    private DefaultTableModel lanTableModel;
+    private JButton lanScanButton;
+    private JButton lanWatchButton;
+    private JSpinner lanVerifySpinner;
+    private JSpinner lanFullSpinner;
+    private TaskRuntime.Scope lanWatchTask;
+    private final AtomicBoolean lanFullRequested = new AtomicBoolean();
+    private final Object lanInventoryLock = new Object();
+    private DeviceInventory deviceInventory;
+    private JLabel lanScanInfoLabel;
+    private JButton ipv6NeighborButton;
+
+    // Port forward tab (UPnP)
+    private JTextField pfExternalPortField;
+    private JTextField pfInternalPortField;
+    private JTextField pfInternalHostField;
+    private JComboBox<String> pfProtocolCombo;
+    private JTextField pfDescriptionField;
+    private JButton pfAddButton;
+    private JButton pfDeleteButton;
+    private JTextArea pfLogArea;
+
+    // Packet tests tab
+    private JTextField unicastHostField;
+    private JSpinner unicastPortSpinner;
+    private JButton unicastPingButton;
+    private JButton unicastUdpButton;
+
+    private JButton broadcastTestButton;
+
+    private JTextField multicastGroupField;
+    private JSpinner multicastPortSpinner;
+    private JButton multicastTestButton;
+    private JSpinner multicastRateSpinner;
+    private JSpinner multicastSizeSpinner;
+    private JButton multicastStreamSendButton;
+    private JButton multicastStreamRecvButton;
+
+    private JCheckBox sweepUdpCheck;
+    private JCheckBox sweepIcmpCheck;
+    private JSpinner sweepMaxSizeSpinner;
+    private JSpinner sweepProbesSpinner;
+    private JButton payloadSweepButton;
+
+
+
+    // Packet test loop controls (run until stopped; null = nem fut, csak az EDT írja)
+    private TaskRuntime.Scope unicastUdpTask;
+    private TaskRuntime.Scope broadcastTask;
+    private TaskRuntime.Scope multicastTask;
+    private TaskRuntime.Scope mcStreamSendTask;
+    private TaskRuntime.Scope mcStreamRecvTask;
+    private TaskRuntime.Scope payloadSweepTask;
+
+    private JTextArea packetTestArea;
+    private PacketGraphPanel packetGraphPanel;
+    private SweepGraphPanel sweepGraphPanel;
+
+    // Anycast tab
+    private JTextField anycastTargetsField;
+    private JSpinner anycastIntervalSpinner;
+    private JButton anycastStartButton;
+    private PacketGraphPanel anycastIcmpGraph;
+    private PacketGraphPanel anycastTcpGraph;
+    private PacketGraphPanel anycastHttpGraph;
+    private DefaultTableModel anycastTableModel;
+    private JTextArea anycastLogArea;
+    private TaskRuntime.Scope anycastTask;
+
+    // Ping flotta tab
+    private JTextArea fleetTargetsArea;
+    private JSpinner fleetPortSpinner;
+    private JSpinner fleetIntervalSpinner;
+    private JSpinner fleetTimeoutSpinner;
+    private JSpinner fleetSlotSpinner;
+    private JButton fleetStartButton;
+    private FleetHeatMapPanel fleetHeatMap;
+    private DefaultTableModel fleetTableModel;
+    private JTextArea fleetLogArea;
+    private TaskRuntime.Scope fleetTask;
+
+    // HTTP ellenőrzések tab
+    private JTextArea httpChecksArea;
+    private JSpinner httpCheckIntervalSpinner;
+    private JSpinner httpCheckPerHostSpinner;
+    private JSpinner httpCheckTimeoutSpinner;
+    private JButton httpCheckStartButton;
+    private DefaultTableModel httpCheckTableModel;
+    private JTextArea httpCheckLogArea;
+    private TaskRuntime.Scope httpCheckTask;
+
+    // Dual-stack tab
+    private JTextField dualStackUrlField;
+    private JSpinner dualStackUdpPortSpinner;
+    private JSpinner dualStackIntervalSpinner;
+    private JCheckBox dualStackDownloadCheck;
+    private JButton dualStackButton;
+    private PacketGraphPanel dualStackPingGraph;
+    private PacketGraphPanel dualStackTcpGraph;
+    private PacketGraphPanel dualStackHttpGraph;
+    private PacketGraphPanel dualStackDownloadGraph;
+    private DefaultTableModel dualStackTableModel;
+    private JTextArea dualStackLogArea;
+    private TaskRuntime.Scope dualStackTask;
+
+    // Throughput tab (UDP blast)
+    private JTextField udpBlastHostField;
+    private JSpinner udpBlastPortSpinner;
+    private JSpinner udpBlastMbpsSpinner;
+    private JSpinner udpBlastSizeSpinner;
+    private JSpinner udpBlastDurationSpinner;
+    private JButton udpBlastClientButton;
+    private JButton udpBlastServerButton;
+    private TaskRuntime.Scope udpBlastClientTask;
+    private TaskRuntime.Scope udpBlastServerTask;
+
+    // Throughput tab (TCP)
+    private JTextField tcpHostField;
+    private JSpinner tcpPortSpinner;
+    private JSpinner tcpStreamsSpinner;
+    private JSpinner tcpDurationSpinner;
+    private JComboBox<String> tcpModeCombo;
+    private JCheckBox tcpZeroCopyCheck;
+    private JButton tcpClientButton;
+    private JButton tcpServerButton;
+    private TaskRuntime.Scope tcpClientTask;
+    private TaskRuntime.Scope tcpServerTask;
+
+    // Collector / agent
+    private JTextField agentCollectorField;
+    private JTextField agentNameField;
+    private JButton agentButton;
+    private JLabel agentStatusLabel;
+    private JSpinner collectorPortSpinner;
+    private JButton collectorButton;
+    private JLabel collectorStatusLabel;
+    private DefaultTableModel collectorTableModel;
+    private JSpinner collectorQueryHoursSpinner;
+    private JTextArea collectorArea;
+    private TaskRuntime.Scope agentTask;
+    private TaskRuntime.Scope collectorTask;
+    private volatile CollectorAgent agent;
+    private volatile CollectorServer collector;
+    private volatile CollectorStore collectorStore;
+
+    private JTextArea throughputArea;
+    private PacketGraphPanel throughputGraphPanel;
+
+    // Analytics tab
+    private JTextField analyticsPathField;
+    private JButton analyticsButton;
+    private JTextArea analyticsArea;
+    private JComboBox<String> replaySpeedCombo;
+    private JButton replayButton;
+    private TaskRuntime.Scope replayTask;
+
+    // History tab
+    private HistoryChartPanel historyChart;
+    private JComboBox<String> historyMetricCombo;
+    private JLabel historyStatusLabel;
+
+    // Settings tab
+    private JTextField pingTargetField;
+    private JSpinner pingCountSpinner;
+    private JTextField speedTestUrlField;
+    private JSpinner downloadBytesSpinner;
+    private JSpinner uploadBytesSpinner;
+    private JCheckBox adaptiveSpeedCheck;
+    private JSpinner speedSecondsSpinner;
+    private JCheckBox autoServerCheck;
+    private JTextField serverCandidatesField;
+    private JSpinner serverTopKSpinner;
+    private JSpinner serverReevalSpinner;
+    private JTextField httpTestUrlField;
+    private JButton exportJsonButton;
+    private JButton exportCsvButton;
+    private JCheckBox darkThemeCheck;
+
+    // Diagnostics tab
+    private JTextArea diagnosticsArea;
+    private JTextArea alertRulesArea;
+    private JTextArea activeAlertsArea;
+    private JTextArea alertLogArea;
+    private File alertLogFile;
+    private final AlertEngine alerts = new AlertEngine(this::onAlertEvent);
+    private volatile List<AlertEngine.Rule> alertRules = AlertEngine.parse(AlertEngine.DEFAULT_RULES);
+    // Visszajátszás közben külön motor ugyanazokkal a szabályokkal: a régi rekordok nem érintik az élő
+    // ablakokat / alapvonalakat és a network_alerts.log-ot, az eseményei az elemzés naplóba kerülnek
+    private volatile AlertEngine replayAlerts;
+    private JButton jfrButton;
+    private JButton accuracyButton;
+    private JTextArea accuracyArea;
+    private TaskRuntime.Scope accuracyTask;
+
+    // Logic
+    private ScheduledExecutorService scheduler;
+    private final TaskRuntime runtime = new TaskRuntime(this::appendLog);
+    private File csvLogFile;
+    private File jsonLogFile;
+    private MeasurementStore store;
+    private volatile HistoryPyramid pyramid;
+    // Minden kész mérés és csomag / átviteli minta ide kerül; a naplózás, tár, felület, riasztás és gyűjtő fogyasztók
+    private final MeasurementBus bus = new MeasurementBus(4096, this::appendLog);
+    private MeasurementBus.Subscriber uiSubscriber;
+    private volatile int reloadHours = 24; // indításkor ennyi óra töltődik vissza a bináris tárból
+    // Párhuzamos többszerveres mérés felső korlátja (a letöltések saját időkorlátja ennél jóval rövidebb)
+    private static final long SERVER_TEST_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(10);
+    // DecimalFormat nem szálbiztos, a háttérszálak is formáznak vele: szálanként egy példány
+    private static final ThreadLocal<DecimalFormat> DF2 = ThreadLocal.withInitial(() -> new DecimalFormat("0.00"));
+
+    // Runtime config
+    private volatile String pingTarget = "8.8.8.8";
+    private volatile int pingCount = 5;
+    private volatile String speedTestUrl = "https://speed.hetzner.de/10MB.bin";
+    private volatile int downloadBytes = 2 * 1024 * 1024; // 2MB
+    private volatile int uploadBytes = 512 * 1024;        // 512KB
+    private volatile boolean adaptiveSpeed = false;       // idő alapú mérés a fix méret helyett
+    private volatile int speedTestSeconds = 5;            // irányonként, adaptív módban
+    private volatile boolean autoServer = false;          // letöltési szerver választása a jelöltek közül
+    private volatile String serverCandidates = "";
+    private volatile int serverTopK = 1;                  // >1: párhuzamos letöltés több szerverről, összegezve
+    private volatile int serverReevalMinutes = 30;
+    private final ServerSelector serverSelector = new ServerSelector(runtime, this::appendLog);
+    private final NameResolver nameResolver = new NameResolver(this::appendLan);
+    private volatile String httpTestUrl = "https://www.google.com";
+
+    // History for JSON export
+    private final List<Measurement> history = Collections.synchronizedList(new ArrayList<>());
+
+    public NetworkMonitor() {
+        super("Hálózati monitor (max feature + packet tests)");
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                runtime.shutdown();
+                nameResolver.shutdown();
+                bus.shutdown();
+            }
+        });
+        setSize(1250, 780);
+        setLocationRelativeTo(null);
+
+        initComponents();
+        loadInterfaces();
+        Diagnostics.start();
+
+        csvLogFile = new File("network_log.csv");
+        jsonLogFile = new File("network_log.json");
+        alertLogFile = new File("network_alerts.log");
+        if (!csvLogFile.exists()) {
+            try (PrintWriter pw = new PrintWriter(new OutputStreamWriter(new FileOutputStream(csvLogFile, true), StandardCharsets.UTF_8))) {
+                pw.println(RecordEncoder.CSV_HEADER);
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+
+        try {
+            store = MeasurementStore.open(new File("network_store"));
+            runtime.submit(TaskRuntime.Feature.STORAGE, this::reloadFromStore);
+            pyramid = HistoryPyramid.open(store, new File("network_store", "pyramid"));
+            historyChart.setPyramid(pyramid);
+            // Az első (hosszú) építés háttérben; utána a grafikon minden betöltéskor csak az új rekordokat dolgozza fel
+            runtime.submit(TaskRuntime.Feature.STORAGE, () -> {
+                long start = System.nanoTime();
+                try {
+                    pyramid.catchUp(() -> true);
+                    appendLog("Előzmény piramis kész (" + (System.nanoTime() - start) / 1_000_000 + " ms).");
+                } catch (IOException ex) {
+                    appendLog("Előzmény piramis hiba: " + ex.getMessage());
+                }
+            });
+        } catch (IOException ex) {
+            appendLog("Bináris tár megnyitási hiba: " + ex.getMessage());
+        }
+        startBus();
+
+        applyTheme(false);
+    }
+
+    private void reloadFromStore() {
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        List<Measurement> recent = store.query(now - reloadHours * 3600_000L, now);
+        history.addAll(0, recent);
+        for (Measurement m : recent) alerts.warmUp(m);
+        int from = Math.max(0, recent.size() - 240);
+        List<Measurement> tail = recent.subList(from, recent.size());
+        SwingUtilities.invokeLater(() -> {
+            for (Measurement m : tail) {
+                graphPanel.addPoint(m.downloadMbps, m.uploadMbps, m.pingAvgMs);
+            }
+        });
+        appendLog(String.format("Visszatöltve a bináris tárból: %d mérés (utolsó %d óra), %.1f ms",
+                recent.size(), reloadHours, (System.nanoTime() - start) / 1e6));
+    }
+
+    private void initComponents() {
+        tabs = new JTabbedPane();
+
+        // ========== MONITOR TAB ==========
+        JPanel monitorPanel = new JPanel(new BorderLayout());
+
+        JPanel topBar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        interfaceCombo = new JComboBox<>();
+        startButton = new JButton("Start");
+        stopButton = new JButton("Stop");
+        stopButton.setEnabled(false);
+
+        intervalSpinner = new JSpinner(new SpinnerNumberModel(10, 1, 3600, 1));
+        topBar.add(new JLabel("Hálózati kártya:"));
+        topBar.add(interfaceCombo);
+        topBar.add(startButton);
+        topBar.add(stopButton);
+        topBar.add(new JLabel("Intervallum (s):"));
+        topBar.add(intervalSpinner);
+
+        startButton.addActionListener(this::onStart);
+        stopButton.addActionListener(this::onStop);
+
+        JPanel statusBar = new JPanel(new GridLayout(2, 3));
+        downloadLabel = new JLabel("Download: - Mbps");
+        uploadLabel   = new JLabel("Upload: - Mbps");
+        pingLabel     = new JLabel("Ping átlag: - ms");
+        jitterLabel   = new JLabel("Jitter: - ms");
+        lossLabel     = new JLabel("Veszteség: - %");
+        httpRespLabel = new JLabel("HTTP válaszidő: - ms");
+        statusBar.add(downloadLabel);
+        statusBar.add(uploadLabel);
+        statusBar.add(pingLabel);
+        statusBar.add(jitterLabel);
+        statusBar.add(lossLabel);
+        statusBar.add(httpRespLabel);
+
+        graphPanel = new GraphPanel();
+        logArea = new JTextArea();
+        logArea.setEditable(false);
+        JScrollPane logScroll = new JScrollPane(logArea);
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, graphPanel, logScroll);
+        split.setResizeWeight(0.5);
+
+        monitorPanel.add(topBar, BorderLayout.NORTH);
+        monitorPanel.add(statusBar, BorderLayout.SOUTH);
+        monitorPanel.add(split, BorderLayout.CENTER);
+
+        tabs.addTab("Monitor", monitorPanel);
+
+        // ========== TRACEROUTE TAB ==========
+        JPanel traceroutePanel = new JPanel(new BorderLayout());
+        JPanel trTop = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        tracerouteField = new JTextField("8.8.8.8", 20);
+        tracerouteButton = new JButton("Traceroute indítás");
+        tracerouteButton.addActionListener(this::onTraceroute);
+        trTop.add(new JLabel("Cél host:"));
+        trTop.add(tracerouteField);
+        trTop.add(tracerouteButton);
+        tracerouteArea = new JTextArea();
+        tracerouteArea.setEditable(false);
+        tracerouteArea.setBorder(new TitledBorder("Traceroute kimenet"));
+        traceroutePanel.add(trTop, BorderLayout.NORTH);
+        traceroutePanel.add(new JScrollPane(tracerouteArea), BorderLayout.CENTER);
+        tabs.addTab("Traceroute", traceroutePanel);
+
+        // ========== NETSTAT TAB ==========
+        JPanel netstatPanel = new JPanel(new BorderLayout());
+        refreshNetstatButton = new JButton("Kapcsolatok frissítése (netstat)");
+        refreshNetstatButton.addActionListener(this::onRefreshNetstat);
+        netstatArea = new JTextArea();
+        netstatArea.setEditable(false);
+        netstatArea.setBorder(new TitledBorder("Aktív kapcsolatok (netstat -ano)"));
+        netstatPanel.add(refreshNetstatButton, BorderLayout.NORTH);
+        netstatPanel.add(new JScrollPane(netstatArea), BorderLayout.CENTER);
+        tabs.addTab("Kapcsolatok", netstatPanel);
+
+        // ========== LAN SCAN TAB ==========
+        JPanel lanPanel = new JPanel(new BorderLayout());
+        JPanel lanTop = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        lanScanButton = new JButton("LAN feltérképezés (aktuális interfész /24)");
+        lanScanButton.addActionListener(this::onLanScan);
+        lanScanInfoLabel = new JLabel("Interfészen lévő IPv4 alapján /24 leltár: ARP tábla + UDP seprés + TCP próbák, gyártó OUI alapján.");
+        ipv6NeighborButton = new JButton("IPv6 szomszédok (ff02::1)");
+        ipv6NeighborButton.addActionListener(this::onIpv6Neighbors);
+        lanVerifySpinner = new JSpinner(new SpinnerNumberModel(60, 10, 3600, 10));
+        lanFullSpinner = new JSpinner(new SpinnerNumberModel(30, 1, 1440, 5));
+        lanWatchButton = new JButton("Folyamatos leltár");
+        lanWatchButton.addActionListener(this::onLanWatch);
+        lanTop.add(lanScanButton);
+        lanTop.add(ipv6NeighborButton);
+        lanTop.add(new JLabel("Ellenőrzés (s):"));
+        lanTop.add(lanVerifySpinner);
+        lanTop.add(new JLabel("Teljes seprés (perc):"));
+        lanTop.add(lanFullSpinner);
+        lanTop.add(lanWatchButton);
+        lanPanel.add(lanTop, BorderLayout.NORTH);
+        lanTableModel = new DefaultTableModel(new String[]{"IP", "MAC", "Gyártó", "Név", "Forrás", "RTT (ms)",
+                "Állapot", "Első észlelés", "Utoljára", "Jelenlét (24 óra)", "Jelenlét (7 nap)", "Váltások"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) { return false; }
+        };
+        JTable lanTable = new JTable(lanTableModel);
+        lanTable.setAutoCreateRowSorter(true);
+        JScrollPane lanTableScroll = new JScrollPane(lanTable);
+        lanTableScroll.setBorder(new TitledBorder("LAN eszközök"));
+        lanScanArea = new JTextArea();
+        lanScanArea.setEditable(false);
+        JScrollPane lanLogScroll = new JScrollPane(lanScanArea);
+        lanLogScroll.setBorder(new TitledBorder("LAN napló"));
+        JSplitPane lanSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT, lanTableScroll, lanLogScroll);
+        lanSplit.setResizeWeight(0.7);
+        lanPanel.add(lanSplit, BorderLayout.CENTER);
+        lanPanel.add(lanScanInfoLabel, BorderLayout.SOUTH);
+        tabs.addTab("LAN feltérképezés", lanPanel);
+
+        // ========== PORT FORWARD (UPnP) TAB ==========
+        JPanel pfPanel = new JPanel(new BorderLayout());
+
+        JPanel pfTop = new JPanel(new GridLayout(3, 4, 5, 5));
+        pfTop.setBorder(new TitledBorder("UPnP Port forwarding (router támogatás szükséges)"));
+        pfExternalPortField = new JTextField("55555", 6);
+        pfInternalPortField = new JTextField("55555", 6);
+        pfInternalHostField = new JTextField("192.168.0.100", 12);
+        pfProtocolCombo = new JComboBox<>(new String[]{"TCP", "UDP"});
+        pfDescriptionField = new JTextField("NetworkMonitorPort", 15);
+        pfTop.add(new JLabel("Külső port:"));
+        pfTop.add(pfExternalPortField);
+        pfTop.add(new JLabel("Belső IP:"));
+        pfTop.add(pfInternalHostField);
+        pfTop.add(new JLabel("Belső port:"));
+        pfTop.add(pfInternalPortField);
+        pfTop.add(new JLabel("Protokoll:"));
+        pfTop.add(pfProtocolCombo);
+        pfTop.add(new JLabel("Leírás:"));
+        pfTop.add(pfDescriptionField);
+
+        JPanel pfButtons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        pfAddButton = new JButton("Port forward hozzáadása");
+        pfDeleteButton = new JButton("Port forward törlése");
+        pfAddButton.addActionListener(this::onAddPortForward);
+        pfDeleteButton.addActionListener(this::onDeletePortForward);
+        pfButtons.add(pfAddButton);
+        pfButtons.add(pfDeleteButton);
+
+        pfLogArea = new JTextArea();
+        pfLogArea.setEditable(false);
+        pfLogArea.setBorder(new TitledBorder("UPnP napló"));
+
+        JPanel pfTopContainer = new JPanel(new BorderLayout());
+        pfTopContainer.add(pfTop, BorderLayout.NORTH);
+        pfTopContainer.add(pfButtons, BorderLayout.SOUTH);
+
+        pfPanel.add(pfTopContainer, BorderLayout.NORTH);
+        pfPanel.add(new JScrollPane(pfLogArea), BorderLayout.CENTER);
+
+        tabs.addTab("Port forward (UPnP)", pfPanel);
+
+        // ========== PACKET TESTS TAB ==========
+        JPanel packetPanel = new JPanel(new BorderLayout());
+
+        // Left: controls in vertical layout
+        JPanel controlPanel = new JPanel();
+        controlPanel.setLayout(new BoxLayout(controlPanel, BoxLayout.Y_AXIS));
+
+        // Unicast panel
+        JPanel uniPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        uniPanel.setBorder(new TitledBorder("Unicast tesztek"));
+        unicastHostField = new JTextField("8.8.8.8", 12);
+        unicastPortSpinner = new JSpinner(new SpinnerNumberModel(7, 1, 65535, 1));
+        unicastPingButton = new JButton("ICMP ping");
+        unicastUdpButton = new JButton("UDP echo teszt");
+        unicastPingButton.addActionListener(this::onUnicastPing);
+        unicastUdpButton.addActionListener(this::onUnicastUdp);
+        uniPanel.add(new JLabel("Host:"));
+        uniPanel.add(unicastHostField);
+        uniPanel.add(new JLabel("UDP port:"));
+        uniPanel.add(unicastPortSpinner);
+        uniPanel.add(unicastPingButton);
+        uniPanel.add(unicastUdpButton);
+
+        // Broadcast panel
+        JPanel bcPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        bcPanel.setBorder(new TitledBorder("Broadcast teszt"));
+        broadcastTestButton = new JButton("Broadcast UDP küldése + válaszok figyelése");
+        broadcastTestButton.addActionListener(this::onBroadcastTest);
+        bcPanel.add(broadcastTestButton);
+
+        // Multicast panel
+        JPanel mcPanel = new JPanel(new GridLayout(2, 1));
+        mcPanel.setBorder(new TitledBorder("Multicast teszt"));
+        JPanel mcRow1 = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        multicastGroupField = new JTextField("224.0.0.251", 12);
+        multicastPortSpinner = new JSpinner(new SpinnerNumberModel(5353, 1, 65535, 1));
+        multicastTestButton = new JButton("Multicast teszt");
+        multicastTestButton.addActionListener(this::onMulticastTest);
+        mcRow1.add(new JLabel("Csoport:"));
+        mcRow1.add(multicastGroupField);
+        mcRow1.add(new JLabel("Port:"));
+        mcRow1.add(multicastPortSpinner);
+        mcRow1.add(multicastTestButton);
+
+        // Tartós stream mód: sorszámozott, időbélyeges folyam adott csomagsebességgel
+        JPanel mcRow2 = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        multicastRateSpinner = new JSpinner(new SpinnerNumberModel(1000, 1, 200000, 100));
+        multicastSizeSpinner = new JSpinner(new SpinnerNumberModel(1316, MulticastStream.HEADER_SIZE, 8972, 4));
+        multicastStreamSendButton = new JButton("Stream küldés");
+        multicastStreamRecvButton = new JButton("Stream fogadás");
+        multicastStreamSendButton.addActionListener(this::onMulticastStreamSend);
+        multicastStreamRecvButton.addActionListener(this::onMulticastStreamRecv);
+        mcRow2.add(new JLabel("Csomag/s:"));
+        mcRow2.add(multicastRateSpinner);
+        mcRow2.add(new JLabel("Méret (byte):"));
+        mcRow2.add(multicastSizeSpinner);
+        mcRow2.add(multicastStreamSendButton);
+        mcRow2.add(multicastStreamRecvButton);
+
+        mcPanel.add(mcRow1);
+        mcPanel.add(mcRow2);
+
+        // Méret-sweep: a unicast host / UDP port mezőit használja
+        JPanel sweepPanel = new JPanel(new GridLayout(2, 1));
+        sweepPanel.setBorder(new TitledBorder("Méret-sweep (RTT / veszteség / MTU)"));
+        JPanel swRow1 = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        sweepUdpCheck = new JCheckBox(PayloadSweep.UDP, true);
+        sweepIcmpCheck = new JCheckBox(PayloadSweep.ICMP, true);
+        sweepMaxSizeSpinner = new JSpinner(new SpinnerNumberModel(8972, 64, 65507, 4));
+        swRow1.add(sweepUdpCheck);
+        swRow1.add(sweepIcmpCheck);
+        swRow1.add(new JLabel("Max méret (byte):"));
+        swRow1.add(sweepMaxSizeSpinner);
+        JPanel swRow2 = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        sweepProbesSpinner = new JSpinner(new SpinnerNumberModel(5, 1, 100, 1));
+        payloadSweepButton = new JButton("Méret sweep");
+        payloadSweepButton.addActionListener(this::onPayloadSweep);
+        swRow2.add(new JLabel("Próba / méret:"));
+        swRow2.add(sweepProbesSpinner);
+        swRow2.add(payloadSweepButton);
+        sweepPanel.add(swRow1);
+        sweepPanel.add(swRow2);
+
+        controlPanel.add(uniPanel);
+        controlPanel.add(bcPanel);
+        controlPanel.add(mcPanel);
+        controlPanel.add(sweepPanel);
+
+        // Right: packet graph + text area
+        packetGraphPanel = new PacketGraphPanel();
+        packetGraphPanel.setBorder(new TitledBorder("Teszt válaszidők (ms)"));
+
+        packetTestArea = new JTextArea();
+        packetTestArea.setEditable(false);
+        JScrollPane packetScroll = new JScrollPane(packetTestArea);
+        packetScroll.setBorder(new TitledBorder("Teszt napló"));
+
+        sweepGraphPanel = new SweepGraphPanel();
+        sweepGraphPanel.setBorder(new TitledBorder("Méret-sweep: medián RTT (ms) a hasznos teher függvényében"));
+        JTabbedPane packetGraphTabs = new JTabbedPane();
+        packetGraphTabs.addTab("Válaszidők", packetGraphPanel);
+        packetGraphTabs.addTab("Méret-sweep", sweepGraphPanel);
+
+        JSplitPane packetSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT, packetGraphTabs, packetScroll);
+        packetSplit.setResizeWeight(0.4);
+
+        packetPanel.add(controlPanel, BorderLayout.WEST);
+        packetPanel.add(packetSplit, BorderLayout.CENTER);
+
+        tabs.addTab("Csomag tesztek", packetPanel);
+
+        // ========== ANYCAST TAB ==========
+        JPanel anycastPanel = new JPanel(new BorderLayout());
+        JPanel acTop = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        acTop.setBorder(new TitledBorder("Anycast végpontok (ip|url, vesszővel elválasztva)"));
+        anycastTargetsField = new JTextField(AnycastMonitor.DEFAULT_TARGETS, 60);
+        anycastIntervalSpinner = new JSpinner(new SpinnerNumberModel(1000, 200, 60000, 100));
+        anycastStartButton = new JButton("Párhuzamos mérés indítás");
+        anycastStartButton.addActionListener(this::onAnycastTest);
+        acTop.add(anycastTargetsField);
+        acTop.add(new JLabel("Kör (ms):"));
+        acTop.add(anycastIntervalSpinner);
+        acTop.add(anycastStartButton);
+
+        // Célpontok egymás mellett, mérési típusonként külön grafikon
+        JPanel acGraphs = new JPanel(new GridLayout(1, 3));
+        anycastIcmpGraph = new PacketGraphPanel(false);
+        anycastTcpGraph = new PacketGraphPanel(false);
+        anycastHttpGraph = new PacketGraphPanel(false);
+        anycastIcmpGraph.setBorder(new TitledBorder("ICMP ping (ms)"));
+        anycastTcpGraph.setBorder(new TitledBorder("TCP connect :443 (ms)"));
+        anycastHttpGraph.setBorder(new TitledBorder("HTTP válaszidő (ms)"));
+        acGraphs.add(anycastIcmpGraph);
+        acGraphs.add(anycastTcpGraph);
+        acGraphs.add(anycastHttpGraph);
+
+        anycastTableModel = new DefaultTableModel(new String[]{
+                "Célpont", "ICMP (ms)", "ICMP veszteség (%)", "TCP (ms)", "TCP p50 (ms)", "HTTP (ms)", "POP", "POP váltások"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) { return false; }
+        };
+        JTable anycastTable = new JTable(anycastTableModel);
+        anycastLogArea = new JTextArea();
+        anycastLogArea.setEditable(false);
+        JScrollPane acLogScroll = new JScrollPane(anycastLogArea);
+        acLogScroll.setBorder(new TitledBorder("Anycast napló"));
+        JSplitPane acBottom = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, new JScrollPane(anycastTable), acLogScroll);
+        acBottom.setResizeWeight(0.6);
+
+        JSplitPane acSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT, acGraphs, acBottom);
+        acSplit.setResizeWeight(0.6);
+
+        anycastPanel.add(acTop, BorderLayout.NORTH);
+        anycastPanel.add(acSplit, BorderLayout.CENTER);
+        tabs.addTab("Anycast", anycastPanel);
+
+        // ========== PING FLEET TAB ==========
+        JPanel fleetPanel = new JPanel(new BorderLayout());
+        JPanel flTop = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        fleetPortSpinner = new JSpinner(new SpinnerNumberModel(PingFleet.DEFAULT_PORT, 1, 65535, 1));
+        fleetIntervalSpinner = new JSpinner(new SpinnerNumberModel(1000, 100, 60000, 100));
+        fleetTimeoutSpinner = new JSpinner(new SpinnerNumberModel(2000, 100, 30000, 100));
+        fleetSlotSpinner = new JSpinner(new SpinnerNumberModel(10, 1, 3600, 1));
+        fleetStartButton = new JButton("Flotta indítása");
+        fleetStartButton.addActionListener(this::onFleetTest);
+        flTop.add(new JLabel("Alap port:"));
+        flTop.add(fleetPortSpinner);
+        flTop.add(new JLabel("Időköz (ms):"));
+        flTop.add(fleetIntervalSpinner);
+        flTop.add(new JLabel("Időtúllépés (ms):"));
+        flTop.add(fleetTimeoutSpinner);
+        flTop.add(new JLabel("Idősáv (s):"));
+        flTop.add(fleetSlotSpinner);
+        flTop.add(fleetStartButton);
+
+        fleetTargetsArea = new JTextArea("# soronként vagy vesszővel: host, host:port, név=host:port, CIDR (10.0.0.0/24)\n"
+                + "1.1.1.1\n8.8.8.8\n9.9.9.9\ngoogle.com\ngithub.com\n", 8, 28);
+        JScrollPane flTargetsScroll = new JScrollPane(fleetTargetsArea);
+        flTargetsScroll.setBorder(new TitledBorder("Célpontok"));
+
+        fleetHeatMap = new FleetHeatMapPanel();
+        fleetHeatMap.setBorder(new TitledBorder("Hőtérkép: idősávonkénti medián késleltetés, lila = veszteség, fekete = nincs válasz"));
+        JSplitPane flTopSplit = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, flTargetsScroll, fleetHeatMap);
+        flTopSplit.setResizeWeight(0.2);
+
+        fleetTableModel = new DefaultTableModel(new String[]{
+                "Célpont", "Cím", "Küldve", "Veszteség (%)", "Utolsó (ms)", "p50 (ms)", "p95 (ms)", "Állapot"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) { return false; }
+        };
+        JTable fleetTable = new JTable(fleetTableModel);
+        fleetTable.setAutoCreateRowSorter(true);
+        fleetLogArea = new JTextArea();
+        fleetLogArea.setEditable(false);
+        JScrollPane flLogScroll = new JScrollPane(fleetLogArea);
+        flLogScroll.setBorder(new TitledBorder("Flotta napló"));
+        JSplitPane flBottom = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, new JScrollPane(fleetTable), flLogScroll);
+        flBottom.setResizeWeight(0.6);
+
+        JSplitPane flSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT, flTopSplit, flBottom);
+        flSplit.setResizeWeight(0.6);
+
+        fleetPanel.add(flTop, BorderLayout.NORTH);
+        fleetPanel.add(flSplit, BorderLayout.CENTER);
+        tabs.addTab("Ping flotta", fleetPanel);
+
+        // ========== HTTP CHECKS TAB ==========
+        JPanel httpCheckPanel = new JPanel(new BorderLayout());
+        JPanel hcTop = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        httpCheckIntervalSpinner = new JSpinner(new SpinnerNumberModel(60, 5, 3600, 5));
+        httpCheckPerHostSpinner = new JSpinner(new SpinnerNumberModel(HttpCheckFleet.DEFAULT_PER_HOST, 1, 64, 1));
+        httpCheckTimeoutSpinner = new JSpinner(new SpinnerNumberModel(15, 1, 120, 1));
+        httpCheckStartButton = new JButton("Ellenőrzések indítása");
+        httpCheckStartButton.addActionListener(this::onHttpChecks);
+        hcTop.add(new JLabel("Időköz (s):"));
+        hcTop.add(httpCheckIntervalSpinner);
+        hcTop.add(new JLabel("Hosztonként max.:"));
+        hcTop.add(httpCheckPerHostSpinner);
+        hcTop.add(new JLabel("Időtúllépés (s):"));
+        hcTop.add(httpCheckTimeoutSpinner);
+        hcTop.add(httpCheckStartButton);
+        hcTop.add(new JLabel("Eredmények: network_store/http_checks"));
+
+        httpChecksArea = new JTextArea("# soronként: [név=]URL [status=200|2xx|200-399] [size=N|size>=N|size<=N] [sha256=hex]\n"
+                + "https://www.google.com/ status=2xx\n"
+                + "https://github.com/ status=2xx size>=1000\n"
+                + "cloudflare=https://1.1.1.1/cdn-cgi/trace\n", 8, 40);
+        JScrollPane hcChecksScroll = new JScrollPane(httpChecksArea);
+        hcChecksScroll.setBorder(new TitledBorder("Ellenőrzések"));
+
+        httpCheckTableModel = new DefaultTableModel(new String[]{
+                "Név", "Protokoll", "Státusz", "Méret (byte)", "TTFB (ms)", "Teljes (ms)", "Hibás / összes", "Utolsó eredmény"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) { return false; }
+        };
+        JTable httpCheckTable = new JTable(httpCheckTableModel);
+        httpCheckTable.setAutoCreateRowSorter(true);
+        JSplitPane hcTopSplit = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, hcChecksScroll, new JScrollPane(httpCheckTable));
+        hcTopSplit.setResizeWeight(0.35);
+
+        httpCheckLogArea = new JTextArea();
+        httpCheckLogArea.setEditable(false);
+        JScrollPane hcLogScroll = new JScrollPane(httpCheckLogArea);
+        hcLogScroll.setBorder(new TitledBorder("HTTP ellenőrzés napló"));
+        JSplitPane hcSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT, hcTopSplit, hcLogScroll);
+        hcSplit.setResizeWeight(0.65);
+
+        httpCheckPanel.add(hcTop, BorderLayout.NORTH);
+        httpCheckPanel.add(hcSplit, BorderLayout.CENTER);
+        tabs.addTab("HTTP ellenőrzések", httpCheckPanel);
+
+        // ========== DUAL-STACK TAB ==========
+        JPanel dualStackPanel = new JPanel(new BorderLayout());
+        JPanel dsTop = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        dsTop.setBorder(new TitledBorder("Cél (ping / TCP / HTTP / UDP ugyanarra a hostra, IPv4 és IPv6 címen egyszerre)"));
+        dualStackUrlField = new JTextField(DualStackMonitor.DEFAULT_URL, 30);
+        dualStackUdpPortSpinner = new JSpinner(new SpinnerNumberModel(7, 0, 65535, 1));
+        dualStackIntervalSpinner = new JSpinner(new SpinnerNumberModel(10, 1, 3600, 1));
+        dualStackDownloadCheck = new JCheckBox("Letöltés is (sebességteszt URL)", true);
+        dualStackButton = new JButton("Dual-stack mérés");
+        dualStackButton.addActionListener(this::onDualStackTest);
+        dsTop.add(new JLabel("URL:"));
+        dsTop.add(dualStackUrlField);
+        dsTop.add(new JLabel("UDP echo port (0 = ki):"));
+        dsTop.add(dualStackUdpPortSpinner);
+        dsTop.add(new JLabel("Kör (s):"));
+        dsTop.add(dualStackIntervalSpinner);
+        dsTop.add(dualStackDownloadCheck);
+        dsTop.add(dualStackButton);
+
+        JPanel dsGraphs = new JPanel(new GridLayout(1, 4));
+        dualStackPingGraph = new PacketGraphPanel(false);
+        dualStackTcpGraph = new PacketGraphPanel(false);
+        dualStackHttpGraph = new PacketGraphPanel(false);
+        dualStackDownloadGraph = new PacketGraphPanel(false);
+        dualStackPingGraph.setBorder(new TitledBorder("ICMP ping (ms)"));
+        dualStackTcpGraph.setBorder(new TitledBorder("TCP connect (ms)"));
+        dualStackHttpGraph.setBorder(new TitledBorder("HTTP válaszidő (ms)"));
+        dualStackDownloadGraph.setBorder(new TitledBorder("Letöltés (Mbps)"));
+        for (PacketGraphPanel g : new PacketGraphPanel[]{dualStackPingGraph, dualStackTcpGraph, dualStackHttpGraph, dualStackDownloadGraph}) {
+            g.defineSeries(DualStackMonitor.V4, "Kék: IPv4", Color.BLUE);
+            g.defineSeries(DualStackMonitor.V6, "Narancs: IPv6", Color.ORANGE);
+            dsGraphs.add(g);
+        }
+
+        dualStackTableModel = new DefaultTableModel(new String[]{
+                "Család", "Cím", "Ping (ms)", "Ping veszteség (%)", "TCP (ms)", "HTTP (ms)", "Letöltés (Mbps)",
+                "UDP echo (ms)", "Happy-eyeballs győzelem"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) { return false; }
+        };
+        JTable dualStackTable = new JTable(dualStackTableModel);
+        dualStackLogArea = new JTextArea();
+        dualStackLogArea.setEditable(false);
+        JScrollPane dsLogScroll = new JScrollPane(dualStackLogArea);
+        dsLogScroll.setBorder(new TitledBorder("Dual-stack napló"));
+        JSplitPane dsBottom = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(dualStackTable), dsLogScroll);
+        dsBottom.setResizeWeight(0.3);
+
+        JSplitPane dsSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT, dsGraphs, dsBottom);
+        dsSplit.setResizeWeight(0.5);
+
+        dualStackPanel.add(dsTop, BorderLayout.NORTH);
+        dualStackPanel.add(dsSplit, BorderLayout.CENTER);
+        tabs.addTab("IPv4 / IPv6", dualStackPanel);
+
+        // ========== THROUGHPUT TESTS TAB ==========
+        JPanel throughputPanel = new JPanel(new BorderLayout());
+        JPanel tpControls = new JPanel();
+        tpControls.setLayout(new BoxLayout(tpControls, BoxLayout.Y_AXIS));
+
+        JPanel udpBlastPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        udpBlastPanel.setBorder(new TitledBorder("UDP áteresztőképesség (két NetworkMonitor között)"));
+        udpBlastHostField = new JTextField("127.0.0.1", 12);
+        udpBlastPortSpinner = new JSpinner(new SpinnerNumberModel(UdpBlast.DEFAULT_PORT, 1, 65535, 1));
+        udpBlastMbpsSpinner = new JSpinner(new SpinnerNumberModel(100, 1, 100000, 10));
+        udpBlastSizeSpinner = new JSpinner(new SpinnerNumberModel(1470, UdpBlast.HEADER_SIZE, UdpBlast.MAX_PACKET, 10));
+        udpBlastDurationSpinner = new JSpinner(new SpinnerNumberModel(10, 1, 3600, 1));
+        udpBlastClientButton = new JButton("UDP kliens indítás");
+        udpBlastServerButton = new JButton("UDP szerver indítás");
+        udpBlastClientButton.addActionListener(this::onUdpBlastClient);
+        udpBlastServerButton.addActionListener(this::onUdpBlastServer);
+        udpBlastPanel.add(new JLabel("Szerver:"));
+        udpBlastPanel.add(udpBlastHostField);
+        udpBlastPanel.add(new JLabel("Port:"));
+        udpBlastPanel.add(udpBlastPortSpinner);
+        udpBlastPanel.add(new JLabel("Cél (Mbps):"));
+        udpBlastPanel.add(udpBlastMbpsSpinner);
+        udpBlastPanel.add(new JLabel("Csomag (byte):"));
+        udpBlastPanel.add(udpBlastSizeSpinner);
+        udpBlastPanel.add(new JLabel("Idő (s):"));
+        udpBlastPanel.add(udpBlastDurationSpinner);
+        udpBlastPanel.add(udpBlastClientButton);
+        udpBlastPanel.add(udpBlastServerButton);
+        tpControls.add(udpBlastPanel);
+
+        JPanel tcpPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        tcpPanel.setBorder(new TitledBorder("TCP áteresztőképesség (saját szerver, zero-copy)"));
+        tcpHostField = new JTextField("127.0.0.1", 12);
+        tcpPortSpinner = new JSpinner(new SpinnerNumberModel(TcpThroughput.DEFAULT_PORT, 1, 65535, 1));
+        tcpStreamsSpinner = new JSpinner(new SpinnerNumberModel(4, 1, 64, 1));
+        tcpDurationSpinner = new JSpinner(new SpinnerNumberModel(10, 1, 3600, 1));
+        tcpModeCombo = new JComboBox<>(new String[]{"Feltöltés", "Letöltés", "Kétirányú"});
+        tcpZeroCopyCheck = new JCheckBox("Zero-copy (transferTo)", true);
+        tcpClientButton = new JButton("TCP kliens indítás");
+        tcpServerButton = new JButton("TCP szerver indítás");
+        tcpClientButton.addActionListener(this::onTcpClient);
+        tcpServerButton.addActionListener(this::onTcpServer);
+        tcpPanel.add(new JLabel("Szerver:"));
+        tcpPanel.add(tcpHostField);
+        tcpPanel.add(new JLabel("Port:"));
+        tcpPanel.add(tcpPortSpinner);
+        tcpPanel.add(new JLabel("Streamek:"));
+        tcpPanel.add(tcpStreamsSpinner);
+        tcpPanel.add(new JLabel("Idő (s):"));
+        tcpPanel.add(tcpDurationSpinner);
+        tcpPanel.add(tcpModeCombo);
+        tcpPanel.add(tcpZeroCopyCheck);
+        tcpPanel.add(tcpClientButton);
+        tcpPanel.add(tcpServerButton);
+        tpControls.add(tcpPanel);
+
+        throughputGraphPanel = new PacketGraphPanel(false);
+        throughputGraphPanel.defineSeries("udp", "UDP fogadott (Mbps)", Color.BLUE);
+        throughputGraphPanel.defineSeries("tcp_up", "TCP feltöltés (Mbps)", new Color(0, 180, 0));
+        throughputGraphPanel.defineSeries("tcp_down", "TCP letöltés (Mbps)", Color.RED);
+        throughputGraphPanel.setBorder(new TitledBorder("Áteresztés (Mbps)"));
+
+        throughputArea = new JTextArea();
+        throughputArea.setEditable(false);
+        JScrollPane throughputScroll = new JScrollPane(throughputArea);
+        throughputScroll.setBorder(new TitledBorder("Teszt napló"));
+
+        JSplitPane throughputSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT, throughputGraphPanel, throughputScroll);
+        throughputSplit.setResizeWeight(0.4);
+
+        throughputPanel.add(tpControls, BorderLayout.NORTH);
+        throughputPanel.add(throughputSplit, BorderLayout.CENTER);
+
+        tabs.addTab("Átviteli tesztek", throughputPanel);
+
+        // ========== ANALYTICS TAB ==========
+        JPanel analyticsPanel = new JPanel(new BorderLayout());
+        JPanel anTop = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        analyticsPathField = new JTextField("network_log.csv", 30);
+        analyticsButton = new JButton("Elemzés indítása");
+        analyticsButton.addActionListener(this::onAnalytics);
+        anTop.add(new JLabel("Napló (CSV / JSON / bináris tár könyvtár):"));
+        anTop.add(analyticsPathField);
+        anTop.add(analyticsButton);
+        replaySpeedCombo = new JComboBox<>(new String[]{"Valós idő", "10x", "100x", "1000x", "Max"});
+        replaySpeedCombo.setSelectedItem("Max");
+        replayButton = new JButton("Visszajátszás");
+        replayButton.addActionListener(this::onReplay);
+        anTop.add(new JLabel("Sebesség:"));
+        anTop.add(replaySpeedCombo);
+        anTop.add(replayButton);
+        analyticsArea = new JTextArea();
+        analyticsArea.setEditable(false);
+        analyticsArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        analyticsArea.setBorder(new TitledBorder("Elemzés eredménye"));
+        analyticsPanel.add(anTop, BorderLayout.NORTH);
+        analyticsPanel.add(new JScrollPane(analyticsArea), BorderLayout.CENTER);
+        tabs.addTab("Elemzés", analyticsPanel);
+
+        // ========== HISTORY TAB ==========
+        JPanel historyPanel = new JPanel(new BorderLayout());
+        JPanel hiTop = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        historyMetricCombo = new JComboBox<>(HistoryPyramid.METRICS);
+        JButton historyDayButton = new JButton("Utolsó 24 óra");
+        JButton historyWeekButton = new JButton("Utolsó 7 nap");
+        JButton historyAllButton = new JButton("Teljes tartomány");
+        historyStatusLabel = new JLabel("Görgő: nagyítás, húzás: mozgatás, dupla kattintás: teljes tartomány");
+        historyChart = new HistoryChartPanel(task -> runtime.submit(TaskRuntime.Feature.STORAGE, task),
+                text -> historyStatusLabel.setText(text));
+        historyMetricCombo.addActionListener(e -> historyChart.setMetric(historyMetricCombo.getSelectedIndex()));
+        historyDayButton.addActionListener(e -> historyChart.showLast(24 * 3600_000L));
+        historyWeekButton.addActionListener(e -> historyChart.showLast(7 * 24 * 3600_000L));
+        historyAllButton.addActionListener(e -> historyChart.showAll());
+        hiTop.add(new JLabel("Metrika:"));
+        hiTop.add(historyMetricCombo);
+        hiTop.add(historyDayButton);
+        hiTop.add(historyWeekButton);
+        hiTop.add(historyAllButton);
+        historyChart.setBorder(new TitledBorder("Mérési előzmények (min–max sáv, átlag vonal)"));
+        historyPanel.add(hiTop, BorderLayout.NORTH);
+        historyPanel.add(historyChart, BorderLayout.CENTER);
+        historyPanel.add(historyStatusLabel, BorderLayout.SOUTH);
+        tabs.addTab("Előzmények", historyPanel);
+
+        // ========== SETTINGS / EXPORT TAB ==========
+        JPanel settingsPanel = new JPanel();
+        settingsPanel.setLayout(new BoxLayout(settingsPanel, BoxLayout.Y_AXIS));
+
+        JPanel pingPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        pingPanel.setBorder(new TitledBorder("Ping beállítások"));
+        pingTargetField = new JTextField(pingTarget, 15);
+        pingCountSpinner = new JSpinner(new SpinnerNumberModel(pingCount, 1, 50, 1));
+        pingPanel.add(new JLabel("Ping célpont:"));
+        pingPanel.add(pingTargetField);
+        pingPanel.add(new JLabel("Pingek száma / mérés:"));
+        pingPanel.add(pingCountSpinner);
+
+        JPanel speedPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        speedPanel.setBorder(new TitledBorder("Sebességmérés beállítások"));
+        speedTestUrlField = new JTextField(speedTestUrl, 30);
+        downloadBytesSpinner = new JSpinner(new SpinnerNumberModel(downloadBytes, 64 * 1024, 50 * 1024 * 1024, 64 * 1024));
+        uploadBytesSpinner   = new JSpinner(new SpinnerNumberModel(uploadBytes,   64 * 1024, 10 * 1024 * 1024, 64 * 1024));
+        speedPanel.add(new JLabel("Letöltési URL:"));
+        speedPanel.add(speedTestUrlField);
+        speedPanel.add(new JLabel("Letöltés mérete (byte):"));
+        speedPanel.add(downloadBytesSpinner);
+        speedPanel.add(new JLabel("Feltöltés mérete (byte):"));
+        speedPanel.add(uploadBytesSpinner);
+        adaptiveSpeedCheck = new JCheckBox("Idő alapú (adaptív) mérés", adaptiveSpeed);
+        speedSecondsSpinner = new JSpinner(new SpinnerNumberModel(speedTestSeconds, 2, 30, 1));
+        speedPanel.add(adaptiveSpeedCheck);
+        speedPanel.add(new JLabel("Időtartam / irány (s):"));
+        speedPanel.add(speedSecondsSpinner);
+
+        JPanel serverPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        serverPanel.setBorder(new TitledBorder("Szerverválasztás (letöltés)"));
+        autoServerCheck = new JCheckBox("Automatikus", autoServer);
+        serverCandidatesField = new JTextField(serverCandidates, 40);
+        serverCandidatesField.setToolTipText("Jelölt letöltési URL-ek vesszővel elválasztva (helyi szerver is lehet)");
+        serverTopKSpinner = new JSpinner(new SpinnerNumberModel(serverTopK, 1, 5, 1));
+        serverReevalSpinner = new JSpinner(new SpinnerNumberModel(serverReevalMinutes, 1, 1440, 5));
+        JButton evaluateServersButton = new JButton("Jelöltek mérése most");
+        evaluateServersButton.addActionListener(this::onEvaluateServers);
+        serverPanel.add(autoServerCheck);
+        serverPanel.add(new JLabel("Jelöltek:"));
+        serverPanel.add(serverCandidatesField);
+        serverPanel.add(new JLabel("Legjobb K:"));
+        serverPanel.add(serverTopKSpinner);
+        serverPanel.add(new JLabel("Újraértékelés (perc):"));
+        serverPanel.add(serverReevalSpinner);
+        serverPanel.add(evaluateServersButton);
+
+        JPanel httpPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        httpPanel.setBorder(new TitledBorder("HTTP válaszidő mérés"));
+        httpTestUrlField = new JTextField(httpTestUrl, 30);
+        httpPanel.add(new JLabel("HTTP URL:"));
+        httpPanel.add(httpTestUrlField);
+
+        JPanel themePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        themePanel.setBorder(new TitledBorder("Megjelenés"));
+        darkThemeCheck = new JCheckBox("Sötét téma");
+        darkThemeCheck.addActionListener(e -> applyTheme(darkThemeCheck.isSelected()));
+        themePanel.add(darkThemeCheck);
+
+        JPanel exportPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        exportPanel.setBorder(new TitledBorder("Export"));
+        exportJsonButton = new JButton("Log export JSON-be");
+        exportJsonButton.addActionListener(this::onExportJson);
+        JButton applySettingsButton = new JButton("Beállítások mentése");
+        applySettingsButton.addActionListener(this::onApplySettings);
+        exportCsvButton = new JButton("Bináris tár export CSV-be");
+        exportCsvButton.addActionListener(this::onExportCsv);
+        exportPanel.add(exportJsonButton);
+        exportPanel.add(exportCsvButton);
+        exportPanel.add(applySettingsButton);
+
+        settingsPanel.add(pingPanel);
+        settingsPanel.add(speedPanel);
+        settingsPanel.add(serverPanel);
+        settingsPanel.add(httpPanel);
+        settingsPanel.add(themePanel);
+        settingsPanel.add(exportPanel);
+        settingsPanel.add(Box.createVerticalGlue());
+
+        tabs.addTab("Beállítások / Export", settingsPanel);
+
+        // ========== COLLECTOR / AGENT TAB ==========
+        JPanel collectorPanel = new JPanel(new BorderLayout());
+        JPanel collectorTop = new JPanel();
+        collectorTop.setLayout(new BoxLayout(collectorTop, BoxLayout.Y_AXIS));
+
+        JPanel agentPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        agentPanel.setBorder(new TitledBorder("Ügynök mód (mérések és csomagteszt minták továbbítása a gyűjtőnek)"));
+        agentCollectorField = new JTextField("127.0.0.1:9400", 16);
+        agentNameField = new JTextField(defaultAgentName(), 16);
+        agentButton = new JButton("Ügynök indítás");
+        agentButton.addActionListener(this::onToggleAgent);
+        agentStatusLabel = new JLabel("Ügynök: nem fut");
+        agentPanel.add(new JLabel("Gyűjtő (host:port):"));
+        agentPanel.add(agentCollectorField);
+        agentPanel.add(new JLabel("Ügynök neve:"));
+        agentPanel.add(agentNameField);
+        agentPanel.add(agentButton);
+        agentPanel.add(agentStatusLabel);
+
+        JPanel collectorCtl = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        collectorCtl.setBorder(new TitledBorder("Gyűjtő mód (közös tár: collector_store)"));
+        collectorPortSpinner = new JSpinner(new SpinnerNumberModel(9400, 1, 65535, 1));
+        collectorButton = new JButton("Gyűjtő indítás");
+        collectorButton.addActionListener(this::onToggleCollector);
+        collectorQueryHoursSpinner = new JSpinner(new SpinnerNumberModel(24, 1, 24 * 365, 1));
+        JButton collectorQueryButton = new JButton("Lekérdezés");
+        collectorQueryButton.addActionListener(this::onCollectorQuery);
+        collectorStatusLabel = new JLabel("Gyűjtő: nem fut");
+        collectorCtl.add(new JLabel("Port:"));
+        collectorCtl.add(collectorPortSpinner);
+        collectorCtl.add(collectorButton);
+        collectorCtl.add(new JLabel("Utolsó órák:"));
+        collectorCtl.add(collectorQueryHoursSpinner);
+        collectorCtl.add(collectorQueryButton);
+        collectorCtl.add(collectorStatusLabel);
+
+        collectorTop.add(agentPanel);
+        collectorTop.add(collectorCtl);
+
+        collectorTableModel = new DefaultTableModel(new String[]{
+                "Ügynök", "Kapcsolat", "Utolsó adat", "Rekordok", "Batch-ek", "Tömörítés", "Ismételt", "DL (Mbps)", "UL (Mbps)", "Ping (ms)"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) { return false; }
+        };
+        JTable collectorTable = new JTable(collectorTableModel);
+        collectorArea = new JTextArea();
+        collectorArea.setEditable(false);
+        collectorArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JScrollPane collectorLogScroll = new JScrollPane(collectorArea);
+        collectorLogScroll.setBorder(new TitledBorder("Gyűjtő / ügynök napló és lekérdezés"));
+        JSplitPane collectorSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(collectorTable), collectorLogScroll);
+        collectorSplit.setResizeWeight(0.5);
+        collectorPanel.add(collectorTop, BorderLayout.NORTH);
+        collectorPanel.add(collectorSplit, BorderLayout.CENTER);
+        tabs.addTab("Gyűjtő / ügynök", collectorPanel);
+        new javax.swing.Timer(1000, e -> refreshCollectorView()).start();
+
+        // ========== ALERTS TAB ==========
+        JPanel alertsPanel = new JPanel(new BorderLayout());
+        JPanel rulesPanel = new JPanel(new BorderLayout());
+        rulesPanel.setBorder(new TitledBorder("Szabályok (soronként: stat metrika művelet küszöb [window idő] [for idő])"));
+        alertRulesArea = new JTextArea(AlertEngine.DEFAULT_RULES, 7, 80);
+        alertRulesArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JButton applyRulesButton = new JButton("Szabályok alkalmazása");
+        applyRulesButton.addActionListener(this::onApplyAlertRules);
+        rulesPanel.add(new JScrollPane(alertRulesArea), BorderLayout.CENTER);
+        rulesPanel.add(applyRulesButton, BorderLayout.EAST);
+        activeAlertsArea = new JTextArea("Nincs aktív riasztás.", 5, 80);
+        activeAlertsArea.setEditable(false);
+        activeAlertsArea.setForeground(new Color(180, 0, 0));
+        alertLogArea = new JTextArea();
+        alertLogArea.setEditable(false);
+        JScrollPane activeScroll = new JScrollPane(activeAlertsArea);
+        activeScroll.setBorder(new TitledBorder("Aktív riasztások"));
+        JScrollPane alertLogScroll = new JScrollPane(alertLogArea);
+        alertLogScroll.setBorder(new TitledBorder("Eseménynapló (network_alerts.log)"));
+        JSplitPane alertSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT, activeScroll, alertLogScroll);
+        alertSplit.setResizeWeight(0.3);
+        alertsPanel.add(rulesPanel, BorderLayout.NORTH);
+        alertsPanel.add(alertSplit, BorderLayout.CENTER);
+        tabs.addTab("Riasztások", alertsPanel);
+        alerts.setRules(alertRules);
+
+        // ========== DIAGNOSTICS TAB ==========
+        JPanel diagPanel = new JPanel(new BorderLayout());
+        JPanel diagTop = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        jfrButton = new JButton("JFR felvétel indítása");
+        jfrButton.addActionListener(this::onJfrRecording);
+        diagTop.add(jfrButton);
+        accuracyButton = new JButton("Pontossági ellenőrzés (emulátor)");
+        accuracyButton.addActionListener(this::onAccuracySuite);
+        diagTop.add(accuracyButton);
+        diagTop.add(new JLabel("Saját műszerezés, másodpercenként frissül (JFR események: networkmon.Stage / Probe / Health)"));
+        diagnosticsArea = new JTextArea();
+        diagnosticsArea.setEditable(false);
+        diagnosticsArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        accuracyArea = new JTextArea();
+        accuracyArea.setEditable(false);
+        accuracyArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        accuracyArea.setBorder(new TitledBorder("Pontossági ellenőrzés"));
+        JSplitPane diagSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+                new JScrollPane(diagnosticsArea), new JScrollPane(accuracyArea));
+        diagSplit.setResizeWeight(0.6);
+        diagPanel.add(diagTop, BorderLayout.NORTH);
+        diagPanel.add(diagSplit, BorderLayout.CENTER);
+        tabs.addTab("Diagnosztika", diagPanel);
+        new javax.swing.Timer(1000, e -> {
+            if (tabs.getSelectedComponent() == diagPanel) diagnosticsArea.setText(Diagnostics.report());
+        }).start();
+
+        getContentPane().setLayout(new BorderLayout());
+        getContentPane().add(tabs, BorderLayout.CENTER);
+    }
+
+    private void loadInterfaces() {
+        try {
+            Enumeration<NetworkInterface> en = NetworkInterface.getNetworkInterfaces();
+            while (en.hasMoreElements()) {
+                NetworkInterface ni = en.nextElement();
+                if (ni.isUp() && !ni.isLoopback() && !ni.isVirtual()) {
+                    interfaceCombo.addItem(new NetworkInterfaceWrapper(ni));
+                }
+            }
+        } catch (SocketException e) {
+            appendLog("Hiba hálózati kártyák lekérdezésekor: " + e.getMessage());
+        }
+    }
+
+    // ========== MONITOR LOGIC ==========
+
+    private void onStart(ActionEvent e) {
+        NetworkInterfaceWrapper selected = (NetworkInterfaceWrapper) interfaceCombo.getSelectedItem();
+        if (selected == null) {
+            JOptionPane.showMessageDialog(this, "Nincs kártya kiválasztva", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        startButton.setEnabled(false);
+        interfaceCombo.setEnabled(false);
+        stopButton.setEnabled(true);
+
+        int intervalSec = (Integer) intervalSpinner.getValue();
+        if (intervalSec < 1) intervalSec = 1;
+
+        scheduler = new ScheduledThreadPoolExecutor(1, TaskRuntime.threadFactory(TaskRuntime.Feature.MEASUREMENT));
+        NetworkInterfaceWrapper wrapper = selected;
+        int finalIntervalSec = intervalSec;
+        Runnable task = Diagnostics.trackScheduled(() -> runMeasurement(wrapper), TimeUnit.SECONDS.toNanos(finalIntervalSec));
+        scheduler.scheduleAtFixedRate(task, 0, finalIntervalSec, TimeUnit.SECONDS);
+        Diagnostics.watchExecutor("mérés ütemező", scheduler);
+    }
+
+    private void onStop(ActionEvent e) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            Diagnostics.unwatchExecutor("mérés ütemező");
+        }
+        startButton.setEnabled(true);
+        interfaceCombo.setEnabled(true);
+        stopButton.setEnabled(false);
+    }
+
+    private void runMeasurement(NetworkInterfaceWrapper wrapper) {
+        try (Diagnostics.Stage total = Diagnostics.stage("mérés (összesen)")) {
+            InetAddress addr = wrapper.getIPv4();
+            InetAddress addr6 = wrapper.getIPv6();
+            if (addr != null || addr6 != null) {
+                appendLog("Mérés indul ezen az IP-n (info): "
+                        + (addr != null ? addr.getHostAddress() : "nincs IPv4")
+                        + (addr6 != null ? ", " + addr6.getHostAddress() : ""));
+            }
+
+            SpeedResult speed = testSpeed();
+            PingStats stats;
+            try (Diagnostics.Stage s = Diagnostics.stage("ping")) {
+                stats = testMultiPing(pingTarget, pingCount);
+                if (stats.lossPercent < 100.0) s.ok();
+            }
+            double httpRespMs;
+            try (Diagnostics.Stage s = Diagnostics.stage("http válaszidő")) {
+                httpRespMs = testHttpResponseTime(httpTestUrl);
+                if (httpRespMs > 0) s.ok();
+            }
+
+            Measurement m = new Measurement(
+                    new Date(),
+                    wrapper.toString(),
+                    speed.downloadMbps,
+                    speed.uploadMbps,
+                    stats.avgMs,
+                    stats.jitterMs,
+                    stats.lossPercent,
+                    httpRespMs,
+                    speed.downloadCurve,
+                    speed.uploadCurve
+            );
+            history.add(m);
+            bus.publishMeasurement(m, null, null);
+            total.ok();
+
+        } catch (Exception ex) {
+            appendLog("Hiba mérés közben: " + ex.toString());
+        }
+    }
+
+    // ========== EVENT BUS ==========
+
+    // A kész mérések fogyasztói (élő mérés és visszajátszás közös útja). BLOCK: CSV napló, bináris tár,
+    // riasztások - ezekből nem veszhet el esemény; DROP: felület és gyűjtő - lemaradáskor a frissebb adat nyer.
+    // Visszajátszásnál a CSV/JSON sorok a replay folyamokba kerülnek, a bináris tár és a gyűjtő nem kapja meg újra a rekordot.
+    private void startBus() {
+        bus.subscribe("csv napló", MeasurementBus.Policy.BLOCK, TaskRuntime.Feature.STORAGE, (e, seq, end) -> {
+            if (e.kind != MeasurementBus.Kind.MEASUREMENT) return;
+            RecordEncoder line = RecordEncoder.forCurrentThread().reset().csv(e.measurement);
+            if (e.replay()) {
+                line.newLine().writeTo(e.replayCsv);
+                if (e.replayJson != null) line.reset().json(e.measurement).newLine().writeTo(e.replayJson);
+                return;
+            }
+            appendLog("Eredmény: " + line);
+            try (Diagnostics.Stage s = Diagnostics.stage("csv írás")) {
+                if (writeCsv(line.newLine())) s.ok();
+            }
+        });
+        bus.subscribe("bináris tár", MeasurementBus.Policy.BLOCK, TaskRuntime.Feature.STORAGE, (e, seq, end) -> {
+            if (e.kind != MeasurementBus.Kind.MEASUREMENT || e.replay() || store == null) return;
+            try (Diagnostics.Stage s = Diagnostics.stage("tár írás")) {
+                long clamped = store.clampedTimestamps();
+                store.append(e.measurement);
+                if (store.clampedTimestamps() != clamped) {
+                    appendLog("Bináris tár: visszalépő időbélyeg (óraállítás?) a legutóbbi rekordéra igazítva: "
+                            + e.measurement.timestamp + " (eddig " + store.clampedTimestamps() + " ilyen rekord)");
+                }
+                s.ok();
+            } catch (IOException ex) {
+                appendLog("Bináris tár írás hiba: " + ex.getMessage());
+            }
+        });
+        bus.subscribe("riasztások", MeasurementBus.Policy.BLOCK, TaskRuntime.Feature.MEASUREMENT, (e, seq, end) -> {
+            AlertEngine engine = e.replay() ? replayAlerts : alerts;
+            if (engine == null) return;
+            if (e.kind == MeasurementBus.Kind.MEASUREMENT) engine.measurement(e.measurement);
+            else engine.sample(e.series, e.timeMillis, e.value);
+        });
+        bus.subscribe("gyűjtő", MeasurementBus.Policy.DROP, TaskRuntime.Feature.COLLECTOR, (e, seq, end) -> {
+            CollectorAgent a = agent;
+            if (a == null || e.replay()) return;
+            a.offer(e.kind == MeasurementBus.Kind.MEASUREMENT ? CollectorProtocol.Record.of(e.measurement)
+                    : CollectorProtocol.Record.sample(e.series, e.timeMillis, e.value));
+        });
+        // Felület: a köteg végéig gyűjt, majd egyetlen EDT hívással rajzol (a címkék csak az utolsó mérést mutatják)
+        List<MeasurementBus.Event> batch = new ArrayList<>();
+        uiSubscriber = bus.subscribe("felület", MeasurementBus.Policy.DROP, TaskRuntime.Feature.MEASUREMENT, (e, seq, end) -> {
+            MeasurementBus.Event copy = new MeasurementBus.Event();
+            copy.kind = e.kind;
+            copy.measurement = e.measurement;
+            copy.series = e.series;
+            copy.value = e.value;
+            batch.add(copy);
+            if (!end && batch.size() < 256) return;
+            MeasurementBus.Event[] events = batch.toArray(new MeasurementBus.Event[0]);
+            batch.clear();
+            SwingUtilities.invokeAndWait(() -> {
+                Measurement last = null;
+                for (MeasurementBus.Event ev : events) {
+                    switch (ev.kind) {
+                        case MEASUREMENT:
+                            last = ev.measurement;
+                            graphPanel.addPoint(last.downloadMbps, last.uploadMbps, last.pingAvgMs);
+                            break;
+                        case PACKET_SAMPLE:
+                            packetGraphPanel.addPoint(ev.series, Math.max(0, ev.value));
+                            break;
+                        case THROUGHPUT_SAMPLE:
+                            throughputGraphPanel.addPoint(ev.series, ev.value);
+                            break;
+                    }
+                }
+                if (last != null) {
+                    downloadLabel.setText("Download: " + df2(last.downloadMbps) + " Mbps");
+                    uploadLabel.setText("Upload: " + df2(last.uploadMbps) + " Mbps");
+                    pingLabel.setText("Ping átlag: " + df2(last.pingAvgMs) + " ms");
+                    jitterLabel.setText("Jitter: " + df2(last.jitterMs) + " ms");
+                    lossLabel.setText("Veszteség: " + df2(last.packetLossPercent) + " %");
+                    httpRespLabel.setText("HTTP válaszidő: " + df2(last.httpResponseMs) + " ms");
+                }
+            });
+        });
+        Diagnostics.watchBus(bus);
+        Diagnostics.watchRuntime(runtime);
+    }
+
+    private static String df2(double v) {
+        return DF2.get().format(v);
+    }
+
+    private boolean writeCsv(RecordEncoder line) {
+        try (OutputStream os = new FileOutputStream(csvLogFile, true)) {
+            line.writeTo(os);
+            return true;
+        } catch (Exception e) {
+            appendLog("CSV írás hiba: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void appendLog(String t) {
+        appendTo(logArea, t);
+    }
+
+    // Sor hozzáfűzése egy naplóterülethez az EDT-n; a még meg nem jelent sorok száma a diagnosztikában látszik
+    private static void appendTo(JTextArea area, String t) {
+        Diagnostics.logPosted();
+        SwingUtilities.invokeLater(() -> {
+            Diagnostics.logDelivered();
+            area.append(t + System.lineSeparator());
+            area.setCaretPosition(area.getDocument().getLength());
+        });
+    }
+
+    private SpeedResult testSpeed() {
+        List<String> servers = selectServers();
+        if (adaptiveSpeed) return testSpeedAdaptive(servers);
+        double dl = 0;
+        try (Diagnostics.Stage s = Diagnostics.stage("letöltés")) {
+            // Több szerver esetén párhuzamos letöltés, az eredmények összeadódnak
+            for (double v : onEachServer(servers, this::testDownload)) dl += v;
+            if (dl > 0) s.ok();
+        }
+        double ul;
+        try (Diagnostics.Stage s = Diagnostics.stage("feltöltés")) {
+            ul = testUpload();
+            if (ul > 0) s.ok();
+        }
+        return new SpeedResult(dl, ul, NO_CURVE, NO_CURVE);
+    }
+
+    // Idő alapú mérés: mindkét irány speedTestSeconds ideig fut, a felfutás kimarad az eredményből
+    private SpeedResult testSpeedAdaptive(List<String> servers) {
+        AdaptiveSpeedTest test = new AdaptiveSpeedTest(this::appendLog);
+        int seconds = speedTestSeconds;
+        AdaptiveSpeedTest.Result dl = null;
+        try (Diagnostics.Stage s = Diagnostics.stage("letöltés")) {
+            for (AdaptiveSpeedTest.Result r : onEachServer(servers, url -> test.download(url, seconds))) {
+                dl = AdaptiveSpeedTest.combine(dl, r);
+            }
+            if (dl != null) s.ok();
+        }
+        AdaptiveSpeedTest.Result ul;
+        try (Diagnostics.Stage s = Diagnostics.stage("feltöltés")) {
+            ul = test.upload(seconds);
+            if (ul != null) s.ok();
+        }
+        return new SpeedResult(
+                dl != null ? dl.mbps : 0.0,
+                ul != null ? ul.mbps : 0.0,
+                dl != null ? dl.curve : NO_CURVE,
+                ul != null ? ul.curve : NO_CURVE);
+    }
+
+    // Letöltési szerver(ek) a mérési ciklushoz: automatikus választásnál a jelöltek közül a legjobb K,
+    // egyébként (vagy ha egyik jelölt sem elérhető) a kézzel megadott URL
+    private List<String> selectServers() {
+        List<String> candidates = ServerSelector.parseCandidates(serverCandidates);
+        if (autoServer && !candidates.isEmpty()) {
+            List<String> chosen = serverSelector.select(candidates, serverTopK,
+                    TimeUnit.MINUTES.toNanos(serverReevalMinutes));
+            if (!chosen.isEmpty()) {
+                appendLog("Kiválasztott szerver(ek): " + String.join(", ", chosen));
+                return chosen;
+            }
+            appendLog("Szerverválasztás: egyik jelölt sem elérhető, a beállított URL marad.");
+        }
+        return List.of(speedTestUrl);
+    }
+
+    // Mérés futtatása minden szerveren párhuzamosan a MEASUREMENT keret készletében
+    // (egy szervernél a hívó szálon); a határidőn túl futó mérés megszakad és kimarad
+    private <T> List<T> onEachServer(List<String> servers, java.util.function.Function<String, T> test) {
+        if (servers.size() == 1) return Collections.singletonList(test.apply(servers.get(0)));
+        List<Callable<T>> tasks = new ArrayList<>();
+        for (String url : servers) tasks.add(() -> test.apply(url));
+        try {
+            List<T> out = new ArrayList<>();
+            for (Future<T> f : runtime.invokeAll(TaskRuntime.Feature.MEASUREMENT, tasks, SERVER_TEST_TIMEOUT_MS)) {
+                if (f.isCancelled()) {
+                    appendLog("Párhuzamos mérés: határidő túllépve, az eredmény kimarad.");
+                    continue;
+                }
+                try {
+                    out.add(f.get());
+                } catch (ExecutionException ex) {
+                    appendLog("Párhuzamos mérés hiba: " + ex.getCause());
+                }
+            }
+            return out;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyList();
+        }
+    }
+
+    private void onEvaluateServers(ActionEvent e) {
+        List<String> candidates = ServerSelector.parseCandidates(serverCandidatesField.getText());
+        if (candidates.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Nincs jelölt szerver megadva.", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        runtime.submit(TaskRuntime.Feature.MEASUREMENT, () -> serverSelector.evaluate(candidates));
+    }
+
+    private double testDownload(String urlStr) {
+        return testDownload(urlStr, downloadBytes);
+    }
+
+    private double testDownload(String urlStr, int bytesToRead) {
+        appendLog("Letöltés mérés: " + urlStr + " (" + bytesToRead + " byte)");
+
+        long start = 0L;
+        long end = 0L;
+        int total = 0;
+
+        try {
+            URL url = new URL(urlStr);
+            URLConnection conn = url.openConnection();
+            conn.setConnectTimeout(8000);
+            conn.setReadTimeout(8000);
+
+            try (InputStream in = conn.getInputStream()) {
+                byte[] buf = new byte[8192];
+                start = System.nanoTime();
+                while (total < bytesToRead) {
+                    int toRead = Math.min(buf.length, bytesToRead - total);
+                    int r = in.read(buf, 0, toRead);
+                    if (r == -1) break;
+                    total += r;
+                }
+                end = System.nanoTime();
+            }
+        } catch (Exception e) {
+            appendLog("Letöltésmérés hiba: " + e.toString());
+            return 0.0;
+        }
+
+        if (end <= start || total == 0) {
+            appendLog("Letöltésmérés: nincs elég adat (total=" + total + ")");
+            return 0.0;
+        }
+
+        double sec = (end - start) / 1e9;
+        double mbit = (total * 8.0) / 1_000_000.0;
+        double mbps = mbit / sec;
+        appendLog(String.format("Letöltés: %.2f Mbps (%.2f Mbit, %.2f s)", mbps, mbit, sec));
+        return mbps;
+    }
+
+    private double testUpload() {
+        String urlStr = "https://httpbin.org/post";
+        int bytesToSend = uploadBytes;
+        appendLog("Feltöltés mérés: " + urlStr + " (" + bytesToSend + " byte)");
+
+        long start = 0L;
+        long end = 0L;
+
+        try {
+            URL url = new URL(urlStr);
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            conn.setConnectTimeout(8000);
+            conn.setReadTimeout(8000);
+            conn.setDoOutput(true);
+            conn.setRequestMethod("POST");
+            conn.setRequestProperty("Content-Type", "application/octet-stream");
+
+            byte[] buf = new byte[8192];
+            Arrays.fill(buf, (byte)65);
+
+            start = System.nanoTime();
+            try (OutputStream out = conn.getOutputStream()) {
+                int remaining = bytesToSend;
+                while (remaining > 0) {
+                    int toWrite = Math.min(buf.length, remaining);
+                    out.write(buf, 0, toWrite);
+                    remaining -= toWrite;
+                }
+                out.flush();
+            }
+
+            try (InputStream in = conn.getInputStream()) {
+                byte[] tmp = new byte[1024];
+                while (in.read(tmp) != -1) {
+                    break;
+                }
+            }
+            end = System.nanoTime();
+        } catch (Exception e) {
+            appendLog("Feltöltésmérés hiba: " + e.toString());
+            return 0.0;
+        }
+
+        if (end <= start || bytesToSend <= 0) {
+            appendLog("Feltöltésmérés: hibás időadat");
+            return 0.0;
+        }
+
+        double sec = (end - start) / 1e9;
+        double mbit = (bytesToSend * 8.0) / 1_000_000.0;
+        double mbps = mbit / sec;
+        appendLog(String.format("Feltöltés: %.2f Mbps (%.2f Mbit, %.2f s)", mbps, mbit, sec));
+        return mbps;
+    }
+
+    private PingStats testMultiPing(String host, int count) {
+        return testMultiPing(host, count, this::singlePing, 200, () -> !Thread.currentThread().isInterrupted());
+    }
+
+    // pinger: egy próba ms-ban (-1: nincs válasz); a pontossági ellenőrzés UDP echóval hívja.
+    // Leállításkor (running hamis / megszakítás) az addig elküldött próbákból számol.
+    private PingStats testMultiPing(String host, int count, java.util.function.ToLongFunction<String> pinger, long intervalMs,
+                                    java.util.function.BooleanSupplier running) {
+        List<Long> times = new ArrayList<>();
+        int success = 0;
+        int total = 0;
+
+        appendLog("Multi-ping: " + host + " (" + count + " db)");
+
+        for (int i = 0; i < count && running.getAsBoolean(); i++) {
+            long t = pinger.applyAsLong(host);
+            total++;
+            if (t >= 0) {
+                success++;
+                times.add(t);
+            }
+            try {
+                Thread.sleep(intervalMs);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        double avg = 0.0;
+        double jitter = 0.0;
+        if (!times.isEmpty()) {
+            long sum = 0;
+            for (long v : times) sum += v;
+            avg = sum / (double) times.size();
+
+            double varSum = 0.0;
+            for (long v : times) {
+                varSum += (v - avg) * (v - avg);
+            }
+            jitter = Math.sqrt(varSum / times.size());
+        }
+        double lossPercent = total == 0 ? 0.0 : 100.0 * (total - success) / (double) total;
+        appendLog(String.format("Ping stat: átlag=%.2f ms, jitter=%.2f ms, veszteség=%.2f %%", avg, jitter, lossPercent));
+        return new PingStats(avg, jitter, lossPercent);
+    }
+
+    private long singlePing(String host) {
+        long start = System.nanoTime();
+        long t = runPing(host);
+        Diagnostics.probe("icmp", host, start, t >= 0);
+        return t;
+    }
+
+    private long runPing(String host) {
+        try {
+            ProcessBuilder pb = new ProcessBuilder("ping", "-n", "1", host);
+            pb.redirectErrorStream(true);
+            Process p = pb.start();
+
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    long t = parsePingTime(line);
+                    if (t >= 0) return t;
+                }
+            }
+        } catch (Exception ignored) {}
+        return -1;
+    }
+
+    // Egy ping kimeneti sorból kiolvassa a "time=" / "idő=" értéket (ms), -1 ha nincs benne
+    static long parsePingTime(String line) {
+        String lower = line.toLowerCase();
+        if (lower.contains("idő=") || lower.contains("time=")) {
+            int idx = lower.indexOf("idő=");
+            if (idx < 0) idx = lower.indexOf("time=");
+            int msIdx = lower.indexOf("ms", idx);
+            if (idx >= 0 && msIdx > idx) {
+                String num = lower.substring(idx, msIdx).replaceAll("[^0-9]", "");
+                if (!num.isEmpty()) {
+                    try {
+                        return Long.parseLong(num);
+                    } catch (NumberFormatException ignored) {}
+                }
+            }
+        }
+        return -1;
+    }
+
+    private double testHttpResponseTime(String urlStr) {
+        appendLog("HTTP válaszidő mérés: " + urlStr);
+        long probeStart = System.nanoTime();
+        long start = 0;
+        long end = 0;
+        try {
+            URL url = new URL(urlStr);
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            conn.setConnectTimeout(8000);
+            conn.setReadTimeout(8000);
+            start = System.nanoTime();
+            conn.getResponseCode();
+            end = System.nanoTime();
+        } catch (Exception e) {
+            appendLog("HTTP válaszidő hiba: " + e.toString());
+            Diagnostics.probe("http", urlStr, probeStart, false);
+            return 0.0;
+        }
+        Diagnostics.probe("http", urlStr, probeStart, true);
+        double ms = (end - start) / 1e6;
+        appendLog(String.format("HTTP válaszidő: %.2f ms", ms));
+        return ms;
+    }
+
+    // ========== TRACEROUTE & NETSTAT ==========
+
+    private void onTraceroute(ActionEvent e) {
+        String host = tracerouteField.getText().trim();
+        if (host.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Adj meg egy hostot traceroute-hoz!", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        tracerouteArea.setText("");
+        runtime.submit(TaskRuntime.Feature.TOOLS, () -> runTraceroute(host));
+    }
+
+    private void runTraceroute(String host) {
+        appendTraceroute("Traceroute indul: tracert " + host);
+        try {
+            ProcessBuilder pb = new ProcessBuilder("tracert", host);
+            pb.redirectErrorStream(true);
+            Process p = pb.start();
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    appendTraceroute(line);
+                }
+            }
+        } catch (Exception ex) {
+            appendTraceroute("Traceroute hiba: " + ex.toString());
+        }
+        appendTraceroute("Traceroute vége: " + host);
+    }
+
+    private void appendTraceroute(String t) {
+        appendTo(tracerouteArea, t);
+    }
+
+    private void onRefreshNetstat(ActionEvent e) {
+        netstatArea.setText("");
+        runtime.submit(TaskRuntime.Feature.TOOLS, this::runNetstat);
+    }
+
+    private void runNetstat() {
+        appendNetstat("netstat -ano futtatása...");
+        try {
+            ProcessBuilder pb = new ProcessBuilder("netstat", "-ano");
+            pb.redirectErrorStream(true);
+            Process p = pb.start();
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    appendNetstat(line);
+                }
+            }
+        } catch (Exception ex) {
+            appendNetstat("Netstat hiba: " + ex.toString());
+        }
+        appendNetstat("Netstat vége.");
+    }
+
+    private void appendNetstat(String t) {
+        appendTo(netstatArea, t);
+    }
+
+    // ========== LAN SCAN ==========
+
+    private void onLanScan(ActionEvent e) {
+        // Futó folyamatos leltár mellett a gomb csak soron kívüli teljes seprést kér
+        if (lanWatchTask != null) {
+            lanFullRequested.set(true);
+            appendLan("[Leltár] Teljes seprés kérve.");
+            return;
+        }
+        lanScanArea.setText("");
+        NetworkInterfaceWrapper selected = (NetworkInterfaceWrapper) interfaceCombo.getSelectedItem();
+        if (selected == null) {
+            JOptionPane.showMessageDialog(this, "Nincs interfész kiválasztva!", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        InetAddress addr = selected.getIPv4();
+        if (addr == null || !(addr instanceof Inet4Address)) {
+            JOptionPane.showMessageDialog(this, "Nincs IPv4 ezen az interfészen.", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        String ip = addr.getHostAddress();
+        String prefix = ip.substring(0, ip.lastIndexOf("."));
+        lanScanButton.setEnabled(false);
+        lanScanInfoLabel.setText("Feltérképezés: " + prefix + ".1 - " + prefix + ".254");
+        runtime.submit(TaskRuntime.Feature.LAN_SCAN, () -> {
+            try {
+                scanLan(selected.ni, (Inet4Address) addr, true);
+            } finally {
+                SwingUtilities.invokeLater(() -> lanScanButton.setEnabled(true));
+            }
+        });
+    }
+
+    private void onLanWatch(ActionEvent e) {
+        // Toggle start/stop
+        if (lanWatchTask != null) {
+            lanWatchTask.cancel();
+            appendLan("[Leltár] Leállítás kérve.");
+            return;
+        }
+        NetworkInterfaceWrapper selected = (NetworkInterfaceWrapper) interfaceCombo.getSelectedItem();
+        InetAddress addr = selected == null ? null : selected.getIPv4();
+        if (!(addr instanceof Inet4Address)) {
+            JOptionPane.showMessageDialog(this, "Nincs IPv4 a kiválasztott interfészen.", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        long verifyMs = (Integer) lanVerifySpinner.getValue() * 1000L;
+        long fullMs = (Integer) lanFullSpinner.getValue() * 60_000L;
+        lanFullRequested.set(false);
+        lanWatchButton.setText("STOP leltár");
+        appendLan(String.format("[Leltár] Folyamatos leltár: ellenőrzés %d s-enként, teljes seprés %d percenként.",
+                verifyMs / 1000, fullMs / 60_000));
+        lanWatchTask = runtime.launch(TaskRuntime.Feature.LAN_SCAN, "lan-inventory", scope -> {
+            long nextFull = 0;
+            while (scope.isRunning()) {
+                long now = System.currentTimeMillis();
+                boolean full = lanFullRequested.getAndSet(false) || now >= nextFull;
+                if (full) nextFull = now + fullMs;
+                scanLan(selected.ni, (Inet4Address) addr, full);
+                long until = System.currentTimeMillis() + verifyMs;
+                while (System.currentTimeMillis() < until && !lanFullRequested.get()) {
+                    if (!scope.sleep(250)) break;
+                }
+            }
+        }, () -> {
+            lanWatchTask = null;
+            lanWatchButton.setText("Folyamatos leltár");
+        });
+    }
+
+    // Egy kör: teljes seprés vagy csak a nemrég látott eszközök olcsó ellenőrzése, majd a leltár frissítése
+    private void scanLan(NetworkInterface ni, Inet4Address self, boolean full) {
+        DeviceInventory inventory = deviceInventory();
+        long now = System.currentTimeMillis();
+        LanDiscovery discovery = new LanDiscovery(ni, self, 24, LanDiscovery.DEFAULT_TIMEOUT_MS, this::appendLan);
+        List<Inet4Address> targets = null;
+        if (!full && inventory != null) {
+            targets = new ArrayList<>();
+            int net = LanDiscovery.toInt(self) & 0xFFFFFF00;
+            for (Inet4Address a : inventory.recentTargets(now)) {
+                if ((LanDiscovery.toInt(a) & 0xFFFFFF00) == net) targets.add(a);
+            }
+        }
+        List<LanDiscovery.Device> devices;
+        if (targets == null) {
+            appendLan("LAN leltár indul: " + ni.getName() + ", " + self.getHostAddress() + "/24 (OUI adatbázis: "
+                    + LanDiscovery.ouiSize() + " gyártói prefix)");
+            devices = discovery.run();
+        } else {
+            devices = discovery.verify(targets);
+        }
+        if (inventory != null) {
+            for (String ev : inventory.update(devices, targets, now)) appendLan("[Leltár] " + ev);
+            try {
+                inventory.save();
+            } catch (IOException ex) {
+                appendLan("[Leltár] Mentési hiba: " + ex.getMessage());
+            }
+        }
+        refreshLanTable(inventory, devices);
+        // A leltár már látszik; a nevek (DNS / mDNS / NetBIOS) a háttérben, érkezésük sorrendjében kerülnek be
+        List<Inet4Address> addresses = new ArrayList<>();
+        for (LanDiscovery.Device d : devices) {
+            if (d.confirmed) addresses.add(d.address);
+        }
+        nameResolver.resolve(ni, addresses, (address, names) -> {
+            String ip = address.getHostAddress();
+            String text = names.display();
+            if (inventory != null) inventory.setName(ip, text);
+            SwingUtilities.invokeLater(() -> {
+                for (int row = 0; row < lanTableModel.getRowCount(); row++) {
+                    if (ip.equals(lanTableModel.getValueAt(row, 0))) lanTableModel.setValueAt(text, row, 3);
+                }
+            });
+        });
+    }
+
+    // A teljes (tartós) leltár, offline eszközökkel együtt; ha a tár nem nyitható, csak az utolsó kör
+    private void refreshLanTable(DeviceInventory inventory, List<LanDiscovery.Device> lastRound) {
+        long now = System.currentTimeMillis();
+        List<Object[]> rows = new ArrayList<>();
+        int online = 0;
+        if (inventory != null) {
+            List<DeviceInventory.Device> all = inventory.snapshot();
+            all.sort(Comparator.comparing((DeviceInventory.Device d) -> !d.online())
+                    .thenComparingLong(d -> d.ip.isEmpty() ? Long.MAX_VALUE : ipOrder(d.ip)));
+            SimpleDateFormat fmt = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+            for (DeviceInventory.Device d : all) {
+                if (d.online()) online++;
+                rows.add(new Object[]{d.ip.isEmpty() ? "-" : d.ip, d.mac.isEmpty() ? "-" : d.mac, d.vendor.isEmpty() ? "-" : d.vendor,
+                        d.name, d.sources, d.rttMs < 0 ? "-" : df2(d.rttMs),
+                        d.online() ? "online (" + DeviceInventory.durationText(now - d.onlineSince) + ")"
+                                : "offline (" + DeviceInventory.durationText(now - d.lastSeen) + ")",
+                        fmt.format(new Date(d.firstSeen)), fmt.format(new Date(d.lastSeen)),
+                        d.presenceBar(now, 24), df2(d.presencePercent(now)) + " %", d.transitions});
+            }
+        } else {
+            for (LanDiscovery.Device d : lastRound) {
+                if (d.confirmed) online++;
+                rows.add(new Object[]{d.ip(), d.mac.isEmpty() ? "-" : d.mac, d.vendor.isEmpty() ? "-" : d.vendor, "",
+                        d.sourceText(), d.rttMs < 0 ? "-" : df2(d.rttMs), d.confirmed ? "online" : "nem megerősített",
+                        "-", "-", "-", "-", 0});
+            }
+        }
+        int onlineCount = online;
+        SwingUtilities.invokeLater(() -> {
+            lanTableModel.setRowCount(0);
+            for (Object[] r : rows) lanTableModel.addRow(r);
+            lanScanInfoLabel.setText("Eszközök: " + rows.size() + ", ebből online: " + onlineCount);
+        });
+    }
+
+    private static long ipOrder(String ip) {
+        long v = 0;
+        for (String part : ip.split("\\.")) {
+            try {
+                v = v * 256 + Integer.parseInt(part);
+            } catch (NumberFormatException ex) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return v;
+    }
+
+    // A leltár első használatkor nyílik meg (network_store/devices); hiba esetén csak az aktuális kör látszik
+    private DeviceInventory deviceInventory() {
+        synchronized (lanInventoryLock) {
+            if (deviceInventory == null) {
+                try {
+                    deviceInventory = DeviceInventory.open(new File("network_store", "devices"));
+                    appendLan("[Leltár] " + deviceInventory.size() + " ismert eszköz betöltve (network_store/devices).");
+                } catch (IOException ex) {
+                    appendLan("[Leltár] A leltár nem nyitható meg: " + ex.getMessage());
+                }
+            }
+            return deviceInventory;
+        }
+    }
+
+    private void onIpv6Neighbors(ActionEvent e) {
+        NetworkInterfaceWrapper selected = (NetworkInterfaceWrapper) interfaceCombo.getSelectedItem();
+        if (selected == null) {
+            JOptionPane.showMessageDialog(this, "Nincs interfész kiválasztva!", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (selected.getIPv6() == null) {
+            JOptionPane.showMessageDialog(this, "Nincs IPv6 ezen az interfészen.", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        runtime.submit(TaskRuntime.Feature.LAN_SCAN, () -> {
+            Map<String, String> neighbors = DualStackMonitor.discoverNeighbors(selected.ni, this::appendLan);
+            for (Map.Entry<String, String> n : neighbors.entrySet()) {
+                appendLan("IPv6 szomszéd: " + n.getKey() + (n.getValue().isEmpty() ? "" : " (MAC " + n.getValue() + ")"));
+            }
+            appendLan("IPv6 szomszédfelderítés vége: " + neighbors.size() + " csomópont.");
+        });
+    }
+
+    private void appendLan(String t) {
+        appendTo(lanScanArea, t);
+    }
+
+    // ========== PORT FORWARD (UPnP) ==========
+
+    private void onAddPortForward(ActionEvent e) {
+        runtime.submit(TaskRuntime.Feature.TOOLS, () -> upnpPortMapping(true));
+    }
+
+    private void onDeletePortForward(ActionEvent e) {
+        runtime.submit(TaskRuntime.Feature.TOOLS, () -> upnpPortMapping(false));
+    }
+
+    private void upnpPortMapping(boolean add) {
+        String action = add ? "AddPortMapping" : "DeletePortMapping";
+        String extPortStr = pfExternalPortField.getText().trim();
+        String intPortStr = pfInternalPortField.getText().trim();
+        String intHostStr = pfInternalHostField.getText().trim();
+        String proto = ((String) pfProtocolCombo.getSelectedItem()).toUpperCase(Locale.ROOT);
+        String desc = pfDescriptionField.getText().trim();
+
+        appendPf("UPnP keresés indul (" + action + ")...");
+
+        try {
+            String ssdpReq =
+                    "M-SEARCH * HTTP/1.1\r\n" +
+                    "HOST:239.255.255.250:1900\r\n" +
+                    "ST:urn:schemas-upnp-org:device:InternetGatewayDevice:1\r\n" +
+                    "MAN:\"ssdp:discover\"\r\n" +
+                    "MX:2\r\n\r\n";
+
+            DatagramSocket ds = new DatagramSocket();
+            ds.setSoTimeout(3000);
+            byte[] data = ssdpReq.getBytes(StandardCharsets.UTF_8);
+            DatagramPacket dp = new DatagramPacket(
+                    data, data.length,
+                    InetAddress.getByName("239.255.255.250"), 1900
+            );
+            ds.send(dp);
+
+            byte[] buf = new byte[2048];
+            DatagramPacket resp = new DatagramPacket(buf, buf.length);
+            ds.receive(resp);
+            ds.close();
+
+            String respStr = new String(resp.getData(), 0, resp.getLength(), StandardCharsets.UTF_8);
+            appendPf("SSDP válasz:\n" + respStr);
+
+            String location = null;
+            for (String line : respStr.split("\r\n")) {
+                if (line.toLowerCase().startsWith("location:")) {
+                    location = line.substring(9).trim();
+                    break;
+                }
+            }
+            if (location == null) {
+                appendPf("Nem található LOCATION header.");
+                return;
+            }
+            appendPf("Device leíró letöltése: " + location);
+
+            URL devUrl = new URL(location);
+            HttpURLConnection conn = (HttpURLConnection) devUrl.openConnection();
+            conn.setConnectTimeout(5000);
+            conn.setReadTimeout(5000);
+            InputStream in = conn.getInputStream();
+
+            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+            DocumentBuilder db = dbf.newDocumentBuilder();
+            Document doc = db.parse(in);
+            doc.getDocumentElement().normalize();
+
+            String controlUrl = findControlUrl(doc);
+            if (controlUrl == null) {
+                appendPf("Nem található WANIPConnection vezérlő URL.");
+                return;
+            }
+
+            URL control = new URL(devUrl, controlUrl);
+            appendPf("Control URL: " + control.toString());
+
+            if (add) {
+                sendAddPortMapping(control, extPortStr, intPortStr, intHostStr, proto, desc);
+            } else {
+                sendDeletePortMapping(control, extPortStr, proto);
+            }
+
+        } catch (SocketTimeoutException ste) {
+            appendPf("UPnP SSDP időtúllépés – lehet, hogy nincs UPnP-s router, vagy tiltva van.");
+        } catch (Exception ex) {
+            appendPf("UPnP hiba: " + ex.toString());
+        }
+    }
+
+    private String findControlUrl(Document doc) {
+        NodeList services = doc.getElementsByTagName("service");
+        for (int i = 0; i < services.getLength(); i++) {
+            Element s = (Element) services.item(i);
+            String serviceType = getText(s, "serviceType");
+            if (serviceType != null && serviceType.contains("WANIPConnection")) {
+                String ctrl = getText(s, "controlURL");
+                return ctrl;
+            }
+        }
+        return null;
+    }
+
+    private String getText(Element parent, String tag) {
+        NodeList nl = parent.getElementsByTagName(tag);
+        if (nl.getLength() == 0) return null;
+        return nl.item(0).getTextContent().trim();
+    }
+
+    private void sendAddPortMapping(URL controlUrl, String extPort, String intPort,
+                                    String intHost, String proto, String desc) {
+        String body =
+                "<s:Envelope xmlns:s=\"http://schemas.xmlsoap.org/soap/envelope/\" " +
+                "s:encodingStyle=\"http://schemas.xmlsoap.org/soap/encoding/\">" +
+                "<s:Body>" +
+                "<u:AddPortMapping xmlns:u=\"urn:schemas-upnp-org:service:WANIPConnection:1\">" +
+                "<NewRemoteHost></NewRemoteHost>" +
+                "<NewExternalPort>" + extPort + "</NewExternalPort>" +
+                "<NewProtocol>" + proto + "</NewProtocol>" +
+                "<NewInternalPort>" + intPort + "</NewInternalPort>" +
+                "<NewInternalClient>" + intHost + "</NewInternalClient>" +
+                "<NewEnabled>1</NewEnabled>" +
+                "<NewPortMappingDescription>" + desc + "</NewPortMappingDescription>" +
+                "<NewLeaseDuration>0</NewLeaseDuration>" +
+                "</u:AddPortMapping>" +
+                "</s:Body></s:Envelope>";
+
+        sendSoap(controlUrl, body, "AddPortMapping");
+    }
+
+    private void sendDeletePortMapping(URL controlUrl, String extPort, String proto) {
+        String body =
+                "<s:Envelope xmlns:s=\"http://schemas.xmlsoap.org/soap/envelope/\" " +
+                "s:encodingStyle=\"http://schemas.xmlsoap.org/soap/encoding/\">" +
+                "<s:Body>" +
+                "<u:DeletePortMapping xmlns:u=\"urn:schemas-upnp-org:service:WANIPConnection:1\">" +
+                "<NewRemoteHost></NewRemoteHost>" +
+                "<NewExternalPort>" + extPort + "</NewExternalPort>" +
+                "<NewProtocol>" + proto + "</NewProtocol>" +
+                "</u:DeletePortMapping>" +
+                "</s:Body></s:Envelope>";
+
+        sendSoap(controlUrl, body, "DeletePortMapping");
+    }
+
+    private void sendSoap(URL controlUrl, String body, String action) {
+        try {
+            HttpURLConnection conn = (HttpURLConnection) controlUrl.openConnection();
+            conn.setConnectTimeout(5000);
+            conn.setReadTimeout(5000);
+            conn.setDoOutput(true);
+            conn.setRequestMethod("POST");
+            conn.setRequestProperty("Content-Type", "text/xml; charset=\"utf-8\"");
+            conn.setRequestProperty("SOAPAction", "\"urn:schemas-upnp-org:service:WANIPConnection:1#" + action + "\"");
+
+            try (OutputStream out = conn.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+
+            int code = conn.getResponseCode();
+            InputStream in = (code >= 200 && code < 300) ? conn.getInputStream() : conn.getErrorStream();
+            StringBuilder sb = new StringBuilder();
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    sb.append(line).append("\n");
+                }
+            }
+            appendPf(action + " HTTP kód: " + code);
+            appendPf("Válasz:\n" + sb.toString());
+        } catch (Exception ex) {
+            appendPf("SOAP hiba (" + action + "): " + ex.toString());
+        }
+    }
+
+    private void appendPf(String t) {
+        appendTo(pfLogArea, t);
+    }
+
+    // ========== PACKET TESTS (UNICAST/BROADCAST/MULTICAST/ANYCAST) ==========
+
+    private void onUnicastPing(ActionEvent e) {
+        String host = unicastHostField.getText().trim();
+        if (host.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Adj meg egy hostot unicast pinghez!", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        runtime.submit(TaskRuntime.Feature.PACKET, () -> {
+            appendPacket("[Unicast ICMP] Ping " + host);
+            long t = singlePing(host);
+            if (t >= 0) {
+                appendPacket("  Válaszidő: " + t + " ms");
+                packetSample("unicast", t);
+            } else {
+                appendPacket("  Nincs válasz / hiba.");
+                packetLost("unicast");
+            }
+        });
+    }
+
+    private void onUnicastUdp(ActionEvent e) {
+        String host = unicastHostField.getText().trim();
+        int port = (Integer) unicastPortSpinner.getValue();
+        if (host.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Adj meg egy hostot!", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        // Toggle start/stop
+        if (unicastUdpTask != null) {
+            unicastUdpTask.cancel();
+            appendPacket("[Unicast UDP] Leállítás kérve.");
+            return;
+        }
+
+        unicastUdpButton.setText("STOP UDP echo");
+        unicastUdpTask = runtime.launch(TaskRuntime.Feature.PACKET, "unicast-udp", scope -> {
+            appendPacket("[Unicast UDP] Folyamatos mérés indul: " + host + ":" + port);
+            while (scope.isRunning()) {
+                unicastUdpTest(scope, host, port);
+                if (!scope.sleep(250)) break;
+            }
+            appendPacket("[Unicast UDP] Folyamatos mérés leállt.");
+        }, () -> {
+            unicastUdpTask = null;
+            unicastUdpButton.setText("UDP echo teszt");
+        });
+    }
+
+    private void unicastUdpTest(TaskRuntime.Scope scope, String host, int port) {
+        appendPacket("[Unicast UDP] Echo teszt " + host + ":" + port);
+        DatagramSocket socket = null;
+        try {
+            socket = scope.register(new DatagramSocket());
+            socket.setSoTimeout(1000);
+            byte[] msg = "UN1C4ST_TEST".getBytes(StandardCharsets.UTF_8);
+            DatagramPacket p = new DatagramPacket(msg, msg.length, InetAddress.getByName(host), port);
+            long start = System.nanoTime();
+            socket.send(p);
+
+            byte[] buf = new byte[1024];
+            DatagramPacket resp = new DatagramPacket(buf, buf.length);
+            try {
+                socket.receive(resp);
+            } catch (SocketTimeoutException ste) {
+                Diagnostics.probe("udp echo", host, start, false);
+                appendPacket("  Nincs UDP echo válasz (timeout).");
+                packetLost("unicast");
+                return;
+            }
+            long end = System.nanoTime();
+            Diagnostics.probe("udp echo", host, start, true);
+            double ms = (end - start) / 1e6;
+            String respStr = new String(resp.getData(), 0, resp.getLength(), StandardCharsets.UTF_8);
+            appendPacket("  Válasz " + resp.getAddress().getHostAddress() + ":" + resp.getPort()
+                    + " (" + respStr + "), idő: " + df2(ms) + " ms");
+            packetSample("unicast", ms);
+        } catch (Exception ex) {
+            if (!scope.isRunning()) return; // leállításkor lezárt socket
+            appendPacket("  Hiba unicast UDP tesztnél: " + ex.toString());
+            packetLost("unicast");
+        } finally {
+            if (socket != null) {
+                scope.unregister(socket);
+                socket.close();
+            }
+        }
+    }
+
+    private void onBroadcastTest(ActionEvent e) {
+        NetworkInterfaceWrapper selected = (NetworkInterfaceWrapper) interfaceCombo.getSelectedItem();
+        if (selected == null) {
+            JOptionPane.showMessageDialog(this, "Előbb válassz interfészt!", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        InetAddress addr = selected.getIPv4();
+        if (addr == null || !(addr instanceof Inet4Address)) {
+            JOptionPane.showMessageDialog(this, "Nincs IPv4 az interfészen.", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        // Az interfész tényleges broadcast címe (nem csak /24 esetén helyes); ha nem ismert, a /24 feltételezés marad
+        InetAddress bcAddr = selected.getIPv4Broadcast();
+        String ip = addr.getHostAddress();
+        String broadcastIp = bcAddr != null ? bcAddr.getHostAddress() : ip.substring(0, ip.lastIndexOf(".")) + ".255";
+
+        // Toggle start/stop
+        if (broadcastTask != null) {
+            broadcastTask.cancel();
+            appendPacket("[Broadcast UDP] Leállítás kérve.");
+            return;
+        }
+
+        broadcastTestButton.setText("STOP Broadcast teszt");
+        broadcastTask = runtime.launch(TaskRuntime.Feature.PACKET, "broadcast", scope -> {
+            appendPacket("[Broadcast UDP] Folyamatos mérés indul: " + broadcastIp + ":55555");
+            while (scope.isRunning()) {
+                broadcastTest(scope, broadcastIp);
+                if (!scope.sleep(500)) break;
+            }
+            appendPacket("[Broadcast UDP] Folyamatos mérés leállt.");
+        }, () -> {
+            broadcastTask = null;
+            broadcastTestButton.setText("Broadcast UDP küldése + válaszok figyelése");
+        });
+    }
+
+    private void broadcastTest(TaskRuntime.Scope scope, String broadcastIp) {
+        appendPacket("[Broadcast UDP] Küldés broadcast címre: " + broadcastIp + ":55555");
+        DatagramSocket socket = null;
+        try {
+            socket = scope.register(new DatagramSocket());
+            socket.setBroadcast(true);
+            socket.setSoTimeout(1000);
+            byte[] msg = "BR0ADCAST_TEST".getBytes(StandardCharsets.UTF_8);
+            DatagramPacket p = new DatagramPacket(msg, msg.length, InetAddress.getByName(broadcastIp), 55555);
+            long start = System.nanoTime();
+            socket.send(p);
+
+            byte[] buf = new byte[1024];
+            DatagramPacket resp = new DatagramPacket(buf, buf.length);
+
+            long bestNs = Long.MAX_VALUE;
+            int count = 0;
+            while (true) {
+                try {
+                    socket.receive(resp);
+                    long now = System.nanoTime();
+                    long diff = now - start;
+                    if (diff < bestNs) bestNs = diff;
+                    count++;
+                    String respStr = new String(resp.getData(), 0, resp.getLength(), StandardCharsets.UTF_8);
+                    appendPacket("  Válasz " + resp.getAddress().getHostAddress() + ":" + resp.getPort()
+                            + " (" + respStr + "), +"
+                            + df2(diff / 1e6) + " ms");
+                } catch (SocketTimeoutException ste) {
+                    break;
+                }
+            }
+
+            if (count == 0) {
+                appendPacket("  Nem érkezett broadcast válasz.");
+                packetLost("broadcast");
+            } else {
+                double ms = bestNs / 1e6;
+                appendPacket("  " + count + " válasz, leggyorsabb: " + df2(ms) + " ms");
+                packetSample("broadcast", ms);
+            }
+        } catch (Exception ex) {
+            if (!scope.isRunning()) return; // leállításkor lezárt socket
+            appendPacket("  Broadcast hiba: " + ex.toString());
+            packetLost("broadcast");
+        } finally {
+            if (socket != null) {
+                scope.unregister(socket);
+                socket.close();
+            }
+        }
+    }
+
+    private void onMulticastTest(ActionEvent e) {
+        String groupStr = multicastGroupField.getText().trim();
+        int port = (Integer) multicastPortSpinner.getValue();
+        if (groupStr.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Adj meg multicast címet!", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        // Toggle start/stop
+        if (multicastTask != null) {
+            multicastTask.cancel();
+            appendPacket("[Multicast] Leállítás kérve.");
+            return;
+        }
+
+        multicastTestButton.setText("STOP Multicast");
+        multicastTask = runtime.launch(TaskRuntime.Feature.PACKET, "multicast", scope -> {
+            appendPacket("[Multicast] Folyamatos mérés indul: " + groupStr + ":" + port);
+            while (scope.isRunning()) {
+                multicastTest(scope, groupStr, port);
+                if (!scope.sleep(500)) break;
+            }
+            appendPacket("[Multicast] Folyamatos mérés leállt.");
+        }, () -> {
+            multicastTask = null;
+            multicastTestButton.setText("Multicast teszt");
+        });
+    }
+
+    private void multicastTest(TaskRuntime.Scope scope, String groupStr, int port) {
+        appendPacket("[Multicast] Teszt " + groupStr + ":" + port);
+        MulticastSocket socket = null;
+        try {
+            InetAddress group = InetAddress.getByName(groupStr);
+            socket = scope.register(new MulticastSocket(port));
+            socket.setSoTimeout(1500);
+            socket.joinGroup(group);
+            byte[] msg = "MULTICAST_TEST".getBytes(StandardCharsets.UTF_8);
+            DatagramPacket out = new DatagramPacket(msg, msg.length, group, port);
+            long start = System.nanoTime();
+            socket.send(out);
+
+            byte[] buf = new byte[1024];
+            DatagramPacket resp = new DatagramPacket(buf, buf.length);
+
+            long bestNs = Long.MAX_VALUE;
+            int count = 0;
+            while (true) {
+                try {
+                    socket.receive(resp);
+                    long now = System.nanoTime();
+                    long diff = now - start;
+                    if (diff < bestNs) bestNs = diff;
+                    count++;
+                    String respStr = new String(resp.getData(), 0, resp.getLength(), StandardCharsets.UTF_8);
+                    appendPacket("  Válasz " + resp.getAddress().getHostAddress() + ":" + resp.getPort()
+                            + " (" + respStr + "), +"
+                            + df2(diff / 1e6) + " ms");
+                } catch (SocketTimeoutException ste) {
+                    break;
+                }
+            }
+            socket.leaveGroup(group);
+
+            if (count == 0) {
+                appendPacket("  Nem érkezett multicast válasz.");
+                packetLost("multicast");
+            } else {
+                double ms = bestNs / 1e6;
+                appendPacket("  " + count + " válasz, leggyorsabb: " + df2(ms) + " ms");
+                packetSample("multicast", ms);
+            }
+        } catch (Exception ex) {
+            if (!scope.isRunning()) return; // leállításkor lezárt socket
+            appendPacket("  Multicast hiba: " + ex.toString());
+            packetLost("multicast");
+        } finally {
+            if (socket != null) {
+                scope.unregister(socket);
+                socket.close();
+            }
+        }
+    }
+
+    private MulticastStream newMulticastStream() throws UnknownHostException {
+        String groupStr = multicastGroupField.getText().trim();
+        InetAddress group = InetAddress.getByName(groupStr);
+        if (!group.isMulticastAddress()) {
+            throw new UnknownHostException("Nem multicast cím: " + groupStr);
+        }
+        int port = (Integer) multicastPortSpinner.getValue();
+        NetworkInterfaceWrapper selected = (NetworkInterfaceWrapper) interfaceCombo.getSelectedItem();
+        NetworkInterface nif = selected != null ? selected.ni : null;
+        return new MulticastStream(group, port, nif, this::appendPacket,
+                ms -> packetSample("multicast", ms));
+    }
+
+    private void onMulticastStreamSend(ActionEvent e) {
+        // Toggle start/stop
+        if (mcStreamSendTask != null) {
+            mcStreamSendTask.cancel();
+            appendPacket("[Multicast stream] Küldés leállítása kérve.");
+            return;
+        }
+        MulticastStream stream;
+        try {
+            stream = newMulticastStream();
+        } catch (UnknownHostException ex) {
+            JOptionPane.showMessageDialog(this, "Érvénytelen multicast cím: " + ex.getMessage(), "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        int rate = (Integer) multicastRateSpinner.getValue();
+        int size = (Integer) multicastSizeSpinner.getValue();
+
+        multicastStreamSendButton.setText("STOP küldés");
+        mcStreamSendTask = runtime.launch(TaskRuntime.Feature.PACKET, "multicast-stream-send",
+                scope -> stream.runSender(rate, size, 8, scope.running()), () -> {
+                    mcStreamSendTask = null;
+                    multicastStreamSendButton.setText("Stream küldés");
+                });
+    }
+
+    private void onMulticastStreamRecv(ActionEvent e) {
+        // Toggle start/stop
+        if (mcStreamRecvTask != null) {
+            mcStreamRecvTask.cancel();
+            appendPacket("[Multicast stream] Fogadás leállítása kérve.");
+            return;
+        }
+        MulticastStream stream;
+        try {
+            stream = newMulticastStream();
+        } catch (UnknownHostException ex) {
+            JOptionPane.showMessageDialog(this, "Érvénytelen multicast cím: " + ex.getMessage(), "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        multicastStreamRecvButton.setText("STOP fogadás");
+        mcStreamRecvTask = runtime.launch(TaskRuntime.Feature.PACKET, "multicast-stream-recv",
+                scope -> stream.runReceiver(scope.running()), () -> {
+                    mcStreamRecvTask = null;
+                    multicastStreamRecvButton.setText("Stream fogadás");
+                });
+    }
+
+    private void onAnycastTest(ActionEvent e) {
+        // Toggle start/stop
+        if (anycastTask != null) {
+            anycastTask.cancel();
+            appendAnycast("[Anycast] Leállítás kérve.");
+            return;
+        }
+        List<AnycastMonitor.Target> targets = AnycastMonitor.parseTargets(anycastTargetsField.getText());
+        if (targets.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Adj meg legalább egy anycast végpontot!", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        int intervalMs = (Integer) anycastIntervalSpinner.getValue();
+
+        anycastTableModel.setRowCount(0);
+        for (AnycastMonitor.Target t : targets) {
+            anycastTableModel.addRow(new Object[]{t.ip, "-", "-", "-", "-", "-", "?", 0});
+        }
+        anycastIcmpGraph.clearSeries();
+        anycastTcpGraph.clearSeries();
+        anycastHttpGraph.clearSeries();
+
+        anycastStartButton.setText("STOP anycast mérés");
+        AnycastMonitor monitor = new AnycastMonitor(targets, this::singlePing, this::appendAnycast, this::onAnycastRound);
+        anycastTask = runtime.launch(TaskRuntime.Feature.ANYCAST, "anycast",
+                scope -> monitor.run(intervalMs, scope), () -> {
+                    anycastTask = null;
+                    anycastStartButton.setText("Párhuzamos mérés indítás");
+                });
+    }
+
+    private void onAnycastRound(List<AnycastMonitor.Target> targets) {
+        // Sikertelen próba: szakadás a görbében (a 0 ms a legjobb értéknek látszana)
+        for (AnycastMonitor.Target t : targets) {
+            anycastIcmpGraph.addPoint(t.ip, t.icmpMs >= 0 ? t.icmpMs : Double.NaN);
+            anycastTcpGraph.addPoint(t.ip, t.tcpMs >= 0 ? t.tcpMs : Double.NaN);
+            anycastHttpGraph.addPoint(t.ip, t.httpMs >= 0 ? t.httpMs : Double.NaN);
+        }
+        SwingUtilities.invokeLater(() -> {
+            for (int row = 0; row < targets.size() && row < anycastTableModel.getRowCount(); row++) {
+                AnycastMonitor.Target t = targets.get(row);
+                anycastTableModel.setValueAt(t.icmpMs >= 0 ? df2(t.icmpMs) : "nincs válasz", row, 1);
+                anycastTableModel.setValueAt(df2(t.icmpLossPercent()), row, 2);
+                anycastTableModel.setValueAt(t.tcpMs >= 0 ? df2(t.tcpMs) : "hiba", row, 3);
+                anycastTableModel.setValueAt(df2(t.tcpP50()), row, 4);
+                anycastTableModel.setValueAt(t.httpMs >= 0 ? df2(t.httpMs) : "hiba", row, 5);
+                anycastTableModel.setValueAt(t.pop, row, 6);
+                anycastTableModel.setValueAt(t.popChanges, row, 7);
+            }
+        });
+    }
+
+    private void appendAnycast(String t) {
+        appendTo(anycastLogArea, t);
+    }
+
+    // ========== PING FLEET ==========
+
+    private void onFleetTest(ActionEvent e) {
+        // Toggle start/stop
+        if (fleetTask != null) {
+            fleetTask.cancel();
+            appendFleet("[Flotta] Leállítás kérve.");
+            return;
+        }
+        List<PingFleet.Target> targets = PingFleet.parseTargets(fleetTargetsArea.getText(),
+                (Integer) fleetPortSpinner.getValue(), this::appendFleet);
+        if (targets.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Adj meg legalább egy célpontot!", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        int intervalMs = (Integer) fleetIntervalSpinner.getValue();
+        int timeoutMs = (Integer) fleetTimeoutSpinner.getValue();
+        // Egy idősávba minden célpontra legalább egy próba essen
+        long slotMs = Math.max((Integer) fleetSlotSpinner.getValue() * 1000L, intervalMs);
+
+        fleetTableModel.setRowCount(0);
+        for (PingFleet.Target t : targets) {
+            fleetTableModel.addRow(new Object[]{t.name, t.host + ":" + t.port, 0L, "-", "-", "-", "-", "?"});
+        }
+        fleetStartButton.setText("STOP flotta");
+        fleetHeatMap.setTargets(targets, slotMs);
+        PingFleet fleet = new PingFleet(targets, this::appendFleet, slot -> onFleetSlot(targets, slot));
+        fleetTask = runtime.launch(TaskRuntime.Feature.PACKET, "ping-fleet", scope -> {
+            try {
+                fleet.run(scope, intervalMs, timeoutMs, slotMs);
+            } catch (IOException ex) {
+                appendFleet("[Flotta] Hiba: " + ex.getMessage());
+            }
+        }, () -> {
+            fleetTask = null;
+            fleetStartButton.setText("Flotta indítása");
+        });
+    }
+
+    // A mérőszálon fut: a hőtérkép képe itt készül, az EDT csak kirajzolja
+    private void onFleetSlot(List<PingFleet.Target> targets, long slot) {
+        fleetHeatMap.update(slot);
+        SwingUtilities.invokeLater(() -> {
+            for (int row = 0; row < targets.size() && row < fleetTableModel.getRowCount(); row++) {
+                PingFleet.Target t = targets.get(row);
+                double last = t.lastMs();
+                fleetTableModel.setValueAt(t.sentCount(), row, 2);
+                fleetTableModel.setValueAt(df2(t.lossPercent()), row, 3);
+                fleetTableModel.setValueAt(last >= 0 ? df2(last) : "nincs válasz", row, 4);
+                fleetTableModel.setValueAt(df2(t.percentile(50)), row, 5);
+                fleetTableModel.setValueAt(df2(t.percentile(95)), row, 6);
+                fleetTableModel.setValueAt(t.address == null ? "nem feloldható" : t.isDown() ? "elérhetetlen" : "elérhető", row, 7);
+            }
+        });
+    }
+
+    private void appendFleet(String t) {
+        appendTo(fleetLogArea, t);
+    }
+
+    // ========== HTTP CHECKS ==========
+
+    private void onHttpChecks(ActionEvent e) {
+        // Toggle start/stop
+        if (httpCheckTask != null) {
+            httpCheckTask.cancel();
+            appendHttpCheck("[HTTP] Leállítás kérve.");
+            return;
+        }
+        List<HttpCheckFleet.Check> checks = HttpCheckFleet.parseChecks(httpChecksArea.getText(), this::appendHttpCheck);
+        if (checks.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Adj meg legalább egy ellenőrzendő URL-t!", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        long intervalMs = (Integer) httpCheckIntervalSpinner.getValue() * 1000L;
+        int perHost = (Integer) httpCheckPerHostSpinner.getValue();
+        java.time.Duration timeout = java.time.Duration.ofSeconds((Integer) httpCheckTimeoutSpinner.getValue());
+
+        httpCheckTableModel.setRowCount(0);
+        for (HttpCheckFleet.Check c : checks) {
+            httpCheckTableModel.addRow(new Object[]{c.name, "-", "-", "-", "-", "-", "0 / 0", "?"});
+        }
+        httpCheckStartButton.setText("STOP ellenőrzések");
+        httpCheckTask = runtime.launch(TaskRuntime.Feature.PACKET, "http-checks", scope -> {
+            try (MeasurementStore checkStore = MeasurementStore.open(new File("network_store", "http_checks"))) {
+                new HttpCheckFleet(checks, perHost, timeout, checkStore, this::appendHttpCheck, this::onHttpCheckRound)
+                        .run(scope, intervalMs);
+            } catch (IOException ex) {
+                appendHttpCheck("[HTTP] A tár nem nyitható meg: " + ex.getMessage());
+            }
+        }, () -> {
+            httpCheckTask = null;
+            httpCheckStartButton.setText("Ellenőrzések indítása");
+        });
+    }
+
+    private void onHttpCheckRound(List<HttpCheckFleet.Check> checks) {
+        CollectorAgent a = agent;
+        if (a != null) {
+            for (HttpCheckFleet.Check c : checks) {
+                HttpCheckFleet.Result r = c.last;
+                if (r != null) a.offer(CollectorProtocol.Record.sample("http:" + c.name, r.timestamp, r.ok() ? r.totalMs : -1));
+            }
+        }
+        SwingUtilities.invokeLater(() -> {
+            for (int row = 0; row < checks.size() && row < httpCheckTableModel.getRowCount(); row++) {
+                HttpCheckFleet.Check c = checks.get(row);
+                HttpCheckFleet.Result r = c.last;
+                if (r == null) continue;
+                httpCheckTableModel.setValueAt(r.protocol, row, 1);
+                httpCheckTableModel.setValueAt(r.status > 0 ? r.status : "-", row, 2);
+                httpCheckTableModel.setValueAt(r.bytes, row, 3);
+                httpCheckTableModel.setValueAt(r.status > 0 ? df2(r.ttfbMs) : "-", row, 4);
+                httpCheckTableModel.setValueAt(df2(r.totalMs), row, 5);
+                synchronized (c) {
+                    httpCheckTableModel.setValueAt(c.failures + " / " + c.runs, row, 6);
+                }
+                httpCheckTableModel.setValueAt(r.ok() ? "rendben" : r.error, row, 7);
+            }
+        });
+    }
+
+    private void appendHttpCheck(String t) {
+        appendTo(httpCheckLogArea, t);
+    }
+
+    private void onDualStackTest(ActionEvent e) {
+        // Toggle start/stop
+        if (dualStackTask != null) {
+            dualStackTask.cancel();
+            appendDualStack("[Dual-stack] Leállítás kérve.");
+            return;
+        }
+        URL url;
+        try {
+            url = new URL(dualStackUrlField.getText().trim());
+        } catch (MalformedURLException ex) {
+            JOptionPane.showMessageDialog(this, "Hibás URL: " + ex.getMessage(), "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        int udpPort = (Integer) dualStackUdpPortSpinner.getValue();
+        int intervalMs = (Integer) dualStackIntervalSpinner.getValue() * 1000;
+        String downloadUrl = dualStackDownloadCheck.isSelected() ? speedTestUrl : null;
+
+        dualStackTableModel.setRowCount(0);
+        for (String family : new String[]{DualStackMonitor.V4, DualStackMonitor.V6}) {
+            dualStackTableModel.addRow(new Object[]{family, "-", "-", "-", "-", "-", "-", "-", 0});
+        }
+
+        dualStackButton.setText("STOP dual-stack");
+        DualStackMonitor monitor = new DualStackMonitor(url, downloadUrl, downloadBytes, udpPort,
+                this::singlePing, this::appendDualStack, this::onDualStackRound);
+        dualStackTask = runtime.launch(TaskRuntime.Feature.PACKET, "dual-stack",
+                scope -> monitor.run(intervalMs, scope), () -> {
+                    dualStackTask = null;
+                    dualStackButton.setText("Dual-stack mérés");
+                });
+    }
+
+    private void onDualStackRound(List<DualStackMonitor.Family> families) {
+        for (DualStackMonitor.Family f : families) {
+            String series = f.name.toLowerCase(Locale.ROOT);
+            dualStackSample(dualStackPingGraph, f.name, series + " ping", f.pingMs);
+            dualStackSample(dualStackTcpGraph, f.name, series + " tcp", f.tcpMs);
+            dualStackSample(dualStackHttpGraph, f.name, series + " http", f.httpMs);
+            if (f.downloadMbps >= 0) dualStackSample(dualStackDownloadGraph, f.name, series + " letöltés", f.downloadMbps);
+        }
+        SwingUtilities.invokeLater(() -> {
+            for (int row = 0; row < families.size() && row < dualStackTableModel.getRowCount(); row++) {
+                DualStackMonitor.Family f = families.get(row);
+                dualStackTableModel.setValueAt(f.address, row, 1);
+                dualStackTableModel.setValueAt(f.pingMs >= 0 ? df2(f.pingMs) : "nincs válasz", row, 2);
+                dualStackTableModel.setValueAt(df2(f.pingLossPercent()), row, 3);
+                dualStackTableModel.setValueAt(f.tcpMs >= 0 ? df2(f.tcpMs) : "hiba", row, 4);
+                dualStackTableModel.setValueAt(f.httpMs >= 0 ? df2(f.httpMs) : "hiba", row, 5);
+                dualStackTableModel.setValueAt(f.downloadMbps >= 0 ? df2(f.downloadMbps) : "-", row, 6);
+                dualStackTableModel.setValueAt(f.udpMs >= 0 ? df2(f.udpMs) : "-", row, 7);
+                dualStackTableModel.setValueAt(f.heWins, row, 8);
+            }
+        });
+    }
+
+    // Grafikon + riasztási szabályok + ügynök; a metrika neve pl. "ipv6 tcp" (sikertelen mérés 0 a grafikonon)
+    private void dualStackSample(PacketGraphPanel graph, String family, String metric, double v) {
+        graph.addPoint(family, Math.max(0, v));
+        if (v < 0) return;
+        long now = System.currentTimeMillis();
+        alerts.sample(metric, now, v);
+        CollectorAgent a = agent;
+        if (a != null) a.offer(CollectorProtocol.Record.sample(metric, now, v));
+    }
+
+    private void appendDualStack(String t) {
+        appendTo(dualStackLogArea, t);
+    }
+
+    private void onPayloadSweep(ActionEvent e) {
+        if (payloadSweepTask != null) {
+            payloadSweepTask.cancel();
+            appendPacket("[Sweep] Leállítás kérve.");
+            return;
+        }
+        String host = unicastHostField.getText().trim();
+        if (host.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Adj meg egy hostot!", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        boolean udp = sweepUdpCheck.isSelected();
+        boolean icmp = sweepIcmpCheck.isSelected();
+        if (!udp && !icmp) {
+            JOptionPane.showMessageDialog(this, "Válassz legalább egy próbatípust!", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        int port = (Integer) unicastPortSpinner.getValue();
+        int maxSize = (Integer) sweepMaxSizeSpinner.getValue();
+        int probes = (Integer) sweepProbesSpinner.getValue();
+
+        sweepGraphPanel.clear();
+        payloadSweepButton.setText("STOP sweep");
+        payloadSweepTask = runtime.launch(TaskRuntime.Feature.PACKET, "payload-sweep", scope -> {
+            PayloadSweep sweep = new PayloadSweep(this::appendPacket, sweepGraphPanel::addStep);
+            int dfMax = sweep.run(scope, host, port, udp, icmp, maxSize, probes);
+            if (dfMax > 0) sweepGraphPanel.setDfLimit(dfMax);
+        }, () -> {
+            payloadSweepTask = null;
+            payloadSweepButton.setText("Méret sweep");
+        });
+    }
+
+    private void appendPacket(String t) {
+        appendTo(packetTestArea, t);
+    }
+
+    // ========== THROUGHPUT TESTS ==========
+
+    private void onUdpBlastClient(ActionEvent e) {
+        // Toggle start/stop
+        if (udpBlastClientTask != null) {
+            udpBlastClientTask.cancel();
+            appendThroughput("[UDP kliens] Leállítás kérve.");
+            return;
+        }
+        String host = udpBlastHostField.getText().trim();
+        if (host.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Adj meg egy szervert!", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        int port = (Integer) udpBlastPortSpinner.getValue();
+        int mbps = (Integer) udpBlastMbpsSpinner.getValue();
+        int size = (Integer) udpBlastSizeSpinner.getValue();
+        int duration = (Integer) udpBlastDurationSpinner.getValue();
+
+        udpBlastClientButton.setText("STOP UDP kliens");
+        udpBlastClientTask = runtime.launch(TaskRuntime.Feature.THROUGHPUT, "udp-blast-client",
+                scope -> new UdpBlast(this::appendThroughput).runClient(host, port, mbps, size, duration,
+                        scope.running(), v -> throughputSample("udp", v)), () -> {
+                    udpBlastClientTask = null;
+                    udpBlastClientButton.setText("UDP kliens indítás");
+                });
+    }
+
+    private void onUdpBlastServer(ActionEvent e) {
+        // Toggle start/stop
+        if (udpBlastServerTask != null) {
+            udpBlastServerTask.cancel();
+            appendThroughput("[UDP szerver] Leállítás kérve.");
+            return;
+        }
+        int port = (Integer) udpBlastPortSpinner.getValue();
+
+        udpBlastServerButton.setText("STOP UDP szerver");
+        udpBlastServerTask = runtime.launch(TaskRuntime.Feature.THROUGHPUT, "udp-blast-server",
+                scope -> new UdpBlast(this::appendThroughput).runServer(port, scope.running()), () -> {
+                    udpBlastServerTask = null;
+                    udpBlastServerButton.setText("UDP szerver indítás");
+                });
+    }
+
+    private void onTcpClient(ActionEvent e) {
+        // Toggle start/stop
+        if (tcpClientTask != null) {
+            tcpClientTask.cancel();
+            appendThroughput("[TCP kliens] Leállítás kérve.");
+            return;
+        }
+        String host = tcpHostField.getText().trim();
+        if (host.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Adj meg egy szervert!", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        int port = (Integer) tcpPortSpinner.getValue();
+        int streams = (Integer) tcpStreamsSpinner.getValue();
+        int duration = (Integer) tcpDurationSpinner.getValue();
+        TcpThroughput.Mode mode = TcpThroughput.Mode.values()[tcpModeCombo.getSelectedIndex()];
+        boolean zeroCopy = tcpZeroCopyCheck.isSelected();
+
+        tcpClientButton.setText("STOP TCP kliens");
+        tcpClientTask = runtime.launch(TaskRuntime.Feature.THROUGHPUT, "tcp-client",
+                scope -> new TcpThroughput(this::appendThroughput).runClient(host, port, streams, duration, mode, zeroCopy,
+                        scope.running(), scope::fork, v -> {
+                            if (mode != TcpThroughput.Mode.DOWNLOAD) throughputSample("tcp_up", v[0]);
+                            if (mode != TcpThroughput.Mode.UPLOAD) throughputSample("tcp_down", v[1]);
+                        }), () -> {
+                    tcpClientTask = null;
+                    tcpClientButton.setText("TCP kliens indítás");
+                });
+    }
+
+    private void onTcpServer(ActionEvent e) {
+        // Toggle start/stop
+        if (tcpServerTask != null) {
+            tcpServerTask.cancel();
+            appendThroughput("[TCP szerver] Leállítás kérve.");
+            return;
+        }
+        int port = (Integer) tcpPortSpinner.getValue();
+
+        tcpServerButton.setText("STOP TCP szerver");
+        tcpServerTask = runtime.launch(TaskRuntime.Feature.THROUGHPUT, "tcp-server",
+                scope -> new TcpThroughput(this::appendThroughput).runServer(port, scope.running(), scope::fork), () -> {
+                    tcpServerTask = null;
+                    tcpServerButton.setText("TCP szerver indítás");
+                });
+    }
+
+    private void appendThroughput(String t) {
+        appendTo(throughputArea, t);
+    }
+
+    // ========== DIAGNOSTICS ==========
+
+    private void onJfrRecording(ActionEvent e) {
+        if (Diagnostics.isRecording()) {
+            jfrButton.setEnabled(false);
+            runtime.submit(TaskRuntime.Feature.STORAGE, () -> {
+                try {
+                    File f = Diagnostics.stopRecording();
+                    appendLog("JFR felvétel mentve: " + (f != null ? f.getAbsolutePath() : "-"));
+                } catch (IOException ex) {
+                    appendLog("JFR mentési hiba: " + ex.getMessage());
+                }
+                SwingUtilities.invokeLater(() -> {
+                    jfrButton.setText("JFR felvétel indítása");
+                    jfrButton.setEnabled(true);
+                });
+            });
+            return;
+        }
+        try {
+            File f = Diagnostics.startRecording();
+            jfrButton.setText("STOP JFR felvétel");
+            appendLog("JFR felvétel indult: " + f.getAbsolutePath());
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this, "JFR felvétel nem indítható: " + ex.getMessage(), "Hiba", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // ========== ACCURACY SUITE ==========
+
+    // A mérőfunkciókat helyi célpontokon, a NetEmulator proxyn keresztül futtatja ismert körülmények
+    // között, és ellenőrzi, hogy a mért érték a tűréshatáron belül van-e. Az ICMP ping nem
+    // proxyzható, ezért a ping statisztika (átlag, jitter, veszteség) UDP echo próbákkal fut.
+    private void onAccuracySuite(ActionEvent e) {
+        if (accuracyTask != null) {
+            accuracyTask.cancel();
+            appendAccuracy("Leállítás kérve.");
+            return;
+        }
+        accuracyArea.setText("");
+        accuracyButton.setText("STOP ellenőrzés");
+        accuracyTask = runtime.launch(TaskRuntime.Feature.TOOLS, "accuracy-suite", scope -> {
+            List<NetEmulator.Check> checks = new ArrayList<>();
+            try {
+                runAccuracySuite(scope, checks);
+            } catch (Exception ex) {
+                if (scope.isRunning()) appendAccuracy("Hiba: " + ex);
+            }
+            long ok = checks.stream().filter(NetEmulator.Check::passed).count();
+            appendAccuracy(String.format("Összesen: %d / %d ellenőrzés a tűréshatáron belül%s", ok, checks.size(),
+                    scope.isRunning() ? "." : " (megszakítva)."));
+        }, () -> {
+            accuracyTask = null;
+            accuracyButton.setText("Pontossági ellenőrzés (emulátor)");
+        });
+    }
+
+    private void runAccuracySuite(TaskRuntime.Scope scope, List<NetEmulator.Check> checks) throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        java.util.function.Consumer<NetEmulator.Check> report = c -> {
+            checks.add(c);
+            appendAccuracy(c.toString());
+        };
+
+        // 1) Késleltetés, jitter, veszteség: UDP echo próbák a ping statisztikán át. A várt értékhez
+        // hozzáadódik a proxy és a helyi célpont saját ideje, amit körülmények nélküli futás mér ki.
+        NetEmulator.Conditions lat = new NetEmulator.Conditions(20, 4, 5, 0, 0);
+        try (DatagramSocket echo = scope.register(NetEmulator.udpEchoTarget())) {
+            InetSocketAddress echoAddr = new InetSocketAddress(loopback, echo.getLocalPort());
+            double baseline;
+            try (NetEmulator emu = scope.register(new NetEmulator(NetEmulator.Protocol.UDP, echoAddr,
+                    NetEmulator.Conditions.NONE, 1, this::appendAccuracy))) {
+                int port = emu.start(0);
+                double[] rtts = new double[30];
+                for (int i = 0; i < rtts.length && scope.isRunning(); i++) rtts[i] = udpEchoRtt(loopback.getHostAddress(), port, 500);
+                baseline = median(rtts);
+            }
+            appendAccuracy("Kalibráció: UDP echo proxyn át " + df2(baseline) + " ms");
+            NetEmulator emu = scope.register(new NetEmulator(NetEmulator.Protocol.UDP, echoAddr, lat, 1, this::appendAccuracy));
+            PingStats ps;
+            try (emu) {
+                int port = emu.start(0);
+                ps = testMultiPing(loopback.getHostAddress(), 100, h -> udpEchoRtt(h, port, 500), 10, scope.running());
+            }
+            double rtt = 2 * lat.delayMs + baseline;
+            double loss = 100 * (1 - Math.pow(1 - lat.lossPercent / 100, 2));
+            if (!scope.isRunning()) return;
+            report.accept(new NetEmulator.Check("Ping átlag (UDP echo)", "ms", rtt, Math.max(4, rtt * 0.1), ps.avgMs));
+            report.accept(new NetEmulator.Check("Ping jitter (szórás)", "ms", lat.jitterMs * Math.sqrt(2), 1 + lat.jitterMs * Math.sqrt(2) * 0.35, ps.jitterMs));
+            report.accept(new NetEmulator.Check("Ping veszteség", "%", loss, 8, ps.lossPercent));
+        }
+
+        // 2) HTTP válaszidő és letöltési sávszélesség TCP proxyn át
+        NetEmulator.Conditions tcp = new NetEmulator.Conditions(15, 0, 0, 0, 16);
+        int dataBytes = 2 * 1024 * 1024;
+        com.sun.net.httpserver.HttpServer http = NetEmulator.httpTarget(dataBytes);
+        try {
+            InetSocketAddress httpAddr = new InetSocketAddress(loopback, http.getAddress().getPort());
+            double baseline;
+            try (NetEmulator emu = scope.register(new NetEmulator(NetEmulator.Protocol.TCP, httpAddr,
+                    NetEmulator.Conditions.NONE, 2, this::appendAccuracy))) {
+                baseline = httpMedian(scope, "http://" + loopback.getHostAddress() + ":" + emu.start(0) + "/");
+            }
+            appendAccuracy("Kalibráció: HTTP proxyn át " + df2(baseline) + " ms");
+            double resp;
+            double dl;
+            try (NetEmulator emu = scope.register(new NetEmulator(NetEmulator.Protocol.TCP, httpAddr, tcp, 2, this::appendAccuracy))) {
+                String base = "http://" + loopback.getHostAddress() + ":" + emu.start(0);
+                resp = httpMedian(scope, base + "/");
+                dl = testDownload(base + "/data", dataBytes);
+            }
+            if (!scope.isRunning()) return;
+            double rtt = 2 * tcp.delayMs + baseline;
+            report.accept(new NetEmulator.Check("HTTP válaszidő (medián)", "ms", rtt, 5 + rtt * 0.15, resp));
+            report.accept(new NetEmulator.Check("Letöltés (sávkorlát)", "Mbps", tcp.rateMbps, tcp.rateMbps * 0.1, dl));
+        } finally {
+            http.stop(0);
+        }
+
+        // 3) UDP terhelés: veszteség, sorrendcsere, fogadott sebesség; 4) sávkorlát túlterheléskor
+        NetEmulator.Conditions udp = new NetEmulator.Conditions(10, 0, 2, 5, 0);
+        NetEmulator.Conditions cap = new NetEmulator.Conditions(5, 0, 0, 0, 5);
+        for (NetEmulator.Conditions c : new NetEmulator.Conditions[]{udp, cap}) {
+            if (!scope.isRunning()) return;
+            int serverPort;
+            try (DatagramSocket probe = new DatagramSocket(0)) {
+                serverPort = probe.getLocalPort();
+            }
+            AtomicBoolean serverRunning = new AtomicBoolean(true);
+            // Saját szálon, mint az emulátor: a TOOLS készletben egy futó traceroute / netstat mögé sorolódna
+            Thread server = TaskRuntime.threadFactory(TaskRuntime.Feature.TOOLS).newThread(
+                    () -> new UdpBlast(t -> {}).runServer(serverPort, () -> serverRunning.get() && scope.isRunning()));
+            server.setName("emu-udp-server-" + server.getName());
+            server.start();
+            try (NetEmulator emu = scope.register(new NetEmulator(NetEmulator.Protocol.UDP,
+                    new InetSocketAddress(loopback, serverPort), c, 3, this::appendAccuracy))) {
+                int port = emu.start(0);
+                double target = c == cap ? 2 * c.rateMbps : 4;
+                UdpBlast.Result r = new UdpBlast(this::appendAccuracy).runClient(loopback.getHostAddress(), port,
+                        target, 1000, 3, scope.running(), v -> {});
+                if (!scope.isRunning()) return;
+                if (r == null) {
+                    // Nincs szerver riport: a mérés sikertelen, nem maradhat ki csendben az összesítőből
+                    report.accept(new NetEmulator.Check(c == udp ? "UDP veszteség (nincs riport)" : "UDP sávkorlát (nincs riport)",
+                            c == udp ? "%" : "Mbps", c == udp ? c.lossPercent : c.rateMbps, 0, Double.NaN));
+                } else if (c == udp) {
+                    report.accept(new NetEmulator.Check("UDP veszteség", "%", c.lossPercent, 1.5, r.lossPercent()));
+                    report.accept(new NetEmulator.Check("UDP sorrendcsere", "%", c.reorderPercent, 2,
+                            r.received == 0 ? Double.NaN : 100.0 * r.outOfOrder / r.received));
+                    // A küldő tényleges (nem a cél) sebességéhez mérve: a kliens ütemezése nem az emulátor hibája
+                    report.accept(new NetEmulator.Check("UDP fogadott sebesség", "Mbps", r.sentMbps * (1 - c.lossPercent / 100),
+                            r.sentMbps * 0.1, r.receivedMbps));
+                } else {
+                    report.accept(new NetEmulator.Check("UDP sávkorlát (2x túlterhelés)", "Mbps", c.rateMbps, c.rateMbps * 0.1, r.receivedMbps));
+                }
+            } finally {
+                serverRunning.set(false);
+                server.interrupt();
+            }
+        }
+    }
+
+    // Medián HTTP válaszidő 5 próbából (az első, kapcsolatfelvételt tartalmazó próba nélkül)
+    private double httpMedian(TaskRuntime.Scope scope, String url) {
+        testHttpResponseTime(url);
+        double[] resp = new double[5];
+        for (int i = 0; i < resp.length && scope.isRunning(); i++) resp[i] = testHttpResponseTime(url);
+        return median(resp);
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    // UDP echo körülfordulási idő ms-ban (-1: nincs válasz); próbánként új socket, így a késve
+    // érkező korábbi válasz nem számít bele
+    private static long udpEchoRtt(String host, int port, int timeoutMs) {
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.setSoTimeout(timeoutMs);
+            byte[] msg = "UN1C4ST_TEST".getBytes(StandardCharsets.UTF_8);
+            long start = System.nanoTime();
+            socket.send(new DatagramPacket(msg, msg.length, InetAddress.getByName(host), port));
+            socket.receive(new DatagramPacket(new byte[1024], 1024));
+            return Math.round((System.nanoTime() - start) / 1e6);
+        } catch (IOException ex) {
+            return -1;
+        }
+    }
+
+    private void appendAccuracy(String t) {
+        appendTo(accuracyArea, t);
+    }
+
+    // ========== ANALYTICS ==========
+
+    private void onAnalytics(ActionEvent e) {
+        File input = new File(analyticsPathField.getText().trim());
+        if (!input.exists()) {
+            JOptionPane.showMessageDialog(this, "A megadott napló nem található: " + input, "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        analyticsButton.setEnabled(false);
+        analyticsArea.setText("Elemzés folyamatban: " + input.getAbsolutePath() + System.lineSeparator());
+        runtime.submit(TaskRuntime.Feature.STORAGE, () -> {
+            String text;
+            try {
+                long start = System.nanoTime();
+                LogAnalytics.Partial result = LogAnalytics.analyze(input);
+                text = LogAnalytics.report(result, input.getAbsolutePath(), System.nanoTime() - start);
+            } catch (Exception ex) {
+                text = "Elemzési hiba: " + ex.toString();
+            }
+            String finalText = text;
+            SwingUtilities.invokeLater(() -> {
+                analyticsArea.setText(finalText);
+                analyticsArea.setCaretPosition(0);
+                analyticsButton.setEnabled(true);
+            });
+        });
+    }
+
+    // ========== REPLAY ==========
+
+    // A napló sorai az eseménybuszon mennek át (riasztások, címkék, grafikon), a CSV / JSON
+    // kimenet a network_replay.csv / .json fájlokba kerül, így az élő napló és a bináris tár érintetlen.
+    private void onReplay(ActionEvent e) {
+        if (replayTask != null) {
+            replayTask.cancel();
+            appendTo(analyticsArea, "[Visszajátszás] Leállítás kérve.");
+            return;
+        }
+        File input = new File(analyticsPathField.getText().trim());
+        if (!input.isFile()) {
+            JOptionPane.showMessageDialog(this, "A megadott napló nem található: " + input, "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        String sel = (String) replaySpeedCombo.getSelectedItem();
+        double speed = "Max".equals(sel) ? 0 : "Valós idő".equals(sel) ? 1 : Double.parseDouble(sel.replace("x", ""));
+
+        analyticsArea.setText("");
+        AlertEngine engine = new AlertEngine(ev -> appendTo(analyticsArea, "[Visszajátszás] " + alertLine(ev)));
+        engine.setRules(alertRules);
+        replayAlerts = engine;
+        replayButton.setText("STOP visszajátszás");
+        replayTask = runtime.launch(TaskRuntime.Feature.STORAGE, "log-replay", scope -> {
+            try (OutputStream csv = new BufferedOutputStream(new FileOutputStream("network_replay.csv"), 1 << 16);
+                 OutputStream json = new BufferedOutputStream(new FileOutputStream("network_replay.json"), 1 << 16)) {
+                csv.write((RecordEncoder.CSV_HEADER + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+                long[] last = {-1};
+                LogReplay replay = new LogReplay(input, speed, () -> uiSubscriber.lag() > bus.capacity() / 2,
+                        t -> appendTo(analyticsArea, t),
+                        m -> last[0] = bus.publishMeasurement(m, csv, json));
+                replay.run(scope);
+                // A folyamokat csak akkor zárjuk, ha a CSV fogyasztó az utolsó sort is kiírta
+                if (!bus.awaitConsumed(last[0], 30_000)) appendTo(analyticsArea, "[Visszajátszás] A fogyasztók nem értek utol.");
+            } catch (IOException | UncheckedIOException ex) {
+                appendTo(analyticsArea, "[Visszajátszás] Hiba: " + ex.getMessage());
+            }
+        }, () -> {
+            replayTask = null;
+            replayAlerts = null;
+            replayButton.setText("Visszajátszás");
+        });
+    }
+
+    // ========== COLLECTOR / AGENT ==========
+
+    private static String defaultAgentName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception ex) {
+            return "agent";
+        }
+    }
+
+    private void onToggleAgent(ActionEvent e) {
+        if (agentTask != null) {
+            agentTask.cancel();
+            appendCollector("[Ügynök] Leállítás kérve.");
+            return;
+        }
+        String target = agentCollectorField.getText().trim();
+        String name = agentNameField.getText().trim();
+        int colon = target.lastIndexOf(':');
+        int port;
+        try {
+            port = Integer.parseInt(target.substring(colon + 1));
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this, "Hibás gyűjtő cím (host:port)", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (colon <= 0 || name.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Hibás gyűjtő cím vagy üres ügynök név", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        String host = target.substring(0, colon);
+        CollectorAgent a = new CollectorAgent(new File("agent_queue"), name, host, port, this::appendCollector);
+        agent = a;
+        agentButton.setText("STOP ügynök");
+        agentTask = runtime.launch(TaskRuntime.Feature.COLLECTOR, "agent", a::run, () -> {
+            agent = null;
+            agentTask = null;
+            agentButton.setText("Ügynök indítás");
+            agentStatusLabel.setText("Ügynök: nem fut");
+        });
+    }
+
+    private void onToggleCollector(ActionEvent e) {
+        if (collectorTask != null) {
+            collectorTask.cancel();
+            appendCollector("[Gyűjtő] Leállítás kérve.");
+            return;
+        }
+        int port = (Integer) collectorPortSpinner.getValue();
+        CollectorStore cs;
+        try {
+            cs = collectorStore != null ? collectorStore : CollectorStore.open(new File("collector_store"));
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "Gyűjtő tár hiba: " + ex.getMessage(), "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        collectorStore = cs;
+        CollectorServer server = new CollectorServer(cs, this::appendCollector);
+        collector = server;
+        collectorButton.setText("STOP gyűjtő");
+        collectorTask = runtime.launch(TaskRuntime.Feature.COLLECTOR, "collector",
+                scope -> server.run(port, scope.running()), () -> {
+                    collectorTask = null;
+                    collectorButton.setText("Gyűjtő indítás");
+                });
+    }
+
+    // Másodpercenként: ügynök állapot és a gyűjtő ügynök-táblázata
+    private void refreshCollectorView() {
+        CollectorAgent a = agent;
+        if (a != null) agentStatusLabel.setText("Ügynök: " + a.status());
+        CollectorServer server = collector;
+        if (server == null) return;
+        collectorStatusLabel.setText(String.format("Gyűjtő: %s, %d rekord, %.0f rekord/s",
+                collectorTask != null ? "fut" : "leállítva", server.totalRecords(), server.recordsPerSec()));
+        List<CollectorServer.AgentStats> list = server.agents();
+        collectorTableModel.setRowCount(list.size());
+        SimpleDateFormat fmt = new SimpleDateFormat("HH:mm:ss");
+        for (int i = 0; i < list.size(); i++) {
+            CollectorServer.AgentStats s = list.get(i);
+            float[] m = s.lastMeasurement;
+            Object[] row = {
+                    s.name + " " + s.address,
+                    s.connected ? "igen" : "nem",
+                    s.lastSeenMillis > 0 ? fmt.format(new Date(s.lastSeenMillis)) : "-",
+                    s.records,
+                    s.batches,
+                    s.wireBytes > 0 ? df2((double) s.rawBytes / s.wireBytes) + "x" : "-",
+                    s.duplicates,
+                    m != null ? df2(m[0]) : "-",
+                    m != null ? df2(m[1]) : "-",
+                    m != null ? df2(m[2]) : "-"};
+            for (int c = 0; c < row.length; c++) collectorTableModel.setValueAt(row[c], i, c);
+        }
+    }
+
+    // Közös tár lekérdezése: ügynökönként és sorozatonként darabszám és átlag az utolsó N órára
+    private void onCollectorQuery(ActionEvent e) {
+        CollectorStore cs = collectorStore;
+        if (cs == null) {
+            try {
+                cs = CollectorStore.open(new File("collector_store"));
+                collectorStore = cs;
+            } catch (IOException ex) {
+                JOptionPane.showMessageDialog(this, "Gyűjtő tár hiba: " + ex.getMessage(), "Hiba", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
+        int hours = (Integer) collectorQueryHoursSpinner.getValue();
+        CollectorStore store = cs;
+        runtime.submit(TaskRuntime.Feature.STORAGE, () -> {
+            long now = System.currentTimeMillis();
+            long start = System.nanoTime();
+            // kulcs: ügynök | típus név  ->  {darab, összeg0, összeg2}
+            Map<String, double[]> agg = new TreeMap<>();
+            try {
+                store.scan(now - hours * 3600_000L, now, (ts, agentName, kind, name, values) -> {
+                    String key = agentName + " | " + (kind == CollectorProtocol.KIND_MEASUREMENT ? "mérés " : "minta ") + name;
+                    double[] a = agg.computeIfAbsent(key, k -> new double[3]);
+                    a[0]++;
+                    a[1] += values[0];
+                    a[2] += values[2];
+                });
+            } catch (IOException ex) {
+                appendCollector("Lekérdezési hiba: " + ex.getMessage());
+                return;
+            }
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Lekérdezés: utolsó %d óra, %d csoport, %.1f ms%n", hours, agg.size(), (System.nanoTime() - start) / 1e6));
+            for (Map.Entry<String, double[]> en : agg.entrySet()) {
+                double[] a = en.getValue();
+                boolean measurement = en.getKey().contains("| mérés ");
+                sb.append(String.format("  %-60s %8d db  átlag %s: %s%s%n", en.getKey(), (long) a[0],
+                        measurement ? "DL" : "érték", df2(a[1] / a[0]),
+                        measurement ? ", ping: " + df2(a[2] / a[0]) + " ms" : ""));
+            }
+            String text = sb.toString();
+            SwingUtilities.invokeLater(() -> {
+                collectorArea.setText(text);
+                collectorArea.setCaretPosition(0);
+            });
+        });
+    }
+
+    private void appendCollector(String t) {
+        appendTo(collectorArea, t);
+    }
+
+    // ========== ALERTS ==========
+
+    private void onApplyAlertRules(ActionEvent e) {
+        List<AlertEngine.Rule> rules;
+        try {
+            rules = AlertEngine.parse(alertRulesArea.getText());
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, "Hibás szabály: " + ex.getMessage(), "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        alertRules = rules;
+        alerts.setRules(rules);
+        appendAlert("Szabályok frissítve: " + rules.size() + " szabály.");
+        refreshActiveAlerts();
+    }
+
+    // Csomagteszt minta: grafikon + szabálymotor + ügynök, az eseménybuszon át
+    private void packetSample(String series, double ms) {
+        bus.publishSample(MeasurementBus.Kind.PACKET_SAMPLE, series, System.currentTimeMillis(), ms);
+    }
+
+    // Elveszett / sikertelen próba: a grafikonon 0, a szabálymotor kihagyja (nem 0 ms-os késleltetés)
+    private void packetLost(String series) {
+        bus.publishSample(MeasurementBus.Kind.PACKET_SAMPLE, series, System.currentTimeMillis(), -1);
+    }
+
+    private void throughputSample(String series, double mbps) {
+        bus.publishSample(MeasurementBus.Kind.THROUGHPUT_SAMPLE, series, System.currentTimeMillis(), mbps);
+    }
+
+    // A szabálymotor hívja (a saját zárja alatt): csak naplózás és UI frissítés ütemezése
+    private void onAlertEvent(AlertEngine.Event ev) {
+        String line = alertLine(ev);
+        appendAlert(line);
+        runtime.submit(TaskRuntime.Feature.STORAGE, () -> {
+            try (Writer w = new OutputStreamWriter(new FileOutputStream(alertLogFile, true), StandardCharsets.UTF_8)) {
+                w.write(line + System.lineSeparator());
+            } catch (IOException ex) {
+                appendAlert("Eseménynapló írás hiba: " + ex.getMessage());
+            }
+        });
+        SwingUtilities.invokeLater(this::refreshActiveAlerts);
+    }
+
+    private static String alertLine(AlertEngine.Event ev) {
+        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(ev.timeMillis))
+                + (ev.raised ? "  RIASZTÁS  " : "  MEGSZŰNT  ") + ev.rule
+                + "  (érték: " + df2(ev.value)
+                + (Double.isNaN(ev.threshold) ? "" : ", küszöb: " + df2(ev.threshold)) + ")";
+    }
+
+    private void refreshActiveAlerts() {
+        List<String> active = alerts.activeAlerts();
+        activeAlertsArea.setText(active.isEmpty() ? "Nincs aktív riasztás." : String.join(System.lineSeparator(), active));
+    }
+
+    private void appendAlert(String t) {
+        appendTo(alertLogArea, t);
+    }
+
+    // ========== SETTINGS & EXPORT ==========
+
+    private void onApplySettings(ActionEvent e) {
+        pingTarget = pingTargetField.getText().trim();
+        pingCount = (Integer) pingCountSpinner.getValue();
+        speedTestUrl = speedTestUrlField.getText().trim();
+        downloadBytes = (Integer) downloadBytesSpinner.getValue();
+        uploadBytes   = (Integer) uploadBytesSpinner.getValue();
+        adaptiveSpeed = adaptiveSpeedCheck.isSelected();
+        speedTestSeconds = (Integer) speedSecondsSpinner.getValue();
+        autoServer = autoServerCheck.isSelected();
+        serverCandidates = serverCandidatesField.getText().trim();
+        serverTopK = (Integer) serverTopKSpinner.getValue();
+        serverReevalMinutes = (Integer) serverReevalSpinner.getValue();
+        httpTestUrl   = httpTestUrlField.getText().trim();
+
+        appendLog("Beállítások frissítve:");
+        appendLog("  Ping cél: " + pingTarget + ", darab: " + pingCount);
+        appendLog("  Letöltési URL: " + speedTestUrl);
+        appendLog("  Letöltés méret: " + downloadBytes + " byte");
+        appendLog("  Feltöltés méret: " + uploadBytes + " byte");
+        appendLog("  Szerverválasztás: " + (autoServer
+                ? ServerSelector.parseCandidates(serverCandidates).size() + " jelölt, legjobb " + serverTopK
+                        + ", újraértékelés " + serverReevalMinutes + " percenként"
+                : "kézi URL"));
+        appendLog("  Sebességmérés: " + (adaptiveSpeed ? "adaptív, " + speedTestSeconds + " s / irány" : "fix méret"));
+        appendLog("  HTTP válaszidő URL: " + httpTestUrl);
+        JOptionPane.showMessageDialog(this, "Beállítások elmentve (következő méréstől érvényes).");
+    }
+
+    private void onExportJson(ActionEvent e) {
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(jsonLogFile, false))) {
+            RecordEncoder enc = RecordEncoder.forCurrentThread();
+            enc.reset().text("[").newLine().writeTo(os);
+            synchronized (history) {
+                for (int i = 0; i < history.size(); i++) {
+                    enc.reset().text("  ").json(history.get(i));
+                    if (i < history.size() - 1) enc.text(",");
+                    enc.newLine().writeTo(os);
+                }
+            }
+            enc.reset().text("]").newLine().writeTo(os);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "JSON export hiba: " + ex.getMessage(), "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        JOptionPane.showMessageDialog(this, "JSON export kész: " + jsonLogFile.getAbsolutePath());
+    }
+
+    // Az export a STORAGE keretben fut (a tár bejárása és a fájlírás nem tartja fel az EDT-t)
+    private void onExportCsv(ActionEvent e) {
+        if (store == null) {
+            JOptionPane.showMessageDialog(this, "A bináris tár nem elérhető.", "Hiba", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        File out = new File("network_export.csv");
+        exportCsvButton.setEnabled(false);
+        appendLog("CSV export indul: " + out.getAbsolutePath());
+        runtime.submit(TaskRuntime.Feature.STORAGE, () -> {
+            int[] rows = {0};
+            String error = null;
+            try (OutputStream os = new BufferedOutputStream(new FileOutputStream(out, false))) {
+                RecordEncoder enc = RecordEncoder.forCurrentThread();
+                enc.reset().text(RecordEncoder.CSV_HEADER).newLine().writeTo(os);
+                store.scan(Long.MIN_VALUE, Long.MAX_VALUE, (ts, iface, dl, ul, ping, jitter, loss, http) -> {
+                    try {
+                        enc.reset().csv(ts, store.interfaceName(iface), dl, ul, ping, jitter, loss, http).newLine().writeTo(os);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    rows[0]++;
+                });
+            } catch (UncheckedIOException ex) {
+                error = ex.getCause().getMessage();
+            } catch (IOException ex) {
+                error = ex.getMessage();
+            }
+            String err = error;
+            SwingUtilities.invokeLater(() -> {
+                exportCsvButton.setEnabled(true);
+                if (err != null) {
+                    JOptionPane.showMessageDialog(this, "CSV export hiba: " + err, "Hiba", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this, "CSV export kész (" + rows[0] + " sor): " + out.getAbsolutePath());
+                }
+            });
+        });
+    }
+
+    private void applyTheme(boolean dark) {
+        Color bg, fg;
+        if (dark) {
+            bg = new Color(45, 45, 45);
+            fg = new Color(230, 230, 230);
+        } else {
+            bg = UIManager.getColor("Panel.background");
+            fg = UIManager.getColor("Panel.foreground");
+        }
+
+        setComponentTheme(this.getContentPane(), bg, fg);
+        graphPanel.setDark(dark);
+        historyChart.setDark(dark);
+        packetGraphPanel.setDark(dark);
+        sweepGraphPanel.setDark(dark);
+        throughputGraphPanel.setDark(dark);
+        anycastIcmpGraph.setDark(dark);
+        anycastTcpGraph.setDark(dark);
+        anycastHttpGraph.setDark(dark);
+        fleetHeatMap.setDark(dark);
+        dualStackPingGraph.setDark(dark);
+        dualStackTcpGraph.setDark(dark);
+        dualStackHttpGraph.setDark(dark);
+        dualStackDownloadGraph.setDark(dark);
+        repaint();
+    }
+
+    private void setComponentTheme(Component c, Color bg, Color fg) {
+        if (c instanceof JPanel || c instanceof JScrollPane || c instanceof JSplitPane || c instanceof JTabbedPane) {
+            c.setBackground(bg);
+            c.setForeground(fg);
+        }
+        if (c instanceof JLabel || c instanceof JButton || c instanceof JCheckBox || c instanceof JTextField || c instanceof JSpinner || c instanceof JTextArea) {
+            c.setBackground(bg);
+            c.setForeground(fg);
+        }
+        if (c instanceof Container) {
+            for (Component child : ((Container) c).getComponents()) {
+                setComponentTheme(child, bg, fg);
+            }
+        }
+    }
+
+    // ========== Helper classes ==========
+
+    private static class NetworkInterfaceWrapper {
+        NetworkInterface ni;
+        NetworkInterfaceWrapper(NetworkInterface n) { ni = n; }
+
+        InetAddress getIPv4() {
+            try {
+                Enumeration<InetAddress> e = ni.getInetAddresses();
+                while (e.hasMoreElements()) {
+                    InetAddress a = e.nextElement();
+                    if (a instanceof Inet4Address) return a;
+                }
+            } catch (Exception ignored) {}
+            return null;
+        }
+
+        // Elsősorban globális IPv6 cím, ennek hiányában a link-local
+        InetAddress getIPv6() {
+            InetAddress linkLocal = null;
+            try {
+                Enumeration<InetAddress> e = ni.getInetAddresses();
+                while (e.hasMoreElements()) {
+                    InetAddress a = e.nextElement();
+                    if (!(a instanceof Inet6Address)) continue;
+                    if (!a.isLinkLocalAddress()) return a;
+                    if (linkLocal == null) linkLocal = a;
+                }
+            } catch (Exception ignored) {}
+            return linkLocal;
+        }
+
+        InetAddress getIPv4Broadcast() {
+            try {
+                for (InterfaceAddress ia : ni.getInterfaceAddresses()) {
+                    if (ia.getAddress() instanceof Inet4Address && ia.getBroadcast() != null) return ia.getBroadcast();
+                }
+            } catch (Exception ignored) {}
+            return null;
+        }
+
+        public String toString() {
+            String d = ni.getDisplayName();
+            return (d == null || d.isEmpty()) ? ni.getName() : d;
+        }
+    }
+
+    private static class SpeedResult {
+        final double downloadMbps;
+        final double uploadMbps;
+        final double[] downloadCurve;
+        final double[] uploadCurve;
+        SpeedResult(double d, double u, double[] dc, double[] uc) {
+            downloadMbps = d; uploadMbps = u; downloadCurve = dc; uploadCurve = uc;
+        }
+    }
+
+    private static class PingStats {
+        final double avgMs;
+        final double jitterMs;
+        final double lossPercent;
+        PingStats(double a, double j, double l) { avgMs = a; jitterMs = j; lossPercent = l; }
+    }
+
+    static final double[] NO_CURVE = new double[0];
+
+    static class Measurement {
+        final Date   timestamp;
+        final String interfaceName;
+        final double downloadMbps;
+        final double uploadMbps;
+        final double pingAvgMs;
+        final double jitterMs;
+        final double packetLossPercent;
+        final double httpResponseMs;
+        // Adaptív sebességmérés átviteli görbéje (Mbps, AdaptiveSpeedTest.BUCKET_MS vödrönként);
+        // fix méretű mérésnél és a bináris tárból visszatöltött rekordoknál üres
+        final double[] downloadCurve;
+        final double[] uploadCurve;
+
+        Measurement(Date ts, String iface, double d, double u,
+                    double p, double j, double loss, double httpMs) {
+            this(ts, iface, d, u, p, j, loss, httpMs, NO_CURVE, NO_CURVE);
+        }
+
+        Measurement(Date ts, String iface, double d, double u,
+                    double p, double j, double loss, double httpMs,
+                    double[] dlCurve, double[] ulCurve) {
+            timestamp = ts;
+            interfaceName = iface;
+            downloadMbps = d;
+            uploadMbps = u;
+            pingAvgMs = p;
+            jitterMs = j;
+            packetLossPercent = loss;
+            httpResponseMs = httpMs;
+            downloadCurve = dlCurve;
+            uploadCurve = ulCurve;
+        }
+    }
+
+    // Graph panel: download (blue), upload (green), ping (red)
+    static class GraphPanel extends JPanel {
+        private java.util.List<Double> downloadValues = new ArrayList<>();
+        private java.util.List<Double> uploadValues = new ArrayList<>();
+        private java.util.List<Double> pingValues = new ArrayList<>();
+        private int maxPoints = 240;
+        private boolean dark = false;
+
+        public GraphPanel() {
+            setBackground(Color.WHITE);
+        }
+
+        public synchronized void addPoint(double dl, double ul, double ping) {
+            downloadValues.add(dl);
+            uploadValues.add(ul);
+            pingValues.add(ping);
+            if (downloadValues.size() > maxPoints) {
+                downloadValues.remove(0);
+                uploadValues.remove(0);
+                pingValues.remove(0);
+            }
+            repaint();
+        }
+
+        public void setDark(boolean d) {
+            dark = d;
+            if (dark) setBackground(new Color(30, 30, 30));
+            else setBackground(Color.WHITE);
+        }
+
+        @Override
+        protected synchronized void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Graphics2D g2 = (Graphics2D) g;
+
+            int w = getWidth();
+            int h = getHeight();
+            if (w <= 0 || h <= 0) return;
+
+            int leftPad = 50;
+            int rightPad = 20;
+            int topPad = 25;
+            int bottomPad = 30;
+
+            int gw = w - leftPad - rightPad;
+            int gh = h - topPad - bottomPad;
+            if (gw <= 10 || gh <= 10) return;
+
+            Color axisColor = dark ? Color.GRAY : Color.LIGHT_GRAY;
+            Color textColor = dark ? Color.WHITE : Color.BLACK;
+
+            g2.setColor(axisColor);
+            g2.drawRect(leftPad, topPad, gw, gh);
+
+            int n = downloadValues.size();
+            if (n < 2) {
+                g2.setColor(textColor);
+                g2.drawString("Nincs még elég mérés a grafikonhoz...", leftPad + 10, topPad + 20);
+                return;
+            }
+
+            double maxVal = 1.0;
+            for (int i = 0; i < n; i++) {
+                maxVal = Math.max(maxVal, downloadValues.get(i));
+                maxVal = Math.max(maxVal, uploadValues.get(i));
+                maxVal = Math.max(maxVal, pingValues.get(i) / 10.0);
+            }
+
+            double xStep = (double) gw / (n - 1);
+
+            g2.setColor(Color.BLUE);
+            drawSeries(g2, downloadValues, maxVal, leftPad, topPad, gh, xStep);
+
+            g2.setColor(new Color(0, 180, 0));
+            drawSeries(g2, uploadValues, maxVal, leftPad, topPad, gh, xStep);
+
+            g2.setColor(Color.RED);
+            List<Double> scaledPing = new ArrayList<>();
+            for (double v : pingValues) scaledPing.add(v / 10.0);
+            drawSeries(g2, scaledPing, maxVal, leftPad, topPad, gh, xStep);
+
+            g2.setColor(textColor);
+            g2.drawString("Kék: Download (Mbps)", leftPad + 10, topPad + 15);
+            g2.drawString("Zöld: Upload (Mbps)", leftPad + 180, topPad + 15);
+            g2.drawString("Piros: Ping/10 (ms)", leftPad + 360, topPad + 15);
+        }
+
+        private void drawSeries(Graphics2D g2, List<Double> vals, double maxVal,
+                                int leftPad, int topPad, int gh, double xStep) {
+            int n = vals.size();
+            int prevX = 0, prevY = 0;
+            for (int i = 0; i < n; i++) {
+                int x = leftPad + (int) Math.round(i * xStep);
+                double v = vals.get(i);
+                int y = topPad + gh - (int) Math.round((v / maxVal) * gh * 0.9);
+                if (i > 0) {
+                    g2.drawLine(prevX, prevY, x, y);
+                }
+                prevX = x;
+                prevY = y;
+            }
+        }
+    }
+
+    // HistoryChartPanel: a piramisból csak a látható tartományt kéri le (háttérszálon, a legutolsó
+    // kérés nyer); görgő = nagyítás a kurzor körül, húzás = mozgatás, dupla kattintás = teljes tartomány
+    private static class HistoryChartPanel extends JPanel {
+        private static final long MIN_SPAN_MS = 10_000L;
+        private static final long MAX_SPAN_MS = 20L * 365 * 24 * 3600_000L;
+        private static final int RELOAD_STEPS = 4;   // betöltésenként legfeljebb ennyi piramis-lépés
+
+        private final java.util.function.Consumer<Runnable> background;
+        private final java.util.function.Consumer<String> status;
+        private volatile HistoryPyramid pyramid;
+        private long viewFrom = System.currentTimeMillis() - 24 * 3600_000L;
+        private long viewTo = System.currentTimeMillis();
+        private int metric;
+        private HistoryPyramid.Series data;
+        private boolean loading;
+        private boolean pending;
+        private boolean dark = false;
+        private int dragX = -1;
+        private long dragFrom, dragTo;
+
+        HistoryChartPanel(java.util.function.Consumer<Runnable> background, java.util.function.Consumer<String> status) {
+            this.background = background;
+            this.status = status;
+            setBackground(Color.WHITE);
+            java.awt.event.MouseAdapter mouse = new java.awt.event.MouseAdapter() {
+                @Override
+                public void mouseWheelMoved(java.awt.event.MouseWheelEvent e) {
+                    double factor = Math.pow(1.25, e.getPreciseWheelRotation());
+                    long span = viewTo - viewFrom;
+                    long newSpan = Math.max(MIN_SPAN_MS, Math.min(MAX_SPAN_MS, (long) (span * factor)));
+                    long anchor = timeAt(e.getX());
+                    double rel = (anchor - viewFrom) / (double) span;
+                    viewFrom = anchor - (long) (newSpan * rel);
+                    viewTo = viewFrom + newSpan;
+                    repaint();
+                    reload();
+                }
+
+                @Override
+                public void mousePressed(java.awt.event.MouseEvent e) {
+                    dragX = e.getX();
+                    dragFrom = viewFrom;
+                    dragTo = viewTo;
+                }
+
+                @Override
+                public void mouseDragged(java.awt.event.MouseEvent e) {
+                    if (dragX < 0) return;
+                    long shift = (long) ((dragX - e.getX()) * (double) (dragTo - dragFrom) / Math.max(1, plotWidth()));
+                    viewFrom = dragFrom + shift;
+                    viewTo = dragTo + shift;
+                    repaint();
+                    reload();
+                }
+
+                @Override
+                public void mouseReleased(java.awt.event.MouseEvent e) {
+                    dragX = -1;
+                }
+
+                @Override
+                public void mouseClicked(java.awt.event.MouseEvent e) {
+                    if (e.getClickCount() == 2) showAll();
+                }
+            };
+            addMouseListener(mouse);
+            addMouseMotionListener(mouse);
+            addMouseWheelListener(mouse);
+        }
+
+        void setPyramid(HistoryPyramid p) {
+            pyramid = p;
+            SwingUtilities.invokeLater(this::reload);
+        }
+
+        void setMetric(int m) {
+            metric = m;
+            data = null;
+            reload();
+        }
+
+        void showLast(long spanMs) {
+            viewTo = System.currentTimeMillis();
+            viewFrom = viewTo - spanMs;
+            reload();
+        }
+
+        void showAll() {
+            HistoryPyramid p = pyramid;
+            if (p == null) return;
+            background.accept(() -> {
+                long first = p.firstTimestamp();
+                long last = p.lastTimestamp();
+                SwingUtilities.invokeLater(() -> {
+                    if (first < 0) {
+                        status.accept("A tár üres.");
+                        return;
+                    }
+                    long pad = Math.max(MIN_SPAN_MS, (last - first) / 50);
+                    viewFrom = first - pad;
+                    viewTo = last + pad;
+                    reload();
+                });
+            });
+        }
+
+        public void setDark(boolean d) {
+            dark = d;
+            if (dark) setBackground(new Color(30, 30, 30));
+            else setBackground(Color.WHITE);
+        }
+
+        private int plotWidth() {
+            return getWidth() - 70;
+        }
+
+        private long timeAt(int x) {
+            return viewFrom + (long) ((x - 60) * (double) (viewTo - viewFrom) / Math.max(1, plotWidth()));
+        }
+
+        // Húzás / görgetés közben a kérések összevonódnak: egyszerre egy betöltés fut, utána a legfrissebb nézet
+        private void reload() {
+            HistoryPyramid p = pyramid;
+            if (p == null) return;
+            if (loading) {
+                pending = true;
+                return;
+            }
+            loading = true;
+            long from = viewFrom, to = viewTo;
+            int m = metric;
+            int pixels = Math.max(50, plotWidth());
+            background.accept(() -> {
+                long start = System.nanoTime();
+                HistoryPyramid.Series s = null;
+                String msg = "Előzmény lekérdezési hiba";
+                try {
+                    // Csak az új rekordok néhány lépése: az első (hosszú) építést a háttérfeladat végzi,
+                    // addig a nézet a már feldolgozott részt mutatja
+                    int[] steps = {RELOAD_STEPS};
+                    boolean complete = p.catchUp(() -> steps[0]-- > 0);
+                    s = p.query(m, from, to, pixels);
+                    msg = String.format("%s, %d pont, rekesz: %s, betöltés: %.1f ms%s",
+                            s.raw ? "nyers adat" : "piramis", s.n, spanText(s.bucketMs), (System.nanoTime() - start) / 1e6,
+                            complete ? "" : " (a piramis még épül)");
+                } catch (IOException ex) {
+                    msg = "Előzmény lekérdezési hiba: " + ex.getMessage();
+                } finally {
+                    // Váratlan hiba után se maradjon a grafikon örökre "betöltés" állapotban
+                    HistoryPyramid.Series result = s;
+                    String text = msg;
+                    SwingUtilities.invokeLater(() -> {
+                        loading = false;
+                        if (result != null && m == metric) data = result;
+                        status.accept(text);
+                        repaint();
+                        if (pending) {
+                            pending = false;
+                            reload();
+                        }
+                    });
+                }
+            });
+        }
+
+        private static String spanText(long ms) {
+            if (ms < 60_000L) return (ms / 1000.0) + " s";
+            if (ms < 3600_000L) return (ms / 60_000L) + " perc";
+            if (ms < 86_400_000L) return df2(ms / 3600_000.0) + " óra";
+            return df2(ms / 86_400_000.0) + " nap";
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Graphics2D g2 = (Graphics2D) g;
+            int w = getWidth();
+            int h = getHeight();
+            int leftPad = 60;
+            int topPad = 25;
+            int bottomPad = 30;
+            int gw = plotWidth();
+            int gh = h - topPad - bottomPad;
+            if (gw <= 10 || gh <= 10) return;
+
+            Color axisColor = dark ? Color.GRAY : Color.LIGHT_GRAY;
+            Color textColor = dark ? Color.WHITE : Color.BLACK;
+            g2.setColor(axisColor);
+            g2.drawRect(leftPad, topPad, gw, gh);
+
+            long from = viewFrom, to = viewTo;
+            double span = Math.max(1, to - from);
+            FontMetrics fm = g2.getFontMetrics();
+
+            // Időtengely: a tartománytól függő felbontású feliratok
+            String pattern = span < 2 * 86_400_000L ? "HH:mm:ss" : span < 60 * 86_400_000L ? "MM-dd HH:mm" : "yyyy-MM-dd";
+            SimpleDateFormat fmt = new SimpleDateFormat(pattern);
+            g2.setColor(textColor);
+            for (int i = 0; i <= 5; i++) {
+                long t = from + (long) (span * i / 5);
+                String label = fmt.format(new Date(t));
+                int x = leftPad + gw * i / 5;
+                int lx = Math.max(0, Math.min(w - fm.stringWidth(label), x - fm.stringWidth(label) / 2));
+                g2.drawString(label, lx, topPad + gh + fm.getAscent() + 4);
+            }
+
+            HistoryPyramid.Series s = data;
+            if (pyramid == null || s == null || s.n == 0) {
+                g2.drawString(pyramid == null ? "A bináris tár nem érhető el." : loading ? "Betöltés..." : "Nincs adat ebben a tartományban.",
+                        leftPad + 10, topPad + 20);
+                return;
+            }
+
+            float lo = Float.MAX_VALUE, hi = -Float.MAX_VALUE;
+            for (int i = 0; i < s.n; i++) {
+                if (s.t[i] < from || s.t[i] > to) continue;
+                lo = Math.min(lo, s.min[i]);
+                hi = Math.max(hi, s.max[i]);
+            }
+            if (lo > hi) {
+                lo = 0;
+                hi = 1;
+            }
+            if (lo >= 0) lo = 0;
+            if (hi - lo < 1e-6) hi = lo + 1;
+            double yScale = gh * 0.9 / (hi - lo);
+            g2.drawString(df2(hi), 2, topPad + gh - (int) Math.round((hi - lo) * yScale) + fm.getAscent() / 2);
+            g2.drawString(df2(lo), 2, topPad + gh);
+
+            Shape oldClip = g2.getClip();
+            g2.clipRect(leftPad, topPad, gw + 1, gh + 1);
+            Color band = dark ? new Color(90, 120, 200) : new Color(180, 200, 255);
+            Color line = dark ? new Color(120, 200, 255) : Color.BLUE;
+            int prevX = 0, prevY = 0;
+            long prevT = Long.MIN_VALUE;
+            // Megszakítás csak a szokásos pontköz többszörösénél (a mérési intervallum lehet a rekesznél hosszabb)
+            long[] deltas = new long[Math.max(1, s.n - 1)];
+            for (int i = 1; i < s.n; i++) deltas[i - 1] = s.t[i] - s.t[i - 1];
+            Arrays.sort(deltas);
+            long gap = Math.max(2 * s.bucketMs, 3 * deltas[deltas.length / 2]);
+            for (int i = 0; i < s.n; i++) {
+                int x = leftPad + (int) Math.round((s.t[i] - from) / span * gw);
+                int yMin = topPad + gh - (int) Math.round((s.min[i] - lo) * yScale);
+                int yMax = topPad + gh - (int) Math.round((s.max[i] - lo) * yScale);
+                int y = topPad + gh - (int) Math.round((s.avg[i] - lo) * yScale);
+                g2.setColor(band);
+                g2.drawLine(x, yMin, x, yMax);
+                g2.setColor(line);
+                // Adathiány (kimaradt rekeszek) helyén a vonal megszakad
+                if (prevT != Long.MIN_VALUE && s.t[i] - prevT <= gap) g2.drawLine(prevX, prevY, x, y);
+                else g2.fillRect(x, y, 1, 1);
+                prevX = x;
+                prevY = y;
+                prevT = s.t[i];
+            }
+            g2.setClip(oldClip);
+        }
+    }
+
+    // PacketGraphPanel: unicast/broadcast/multicast válaszidők,
+    // illetve tetszőleges nevű sorozatok (pl. áteresztés, anycast célpontok)
+    private static class PacketGraphPanel extends JPanel {
+        private static final Color[] PALETTE = {
+                Color.BLUE, new Color(0, 200, 0), Color.ORANGE, Color.MAGENTA,
+                Color.RED, Color.CYAN.darker(), new Color(140, 90, 40), Color.PINK.darker(),
+                new Color(90, 90, 200), new Color(0, 130, 130)
+        };
+
+        private final Map<String, java.util.List<Double>> series = new LinkedHashMap<>();
+        private final Map<String, Color> colors = new HashMap<>();
+        private final Map<String, String> labels = new HashMap<>();
+        private int maxPoints = 100;
+        private boolean dark = false;
+
+        public PacketGraphPanel() {
+            this(true);
+        }
+
+        public PacketGraphPanel(boolean packetSeries) {
+            setBackground(Color.WHITE);
+            if (packetSeries) {
+                defineSeries("unicast", "Kék: Unicast", Color.BLUE);
+                defineSeries("broadcast", "Zöld: Broadcast", new Color(0, 200, 0));
+                defineSeries("multicast", "Narancs: Multicast", Color.ORANGE);
+            }
+        }
+
+        public synchronized void defineSeries(String key, String label, Color color) {
+            series.computeIfAbsent(key, k -> new ArrayList<>());
+            labels.put(key, label);
+            colors.put(key, color);
+        }
+
+        public synchronized void addPoint(String type, double ms) {
+            java.util.List<Double> vals = series.get(type);
+            if (vals == null) {
+                // Ismeretlen sorozat: automatikus szín a palettáról, a kulcs a felirat
+                defineSeries(type, type, PALETTE[series.size() % PALETTE.length]);
+                vals = series.get(type);
+            }
+            vals.add(ms);
+            if (vals.size() > maxPoints) vals.remove(0);
+            repaint();
+        }
+
+        public synchronized void clearSeries() {
+            series.clear();
+            colors.clear();
+            labels.clear();
+            repaint();
+        }
+
+        public void setDark(boolean d) {
+            dark = d;
+            if (dark) setBackground(new Color(30, 30, 30));
+            else setBackground(Color.WHITE);
+        }
+
+        @Override
+        protected synchronized void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Graphics2D g2 = (Graphics2D) g;
+
+            int w = getWidth();
+            int h = getHeight();
+            if (w <= 0 || h <= 0) return;
+
+            int leftPad = 50;
+            int rightPad = 20;
+            int topPad = 25;
+            int bottomPad = 30;
+
+            int gw = w - leftPad - rightPad;
+            int gh = h - topPad - bottomPad;
+            if (gw <= 10 || gh <= 10) return;
+
+            Color axisColor = dark ? Color.GRAY : Color.LIGHT_GRAY;
+            Color textColor = dark ? Color.WHITE : Color.BLACK;
+
+            g2.setColor(axisColor);
+            g2.drawRect(leftPad, topPad, gw, gh);
+
+            int n = 0;
+            for (java.util.List<Double> vals : series.values()) n = Math.max(n, vals.size());
+            if (n < 1) {
+                g2.setColor(textColor);
+                g2.drawString("Nincs még teszt mérés...", leftPad + 10, topPad + 20);
+                return;
+            }
+
+            double maxVal = 1.0;
+            for (java.util.List<Double> vals : series.values()) {
+                for (double v : vals) {
+                    if (!Double.isNaN(v)) maxVal = Math.max(maxVal, v);
+                }
+            }
+
+            double xStep = (double) gw / Math.max(1, n - 1);
+
+            // Minden sorozatot külön színnel rajzolunk (ha van elég pont)
+            for (Map.Entry<String, java.util.List<Double>> e : series.entrySet()) {
+                g2.setColor(colors.get(e.getKey()));
+                drawSeries(g2, e.getValue(), maxVal, leftPad, topPad, gh, xStep);
+            }
+
+            FontMetrics fm = g2.getFontMetrics();
+            int x = leftPad + 10;
+            int y = topPad + 15;
+            for (String key : series.keySet()) {
+                String label = labels.get(key);
+                int lw = fm.stringWidth(label) + 25;
+                if (x + lw > leftPad + gw && x > leftPad + 10) {
+                    x = leftPad + 10;
+                    y += fm.getHeight();
+                }
+                g2.setColor(colors.get(key));
+                g2.fillRect(x, y - 8, 8, 8);
+                g2.setColor(textColor);
+                g2.drawString(label, x + 12, y);
+                x += lw;
+            }
+        }
+
+        private void drawSeries(Graphics2D g2, List<Double> vals, double maxVal,
+                                int leftPad, int topPad, int gh, double xStep) {
+            int n = vals.size();
+            if (n == 0) return;
+            // NaN: hiányzó pont (sikertelen próba), ott a görbe megszakad
+            int prevX = 0, prevY = 0;
+            boolean havePrev = false;
+            for (int i = 0; i < n; i++) {
+                double v = vals.get(i);
+                if (Double.isNaN(v)) {
+                    havePrev = false;
+                    continue;
+                }
+                int x = leftPad + (int) Math.round(i * xStep);
+                int y = topPad + gh - (int) Math.round((v / maxVal) * gh * 0.9);
+                if (havePrev) g2.drawLine(prevX, prevY, x, y);
+                else g2.drawLine(x, y, x, y);
+                prevX = x;
+                prevY = y;
+                havePrev = true;
+            }
+        }
+    }
+
+    // SweepGraphPanel: méretenként medián RTT (vonal) és p95 (pont), logaritmikus méret tengely;
+    // a veszteséges méretek piros jelölést kapnak, a legnagyobb DF teher (MTU határ) függőleges vonal
+    // Ping flotta hőtérkép: soronként egy célpont, oszloponként egy idősáv (jobb szélen a legutóbbi).
+    // A szín a medián késleltetés (zöld 1 ms alatt -> piros 1 s felett, logaritmikusan), a veszteség
+    // lila felé húzza, a teljes veszteség fekete. A kép a mérőszálon készül, a rajzolás csak nagyít.
+    private static class FleetHeatMapPanel extends JPanel {
+        private java.util.List<PingFleet.Target> targets = new ArrayList<>();
+        private long slotMs;
+        private long lastSlot = -1;
+        private long lastSlotEndMillis;
+        private java.awt.image.BufferedImage image;
+        private boolean dark = false;
+
+        FleetHeatMapPanel() {
+            setBackground(Color.WHITE);
+            setToolTipText("");
+        }
+
+        synchronized void setTargets(java.util.List<PingFleet.Target> targets, long slotMs) {
+            this.targets = targets;
+            this.slotMs = slotMs;
+            this.lastSlot = -1;
+            this.image = null;
+            repaint();
+        }
+
+        void update(long slot) {
+            java.util.List<PingFleet.Target> list;
+            synchronized (this) {
+                list = targets;
+            }
+            int cols = PingFleet.SLOTS;
+            java.awt.image.BufferedImage img = new java.awt.image.BufferedImage(cols, Math.max(1, list.size()),
+                    java.awt.image.BufferedImage.TYPE_INT_ARGB);
+            int[] row = new int[cols];
+            float[] median = new float[cols];
+            byte[] loss = new byte[cols];
+            for (int r = 0; r < list.size(); r++) {
+                list.get(r).copyRing(slot, median, loss);
+                for (int c = 0; c < cols; c++) row[c] = cellColor(median[c], loss[c]);
+                img.setRGB(0, r, cols, 1, row, 0, cols);
+            }
+            synchronized (this) {
+                if (list != targets) return;
+                image = img;
+                lastSlot = slot;
+                lastSlotEndMillis = System.currentTimeMillis();
+            }
+            repaint();
+        }
+
+        private static int cellColor(float medianMs, byte lossPercent) {
+            if (lossPercent < 0) return 0;                      // nem volt próba: átlátszó
+            if (Float.isNaN(medianMs)) return 0xFF000000;       // csak veszteség
+            double t = Math.max(0, Math.min(1, Math.log10(Math.max(medianMs, 1)) / 3));
+            Color c = Color.getHSBColor((float) (0.33 * (1 - t)), 0.85f, 0.9f);
+            double l = lossPercent / 100.0;
+            double w = l == 0 ? 0 : 0.35 + 0.65 * l;
+            int red = (int) (c.getRed() * (1 - w) + 160 * w);
+            int green = (int) (c.getGreen() * (1 - w));
+            int blue = (int) (c.getBlue() * (1 - w) + 200 * w);
+            return 0xFF000000 | (red << 16) | (green << 8) | blue;
+        }
+
+        public void setDark(boolean d) {
+            dark = d;
+            if (dark) setBackground(new Color(30, 30, 30));
+            else setBackground(Color.WHITE);
+        }
+
+        private Rectangle plotArea() {
+            Insets in = getInsets();
+            int leftPad = targets.size() <= 40 ? 110 : 10;
+            return new Rectangle(in.left + leftPad, in.top + 5, getWidth() - in.left - in.right - leftPad - 10,
+                    getHeight() - in.top - in.bottom - 25);
+        }
+
+        @Override
+        public synchronized String getToolTipText(java.awt.event.MouseEvent e) {
+            Rectangle a = plotArea();
+            if (image == null || !a.contains(e.getPoint()) || targets.isEmpty()) return null;
+            int r = (int) ((e.getY() - a.y) / (double) a.height * targets.size());
+            int c = (int) ((e.getX() - a.x) / (double) a.width * PingFleet.SLOTS);
+            if (r < 0 || r >= targets.size() || c < 0 || c >= PingFleet.SLOTS) return null;
+            PingFleet.Target t = targets.get(r);
+            float[] median = new float[PingFleet.SLOTS];
+            byte[] loss = new byte[PingFleet.SLOTS];
+            t.copyRing(lastSlot, median, loss);
+            long endMillis = lastSlotEndMillis - (long) (PingFleet.SLOTS - 1 - c) * slotMs;
+            String time = new SimpleDateFormat("HH:mm:ss").format(new Date(endMillis - slotMs));
+            if (loss[c] < 0) return t.name + " – " + time + ": nincs adat";
+            return t.name + " – " + time + ": medián " + (Float.isNaN(median[c]) ? "-" : df2(median[c]) + " ms")
+                    + ", veszteség " + loss[c] + " %";
+        }
+
+        @Override
+        protected synchronized void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Graphics2D g2 = (Graphics2D) g;
+            Rectangle a = plotArea();
+            if (a.width <= 10 || a.height <= 10) return;
+
+            Color axisColor = dark ? Color.GRAY : Color.LIGHT_GRAY;
+            Color textColor = dark ? Color.WHITE : Color.BLACK;
+            if (image == null) {
+                g2.setColor(textColor);
+                g2.drawString(targets.isEmpty() ? "Nincs futó flotta mérés..." : "Első idősáv gyűjtése...", a.x + 10, a.y + 20);
+                return;
+            }
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g2.drawImage(image, a.x, a.y, a.width, a.height, null);
+            g2.setColor(axisColor);
+            g2.drawRect(a.x, a.y, a.width, a.height);
+
+            FontMetrics fm = g2.getFontMetrics();
+            g2.setColor(textColor);
+            // Célpontnevek, ha elférnek
+            double rowH = a.height / (double) targets.size();
+            if (rowH >= fm.getHeight() - 2 && a.x > 100) {
+                for (int r = 0; r < targets.size(); r++) {
+                    String name = targets.get(r).name;
+                    while (fm.stringWidth(name) > a.x - 15 && name.length() > 3) name = name.substring(0, name.length() - 1);
+                    g2.drawString(name, a.x - fm.stringWidth(name) - 5, (int) (a.y + (r + 0.5) * rowH + fm.getAscent() / 2.0 - 1));
+                }
+            }
+            // Időtengely: a bal szél és a jobb szél
+            SimpleDateFormat fmt = new SimpleDateFormat("HH:mm");
+            String left = fmt.format(new Date(lastSlotEndMillis - PingFleet.SLOTS * slotMs));
+            String right = fmt.format(new Date(lastSlotEndMillis));
+            int ty = a.y + a.height + fm.getAscent() + 3;
+            g2.drawString(left, a.x, ty);
+            g2.drawString(right, a.x + a.width - fm.stringWidth(right), ty);
+            String mid = targets.size() + " célpont, " + PingFleet.SLOTS + " × " + slotMs / 1000 + " s";
+            g2.drawString(mid, a.x + (a.width - fm.stringWidth(mid)) / 2, ty);
+        }
+    }
+
+    private static class SweepGraphPanel extends JPanel {
+        private final Map<String, java.util.List<PayloadSweep.Step>> steps = new LinkedHashMap<>();
+        private final Map<String, Color> colors = new HashMap<>();
+        private int dfLimit = -1;
+        private boolean dark = false;
+
+        SweepGraphPanel() {
+            setBackground(Color.WHITE);
+            colors.put(PayloadSweep.UDP, Color.BLUE);
+            colors.put(PayloadSweep.ICMP, Color.ORANGE);
+        }
+
+        synchronized void addStep(PayloadSweep.Step s) {
+            steps.computeIfAbsent(s.kind, k -> new ArrayList<>()).add(s);
+            repaint();
+        }
+
+        synchronized void setDfLimit(int payload) {
+            this.dfLimit = payload;
+            repaint();
+        }
+
+        synchronized void clear() {
+            steps.clear();
+            dfLimit = -1;
+            repaint();
+        }
+
+        public void setDark(boolean d) {
+            dark = d;
+            if (dark) setBackground(new Color(30, 30, 30));
+            else setBackground(Color.WHITE);
+        }
+
+        @Override
+        protected synchronized void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Graphics2D g2 = (Graphics2D) g;
+
+            int w = getWidth();
+            int h = getHeight();
+            int leftPad = 50;
+            int rightPad = 20;
+            int topPad = 25;
+            int bottomPad = 30;
+            int gw = w - leftPad - rightPad;
+            int gh = h - topPad - bottomPad;
+            if (gw <= 10 || gh <= 10) return;
+
+            Color axisColor = dark ? Color.GRAY : Color.LIGHT_GRAY;
+            Color textColor = dark ? Color.WHITE : Color.BLACK;
+            g2.setColor(axisColor);
+            g2.drawRect(leftPad, topPad, gw, gh);
+
+            int minSize = Integer.MAX_VALUE, maxSize = 0;
+            double maxRtt = 1.0;
+            for (java.util.List<PayloadSweep.Step> list : steps.values()) {
+                for (PayloadSweep.Step s : list) {
+                    minSize = Math.min(minSize, s.size);
+                    maxSize = Math.max(maxSize, s.size);
+                    if (s.received > 0) maxRtt = Math.max(maxRtt, s.p95Ms);
+                }
+            }
+            if (maxSize == 0) {
+                g2.setColor(textColor);
+                g2.drawString("Nincs még sweep mérés...", leftPad + 10, topPad + 20);
+                return;
+            }
+            double logMin = Math.log(minSize);
+            double logSpan = Math.max(1e-9, Math.log(Math.max(maxSize, minSize + 1)) - logMin);
+
+            // Méret tengely feliratai (logaritmikus)
+            FontMetrics fm = g2.getFontMetrics();
+            g2.setColor(textColor);
+            int lastLabelX = -1000;
+            for (PayloadSweep.Step s : steps.values().iterator().next()) {
+                int x = leftPad + (int) Math.round((Math.log(s.size) - logMin) / logSpan * gw);
+                String label = String.valueOf(s.size);
+                if (x - lastLabelX < fm.stringWidth(label) + 6) continue;
+                g2.drawString(label, x - fm.stringWidth(label) / 2, topPad + gh + fm.getAscent() + 2);
+                lastLabelX = x;
+            }
+            g2.drawString(df2(maxRtt / 0.9) + " ms", 2, topPad + fm.getAscent());
+
+            if (dfLimit > 0) {
+                int x = leftPad + (int) Math.round((Math.log(Math.max(minSize, dfLimit)) - logMin) / logSpan * gw);
+                g2.setColor(Color.RED);
+                g2.drawLine(x, topPad, x, topPad + gh);
+                g2.drawString("DF max " + dfLimit + " byte", x + 4, topPad + gh - 4);
+            }
+
+            int legendX = leftPad + 10;
+            for (Map.Entry<String, java.util.List<PayloadSweep.Step>> e : steps.entrySet()) {
+                Color c = colors.getOrDefault(e.getKey(), Color.MAGENTA);
+                int prevX = -1, prevY = -1;
+                for (PayloadSweep.Step s : e.getValue()) {
+                    int x = leftPad + (int) Math.round((Math.log(s.size) - logMin) / logSpan * gw);
+                    if (s.received == 0) {
+                        // Teljes veszteség: piros X a tengelyen, a vonal itt megszakad
+                        g2.setColor(Color.RED);
+                        g2.drawLine(x - 3, topPad + gh - 3, x + 3, topPad + gh + 3);
+                        g2.drawLine(x - 3, topPad + gh + 3, x + 3, topPad + gh - 3);
+                        prevX = -1;
+                        continue;
+                    }
+                    int y = topPad + gh - (int) Math.round(s.p50Ms / maxRtt * gh * 0.9);
+                    int y95 = topPad + gh - (int) Math.round(s.p95Ms / maxRtt * gh * 0.9);
+                    g2.setColor(c);
+                    if (prevX >= 0) g2.drawLine(prevX, prevY, x, y);
+                    g2.fillOval(x - 2, y95 - 2, 4, 4);
+                    if (s.received < s.sent) {
+                        g2.setColor(Color.RED);
+                        g2.drawOval(x - 4, y - 4, 8, 8);
+                    }
+                    prevX = x;
+                    prevY = y;
+                }
+                g2.setColor(c);
+                g2.fillRect(legendX, topPad + 7, 8, 8);
+                g2.setColor(textColor);
+                g2.drawString(e.getKey(), legendX + 12, topPad + 15);
+                legendX += fm.stringWidth(e.getKey()) + 30;
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        // Fej nélküli szerver mód (pl. távoli gépen): java NetworkMonitor --udp-server|--tcp-server [port]
+        if (args.length > 0 && args[0].equals("--udp-server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : UdpBlast.DEFAULT_PORT;
+            new UdpBlast(System.out::println).runServer(port, () -> true);
+            return;
+        }
+        // Elemzés parancssorból: java NetworkMonitor --analyze network_log.csv [további fájlok]
+        if (args.length > 1 && args[0].equals("--analyze")) {
+            for (int i = 1; i < args.length; i++) {
+                try {
+                    long start = System.nanoTime();
+                    LogAnalytics.Partial result = LogAnalytics.analyze(new File(args[i]));
+                    System.out.println(LogAnalytics.report(result, args[i], System.nanoTime() - start));
+                } catch (IOException ex) {
+                    System.err.println("Elemzési hiba (" + args[i] + "): " + ex.getMessage());
+                }
+            }
+            return;
+        }
+        // Hálózati emulátor: java NetworkMonitor --emulate tcp|udp <port> <cél:port> [késl. jitter veszteség% sorrendcsere% Mbps]
+        if (args.length > 3 && args[0].equals("--emulate")) {
+            NetEmulator.Protocol proto = NetEmulator.Protocol.valueOf(args[1].toUpperCase(Locale.ROOT));
+            int colon = args[3].lastIndexOf(':');
+            InetSocketAddress target = new InetSocketAddress(args[3].substring(0, colon), Integer.parseInt(args[3].substring(colon + 1)));
+            double[] v = new double[5];
+            for (int i = 0; i < v.length && 4 + i < args.length; i++) v[i] = Double.parseDouble(args[4 + i]);
+            NetEmulator emu = new NetEmulator(proto, target, new NetEmulator.Conditions(v[0], v[1], v[2], v[3], v[4]),
+                    System.nanoTime(), System.out::println);
+            try {
+                emu.start(Integer.parseInt(args[2]));
+                Thread.currentThread().join();
+            } catch (Exception ex) {
+                System.err.println("Emulátor hiba: " + ex.getMessage());
+            }
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--tcp-server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : TcpThroughput.DEFAULT_PORT;
+            new TcpThroughput(System.out::println).runServer(port, () -> true,
+                    Executors.newCachedThreadPool(TaskRuntime.threadFactory(TaskRuntime.Feature.THROUGHPUT)));
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            try { UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName()); } catch (Exception ignored) {}
+            new NetworkMonitor().setVisible(true);
+        });
+    }
+}
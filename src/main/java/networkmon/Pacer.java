@@ -0,0 +1,53 @@
+package networkmon;
+
+import java.util.concurrent.locks.LockSupport;
+
+// Egyenletes ütemező a csomagküldő hurkokhoz: megadott esemény/s sebesség mellett
+// megvárja a következő esedékes időpontot (park + rövid spin a pontosságért), és
+// visszaadja, hány esemény vált esedékessé – így a hívó kötegelten küldhet.
+class Pacer {
+    private static final long SPIN_NANOS = 50_000;      // az utolsó 50 µs-ot pörgéssel várjuk
+    private static final long WALL_BASE_MICROS = System.currentTimeMillis() * 1000L;
+    private static final long NANO_BASE = System.nanoTime();
+
+    private final long intervalNanos;
+    private final int maxBatch;
+    private long next;
+
+    Pacer(double eventsPerSec, int maxBatch) {
+        this.intervalNanos = Math.max(1L, (long) (1e9 / Math.max(0.001, eventsPerSec)));
+        this.maxBatch = Math.max(1, maxBatch);
+        this.next = System.nanoTime();
+    }
+
+    long intervalNanos() { return intervalNanos; }
+
+    // Blokkol, amíg legalább egy esemény esedékes; visszaadja az esedékes események számát (1..maxBatch)
+    int awaitBatch() throws InterruptedException {
+        long now = System.nanoTime();
+        long wait = next - now;
+        while (wait > 0) {
+            if (Thread.interrupted()) throw new InterruptedException();
+            if (wait > SPIN_NANOS) {
+                LockSupport.parkNanos(wait - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+            now = System.nanoTime();
+            wait = next - now;
+        }
+        long due = 1 + (now - next) / intervalNanos;
+        if (due > maxBatch) {
+            // Túl nagy lemaradás: nem küldjük ki egyben az egészet, újraindítjuk az ütemet
+            next = now + intervalNanos;
+            return maxBatch;
+        }
+        next += due * intervalNanos;
+        return (int) due;
+    }
+
+    // Monoton, de falióra-alapú epoch mikroszekundum (egyirányú késleltetéshez, NTP-szinkron mellett)
+    static long epochMicros() {
+        return WALL_BASE_MICROS + (System.nanoTime() - NANO_BASE) / 1000L;
+    }
+}
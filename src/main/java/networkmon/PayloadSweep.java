@@ -0,0 +1,298 @@
+package networkmon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Csomagméret-sweep: az UDP echo és az ICMP ping próbák hasznos terhét a minimálistól a
+// jumbo keret méretéig lépteti, méretenként RTT eloszlást, veszteséget és effektív goodputot
+// mér, majd a DF (don't fragment) bites pingekkel bináris kereséssel meghatározza az útvonal
+// használható MTU-ját. A Java 17 UDP socketje nem tud DF bitet állítani, ezért az UDP ág a
+// méretfüggő (tördeléses) veszteséget mutatja, az MTU-t az ICMP ág adja.
+final class PayloadSweep {
+    static final int[] LADDER = {16, 64, 128, 256, 512, 1024, 1200, 1280, 1400, 1432, 1452, 1472, 1480,
+            1500, 2048, 4096, 8192, 8972, 9000};
+    static final String UDP = "UDP echo";
+    static final String ICMP = "ICMP (DF)";
+    private static final int TIMEOUT_MS = 1000;
+    private static final int UDP_MAX = 65_507;
+    private static final int HEADER = 12; // sorszám(8) + méret(4) az UDP hasznos teher elején
+    // "time=12ms", "time=0.045 ms", "idő<1 ms", "Zeit=3ms"
+    private static final Pattern PING_TIME = Pattern.compile("(?:time|idő|zeit)\\s*([=<])\\s*([0-9]+(?:[.,][0-9]+)?)\\s*ms",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    // Tördelés szükséges, de DF be van állítva (Windows / Linux / macOS, magyar Windows)
+    private static final Pattern FRAG_NEEDED = Pattern.compile("fragment|frag needed|too long|tördel",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    private static final boolean WINDOWS = System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("win");
+    private static final boolean MAC = System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("mac");
+
+    static final class Step {
+        final String kind;
+        final int size;
+        final int sent;
+        final int received;
+        final int fragNeeded;     // DF miatt elutasított ping próbák
+        final double minMs, p50Ms, p95Ms, maxMs;
+        final double goodputMbps; // stop-and-wait: kézbesített bitek / (sikeres RTT-k + időtúllépések ideje)
+
+        Step(String kind, int size, int sent, int received, int fragNeeded, double[] rtts, double goodputMbps) {
+            this.kind = kind;
+            this.size = size;
+            this.sent = sent;
+            this.received = received;
+            this.fragNeeded = fragNeeded;
+            Arrays.sort(rtts);
+            this.minMs = rtts.length > 0 ? rtts[0] : Double.NaN;
+            this.p50Ms = rtts.length > 0 ? rtts[rtts.length / 2] : Double.NaN;
+            this.p95Ms = rtts.length > 0 ? rtts[Math.min(rtts.length - 1, (int) Math.ceil(rtts.length * 0.95) - 1)] : Double.NaN;
+            this.maxMs = rtts.length > 0 ? rtts[rtts.length - 1] : Double.NaN;
+            this.goodputMbps = goodputMbps;
+        }
+
+        double lossPercent() {
+            return sent == 0 ? 0 : 100.0 * (sent - received) / sent;
+        }
+    }
+
+    private final Consumer<String> log;
+    private final Consumer<Step> onStep;
+
+    PayloadSweep(Consumer<String> log, Consumer<Step> onStep) {
+        this.log = log;
+        this.onStep = onStep;
+    }
+
+    // A legnagyobb tördelés nélkül átjutó ICMP hasznos teher (MTU = ez + IP/ICMP fejléc), -1 ha nem mérhető
+    int run(TaskRuntime.Scope scope, String host, int udpPort, boolean udp, boolean icmp, int maxSize, int probes) {
+        InetAddress addr;
+        try {
+            addr = InetAddress.getByName(host);
+        } catch (Exception ex) {
+            log.accept("[Sweep] Ismeretlen host: " + host);
+            return -1;
+        }
+        List<Integer> sizes = new ArrayList<>();
+        for (int s : LADDER) if (s <= maxSize) sizes.add(s);
+        if (sizes.isEmpty() || sizes.get(sizes.size() - 1) != maxSize) sizes.add(maxSize);
+        log.accept("[Sweep] " + host + ": " + sizes.size() + " méret (" + sizes.get(0) + ".." + maxSize + " byte), "
+                + probes + " próba / méret");
+
+        if (udp) sweepUdp(scope, addr, udpPort, sizes, probes);
+
+        int dfMax = -1;
+        if (icmp && scope.isRunning()) {
+            int lastOk = -1;
+            int firstFail = -1;
+            for (int size : sizes) {
+                if (!scope.isRunning()) break;
+                Step s = pingStep(host, size, probes, scope);
+                if (s == null) {
+                    log.accept("[Sweep] A ping parancs nem futtatható, az ICMP sweep kimarad.");
+                    return -1;
+                }
+                onStep.accept(s);
+                logStep(s);
+                if (s.received > 0) {
+                    lastOk = size;
+                } else if (firstFail < 0 && lastOk >= 0) {
+                    firstFail = size;
+                }
+            }
+            if (scope.isRunning()) dfMax = findMtu(scope, host, addr, lastOk, firstFail);
+        }
+        log.accept("[Sweep] Kész.");
+        return dfMax;
+    }
+
+    private void logStep(Step s) {
+        String head = String.format(Locale.ROOT, "[Sweep] %-9s %5d byte: %d/%d válasz, veszteség %.0f%%%s",
+                s.kind, s.size, s.received, s.sent, s.lossPercent(),
+                s.fragNeeded > 0 ? " (DF: " + s.fragNeeded + " elutasítva)" : "");
+        if (s.received == 0) {
+            log.accept(head);
+            return;
+        }
+        log.accept(head + String.format(Locale.ROOT, ", RTT min/p50/p95/max %.2f/%.2f/%.2f/%.2f ms, goodput %.3f Mbps",
+                s.minMs, s.p50Ms, s.p95Ms, s.maxMs, s.goodputMbps));
+    }
+
+    // ---------- UDP ----------
+
+    private void sweepUdp(TaskRuntime.Scope scope, InetAddress addr, int port, List<Integer> sizes, int probes) {
+        DatagramSocket socket = null;
+        try {
+            socket = scope.register(new DatagramSocket());
+            socket.setSoTimeout(TIMEOUT_MS);
+            socket.setSendBufferSize(UDP_MAX * 2);
+            socket.setReceiveBufferSize(UDP_MAX * 2);
+            byte[] rx = new byte[UDP_MAX];
+            long seq = 0;
+            for (int size : sizes) {
+                if (!scope.isRunning()) break;
+                int payload = Math.max(HEADER, Math.min(size, UDP_MAX));
+                byte[] tx = new byte[payload];
+                for (int i = HEADER; i < payload; i++) tx[i] = (byte) i;
+                double[] rtts = new double[probes];
+                int ok = 0;
+                double busyMs = 0;
+                for (int p = 0; p < probes && scope.isRunning(); p++) {
+                    seq++;
+                    ByteBuffer.wrap(tx).putLong(seq).putInt(payload);
+                    long start = System.nanoTime();
+                    socket.send(new DatagramPacket(tx, payload, addr, port));
+                    double rtt = awaitEcho(socket, rx, seq, payload, start);
+                    Diagnostics.probe("udp sweep", addr.getHostAddress(), start, rtt >= 0);
+                    if (rtt >= 0) {
+                        rtts[ok++] = rtt;
+                        busyMs += rtt;
+                    } else {
+                        busyMs += TIMEOUT_MS;
+                    }
+                }
+                Step s = new Step(UDP, payload, probes, ok, 0, Arrays.copyOf(rtts, ok),
+                        busyMs > 0 ? ok * payload * 8.0 / 1e6 / (busyMs / 1000.0) : 0);
+                onStep.accept(s);
+                logStep(s);
+            }
+        } catch (Exception ex) {
+            if (scope.isRunning()) log.accept("[Sweep] UDP hiba: " + ex.toString());
+        } finally {
+            if (socket != null) {
+                scope.unregister(socket);
+                socket.close();
+            }
+        }
+    }
+
+    // A saját sorszámú, teljes hosszú visszhangra vár; a késve érkező korábbi válaszokat eldobja
+    private static double awaitEcho(DatagramSocket socket, byte[] rx, long seq, int payload, long start) throws Exception {
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+        DatagramPacket resp = new DatagramPacket(rx, rx.length);
+        while (true) {
+            long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (left <= 0) return -1;
+            socket.setSoTimeout((int) left);
+            try {
+                resp.setLength(rx.length);
+                socket.receive(resp);
+            } catch (SocketTimeoutException ste) {
+                return -1;
+            }
+            if (resp.getLength() >= HEADER && ByteBuffer.wrap(rx).getLong(0) == seq) {
+                // Csonkolt visszhang (pl. a szerver puffere kisebb) veszteségnek számít
+                if (resp.getLength() != payload) return -1;
+                return (System.nanoTime() - start) / 1e6;
+            }
+        }
+    }
+
+    // ---------- ICMP ----------
+
+    // null, ha a ping parancs el sem indítható
+    private Step pingStep(String host, int size, int probes, TaskRuntime.Scope scope) {
+        double[] rtts = new double[probes];
+        int ok = 0;
+        int frag = 0;
+        double busyMs = 0;
+        for (int p = 0; p < probes && scope.isRunning(); p++) {
+            long start = System.nanoTime();
+            double r = ping(host, size);
+            if (r == -3) return null;
+            Diagnostics.probe("icmp sweep", host, start, r >= 0);
+            if (r >= 0) {
+                rtts[ok++] = r;
+                busyMs += r;
+            } else {
+                if (r == -2) frag++;
+                busyMs += TIMEOUT_MS;
+            }
+        }
+        return new Step(ICMP, size, probes, ok, frag, Arrays.copyOf(rtts, ok),
+                busyMs > 0 ? ok * size * 8.0 / 1e6 / (busyMs / 1000.0) : 0);
+    }
+
+    // Bináris keresés az utolsó átjutó és az első elakadó méret között; MTU = ICMP teher + IP/ICMP fejléc
+    private int findMtu(TaskRuntime.Scope scope, String host, InetAddress addr, int lastOk, int firstFail) {
+        int overhead = addr instanceof Inet6Address ? 48 : 28;
+        if (lastOk < 0) {
+            log.accept("[Sweep] MTU: egyetlen ping sem ment át (ICMP tiltva?), nem meghatározható.");
+            return -1;
+        }
+        if (firstFail < 0) {
+            log.accept("[Sweep] MTU: a legnagyobb mért méret (" + lastOk + " byte) is átment, az útvonal MTU >= " + (lastOk + overhead));
+            return lastOk;
+        }
+        int lo = lastOk, hi = firstFail;
+        while (hi - lo > 1 && scope.isRunning()) {
+            int mid = (lo + hi) >>> 1;
+            boolean passed = ping(host, mid) >= 0 || ping(host, mid) >= 0; // egy ismétlés a véletlen veszteség ellen
+            if (passed) lo = mid;
+            else hi = mid;
+        }
+        int mtu = lo + overhead;
+        log.accept("[Sweep] Útvonal MTU: " + mtu + " byte (legnagyobb tördelés nélküli ICMP teher: " + lo + " byte)"
+                + (mtu < 1500 ? " – alagút / VPN / PPPoE gyanú" : ""));
+        return lo;
+    }
+
+    // Egy DF bites ping adott hasznos teherrel: RTT ms, -1 ha nincs válasz, -2 ha tördelés kellene,
+    // -3 ha a ping parancs nem indítható
+    static double ping(String host, int size) {
+        List<String> cmd;
+        if (WINDOWS) {
+            cmd = List.of("ping", "-n", "1", "-w", String.valueOf(TIMEOUT_MS), "-f", "-l", String.valueOf(size), host);
+        } else if (MAC) {
+            cmd = List.of("ping", "-c", "1", "-W", String.valueOf(TIMEOUT_MS), "-D", "-s", String.valueOf(size), host);
+        } else {
+            cmd = List.of("ping", "-c", "1", "-W", String.valueOf(Math.max(1, TIMEOUT_MS / 1000)), "-M", "do",
+                    "-s", String.valueOf(size), host);
+        }
+        Process p;
+        try {
+            p = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+        } catch (IOException ex) {
+            return -3;
+        }
+        try {
+            double result = -1;
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), Charset.defaultCharset()))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    double t = parseRtt(line);
+                    if (t >= 0 && result < 0) result = t;
+                    else if (result < 0 && FRAG_NEEDED.matcher(line).find()) result = -2;
+                }
+            }
+            p.waitFor();
+            return result;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (Exception ex) {
+            return -1;
+        }
+    }
+
+    // Tizedes és "<1ms" alakot is kezel (a parsePingTime csak egész ms-ot ad vissza)
+    static double parseRtt(String line) {
+        Matcher m = PING_TIME.matcher(line);
+        if (!m.find()) return -1;
+        double v = Double.parseDouble(m.group(2).replace(',', '.'));
+        return m.group(1).equals("<") ? v / 2 : v;
+    }
+}
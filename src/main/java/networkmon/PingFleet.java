@@ -0,0 +1,418 @@
+package networkmon;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+// Smokeping jellegű flotta-mérés: sok száz célpont folyamatos, célpontonként fix időközű
+// próbája egyetlen NIO szálról. A küldések egyenletesen elosztva (célpontonként eltolva)
+// indulnak, így 1000 célpont 1 Hz-en is csak ~1 próba/ms terhelést jelent.
+// A próba nem-blokkoló TCP connect (ICMP-hez Java-ból nyers socket kellene): a SYN-re érkező
+// SYN-ACK és RST (elutasított port) egyaránt válasz, a körülfordulási időt adja; időtúllépés
+// vagy elérhetetlen hálózat = veszteség.
+// Célpontonként tömör adat marad: negyed-oktávos hisztogram a teljes futásra és idősávonként
+// (medián, veszteség) egy SLOTS hosszú gyűrű a hőtérképhez.
+final class PingFleet {
+    static final int DEFAULT_PORT = 443;
+    static final int SLOTS = 360;
+    static final int MAX_CIDR_HOSTS = 4096;
+
+    private static final int HIST_BUCKETS = 64;          // 100 µs-tól negyed-oktávonként (~100 s-ig)
+    private static final double HIST_BASE_US = 100;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    static final class Target {
+        final String name;
+        final String host;
+        final int port;
+        InetSocketAddress address;
+
+        private final int[] hist = new int[HIST_BUCKETS];
+        private long sent;
+        private long received;
+        private double lastMs = -1;
+        private boolean down;
+
+        // A két még nyitott idősáv (páros / páratlan) mintái: egy próba a küldése szerinti sávba
+        // számít, akkor is, ha a válasz már a következőben érkezik
+        private final float[][] slotSamples = {new float[8], new float[8]};
+        private final int[] slotReplies = new int[2];
+        private final int[] slotSent = new int[2];
+
+        // Lezárt idősávok: medián (ms, NaN = nem volt válasz) és veszteség (%, -1 = nem volt próba)
+        private final float[] ringMedian = new float[SLOTS];
+        private final byte[] ringLoss = new byte[SLOTS];
+
+        Target(String name, String host, int port) {
+            this.name = name;
+            this.host = host;
+            this.port = port;
+            Arrays.fill(ringMedian, Float.NaN);
+            Arrays.fill(ringLoss, (byte) -1);
+        }
+
+        synchronized void sent(long slot) {
+            sent++;
+            slotSent[(int) (slot & 1)]++;
+        }
+
+        synchronized void reply(long slot, double ms) {
+            received++;
+            lastMs = ms;
+            int b = ms * 1000 <= HIST_BASE_US ? 0
+                    : (int) Math.min(HIST_BUCKETS - 1, Math.ceil(4 * Math.log(ms * 1000 / HIST_BASE_US) / Math.log(2)));
+            hist[b]++;
+            int s = (int) (slot & 1);
+            if (slotReplies[s] == slotSamples[s].length) slotSamples[s] = Arrays.copyOf(slotSamples[s], slotReplies[s] * 2);
+            slotSamples[s][slotReplies[s]++] = (float) ms;
+        }
+
+        synchronized void lost() {
+            lastMs = -1;
+        }
+
+        // Idősáv lezárása; true, ha a célpont állapota (elérhető / elérhetetlen) megváltozott
+        synchronized boolean closeSlot(long slot) {
+            int col = (int) (slot % SLOTS);
+            int s = (int) (slot & 1);
+            int sentIn = slotSent[s];
+            int replies = slotReplies[s];
+            slotSent[s] = 0;
+            slotReplies[s] = 0;
+            if (sentIn == 0) {
+                ringMedian[col] = Float.NaN;
+                ringLoss[col] = -1;
+                return false;
+            }
+            if (replies > 0) {
+                Arrays.sort(slotSamples[s], 0, replies);
+                ringMedian[col] = slotSamples[s][replies / 2];
+            } else {
+                ringMedian[col] = Float.NaN;
+            }
+            ringLoss[col] = (byte) Math.round(100.0 * (sentIn - replies) / sentIn);
+            boolean wasDown = down;
+            down = replies == 0;
+            return wasDown != down;
+        }
+
+        synchronized long sentCount() { return sent; }
+        synchronized long receivedCount() { return received; }
+        synchronized double lastMs() { return lastMs; }
+        synchronized boolean isDown() { return down; }
+
+        synchronized double lossPercent() {
+            return sent == 0 ? 0.0 : 100.0 * Math.max(0, sent - received) / sent;
+        }
+
+        // Hisztogramból becsült percentilis (ms, a vödör felső határa; ~19% felbontás)
+        synchronized double percentile(double p) {
+            long total = 0;
+            for (int c : hist) total += c;
+            if (total == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(p / 100.0 * total));
+            long seen = 0;
+            for (int i = 0; i < HIST_BUCKETS; i++) {
+                seen += hist[i];
+                if (seen >= rank) return HIST_BASE_US * Math.pow(2, i / 4.0) / 1000.0;
+            }
+            return 0;
+        }
+
+        // A hőtérkép oszlopai a legrégebbitől a legutóbbi lezárt idősávig
+        synchronized void copyRing(long lastSlot, float[] median, byte[] loss) {
+            for (int i = 0; i < SLOTS; i++) {
+                long slot = lastSlot - SLOTS + 1 + i;
+                if (slot < 0) {
+                    median[i] = Float.NaN;
+                    loss[i] = -1;
+                } else {
+                    median[i] = ringMedian[(int) (slot % SLOTS)];
+                    loss[i] = ringLoss[(int) (slot % SLOTS)];
+                }
+            }
+        }
+    }
+
+    // Egy úton lévő próba
+    private static final class Probe {
+        final Target target;
+        final long slot;
+        final SocketChannel channel;
+        final long sentNanos;
+        final long deadline;
+        boolean done;
+
+        Probe(Target target, long slot, SocketChannel channel, long sentNanos, long deadline) {
+            this.target = target;
+            this.slot = slot;
+            this.channel = channel;
+            this.sentNanos = sentNanos;
+            this.deadline = deadline;
+        }
+    }
+
+    private final List<Target> targets;
+    private final Consumer<String> log;
+    private final LongConsumer onSlot;
+    private long lastSlot = -1;
+    private long localErrors;
+    private long lastCpuNanos;
+    private long lastWallNanos;
+
+    // onSlot: egy idősáv lezárása után (a mérőszálon), a lezárt idősáv sorszámával
+    PingFleet(List<Target> targets, Consumer<String> log, LongConsumer onSlot) {
+        this.targets = targets;
+        this.log = log;
+        this.onSlot = onSlot;
+    }
+
+    // Célpontok: soronként vagy vesszővel elválasztva "host", "host:port", "[v6]:port",
+    // "név=host[:port]" vagy CIDR tartomány ("10.0.0.0/24", legfeljebb MAX_CIDR_HOSTS cím); '#' után megjegyzés
+    static List<Target> parseTargets(String text, int defaultPort, Consumer<String> log) {
+        List<Target> out = new ArrayList<>();
+        List<String> items = new ArrayList<>();
+        for (String line : text.split("\\R")) {
+            int hash = line.indexOf('#');
+            items.addAll(Arrays.asList((hash >= 0 ? line.substring(0, hash) : line).split(",")));
+        }
+        for (String raw : items) {
+            String item = raw.trim();
+            if (item.isEmpty()) continue;
+            String name = null;
+            int eq = item.indexOf('=');
+            if (eq > 0) {
+                name = item.substring(0, eq).trim();
+                item = item.substring(eq + 1).trim();
+            }
+            String host = item;
+            int port = defaultPort;
+            if (item.startsWith("[")) {
+                int close = item.indexOf(']');
+                if (close < 0) {
+                    log.accept("[Flotta] Hibás cím: " + raw.trim());
+                    continue;
+                }
+                host = item.substring(1, close);
+                if (item.length() > close + 2 && item.charAt(close + 1) == ':') port = parsePort(item.substring(close + 2), defaultPort);
+            } else if (item.indexOf(':') == item.lastIndexOf(':') && item.indexOf(':') > 0) {
+                host = item.substring(0, item.indexOf(':'));
+                port = parsePort(item.substring(item.indexOf(':') + 1), defaultPort);
+            }
+            int slash = host.indexOf('/');
+            if (slash > 0) {
+                expandCidr(host.substring(0, slash), host.substring(slash + 1), port, out, log);
+            } else {
+                out.add(new Target(name != null ? name : host, host, port));
+            }
+        }
+        return out;
+    }
+
+    private static int parsePort(String s, int fallback) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException ex) {
+            return fallback;
+        }
+    }
+
+    private static void expandCidr(String base, String bits, int port, List<Target> out, Consumer<String> log) {
+        try {
+            byte[] a = InetAddress.getByName(base).getAddress();
+            int prefix = Integer.parseInt(bits);
+            if (a.length != 4 || prefix < 32 - 12 || prefix > 32) {
+                log.accept("[Flotta] Csak IPv4 CIDR támogatott, legalább /" + (32 - 12) + ": " + base + "/" + bits);
+                return;
+            }
+            int ip = ((a[0] & 0xFF) << 24) | ((a[1] & 0xFF) << 16) | ((a[2] & 0xFF) << 8) | (a[3] & 0xFF);
+            int mask = prefix == 0 ? 0 : -1 << (32 - prefix);
+            int first = ip & mask;
+            int count = 1 << (32 - prefix);
+            // Hálózati és broadcast cím kihagyva, ha a tartomány ennél nagyobb
+            int from = count > 2 ? 1 : 0;
+            int to = count > 2 ? count - 1 : count;
+            for (int i = from; i < to && i - from < MAX_CIDR_HOSTS; i++) {
+                int v = first + i;
+                String host = ((v >>> 24) & 0xFF) + "." + ((v >>> 16) & 0xFF) + "." + ((v >>> 8) & 0xFF) + "." + (v & 0xFF);
+                out.add(new Target(host, host, port));
+            }
+        } catch (IOException | NumberFormatException ex) {
+            log.accept("[Flotta] Hibás CIDR: " + base + "/" + bits);
+        }
+    }
+
+    void run(TaskRuntime.Scope scope, long intervalMs, long timeoutMs, long slotMs) throws IOException {
+        List<Target> active = new ArrayList<>();
+        for (Target t : targets) {
+            try {
+                t.address = new InetSocketAddress(InetAddress.getByName(t.host), t.port);
+                active.add(t);
+            } catch (IOException ex) {
+                log.accept("[Flotta] Nem feloldható: " + t.host);
+            }
+            if (!scope.isRunning()) return;
+        }
+        if (active.isEmpty()) {
+            log.accept("[Flotta] Nincs mérhető célpont.");
+            return;
+        }
+        int n = active.size();
+        long intervalNanos = intervalMs * 1_000_000L;
+        long slotNanos = slotMs * 1_000_000L;
+        // Egy idősáv lezárásakor minden, benne küldött próbának már el kell dőlnie
+        long timeoutNanos = Math.min(timeoutMs * 1_000_000L, slotNanos / 2);
+        log.accept(String.format("[Flotta] %d célpont, %d ms időköz (%.1f próba/s), időtúllépés %d ms%s, idősáv %d s",
+                n, intervalMs, n * 1000.0 / intervalMs, timeoutNanos / 1_000_000L,
+                timeoutNanos < timeoutMs * 1_000_000L ? " (kért " + timeoutMs + " ms, max. fél idősáv)" : "", slotMs / 1000));
+        ArrayDeque<Probe> inflight = new ArrayDeque<>();
+        try (Selector selector = Selector.open()) {
+            long start = System.nanoTime();
+            lastCpuNanos = THREADS.getCurrentThreadCpuTime();
+            lastWallNanos = start;
+            long sendIndex = 0;               // összes eddigi küldés; a k-adik ideje start + k * interval / n
+            long nextSend = start;
+            long slot = 0;
+            long slotEnd = start + slotNanos;
+            long closeAt = Long.MAX_VALUE;    // az előző idősáv lezárása (a határ + időtúllépés után)
+            while (scope.isRunning()) {
+                long now = System.nanoTime();
+                while (nextSend <= now) {
+                    if (nextSend >= slotEnd) {
+                        slot++;
+                        closeAt = slotEnd + timeoutNanos;
+                        slotEnd += slotNanos;
+                    }
+                    send(active.get((int) (sendIndex % n)), slot, selector, inflight, now, timeoutNanos);
+                    sendIndex++;
+                    nextSend = start + sendIndex / n * intervalNanos + (sendIndex % n) * intervalNanos / n;
+                }
+                // Időtúllépés: az úton lévők küldési (= határidő) sorrendben állnak
+                while (!inflight.isEmpty() && (inflight.peekFirst().done || inflight.peekFirst().deadline <= now)) {
+                    Probe p = inflight.pollFirst();
+                    if (!p.done) finish(p, -1);
+                }
+                if (now >= closeAt) {
+                    closeSlot(active, slot - 1);
+                    closeAt = Long.MAX_VALUE;
+                }
+
+                long wake = Math.min(nextSend, closeAt);
+                if (!inflight.isEmpty()) wake = Math.min(wake, inflight.peekFirst().deadline);
+                // Felfelé kerekítve: ms alatti várakozásnál sem pörög a szál, a küldés legfeljebb ~1 ms-ot késik
+                long waitMs = Math.max(1, (wake - System.nanoTime() + 999_999) / 1_000_000);
+                int ready = selector.select(Math.min(waitMs, 100));
+                if (ready > 0) {
+                    long at = System.nanoTime();
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        Probe p = (Probe) key.attachment();
+                        try {
+                            p.channel.finishConnect();
+                            finish(p, at);
+                        } catch (ConnectException ex) {
+                            finish(p, refused(ex) ? at : -1);
+                        } catch (IOException ex) {
+                            finish(p, -1);
+                        }
+                    }
+                }
+            }
+            for (Probe p : inflight) {
+                if (!p.done) closeQuietly(p.channel);
+            }
+        }
+        log.accept(String.format("[Flotta] Leállt (%d idősáv%s).", lastSlot + 1,
+                localErrors > 0 ? ", " + localErrors + " helyi hiba (pl. fájlleíró-korlát)" : ""));
+    }
+
+    private void send(Target t, long slot, Selector selector, ArrayDeque<Probe> inflight, long now, long timeoutNanos) {
+        SocketChannel ch = null;
+        Probe p = null;
+        try {
+            ch = SocketChannel.open();
+            ch.configureBlocking(false);
+            // Lezáráskor RST, így másodpercenként sok száz próba sem hagy TIME_WAIT kapcsolatot
+            ch.setOption(StandardSocketOptions.SO_LINGER, 0);
+            long sentNanos = System.nanoTime();
+            t.sent(slot);
+            p = new Probe(t, slot, ch, sentNanos, now + timeoutNanos);
+            if (ch.connect(t.address)) {
+                finish(p, System.nanoTime());
+                return;
+            }
+            ch.register(selector, SelectionKey.OP_CONNECT, p);
+            inflight.addLast(p);
+        } catch (ConnectException ex) {
+            // Azonnali elutasítás (pl. hurokcímen): ugyanúgy értékeljük, mint a selectoron érkezőt
+            if (p != null) finish(p, refused(ex) ? System.nanoTime() : -1);
+            else closeQuietly(ch);
+        } catch (IOException ex) {
+            // Helyi hiba (pl. elfogyott fájlleíró): nem a célpont vesztesége, nem számít küldésnek
+            closeQuietly(ch);
+            if (localErrors++ == 0) log.accept("[Flotta] Próba nem indítható: " + ex.getMessage());
+        }
+    }
+
+    // RST: a gép válaszolt, csak a port zárt - ez elérhetőség, nem veszteség
+    private static boolean refused(ConnectException ex) {
+        String msg = ex.getMessage();
+        return msg != null && msg.toLowerCase(Locale.ROOT).contains("refused");
+    }
+
+    private static void finish(Probe p, long replyNanos) {
+        p.done = true;
+        closeQuietly(p.channel);
+        if (replyNanos >= 0) {
+            p.target.reply(p.slot, (replyNanos - p.sentNanos) / 1e6);
+        } else {
+            p.target.lost();
+        }
+    }
+
+    private void closeSlot(List<Target> active, long slot) {
+        int down = 0;
+        double loss = 0;
+        for (Target t : active) {
+            if (t.closeSlot(slot)) {
+                log.accept("[Flotta] " + t.name + (t.isDown() ? ": elérhetetlen (idősáv 100% veszteség)" : ": újra elérhető"));
+            }
+            if (t.isDown()) down++;
+            loss += t.lossPercent();
+        }
+        // A mérőszál saját CPU ideje az előző lezárás óta, egy mag százalékában
+        long cpu = THREADS.getCurrentThreadCpuTime();
+        long wall = System.nanoTime();
+        log.accept(String.format("[Flotta] Idősáv %d: %d / %d elérhető, átlagos veszteség %.2f %%%s",
+                slot + 1, active.size() - down, active.size(), loss / active.size(),
+                cpu < 0 ? "" : String.format(", CPU %.1f %%", 100.0 * (cpu - lastCpuNanos) / Math.max(1, wall - lastWallNanos))));
+        lastCpuNanos = cpu;
+        lastWallNanos = wall;
+        lastSlot = slot;
+        onSlot.accept(slot);
+    }
+
+    private static void closeQuietly(SocketChannel ch) {
+        if (ch == null) return;
+        try {
+            ch.close();
+        } catch (IOException ignored) {}
+    }
+}
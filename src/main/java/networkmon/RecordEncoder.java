@@ -0,0 +1,329 @@
+package networkmon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+// Mérési rekord kódoló (CSV naplósor, JSON export) újrahasznosított bájtpufferbe, köztes
+// String-ek nélkül. A kimenet bájtra azonos a korábbi String.format("%.2f"/"%.4f") és
+// SimpleDateFormat alapú formázással (alapértelmezett locale tizedesjele, helyi időzóna).
+// Nem szálbiztos: szálanként egy példány, lásd forCurrentThread().
+final class RecordEncoder {
+    static final String CSV_HEADER = "timestamp;interface;download_mbps;upload_mbps;ping_avg_ms;jitter_ms;packet_loss_percent;http_resp_ms";
+
+    private static final ThreadLocal<RecordEncoder> LOCAL = ThreadLocal.withInitial(RecordEncoder::new);
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    private static final long[] POW10 = {1L, 10L, 100L, 1_000L, 10_000L};
+    private static final String[] FIXED_FORMATS = {"%.0f", "%.1f", "%.2f", "%.3f", "%.4f"};
+    private static final long DAY_MILLIS = 86_400_000L;
+    // Ennél nagyobb abszolút értékre (és NaN/végtelenre) a String.format útvonalat használjuk
+    private static final double FAST_LIMIT = 1e12;
+
+    private final TimeZone zone = TimeZone.getDefault();
+    private final Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+    private final byte decimalSeparator;
+    private final boolean fastNumbers;
+    private final boolean fastDates;
+
+    private byte[] buf = new byte[256];
+    private int len;
+
+    // Utoljára formázott nap (helyi idő szerint), hogy a naptárszámítás naponta csak egyszer fusson
+    private long cachedDay = Long.MIN_VALUE;
+    private int cachedYear;
+    private int cachedMonth;
+    private int cachedDayOfMonth;
+    // Tartalék formázók (nem ASCII számjegyek, szélső évszámok); a példány szálhoz kötött
+    private SimpleDateFormat csvDateFormat;
+    private SimpleDateFormat jsonDateFormat;
+
+    RecordEncoder() {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        char sep = symbols.getDecimalSeparator();
+        decimalSeparator = (byte) sep;
+        // Nem ASCII számjegyek / tizedesjel esetén mindig a String.format / SimpleDateFormat útvonal fut
+        fastNumbers = sep < 0x80 && symbols.getZeroDigit() == '0';
+        // Nem Gergely-naptáras locale (pl. th-TH buddhista, ja-JP-u-ca-japanese) dátuma a SimpleDateFormat-tól jön
+        fastDates = fastNumbers && "gregory".equals(Calendar.getInstance(zone, locale).getCalendarType());
+    }
+
+    static RecordEncoder forCurrentThread() {
+        return LOCAL.get();
+    }
+
+    RecordEncoder reset() {
+        len = 0;
+        return this;
+    }
+
+    int length() {
+        return len;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(buf, 0, len);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buf, 0, len, StandardCharsets.UTF_8);
+    }
+
+    // ---------- Rekordok ----------
+
+    RecordEncoder csv(NetworkMonitor.Measurement m) {
+        return csv(m.timestamp.getTime(), m.interfaceName, m.downloadMbps, m.uploadMbps,
+                m.pingAvgMs, m.jitterMs, m.packetLossPercent, m.httpResponseMs);
+    }
+
+    // timestamp;"interface";dl;ul;ping;jitter;loss;http  (2 tizedes)
+    RecordEncoder csv(long tsMillis, String iface, double dl, double ul, double ping,
+                      double jitter, double loss, double http) {
+        timestamp(tsMillis, ' ');
+        put(';').put('"');
+        escaped(iface, false);
+        put('"');
+        put(';').fixed(dl, 2);
+        put(';').fixed(ul, 2);
+        put(';').fixed(ping, 2);
+        put(';').fixed(jitter, 2);
+        put(';').fixed(loss, 2);
+        put(';').fixed(http, 2);
+        return this;
+    }
+
+    // Adaptív mérésnél az átviteli görbék is bekerülnek (curve_bucket_ms, download/upload_curve_mbps)
+    RecordEncoder json(NetworkMonitor.Measurement m) {
+        jsonFields(m.timestamp.getTime(), m.interfaceName, m.downloadMbps, m.uploadMbps,
+                m.pingAvgMs, m.jitterMs, m.packetLossPercent, m.httpResponseMs);
+        if (m.downloadCurve.length > 0 || m.uploadCurve.length > 0) {
+            text(",\"curve_bucket_ms\":");
+            number(AdaptiveSpeedTest.BUCKET_MS);
+            text(",\"download_curve_mbps\":");
+            array(m.downloadCurve);
+            text(",\"upload_curve_mbps\":");
+            array(m.uploadCurve);
+        }
+        return put('}');
+    }
+
+    RecordEncoder json(long tsMillis, String iface, double dl, double ul, double ping,
+                       double jitter, double loss, double http) {
+        jsonFields(tsMillis, iface, dl, ul, ping, jitter, loss, http);
+        return put('}');
+    }
+
+    private void jsonFields(long tsMillis, String iface, double dl, double ul, double ping,
+                            double jitter, double loss, double http) {
+        text("{\"timestamp\":\"");
+        timestamp(tsMillis, 'T');
+        text("\",\"interface\":\"");
+        escaped(iface, true);
+        text("\",\"download_mbps\":").fixed(dl, 4);
+        text(",\"upload_mbps\":").fixed(ul, 4);
+        text(",\"ping_avg_ms\":").fixed(ping, 4);
+        text(",\"jitter_ms\":").fixed(jitter, 4);
+        text(",\"packet_loss_percent\":").fixed(loss, 4);
+        text(",\"http_response_ms\":").fixed(http, 4);
+    }
+
+    private void array(double[] values) {
+        put('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) put(',');
+            fixedDot(values[i], 2);
+        }
+        put(']');
+    }
+
+    RecordEncoder newLine() {
+        ensure(NEWLINE.length);
+        System.arraycopy(NEWLINE, 0, buf, len, NEWLINE.length);
+        len += NEWLINE.length;
+        return this;
+    }
+
+    // Szöveg UTF-8-ban, escape nélkül
+    RecordEncoder text(String s) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            i = utf8(s, i);
+        }
+        return this;
+    }
+
+    // ---------- Mezők ----------
+
+    // yyyy-MM-dd HH:mm:ss (sep = ' ') vagy yyyy-MM-dd'T'HH:mm:ss (sep = 'T'), helyi időben
+    private void timestamp(long tsMillis, char sep) {
+        long local = tsMillis + zone.getOffset(tsMillis);
+        long day = Math.floorDiv(local, DAY_MILLIS);
+        int secOfDay = (int) (Math.floorMod(local, DAY_MILLIS) / 1000);
+        if (day != cachedDay) civil(day);
+        if (!fastDates || cachedYear < 1600 || cachedYear > 9999) {
+            // Gergely-naptár előtti / négyjegyűnél hosszabb év, más naptár vagy nem ASCII számjegyek
+            text(dateFormat(sep).format(new Date(tsMillis)));
+            return;
+        }
+        ensure(19);
+        digits(cachedYear, 4);
+        put('-');
+        digits(cachedMonth, 2);
+        put('-');
+        digits(cachedDayOfMonth, 2);
+        put(sep);
+        digits(secOfDay / 3600, 2);
+        put(':');
+        digits(secOfDay / 60 % 60, 2);
+        put(':');
+        digits(secOfDay % 60, 2);
+    }
+
+    private SimpleDateFormat dateFormat(char sep) {
+        if (sep == 'T') {
+            if (jsonDateFormat == null) jsonDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+            return jsonDateFormat;
+        }
+        if (csvDateFormat == null) csvDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        return csvDateFormat;
+    }
+
+    // Polgári dátum az epoch óta eltelt napokból (proleptikus Gergely-naptár)
+    private void civil(long epochDay) {
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long doe = z - era * 146_097;
+        long yoe = (doe - doe / 1460 + doe / 36_524 - doe / 146_096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        cachedYear = (int) (yoe + era * 400 + (month <= 2 ? 1 : 0));
+        cachedMonth = month;
+        cachedDayOfMonth = (int) (doy - (153 * mp + 2) / 5 + 1);
+        cachedDay = epochDay;
+    }
+
+    // Fix tizedesjegyes szám, a Formatter "%.Nf" viselkedésével: a legrövidebb decimális alak
+    // HALF_UP kerekítése. Ez csak akkor térhet el a pontos érték kerekítésétől, ha a szám egy
+    // kerekítési határ (…5) közvetlen közelében van – ilyenkor (és szélsőértékeknél) a
+    // String.format fut, így a kimenet mindig azonos marad.
+    private RecordEncoder fixed(double v, int decimals) {
+        return fixed(v, decimals, fastNumbers, decimalSeparator, locale);
+    }
+
+    // Locale-független ('.' tizedesjel) változat a JSON tömbökhöz, ahol a ',' elválasztó is lenne
+    private RecordEncoder fixedDot(double v, int decimals) {
+        return fixed(v, decimals, true, (byte) '.', Locale.ROOT);
+    }
+
+    private RecordEncoder fixed(double v, int decimals, boolean fast, byte separator, Locale loc) {
+        if (!fast || !(Math.abs(v) < FAST_LIMIT)) return slowFixed(v, decimals, loc);
+        long scale = POW10[decimals];
+        double a = Math.abs(v);
+        double s = a * scale;
+        double floor = Math.floor(s);
+        double frac = s - floor;
+        double tolerance = 4 * Math.ulp(s) + 2 * scale * Math.ulp(a);
+        if (Math.abs(frac - 0.5) <= tolerance) return slowFixed(v, decimals, loc);
+
+        long r = (long) floor + (frac > 0.5 ? 1 : 0);
+        ensure(24);
+        if (Double.doubleToRawLongBits(v) < 0) put('-');
+        number(r / scale);
+        if (decimals > 0) {
+            put((char) separator);
+            digits((int) (r % scale), decimals);
+        }
+        return this;
+    }
+
+    private RecordEncoder slowFixed(double v, int decimals, Locale loc) {
+        return text(String.format(loc, FIXED_FORMATS[decimals], v));
+    }
+
+    private void number(long v) {
+        if (v < 10) {
+            put((char) ('0' + v));
+            return;
+        }
+        int n = 1;
+        for (long t = v / 10; t > 0; t /= 10) n++;
+        ensure(n);
+        for (int i = len + n - 1; i >= len; i--) {
+            buf[i] = (byte) ('0' + v % 10);
+            v /= 10;
+        }
+        len += n;
+    }
+
+    // Nemnegatív szám pontosan 'width' jegyen, vezető nullákkal
+    private void digits(int v, int width) {
+        ensure(width);
+        for (int i = len + width - 1; i >= len; i--) {
+            buf[i] = (byte) ('0' + v % 10);
+            v /= 10;
+        }
+        len += width;
+    }
+
+    // CSV: " -> '   JSON: \ -> \\, " -> \"
+    private void escaped(String s, boolean json) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c == '"') {
+                if (json) put('\\').put('"');
+                else put('\'');
+            } else if (c == '\\' && json) {
+                put('\\').put('\\');
+            } else {
+                i = utf8(s, i);
+            }
+        }
+    }
+
+    // Egy karakter (vagy helyettesítő pár) UTF-8 kódolása; a feldolgozott utolsó indexet adja vissza.
+    // Párosítatlan helyettesítő karakter helyett '?', ahogy a JDK UTF-8 kódolója is teszi.
+    private int utf8(String s, int i) {
+        char c = s.charAt(i);
+        ensure(4);
+        if (c < 0x80) {
+            buf[len++] = (byte) c;
+        } else if (c < 0x800) {
+            buf[len++] = (byte) (0xC0 | (c >> 6));
+            buf[len++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+            int cp = Character.toCodePoint(c, s.charAt(i + 1));
+            buf[len++] = (byte) (0xF0 | (cp >> 18));
+            buf[len++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+            buf[len++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+            buf[len++] = (byte) (0x80 | (cp & 0x3F));
+            return i + 1;
+        } else if (Character.isSurrogate(c)) {
+            buf[len++] = '?';
+        } else {
+            buf[len++] = (byte) (0xE0 | (c >> 12));
+            buf[len++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buf[len++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return i;
+    }
+
+    private RecordEncoder put(char c) {
+        ensure(1);
+        buf[len++] = (byte) c;
+        return this;
+    }
+
+    private void ensure(int extra) {
+        if (len + extra > buf.length) {
+            byte[] grown = new byte[Math.max(buf.length * 2, len + extra)];
+            System.arraycopy(buf, 0, grown, 0, len);
+            buf = grown;
+        }
+    }
+}
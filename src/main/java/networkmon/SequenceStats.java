@@ -0,0 +1,164 @@
+// Sorszámozott csomagfolyam fogadói statisztikája: veszteség, veszteség-löketek,
+// átrendeződés, duplikátumok, RFC 3550 szerinti jitter és egyirányú késleltetés.
+// Egy fogadó szál használja; a riport lekérdezése szinkronizált.
+package networkmon;
+
+class SequenceStats {
+    private static final int WINDOW = 4096; // duplikátum-felismerés ablaka (sorszám)
+
+    private final long[] seenBits = new long[WINDOW / 64];
+
+    private long firstSeq = -1;
+    private long maxSeq = -1;
+    private long received;
+    private long duplicates;
+    private long reordered;
+    private long bytes;
+    // Veszteség-löketek: egy hiányzó sorszám csak akkor számít véglegesen elveszettnek, ha kicsúszott az
+    // ablakból (addig sorrenden kívül még megérkezhet); az ablakon belüli hiányokat a lekérdezés számolja
+    private long lossBursts;
+    private long maxBurst;
+    private long missingRun;   // az ablak alján kicsúszott, egymást követő hiányzó sorszámok
+
+    private double jitterUs;
+    private long lastTransitUs;
+    private boolean haveTransit;
+
+    private long firstArrivalNanos;
+    private long lastArrivalNanos;
+
+    private final LatencyHistogram delayUs = new LatencyHistogram();
+    private long minDelayUs = Long.MAX_VALUE;
+    private long maxDelayUs = Long.MIN_VALUE;
+
+    // Intervallum számlálók (riportonként nullázva)
+    private long intervalPackets;
+    private long intervalBytes;
+
+    // sentUs: küldési idő a küldő órája szerint, arrivalUs: érkezés a fogadó órája szerint (epoch µs)
+    synchronized void onPacket(long seq, long sentUs, long arrivalUs, int size, long arrivalNanos) {
+        if (firstSeq < 0) {
+            firstSeq = seq;
+            maxSeq = seq - 1;
+            firstArrivalNanos = arrivalNanos;
+        }
+        lastArrivalNanos = arrivalNanos;
+
+        if (seq <= maxSeq) {
+            boolean inWindow = maxSeq - seq < WINDOW && seq >= firstSeq;
+            if (inWindow && testAndSet(seq)) {
+                duplicates++;
+                return;
+            }
+            reordered++;
+        } else {
+            // Az ablakból most kicsúszó sorszámok véglegesítése (a régi maxSeq fölöttiek biztosan nem érkeztek meg)
+            long leaveFrom = Math.max(firstSeq, maxSeq - WINDOW + 1);
+            long leaveTo = seq - WINDOW;
+            for (long s = leaveFrom; s <= Math.min(leaveTo, maxSeq); s++) settle(testBit(s));
+            long unseen = leaveTo - Math.max(maxSeq + 1, leaveFrom) + 1;
+            if (unseen > 0) missingRun += unseen;
+            // Az ablakba belépő sorszámok bitjeit töröljük
+            long clearFrom = Math.max(maxSeq + 1, seq - WINDOW + 1);
+            for (long s = clearFrom; s < seq; s++) clearBit(s);
+            maxSeq = seq;
+            testAndSet(seq);
+        }
+
+        received++;
+        bytes += size;
+        intervalPackets++;
+        intervalBytes += size;
+
+        long transit = arrivalUs - sentUs;
+        if (transit < minDelayUs) minDelayUs = transit;
+        if (transit > maxDelayUs) maxDelayUs = transit;
+        delayUs.record(transit);
+        if (haveTransit) {
+            long d = Math.abs(transit - lastTransitUs);
+            jitterUs += (d - jitterUs) / 16.0;
+        }
+        lastTransitUs = transit;
+        haveTransit = true;
+    }
+
+    private void settle(boolean seen) {
+        if (!seen) {
+            missingRun++;
+        } else if (missingRun > 0) {
+            lossBursts++;
+            if (missingRun > maxBurst) maxBurst = missingRun;
+            missingRun = 0;
+        }
+    }
+
+    // {löketek, leghosszabb}: a véglegesített löketek és az ablakon belüli (még pótolható) hiányok együtt
+    private long[] bursts() {
+        long bursts = lossBursts, max = maxBurst, run = missingRun;
+        if (firstSeq >= 0) {
+            for (long s = Math.max(firstSeq, maxSeq - WINDOW + 1); s <= maxSeq; s++) {
+                if (!testBit(s)) {
+                    run++;
+                } else if (run > 0) {
+                    bursts++;
+                    if (run > max) max = run;
+                    run = 0;
+                }
+            }
+        }
+        return new long[]{bursts, max};
+    }
+
+    private boolean testBit(long seq) {
+        int bit = Math.floorMod(seq, WINDOW);
+        return (seenBits[bit >>> 6] & (1L << (bit & 63))) != 0;
+    }
+
+    private boolean testAndSet(long seq) {
+        int bit = (int) Math.floorMod(seq, (long) WINDOW);
+        long mask = 1L << (bit & 63);
+        boolean was = (seenBits[bit >>> 6] & mask) != 0;
+        seenBits[bit >>> 6] |= mask;
+        return was;
+    }
+
+    private void clearBit(long seq) {
+        int bit = (int) Math.floorMod(seq, (long) WINDOW);
+        seenBits[bit >>> 6] &= ~(1L << (bit & 63));
+    }
+
+    synchronized long received() { return received; }
+
+    synchronized long expected() { return firstSeq < 0 ? 0 : maxSeq - firstSeq + 1; }
+
+    synchronized long lost() { return Math.max(0, expected() - received); }
+
+    synchronized double lossPercent() {
+        long exp = expected();
+        return exp == 0 ? 0.0 : 100.0 * lost() / exp;
+    }
+
+    synchronized long duplicates() { return duplicates; }
+    synchronized long reordered() { return reordered; }
+    synchronized long lossBursts() { return bursts()[0]; }
+    synchronized long maxBurst() { return bursts()[1]; }
+    synchronized long bytes() { return bytes; }
+    synchronized double jitterMs() { return jitterUs / 1000.0; }
+
+    synchronized double delayPercentileMs(double p) { return delayUs.percentile(p) / 1000.0; }
+    synchronized double minDelayMs() { return received == 0 ? 0.0 : minDelayUs / 1000.0; }
+    synchronized double maxDelayMs() { return received == 0 ? 0.0 : maxDelayUs / 1000.0; }
+
+    synchronized double averageMbps() {
+        double sec = (lastArrivalNanos - firstArrivalNanos) / 1e9;
+        return sec <= 0 ? 0.0 : bytes * 8.0 / 1e6 / sec;
+    }
+
+    // Az utolsó hívás óta eltelt intervallum csomag- és bájtszáma: {packets, bytes}, nullázással
+    synchronized long[] drainInterval() {
+        long[] r = {intervalPackets, intervalBytes};
+        intervalPackets = 0;
+        intervalBytes = 0;
+        return r;
+    }
+}
@@ -0,0 +1,176 @@
+package networkmon;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Sebességmérő szerver kiválasztása: a jelölt URL-ek párhuzamos előmérése (TCP kapcsolódási
+// idő + rövid letöltési löket), rangsorolás, és a választás gyorsítótárazása a következő
+// újraértékelésig. Helyi (pl. http://127.0.0.1:8080/...) szerverekkel is működik.
+final class ServerSelector {
+    private static final int CONNECT_SAMPLES = 3;
+    private static final int TIMEOUT_MS = 3000;
+    private static final int BURST_BYTES = 1024 * 1024;
+    private static final long BURST_NANOS = TimeUnit.MILLISECONDS.toNanos(700);
+
+    static final class Candidate {
+        final String url;
+        final double latencyMs;   // TCP kapcsolódás mediánja, -1 ha nem elérhető
+        final double burstMbps;   // rövid löket átviteli sebessége, 0 ha sikertelen
+
+        Candidate(String url, double latencyMs, double burstMbps) {
+            this.url = url;
+            this.latencyMs = latencyMs;
+            this.burstMbps = burstMbps;
+        }
+
+        boolean usable() {
+            return latencyMs >= 0 && burstMbps > 0;
+        }
+    }
+
+    private final TaskRuntime runtime;
+    private final Consumer<String> log;
+    private List<String> cachedFor = List.of();
+    private List<Candidate> ranking = List.of();
+    private long evaluatedAt;
+
+    ServerSelector(TaskRuntime runtime, Consumer<String> log) {
+        this.runtime = runtime;
+        this.log = log;
+    }
+
+    // A legjobb k szerver URL-je; újraértékel, ha a jelöltlista változott vagy a cache lejárt.
+    // Ha egyik jelölt sem használható, üres listát ad.
+    synchronized List<String> select(List<String> candidates, int k, long maxAgeNanos) {
+        boolean stale = ranking.isEmpty() || System.nanoTime() - evaluatedAt >= maxAgeNanos;
+        if (stale || !candidates.equals(cachedFor)) evaluate(candidates);
+        List<String> out = new ArrayList<>();
+        for (Candidate c : ranking) {
+            if (out.size() >= k) break;
+            if (c.usable()) out.add(c.url);
+        }
+        return out;
+    }
+
+    synchronized List<Candidate> evaluate(List<String> candidates) {
+        log.accept("Szerverválasztás: " + candidates.size() + " jelölt előmérése párhuzamosan...");
+        List<Candidate> results = new ArrayList<>();
+        // Az előmérések a MEASUREMENT keret készletében futnak (határidő után megszakadnak)
+        List<Callable<Candidate>> probes = new ArrayList<>();
+        for (String url : candidates) probes.add(() -> probe(url));
+        List<Future<Candidate>> futures;
+        try {
+            futures = runtime.invokeAll(TaskRuntime.Feature.MEASUREMENT, probes, TIMEOUT_MS * (CONNECT_SAMPLES + 2L));
+        } catch (InterruptedException ie) {
+            // Leállított mérés: nincs eredmény, a cache sem változik
+            Thread.currentThread().interrupt();
+            for (String url : candidates) results.add(new Candidate(url, -1, 0));
+            return results;
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            Future<Candidate> f = futures.get(i);
+            try {
+                results.add(f.isCancelled() ? new Candidate(candidates.get(i), -1, 0) : f.get());
+            } catch (Exception ex) {
+                results.add(new Candidate(candidates.get(i), -1, 0));
+            }
+        }
+        // Elsődlegesen a löket sebessége dönt (ebben a késleltetés hatása is benne van), egyezésnél a késleltetés
+        results.sort(Comparator.comparing(Candidate::usable).reversed()
+                .thenComparing(Comparator.comparingDouble((Candidate c) -> c.burstMbps).reversed())
+                .thenComparingDouble(c -> c.latencyMs));
+        for (Candidate c : results) {
+            log.accept(c.usable()
+                    ? String.format("  %s: %.1f ms, löket %.2f Mbps", c.url, c.latencyMs, c.burstMbps)
+                    : "  " + c.url + ": nem elérhető");
+        }
+        ranking = results;
+        cachedFor = List.copyOf(candidates);
+        evaluatedAt = System.nanoTime();
+        return results;
+    }
+
+    private Candidate probe(String urlStr) {
+        double latency;
+        try {
+            latency = connectLatency(new URL(urlStr));
+        } catch (Exception ex) {
+            latency = -1;
+        }
+        if (latency < 0) return new Candidate(urlStr, -1, 0);
+        return new Candidate(urlStr, latency, burst(urlStr));
+    }
+
+    // TCP kapcsolódási idő mediánja (ms), -1 ha egyszer sem sikerült
+    private static double connectLatency(URL url) {
+        String host = url.getHost();
+        int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+        double[] samples = new double[CONNECT_SAMPLES];
+        int ok = 0;
+        for (int i = 0; i < CONNECT_SAMPLES; i++) {
+            long start = System.nanoTime();
+            try (Socket s = new Socket()) {
+                s.connect(new InetSocketAddress(host, port), TIMEOUT_MS);
+                samples[ok++] = (System.nanoTime() - start) / 1e6;
+                Diagnostics.probe("szerver tcp", host, start, true);
+            } catch (Exception ex) {
+                Diagnostics.probe("szerver tcp", host, start, false);
+            }
+        }
+        if (ok == 0) return -1;
+        double[] got = Arrays.copyOf(samples, ok);
+        Arrays.sort(got);
+        return got[ok / 2];
+    }
+
+    // Rövid letöltési löket: BURST_BYTES vagy BURST_NANOS, ami előbb teljesül; az első bájttól mérve
+    private static double burst(String urlStr) {
+        long start = System.nanoTime();
+        try {
+            URLConnection conn = new URL(urlStr).openConnection();
+            conn.setConnectTimeout(TIMEOUT_MS);
+            conn.setReadTimeout(TIMEOUT_MS);
+            try (InputStream in = conn.getInputStream()) {
+                byte[] buf = new byte[16 * 1024];
+                long total = 0;
+                long first = 0;
+                long now = System.nanoTime();
+                int r;
+                while (total < BURST_BYTES && (r = in.read(buf)) != -1) {
+                    now = System.nanoTime();
+                    if (first == 0) first = now;
+                    total += r;
+                    if (now - first >= BURST_NANOS) break;
+                }
+                Diagnostics.probe("szerver löket", conn.getURL().getHost(), start, total > 0);
+                if (total == 0) return 0;
+                // Egyetlen olvasással beérkezett kis fájlnál a kérés kezdetétől számolunk
+                long span = now > first ? now - first : now - start;
+                return total * 8.0 / 1e6 / (span / 1e9);
+            }
+        } catch (Exception ex) {
+            Diagnostics.probe("szerver löket", urlStr, start, false);
+            return 0;
+        }
+    }
+
+    // Jelöltlista a beállítási mezőből (vessző, szóköz vagy új sor elválasztással)
+    static List<String> parseCandidates(String text) {
+        List<String> out = new ArrayList<>();
+        for (String s : text.split("[,\\s]+")) {
+            if (!s.isEmpty() && !out.contains(s)) out.add(s);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,331 @@
+package networkmon;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+// Feladat-futtató: funkciónként külön, korlátos szálkészlet és szálprioritás, így egy LAN
+// feltérképezés vagy netstat lista nem veheti el a szálakat / CPU-t a fő méréstől.
+// A hosszan futó feladatok Scope-ban futnak: a Scope leállítása megszakítja az összes
+// alfeladatát és lezárja a regisztrált erőforrásait (socketek), a gyökérfeladat vége
+// után pedig egyetlen alfeladat sem maradhat életben.
+// Két keret funkciónként: a párhuzamosan futó Scope-ok száma (a gyökér saját szálon fut, így nem
+// foglalja el a készletet az alfeladatai elől; a keret fölött indítottak láthatóan sorba állnak),
+// és a készlet szálai a rövid feladatoknak, alfeladatoknak (fork / invokeAll).
+final class TaskRuntime {
+
+    enum Feature {
+        MEASUREMENT("mérés", 1, 8, Thread.MAX_PRIORITY),                   // szerver-előmérés, több szerveres letöltés
+        THROUGHPUT("átviteli tesztek", 4, 160, Thread.NORM_PRIORITY + 1),  // TCP streamek: kliens 2 x 64 + szerver
+        PACKET("csomag tesztek", 6, 16, Thread.NORM_PRIORITY),
+        ANYCAST("anycast", 1, 48, Thread.NORM_PRIORITY),                  // célpontonként 3 próba egy körben
+        STORAGE("tár / elemzés / export", 1, 2, Thread.NORM_PRIORITY - 1),
+        COLLECTOR("gyűjtő / ügynök", 2, 2, Thread.NORM_PRIORITY),
+        TOOLS("traceroute / netstat / UPnP", 1, 2, Thread.MIN_PRIORITY + 1),
+        LAN_SCAN("LAN feltérképezés", 1, 2, Thread.MIN_PRIORITY);
+
+        final String label;
+        final int scopes;      // egyszerre futó hosszú feladatok (Scope)
+        final int limit;       // készlet szálai: rövid feladatok és alfeladatok
+        final int priority;
+
+        Feature(String label, int scopes, int limit, int priority) {
+            this.label = label;
+            this.scopes = scopes;
+            this.limit = limit;
+            this.priority = priority;
+        }
+    }
+
+    private final Map<Feature, ThreadPoolExecutor> executors = new EnumMap<>(Feature.class);
+    private final Map<Feature, Semaphore> scopePermits = new EnumMap<>(Feature.class);
+    private final Set<Scope> scopes = ConcurrentHashMap.newKeySet();
+    private final Consumer<String> log;
+    private volatile boolean shutdown;
+
+    TaskRuntime(Consumer<String> log) {
+        this.log = log;
+        for (Feature f : Feature.values()) {
+            ThreadPoolExecutor exec = new ThreadPoolExecutor(f.limit, f.limit, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), threadFactory(f));
+            exec.allowCoreThreadTimeOut(true);
+            executors.put(f, exec);
+            scopePermits.put(f, new Semaphore(f.scopes, true));
+            Diagnostics.watchExecutor(f.label, exec);
+        }
+    }
+
+    static ThreadFactory threadFactory(Feature f) {
+        AtomicInteger n = new AtomicInteger();
+        String prefix = "nm-" + f.name().toLowerCase(Locale.ROOT).replace('_', '-') + "-";
+        return r -> {
+            Thread t = new Thread(r, prefix + n.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(f.priority);
+            return t;
+        };
+    }
+
+    // Rövid, önálló feladat a funkció keretén belül (pl. traceroute, export)
+    Future<?> submit(Feature f, Runnable task) {
+        return executors.get(f).submit(task);
+    }
+
+    // Párhuzamos próbák a funkció készletében, Scope nélkül (pl. az ütemezett mérésből); lásd Scope.invokeAll
+    <T> List<Future<T>> invokeAll(Feature f, List<? extends Callable<T>> tasks, long timeoutMs) throws InterruptedException {
+        return invokeAll(executors.get(f), tasks, timeoutMs, null);
+    }
+
+    // A készlet szabad szálai és a hívó együtt dolgoznak: a hívó a még el nem indult feladatokat maga futtatja,
+    // így készleten belüli (vagy foglalt készletű) hívásból sem akad el. Határidő, megszakítás vagy leállítás
+    // után a befejezetlen feladatok megszakadnak; a visszaadott Future-ök mind lezártak.
+    private static <T> List<Future<T>> invokeAll(ThreadPoolExecutor exec, List<? extends Callable<T>> tasks, long timeoutMs,
+                                                 Scope scope) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            FutureTask<T> ft = new FutureTask<>(task);
+            futures.add(ft);
+            if (scope != null) scope.children.add(ft);
+            try {
+                exec.execute(ft);
+            } catch (RejectedExecutionException ex) {
+                // leállított készlet: a hívó futtatja
+            }
+        }
+        try {
+            for (int i = futures.size() - 1; i >= 0; i--) {
+                if (System.nanoTime() >= deadline || (scope != null && scope.cancelled)) break;
+                ((FutureTask<T>) futures.get(i)).run();   // már futó / kész feladatnál nem csinál semmit
+            }
+            for (Future<T> f : futures) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0 || (scope != null && scope.cancelled)) break;
+                try {
+                    f.get(left, TimeUnit.NANOSECONDS);
+                } catch (java.util.concurrent.ExecutionException | TimeoutException | java.util.concurrent.CancellationException ignored) {
+                }
+            }
+        } finally {
+            for (Future<T> f : futures) {
+                f.cancel(true);
+                if (scope != null) scope.children.remove(f);
+            }
+        }
+        return futures;
+    }
+
+    // Hosszan futó, leállítható feladat. A body a Scope-on keresztül ellenőrzi a futást,
+    // alfeladatokat indíthat (fork, invokeAll) és erőforrásokat regisztrálhat. Az onExit az EDT-n fut,
+    // miután a gyökérfeladat és minden alfeladata véget ért. Ha a funkció Scope kerete betelt,
+    // a feladat sorba áll (naplózva, Scope.isQueued()), és az első felszabaduló helyen indul.
+    Scope launch(Feature f, String name, Consumer<Scope> body, Runnable onExit) {
+        if (shutdown) throw new RejectedExecutionException(name + ": a futtató leállt");
+        Scope scope = new Scope(f, name);
+        scopes.add(scope);
+        Semaphore permits = scopePermits.get(f);
+        FutureTask<Void> root = new FutureTask<>(() -> {
+            scope.started = true;
+            boolean acquired = false;
+            try {
+                if (scope.cancelled) return;
+                if (!permits.tryAcquire()) {
+                    scope.queued = true;
+                    log.accept("[Feladatok] " + name + " sorban áll: a(z) \"" + f.label + "\" keret ("
+                            + f.scopes + " egyidejű feladat) foglalt.");
+                    permits.acquire();
+                    scope.queued = false;
+                    log.accept("[Feladatok] " + name + " elindult.");
+                }
+                acquired = true;
+                if (!scope.cancelled) body.accept(scope);
+            } catch (InterruptedException ie) {
+                // sorban állás közben leállítva
+            } finally {
+                scope.queued = false;
+                // Strukturált lezárás: a gyökér nem ér véget az alfeladatai előtt
+                scope.finishing = true;
+                scope.stopChildren();
+                scope.awaitChildren();
+                scopes.remove(scope);
+                if (acquired) permits.release();
+                // A leállítás megszakítása itt már nem kell (az EDT indítását is zavarná)
+                Thread.interrupted();
+                if (onExit != null) SwingUtilities.invokeLater(onExit);
+            }
+        }, null);
+        scope.root = root;
+        Thread t = threadFactory(f).newThread(root);
+        t.setName("nm-" + f.name().toLowerCase(Locale.ROOT).replace('_', '-') + "-" + name);
+        t.start();
+        return scope;
+    }
+
+    // Hosszú feladatok funkciónként: futó / a keret miatt sorban álló (diagnosztikai pillanatkép)
+    void appendReport(StringBuilder sb) {
+        sb.append(String.format("%-26s %8s %8s %8s  %s%n", "Feladat keret", "keret", "fut", "sorban", "feladatok"));
+        for (Feature f : Feature.values()) {
+            int running = 0, queued = 0;
+            StringBuilder names = new StringBuilder();
+            for (Scope s : scopes) {
+                if (s.feature != f) continue;
+                if (s.queued) queued++;
+                else running++;
+                if (names.length() > 0) names.append(", ");
+                names.append(s.name).append(s.queued ? " (sorban)" : "");
+            }
+            sb.append(String.format("%-26s %8d %8d %8d  %s%n", f.label, f.scopes, running, queued, names));
+        }
+    }
+
+    // Az összes futó feladat leállítása (kilépéskor)
+    void shutdown() {
+        shutdown = true;
+        for (Scope s : scopes) s.cancel();
+        for (ThreadPoolExecutor exec : executors.values()) exec.shutdownNow();
+    }
+
+    final class Scope {
+        final Feature feature;
+        final String name;
+        private volatile boolean cancelled;
+        private volatile boolean started;
+        private volatile boolean finishing;
+        private volatile boolean queued;
+        private volatile Future<?> root;
+        private final Set<Future<?>> children = ConcurrentHashMap.newKeySet();
+        private int activeChildren; // ténylegesen futó alfeladatok (this monitorján)
+        private final ConcurrentLinkedDeque<AutoCloseable> resources = new ConcurrentLinkedDeque<>();
+
+        private Scope(Feature feature, String name) {
+            this.feature = feature;
+            this.name = name;
+        }
+
+        boolean isRunning() {
+            return !cancelled && !Thread.currentThread().isInterrupted();
+        }
+
+        // A motor osztályoknak átadható futás-feltétel
+        BooleanSupplier running() {
+            return this::isRunning;
+        }
+
+        // Igaz, amíg a funkció Scope kerete miatt még nem indult el
+        boolean isQueued() {
+            return queued;
+        }
+
+        // Egy kör párhuzamos próbája a funkció készletében (a hívó is dolgozik); leállításkor, megszakításkor
+        // vagy a határidő után a befejezetlenek megszakadnak
+        <T> List<Future<T>> invokeAll(List<? extends Callable<T>> tasks, long timeoutMs) throws InterruptedException {
+            return TaskRuntime.invokeAll(executors.get(feature), tasks, timeoutMs, this);
+        }
+
+        // Alfeladat ugyanazon funkció keretében; a Scope leállításakor megszakad
+        Future<?> fork(Runnable task) {
+            if (cancelled) throw new RejectedExecutionException(name + " leállítva");
+            Future<?>[] self = new Future<?>[1];
+            Future<?> f = executors.get(feature).submit(() -> {
+                synchronized (this) {
+                    activeChildren++;
+                }
+                try {
+                    if (!cancelled) task.run();
+                } finally {
+                    synchronized (this) {
+                        activeChildren--;
+                        notifyAll();
+                    }
+                    if (self[0] != null) children.remove(self[0]);
+                }
+            });
+            self[0] = f;
+            children.add(f);
+            if (f.isDone()) children.remove(f);
+            if (cancelled) f.cancel(true);
+            return f;
+        }
+
+        // Blokkoló erőforrás (socket), amit leállításkor le kell zárni, hogy a várakozó hívás azonnal visszatérjen
+        <T extends AutoCloseable> T register(T resource) {
+            resources.add(resource);
+            if (cancelled) closeQuietly(resource);
+            return resource;
+        }
+
+        void unregister(AutoCloseable resource) {
+            resources.remove(resource);
+        }
+
+        // Alvás, ami leállításkor azonnal megszakad; false, ha a feladatnak ki kell lépnie
+        boolean sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+                return !cancelled;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        // Leállítás: alfeladatok megszakítása, erőforrások lezárása, a gyökérfeladat megszakítása.
+        // A még sorban álló gyökérfeladatot nem töröljük: elindul, látja a leállítást és lefut a lezárása.
+        void cancel() {
+            if (cancelled) return;
+            cancelled = true;
+            stopChildren();
+            Future<?> rootTask = root;
+            if (rootTask != null && started && !finishing) rootTask.cancel(true);
+        }
+
+        private void stopChildren() {
+            cancelled = true;
+            for (Future<?> f : children) f.cancel(true);
+            AutoCloseable r;
+            while ((r = resources.poll()) != null) closeQuietly(r);
+        }
+
+        // Megvárja, hogy a már elindult alfeladatok kilépjenek (max. 5 s); a sorban állók nem indulnak el
+        private synchronized void awaitChildren() {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            boolean interrupted = false;
+            while (activeChildren > 0) {
+                long waitMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (waitMs <= 0) break;
+                try {
+                    wait(waitMs);
+                } catch (InterruptedException ie) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+
+        private void closeQuietly(AutoCloseable r) {
+            try {
+                r.close();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+}
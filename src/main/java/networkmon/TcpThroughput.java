@@ -0,0 +1,307 @@
+package networkmon;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+// Saját TCP áteresztőképesség-szerver és -kliens (LAN/WAN kapacitásmérés saját
+// telephelyek között, nyilvános tesztszerver nélkül). A küldő oldal zero-copy
+// FileChannel.transferTo-val (sendfile) vagy direkt ByteBuffer-ből ír, a fogadó
+// direkt pufferbe olvas; több párhuzamos stream, fel/le/kétirányú, időzített futás.
+class TcpThroughput {
+    static final int DEFAULT_PORT = 5201;
+    static final int MAGIC = 0x54435054; // "TCPT"
+
+    static final int DIR_UPLOAD = 0;   // kliens -> szerver
+    static final int DIR_DOWNLOAD = 1; // szerver -> kliens
+
+    enum Mode { UPLOAD, DOWNLOAD, BIDIR }
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int SOCKET_BUFFER = 4 * 1024 * 1024;
+    private static final long SOURCE_FILE_SIZE = 32L * 1024 * 1024;
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+    private static File sourceFile;
+
+    private final Consumer<String> log;
+
+    TcpThroughput(Consumer<String> log) {
+        this.log = log;
+    }
+
+    // Véletlen tartalmú forrásfájl a zero-copy küldéshez (folyamatonként egyszer)
+    private static synchronized File sourceFile() throws IOException {
+        if (sourceFile == null || !sourceFile.exists()) {
+            File f = File.createTempFile("networkmon-tcp", ".bin");
+            f.deleteOnExit();
+            try (FileChannel fc = new RandomAccessFile(f, "rw").getChannel()) {
+                ByteBuffer chunk = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                byte[] rnd = new byte[BUFFER_SIZE];
+                new Random(42).nextBytes(rnd);
+                for (long written = 0; written < SOURCE_FILE_SIZE; written += BUFFER_SIZE) {
+                    chunk.clear();
+                    chunk.put(rnd).flip();
+                    while (chunk.hasRemaining()) fc.write(chunk);
+                }
+            }
+            sourceFile = f;
+        }
+        return sourceFile;
+    }
+
+    // Küldés a határidőig; visszaadja az elküldött bájtokat
+    static long sendUntil(SocketChannel sc, long deadlineNanos, boolean zeroCopy,
+                            BooleanSupplier running, LongAdder counter) throws IOException {
+        long total = 0;
+        if (zeroCopy) {
+            try (FileChannel fc = FileChannel.open(sourceFile().toPath())) {
+                long size = fc.size();
+                long pos = 0;
+                while (running.getAsBoolean() && System.nanoTime() < deadlineNanos) {
+                    long n = fc.transferTo(pos, Math.min(TRANSFER_CHUNK, size - pos), sc);
+                    pos += n;
+                    if (pos >= size) pos = 0;
+                    total += n;
+                    counter.add(n);
+                }
+            }
+        } else {
+            ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            while (running.getAsBoolean() && System.nanoTime() < deadlineNanos) {
+                buf.clear();
+                int n = sc.write(buf);
+                total += n;
+                counter.add(n);
+            }
+        }
+        return total;
+    }
+
+    // Olvasás EOF-ig (vagy leállításig); visszaadja {bájtok, első bájttól EOF-ig eltelt ns}
+    static long[] receiveUntilEof(SocketChannel sc, BooleanSupplier running, LongAdder counter) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long total = 0;
+        long first = 0;
+        int n;
+        while ((n = sc.read(buf)) >= 0 && running.getAsBoolean()) {
+            if (n > 0) {
+                if (first == 0) first = System.nanoTime();
+                total += n;
+                counter.add(n);
+            }
+            buf.clear();
+        }
+        long elapsed = first == 0 ? 0 : System.nanoTime() - first;
+        return new long[]{total, elapsed};
+    }
+
+    private static void tune(SocketChannel sc) throws IOException {
+        sc.setOption(StandardSocketOptions.SO_SNDBUF, SOCKET_BUFFER);
+        sc.setOption(StandardSocketOptions.SO_RCVBUF, SOCKET_BUFFER);
+        sc.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    }
+
+    private static void readFully(SocketChannel sc, ByteBuffer bb) throws IOException {
+        while (bb.hasRemaining()) {
+            if (sc.read(bb) < 0) throw new IOException("Kapcsolat lezárult a fejléc közben");
+        }
+        bb.flip();
+    }
+
+    private static void writeFully(SocketChannel sc, ByteBuffer bb) throws IOException {
+        while (bb.hasRemaining()) sc.write(bb);
+    }
+
+    // ---------- Szerver ----------
+
+    // A streamek a 'workers' végrehajtón futnak (GUI-ból a Scope alfeladataiként, így a THROUGHPUT keretben
+    // és leállításkor megszakadnak - a blokkoló csatorna a megszakításra lezárul)
+    void runServer(int port, BooleanSupplier running, Executor workers) {
+        try (ServerSocketChannel ssc = ServerSocketChannel.open()) {
+            ssc.setOption(StandardSocketOptions.SO_RCVBUF, SOCKET_BUFFER);
+            ssc.bind(new InetSocketAddress(port), 128);
+            ssc.configureBlocking(false);
+            sourceFile();
+            log.accept("[TCP szerver] Figyel: TCP " + port);
+
+            while (running.getAsBoolean() && !Thread.currentThread().isInterrupted()) {
+                SocketChannel sc = ssc.accept();
+                if (sc == null) {
+                    try { Thread.sleep(20); } catch (InterruptedException ie) { break; }
+                    continue;
+                }
+                try {
+                    workers.execute(() -> serveStream(sc, running));
+                } catch (RejectedExecutionException ex) {
+                    sc.close();   // leállítás közben érkezett kapcsolat
+                }
+            }
+            log.accept("[TCP szerver] Leállt.");
+        } catch (IOException ex) {
+            log.accept("[TCP szerver] Hiba: " + ex.toString());
+        }
+    }
+
+    private void serveStream(SocketChannel sc, BooleanSupplier running) {
+        try (SocketChannel ch = sc) {
+            ch.configureBlocking(true);
+            tune(ch);
+            ByteBuffer hello = ByteBuffer.allocate(16);
+            readFully(ch, hello);
+            if (hello.getInt() != MAGIC) return;
+            int dir = hello.getInt();
+            int durationMs = hello.getInt();
+            int zeroCopy = hello.getInt();
+            String peer = String.valueOf(ch.getRemoteAddress());
+
+            if (dir == DIR_UPLOAD) {
+                long[] r = receiveUntilEof(ch, running, new LongAdder());
+                ByteBuffer ack = ByteBuffer.allocate(16);
+                ack.putLong(r[0]).putLong(r[1]).flip();
+                writeFully(ch, ack);
+                log.accept(String.format("[TCP szerver] Feltöltés %s: %d byte, %.2f Mbps",
+                        peer, r[0], mbps(r[0], r[1])));
+            } else {
+                long start = System.nanoTime();
+                long sent = sendUntil(ch, start + durationMs * 1_000_000L, zeroCopy != 0, running, new LongAdder());
+                log.accept(String.format("[TCP szerver] Letöltés %s: %d byte, %.2f Mbps%s",
+                        peer, sent, mbps(sent, System.nanoTime() - start), zeroCopy != 0 ? " (zero-copy)" : ""));
+            }
+        } catch (IOException ex) {
+            log.accept("[TCP szerver] Stream hiba: " + ex.toString());
+        }
+    }
+
+    // ---------- Kliens ----------
+
+    static class Result {
+        final double uploadMbps;
+        final double downloadMbps;
+        final List<Double> perStreamMbps;
+
+        Result(double uploadMbps, double downloadMbps, List<Double> perStreamMbps) {
+            this.uploadMbps = uploadMbps;
+            this.downloadMbps = downloadMbps;
+            this.perStreamMbps = perStreamMbps;
+        }
+    }
+
+    Result runClient(String host, int port, int streams, int durationSec, Mode mode, boolean zeroCopy,
+                     BooleanSupplier running, Executor workers, Consumer<double[]> intervalGraph) {
+        List<Integer> dirs = new ArrayList<>();
+        for (int i = 0; i < streams; i++) {
+            if (mode != Mode.DOWNLOAD) dirs.add(DIR_UPLOAD);
+            if (mode != Mode.UPLOAD) dirs.add(DIR_DOWNLOAD);
+        }
+        log.accept(String.format("[TCP kliens] %s:%d, %d stream, %s, %d s%s",
+                host, port, streams, mode, durationSec, zeroCopy ? ", zero-copy küldés" : ""));
+
+        LongAdder upCounter = new LongAdder();
+        LongAdder downCounter = new LongAdder();
+        double[] streamMbps = new double[dirs.size()];
+        long[] streamBytes = new long[dirs.size()];
+        long[] streamNanos = new long[dirs.size()];
+        CountDownLatch done = new CountDownLatch(dirs.size());
+        long durationNanos = durationSec * 1_000_000_000L;
+
+        try {
+            if (zeroCopy) sourceFile();
+        } catch (IOException ex) {
+            log.accept("[TCP kliens] Forrásfájl hiba: " + ex.toString());
+            return null;
+        }
+
+        for (int i = 0; i < dirs.size(); i++) {
+            final int idx = i;
+            final int dir = dirs.get(i);
+            Runnable stream = () -> {
+                try (SocketChannel sc = SocketChannel.open()) {
+                    tune(sc);
+                    sc.connect(new InetSocketAddress(host, port));
+                    ByteBuffer hello = ByteBuffer.allocate(16);
+                    hello.putInt(MAGIC).putInt(dir).putInt((int) (durationNanos / 1_000_000)).putInt(zeroCopy ? 1 : 0).flip();
+                    writeFully(sc, hello);
+
+                    if (dir == DIR_UPLOAD) {
+                        sendUntil(sc, System.nanoTime() + durationNanos, zeroCopy, running, upCounter);
+                        sc.shutdownOutput();
+                        // A szerver által ténylegesen fogadott mennyiség számít
+                        ByteBuffer ack = ByteBuffer.allocate(16);
+                        readFully(sc, ack);
+                        streamBytes[idx] = ack.getLong();
+                        streamNanos[idx] = ack.getLong();
+                    } else {
+                        long[] r = receiveUntilEof(sc, running, downCounter);
+                        streamBytes[idx] = r[0];
+                        streamNanos[idx] = r[1];
+                    }
+                    streamMbps[idx] = mbps(streamBytes[idx], streamNanos[idx]);
+                } catch (IOException ex) {
+                    log.accept("[TCP kliens] Stream #" + idx + " hiba: " + ex.toString());
+                } finally {
+                    done.countDown();
+                }
+            };
+            try {
+                workers.execute(stream);
+            } catch (RejectedExecutionException ex) {
+                done.countDown();   // leállítás közben
+            }
+        }
+
+        // Másodpercenkénti összesített riport
+        long lastUp = 0, lastDown = 0;
+        long last = System.nanoTime();
+        try {
+            while (!done.await(1, java.util.concurrent.TimeUnit.SECONDS)) {
+                long now = System.nanoTime();
+                long up = upCounter.sum();
+                long down = downCounter.sum();
+                double sec = (now - last) / 1e9;
+                double upMbps = (up - lastUp) * 8 / 1e6 / sec;
+                double downMbps = (down - lastDown) * 8 / 1e6 / sec;
+                log.accept(String.format("[TCP kliens] Intervallum: fel %.2f Mbps, le %.2f Mbps", upMbps, downMbps));
+                intervalGraph.accept(new double[]{upMbps, downMbps});
+                lastUp = up;
+                lastDown = down;
+                last = now;
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            log.accept("[TCP kliens] Megszakítva.");
+            return null;
+        }
+
+        double upTotal = 0, downTotal = 0;
+        List<Double> per = new ArrayList<>();
+        for (int i = 0; i < dirs.size(); i++) {
+            per.add(streamMbps[i]);
+            if (dirs.get(i) == DIR_UPLOAD) upTotal += streamMbps[i];
+            else downTotal += streamMbps[i];
+            log.accept(String.format("[TCP kliens]   Stream #%d (%s): %d byte, %.2f Mbps", i,
+                    dirs.get(i) == DIR_UPLOAD ? "fel" : "le", streamBytes[i], streamMbps[i]));
+        }
+        log.accept(String.format("[TCP kliens] Eredmény: feltöltés %.2f Mbps, letöltés %.2f Mbps", upTotal, downTotal));
+        return new Result(upTotal, downTotal, per);
+    }
+
+    private static double mbps(long bytes, long nanos) {
+        return nanos <= 0 ? 0.0 : bytes * 8.0 / 1e6 / (nanos / 1e9);
+    }
+}
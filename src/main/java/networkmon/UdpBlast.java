@@ -0,0 +1,308 @@
+package networkmon;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+// iperf jellegű UDP áteresztőképesség-teszt két NetworkMonitor példány között.
+// A kliens cél bitrátával és csomagmérettel, ütemezetten (kötegelt NIO küldéssel)
+// küld; a szerver másodpercenként és a végén riportot küld vissza a fogadott
+// sebességről, veszteségről, jitterről és a sorrenden kívüli csomagokról.
+class UdpBlast {
+    static final int DEFAULT_PORT = 5201;
+    static final int MAGIC = 0x55424C53; // "UBLS"
+    static final int HEADER_SIZE = 28;   // magic(4) + type(4) + session(4) + seq(8) + sentMicros(8)
+    static final int MAX_PACKET = 65_507;
+
+    static final int TYPE_DATA = 1;
+    static final int TYPE_FIN = 2;
+    static final int TYPE_REPORT = 3;
+    static final int TYPE_FINAL_REPORT = 4;
+
+    private static final int REPORT_SIZE = 12 + 8 * 9;
+    private static final long REPORT_NANOS = 1_000_000_000L;
+
+    private final Consumer<String> log;
+
+    UdpBlast(Consumer<String> log) {
+        this.log = log;
+    }
+
+    // ---------- Szerver ----------
+
+    private static class Session {
+        final SocketAddress peer;
+        final int id;
+        final SequenceStats stats = new SequenceStats();
+        long lastReportNanos = System.nanoTime();
+        long lastSeenNanos = System.nanoTime();
+        boolean finished;
+        Session(SocketAddress peer, int id) { this.peer = peer; this.id = id; }
+    }
+
+    void runServer(int port, BooleanSupplier running) {
+        Map<String, Session> sessions = new HashMap<>();
+        try (DatagramChannel ch = DatagramChannel.open();
+             Selector selector = Selector.open()) {
+            ch.setOption(StandardSocketOptions.SO_RCVBUF, 8 * 1024 * 1024);
+            ch.bind(new InetSocketAddress(port));
+            ch.configureBlocking(false);
+            ch.register(selector, SelectionKey.OP_READ);
+            log.accept("[UDP szerver] Figyel: UDP " + port + " (vételi puffer: "
+                    + ch.getOption(StandardSocketOptions.SO_RCVBUF) + " byte)");
+
+            ByteBuffer in = ByteBuffer.allocateDirect(MAX_PACKET);
+            ByteBuffer out = ByteBuffer.allocateDirect(REPORT_SIZE);
+
+            while (running.getAsBoolean() && !Thread.currentThread().isInterrupted()) {
+                selector.select(200);
+                selector.selectedKeys().clear();
+
+                // Egy ébredésre kiürítjük a teljes vételi sort
+                SocketAddress from;
+                while ((from = receive(ch, in)) != null) {
+                    long arrivalUs = Pacer.epochMicros();
+                    long arrivalNanos = System.nanoTime();
+                    if (in.remaining() < HEADER_SIZE || in.getInt(0) != MAGIC) continue;
+                    int type = in.getInt(4);
+                    int sessionId = in.getInt(8);
+                    String key = from + "#" + sessionId;
+                    Session s = sessions.get(key);
+                    if (type == TYPE_DATA) {
+                        if (s == null) {
+                            s = new Session(from, sessionId);
+                            sessions.put(key, s);
+                            log.accept("[UDP szerver] Új munkamenet: " + key);
+                        }
+                        s.lastSeenNanos = arrivalNanos;
+                        s.stats.onPacket(in.getLong(12), in.getLong(20), arrivalUs, in.remaining(), arrivalNanos);
+                    } else if (type == TYPE_FIN && s != null) {
+                        // Végső riport néhányszor (UDP); ismételt FIN-re újraküldjük
+                        s.lastSeenNanos = arrivalNanos;
+                        for (int i = 0; i < 3; i++) sendReport(ch, out, s, TYPE_FINAL_REPORT, 0);
+                        if (!s.finished) {
+                            s.finished = true;
+                            log.accept("[UDP szerver] Munkamenet vége " + key + ": " + describe(s.stats));
+                        }
+                    }
+                }
+
+                long now = System.nanoTime();
+                for (Iterator<Session> it = sessions.values().iterator(); it.hasNext(); ) {
+                    Session s = it.next();
+                    if (s.finished) {
+                        if (now - s.lastSeenNanos > 5 * REPORT_NANOS) it.remove();
+                    } else if (now - s.lastSeenNanos > 10 * REPORT_NANOS) {
+                        log.accept("[UDP szerver] Munkamenet lejárt (nincs FIN): " + s.peer + "#" + s.id + ": " + describe(s.stats));
+                        it.remove();
+                    } else if (now - s.lastReportNanos >= REPORT_NANOS) {
+                        sendReport(ch, out, s, TYPE_REPORT, (now - s.lastReportNanos) / 1e9);
+                        s.lastReportNanos = now;
+                    }
+                }
+            }
+            log.accept("[UDP szerver] Leállt.");
+        } catch (IOException ex) {
+            log.accept("[UDP szerver] Hiba: " + ex.toString());
+        }
+    }
+
+    private static SocketAddress receive(DatagramChannel ch, ByteBuffer in) throws IOException {
+        in.clear();
+        SocketAddress from = ch.receive(in);
+        in.flip();
+        return from;
+    }
+
+    private static void sendReport(DatagramChannel ch, ByteBuffer out, Session s, int type,
+                                   double intervalSec) throws IOException {
+        SequenceStats st = s.stats;
+        long[] iv = st.drainInterval();
+        double intervalMbps = intervalSec <= 0 ? 0.0 : iv[1] * 8 / 1e6 / intervalSec;
+        out.clear();
+        out.putInt(MAGIC).putInt(type).putInt(s.id)
+                .putLong(st.received())
+                .putLong(st.lost())
+                .putLong(st.reordered())
+                .putLong(st.duplicates())
+                .putLong(Math.round(st.jitterMs() * 1000))
+                .putLong(st.bytes())
+                .putLong(Math.round(intervalMbps * 1000))
+                .putLong(st.lossBursts())
+                .putLong(Math.round(st.averageMbps() * 1000));
+        out.flip();
+        ch.send(out, s.peer);
+    }
+
+    // ---------- Kliens ----------
+
+    // Eredmény a végső szerver-riport alapján (null, ha nem érkezett riport)
+    static class Result {
+        final long sent;
+        final long received;
+        final long lost;
+        final long outOfOrder;
+        final long duplicates;
+        final double jitterMs;
+        final double receivedMbps;
+        final double sentMbps;
+
+        Result(long sent, long received, long lost, long outOfOrder, long duplicates,
+               double jitterMs, double receivedMbps, double sentMbps) {
+            this.sent = sent;
+            this.received = received;
+            this.lost = lost;
+            this.outOfOrder = outOfOrder;
+            this.duplicates = duplicates;
+            this.jitterMs = jitterMs;
+            this.receivedMbps = receivedMbps;
+            this.sentMbps = sentMbps;
+        }
+
+        double lossPercent() {
+            return sent == 0 ? 0.0 : 100.0 * Math.max(0, sent - received) / sent;
+        }
+    }
+
+    Result runClient(String host, int port, double targetMbps, int packetSize, int durationSec,
+                     BooleanSupplier running, DoubleConsumer receivedMbpsGraph) {
+        int size = Math.max(HEADER_SIZE, Math.min(MAX_PACKET, packetSize));
+        double pps = targetMbps * 1e6 / (size * 8.0);
+        int sessionId = (int) System.nanoTime();
+
+        try (DatagramChannel ch = DatagramChannel.open()) {
+            ch.setOption(StandardSocketOptions.SO_SNDBUF, 4 * 1024 * 1024);
+            ch.connect(new InetSocketAddress(host, port));
+            ch.configureBlocking(false);
+            log.accept(String.format("[UDP kliens] %s:%d, cél %.2f Mbps, %d byte csomag (%.0f csomag/s), %d s, munkamenet=%d",
+                    host, port, targetMbps, size, pps, durationSec, sessionId));
+
+            ByteBuffer data = ByteBuffer.allocateDirect(size);
+            data.putInt(0, MAGIC).putInt(4, TYPE_DATA).putInt(8, sessionId);
+            ByteBuffer in = ByteBuffer.allocateDirect(512);
+
+            // Kötegméret: kb. 1 ms-nyi csomag egy ébredésre, így nagy sebességnél sem a park() pontossága a korlát
+            int maxBatch = (int) Math.max(1, Math.min(256, pps / 1000));
+            Pacer pacer = new Pacer(pps, maxBatch);
+            long seq = 0;
+            long sendStalls = 0;
+            long start = System.nanoTime();
+            long end = start + durationSec * 1_000_000_000L;
+            long intervalStart = start;
+            long intervalSent = 0;
+
+            while (running.getAsBoolean() && System.nanoTime() < end) {
+                int due = pacer.awaitBatch();
+                for (int i = 0; i < due; i++) {
+                    data.clear();
+                    data.putLong(12, seq).putLong(20, Pacer.epochMicros());
+                    int spins = 0;
+                    while (send(ch, data) == 0) {
+                        // Socket puffer tele: rövid várakozás, nem dobjuk el a csomagot
+                        if (++spins == 1) sendStalls++;
+                        Thread.onSpinWait();
+                    }
+                    seq++;
+                    intervalSent++;
+                }
+
+                readReports(ch, in, sessionId, receivedMbpsGraph);
+
+                long now = System.nanoTime();
+                if (now - intervalStart >= REPORT_NANOS) {
+                    double sec = (now - intervalStart) / 1e9;
+                    log.accept(String.format("[UDP kliens] Küldve: %d csomag, %.2f Mbps (puffer-várakozás: %d)",
+                            seq, intervalSent * size * 8 / 1e6 / sec, sendStalls));
+                    intervalStart = now;
+                    intervalSent = 0;
+                }
+            }
+            double sendSec = (System.nanoTime() - start) / 1e9;
+            double sentMbps = sendSec <= 0 ? 0.0 : seq * size * 8 / 1e6 / sendSec;
+
+            // FIN, amíg meg nem jön a végső riport (max. ~3 s)
+            ByteBuffer fin = ByteBuffer.allocate(HEADER_SIZE);
+            fin.putInt(MAGIC).putInt(TYPE_FIN).putInt(sessionId).putLong(seq).putLong(Pacer.epochMicros());
+            ByteBuffer finalReport = null;
+            for (int attempt = 0; attempt < 30 && finalReport == null; attempt++) {
+                fin.rewind();
+                send(ch, fin);
+                long waitUntil = System.nanoTime() + 100_000_000L;
+                while (finalReport == null && System.nanoTime() < waitUntil) {
+                    finalReport = readReports(ch, in, sessionId, receivedMbpsGraph);
+                    if (finalReport == null) Thread.sleep(5);
+                }
+            }
+            if (finalReport == null) {
+                log.accept("[UDP kliens] Nem érkezett végső riport a szervertől (" + seq + " csomag elküldve).");
+                return null;
+            }
+            long received = finalReport.getLong(12);
+            Result r = new Result(seq, received, Math.max(0, seq - received), finalReport.getLong(28),
+                    finalReport.getLong(36), finalReport.getLong(44) / 1000.0,
+                    finalReport.getLong(76) / 1000.0, sentMbps);
+            log.accept(String.format("[UDP kliens] Eredmény: küldve %d (%.2f Mbps), fogadva %d (%.2f Mbps), veszteség %d (%.2f %%), "
+                            + "sorrenden kívül %d, duplikált %d, jitter %.3f ms",
+                    r.sent, r.sentMbps, r.received, r.receivedMbps, r.lost, r.lossPercent(),
+                    r.outOfOrder, r.duplicates, r.jitterMs));
+            return r;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            log.accept("[UDP kliens] Megszakítva.");
+        } catch (IOException ex) {
+            log.accept("[UDP kliens] Hiba: " + ex.toString());
+        }
+        return null;
+    }
+
+    // Küldés a kapcsolt csatornán. Ha a szerver (még) nem fut, az ICMP port unreachable a következő
+    // write-on is jelentkezhet: ilyenkor a csomag elveszettnek számít (-1), a kliens nem áll le
+    private static int send(DatagramChannel ch, ByteBuffer b) throws IOException {
+        try {
+            return ch.write(b);
+        } catch (java.net.PortUnreachableException pue) {
+            return -1;
+        }
+    }
+
+    // Beolvassa a várakozó szerver-riportokat; a végső riportot visszaadja (különben null)
+    private ByteBuffer readReports(DatagramChannel ch, ByteBuffer in, int sessionId, DoubleConsumer graph) throws IOException {
+        while (true) {
+            in.clear();
+            SocketAddress from;
+            try {
+                from = ch.receive(in);
+            } catch (java.net.PortUnreachableException pue) {
+                return null; // még nem fut a szerver – ICMP port unreachable
+            }
+            if (from == null) return null;
+            in.flip();
+            if (in.remaining() < REPORT_SIZE || in.getInt(0) != MAGIC || in.getInt(8) != sessionId) continue;
+            int type = in.getInt(4);
+            if (type == TYPE_FINAL_REPORT) return in;
+            if (type == TYPE_REPORT) {
+                double intervalMbps = in.getLong(60) / 1000.0;
+                log.accept(String.format("[UDP kliens] Szerver riport: fogadva %d, veszteség %d, sorrenden kívül %d, jitter %.3f ms, %.2f Mbps",
+                        in.getLong(12), in.getLong(20), in.getLong(28), in.getLong(44) / 1000.0, intervalMbps));
+                graph.accept(intervalMbps);
+            }
+        }
+    }
+
+    static String describe(SequenceStats st) {
+        return String.format("fogadva %d (%.2f Mbps), veszteség %d (%.2f %%, %d löket, max %d), sorrenden kívül %d, duplikált %d, jitter %.3f ms",
+                st.received(), st.averageMbps(), st.lost(), st.lossPercent(), st.lossBursts(), st.maxBurst(),
+                st.reordered(), st.duplicates(), st.jitterMs());
+    }
+}
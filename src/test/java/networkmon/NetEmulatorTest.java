@@ -0,0 +1,184 @@
+package networkmon;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Az emulátor a hurokcímen a beállított körülményeket adja (a pontossági ellenőrzés tűréseivel):
+// UDP echo késleltetés / jitter / veszteség, TCP válaszidő és sávkorlát, UDP terhelés veszteség és sorrendcsere
+class NetEmulatorTest {
+
+    private static final InetAddress LOOPBACK = InetAddress.getLoopbackAddress();
+
+    @Test
+    void udpEchoDelayJitterAndLoss() throws IOException {
+        NetEmulator.Conditions lat = new NetEmulator.Conditions(20, 4, 5, 0, 0);
+        try (DatagramSocket echo = NetEmulator.udpEchoTarget()) {
+            InetSocketAddress echoAddr = new InetSocketAddress(LOOPBACK, echo.getLocalPort());
+            double baseline;
+            try (NetEmulator emu = new NetEmulator(NetEmulator.Protocol.UDP, echoAddr, NetEmulator.Conditions.NONE, 1, t -> {})) {
+                int port = emu.start(0);
+                double[] rtts = new double[30];
+                for (int i = 0; i < rtts.length; i++) rtts[i] = udpEchoRtt(port);
+                baseline = median(rtts);
+            }
+            double sum = 0, sumSq = 0;
+            int ok = 0, total = 120;
+            try (NetEmulator emu = new NetEmulator(NetEmulator.Protocol.UDP, echoAddr, lat, 1, t -> {})) {
+                int port = emu.start(0);
+                for (int i = 0; i < total; i++) {
+                    double rtt = udpEchoRtt(port);
+                    if (rtt < 0) continue;
+                    ok++;
+                    sum += rtt;
+                    sumSq += rtt * rtt;
+                }
+            }
+            double avg = sum / ok;
+            double rtt = 2 * lat.delayMs + baseline;
+            double jitter = lat.jitterMs * Math.sqrt(2);
+            double loss = 100 * (1 - Math.pow(1 - lat.lossPercent / 100, 2));
+            check(new NetEmulator.Check("Ping átlag (UDP echo)", "ms", rtt, Math.max(4, rtt * 0.1), avg));
+            check(new NetEmulator.Check("Ping jitter (szórás)", "ms", jitter, 1 + jitter * 0.35,
+                    Math.sqrt(Math.max(0, sumSq / ok - avg * avg))));
+            check(new NetEmulator.Check("Ping veszteség", "%", loss, 8, 100.0 * (total - ok) / total));
+        }
+    }
+
+    @Test
+    void tcpResponseTimeAndRateLimit() throws IOException {
+        NetEmulator.Conditions tcp = new NetEmulator.Conditions(15, 0, 0, 0, 16);
+        int dataBytes = 2 * 1024 * 1024;
+        HttpServer http = NetEmulator.httpTarget(dataBytes);
+        try {
+            InetSocketAddress httpAddr = new InetSocketAddress(LOOPBACK, http.getAddress().getPort());
+            double baseline;
+            try (NetEmulator emu = new NetEmulator(NetEmulator.Protocol.TCP, httpAddr, NetEmulator.Conditions.NONE, 2, t -> {})) {
+                baseline = httpMedian(base(emu.start(0)) + "/");
+            }
+            double resp;
+            double mbps;
+            try (NetEmulator emu = new NetEmulator(NetEmulator.Protocol.TCP, httpAddr, tcp, 2, t -> {})) {
+                String base = base(emu.start(0));
+                resp = httpMedian(base + "/");
+                mbps = downloadMbps(base + "/data", dataBytes);
+            }
+            double rtt = 2 * tcp.delayMs + baseline;
+            check(new NetEmulator.Check("HTTP válaszidő (medián)", "ms", rtt, 5 + rtt * 0.15, resp));
+            check(new NetEmulator.Check("Letöltés (sávkorlát)", "Mbps", tcp.rateMbps, tcp.rateMbps * 0.1, mbps));
+        } finally {
+            http.stop(0);
+        }
+    }
+
+    @Test
+    void udpLoadLossReorderAndRateCap() throws IOException {
+        NetEmulator.Conditions udp = new NetEmulator.Conditions(10, 0, 2, 5, 0);
+        NetEmulator.Conditions cap = new NetEmulator.Conditions(5, 0, 0, 0, 5);
+        for (NetEmulator.Conditions c : new NetEmulator.Conditions[]{udp, cap}) {
+            int serverPort;
+            try (DatagramSocket probe = new DatagramSocket(0)) {
+                serverPort = probe.getLocalPort();
+            }
+            AtomicBoolean serverRunning = new AtomicBoolean(true);
+            Thread server = new Thread(() -> new UdpBlast(t -> {}).runServer(serverPort, serverRunning::get), "udp-server");
+            server.setDaemon(true);
+            server.start();
+            try (NetEmulator emu = new NetEmulator(NetEmulator.Protocol.UDP, new InetSocketAddress(LOOPBACK, serverPort), c, 3, t -> {})) {
+                int port = emu.start(0);
+                double target = c == cap ? 2 * c.rateMbps : 4;
+                UdpBlast.Result r = new UdpBlast(t -> {}).runClient(LOOPBACK.getHostAddress(), port, target, 1000, 3,
+                        () -> true, v -> {});
+                assertNotNull(r, "nincs szerver riport");
+                if (c == udp) {
+                    check(new NetEmulator.Check("UDP veszteség", "%", c.lossPercent, 1.5, r.lossPercent()));
+                    check(new NetEmulator.Check("UDP sorrendcsere", "%", c.reorderPercent, 2, 100.0 * r.outOfOrder / r.received));
+                    check(new NetEmulator.Check("UDP fogadott sebesség", "Mbps", r.sentMbps * (1 - c.lossPercent / 100),
+                            r.sentMbps * 0.1, r.receivedMbps));
+                } else {
+                    check(new NetEmulator.Check("UDP sávkorlát (2x túlterhelés)", "Mbps", c.rateMbps, c.rateMbps * 0.1, r.receivedMbps));
+                }
+            } finally {
+                serverRunning.set(false);
+                server.interrupt();
+            }
+        }
+    }
+
+    private static void check(NetEmulator.Check c) {
+        assertTrue(c.passed(), c.toString());
+    }
+
+    private static String base(int port) {
+        return "http://" + LOOPBACK.getHostAddress() + ":" + port;
+    }
+
+    // Körülfordulási idő ms-ban (-1: nincs válasz 500 ms-on belül); próbánként új socket
+    private static double udpEchoRtt(int port) {
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.setSoTimeout(500);
+            byte[] msg = "NETEMU_TEST".getBytes();
+            long start = System.nanoTime();
+            socket.send(new DatagramPacket(msg, msg.length, LOOPBACK, port));
+            socket.receive(new DatagramPacket(new byte[1024], 1024));
+            return (System.nanoTime() - start) / 1e6;
+        } catch (IOException ex) {
+            return -1;
+        }
+    }
+
+    // Medián válaszidő 5 próbából (az első, kapcsolatfelvételt tartalmazó próba nélkül)
+    private static double httpMedian(String url) throws IOException {
+        httpGet(url);
+        double[] resp = new double[5];
+        for (int i = 0; i < resp.length; i++) {
+            long start = System.nanoTime();
+            httpGet(url);
+            resp[i] = (System.nanoTime() - start) / 1e6;
+        }
+        return median(resp);
+    }
+
+    private static void httpGet(String url) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        conn.setConnectTimeout(5000);
+        conn.setReadTimeout(5000);
+        try (InputStream in = conn.getInputStream()) {
+            in.readAllBytes();
+        }
+    }
+
+    // Letöltési sebesség az első bájttól (a kapcsolatfelvétel és a fejléc nélkül)
+    private static double downloadMbps(String url, int bytes) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        conn.setReadTimeout(10_000);
+        byte[] buf = new byte[64 * 1024];
+        long read = 0;
+        try (InputStream in = conn.getInputStream()) {
+            long start = System.nanoTime();
+            for (int n; (n = in.read(buf)) > 0; ) read += n;
+            double sec = (System.nanoTime() - start) / 1e9;
+            assertTrue(read == bytes, "letöltött bájtok: " + read);
+            return read * 8 / 1e6 / sec;
+        }
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,100 @@
+package networkmon;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+// A RecordEncoder kimenete bájtra azonos a korábbi String.format / SimpleDateFormat formázással
+// (több locale és időzóna, kerekítési határok, szélsőértékek, nem ASCII interfésznevek)
+class RecordEncoderTest {
+
+    private static final String[] LOCALES = {"hu-HU", "en-US", "de-CH", "fr-FR", "th-TH", "ja-JP-u-ca-japanese",
+            "ar-EG", "hi-IN-u-nu-deva", "th-TH-u-nu-thai"};
+    private static final String[] ZONES = {"Europe/Budapest", "UTC", "America/New_York", "Asia/Kolkata",
+            "Australia/Lord_Howe", "Pacific/Kiritimati"};
+    private static final String[] NAMES = {"Ethernet", "Ethernet \"LAN\"", "Wi-Fi 5 GHz", "C:\\adapter\\x",
+            "Vezeték nélküli hálózat", "网卡 ✓", "emoji \uD83D\uDCF6", "árva \uD800 helyettesítő", ""};
+    private static final double[] EDGES = {0.0, -0.0, 0.005, 0.015, 0.125, 2.675, 1.0005, 0.00005, 99.995,
+            -1.0, -0.004, 12345.6789, 1e12, -1e12, 1e15, 1e300, Double.NaN, Double.POSITIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, Double.MIN_VALUE, Double.MAX_VALUE};
+    private static final long[] TIMES = {0L, 1_700_000_000_000L, 1_711_846_800_000L, 951_782_400_000L,
+            -1L, -12_219_292_800_000L, -62_135_596_800_000L, 253_402_300_799_000L, 4_102_444_800_000L};
+
+    @Test
+    void csvAndJsonMatchLegacyFormatting() throws IOException {
+        Locale savedLocale = Locale.getDefault();
+        TimeZone savedZone = TimeZone.getDefault();
+        try {
+            for (String tag : LOCALES) {
+                for (String zone : ZONES) {
+                    Locale.setDefault(Locale.forLanguageTag(tag));
+                    TimeZone.setDefault(TimeZone.getTimeZone(zone));
+                    compare(tag + " / " + zone);
+                }
+            }
+        } finally {
+            Locale.setDefault(savedLocale);
+            TimeZone.setDefault(savedZone);
+        }
+    }
+
+    // Az aktuális alapértelmezett locale / időzónával: szélsőértékek, majd véletlen rekordok
+    private static void compare(String context) throws IOException {
+        RecordEncoder enc = new RecordEncoder();
+        SimpleDateFormat csvDate = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        Random rnd = new Random(context.hashCode());
+        for (int i = 0; i < 3000; i++) {
+            long ts = i < TIMES.length ? TIMES[i] : 946_684_800_000L + (long) (rnd.nextDouble() * 3_000_000_000_000L);
+            String name = NAMES[i % NAMES.length];
+            double[] v = new double[6];
+            for (int k = 0; k < v.length; k++) {
+                if (i < 200) v[k] = EDGES[(i + k * 7) % EDGES.length];
+                else if (k % 3 == 0) v[k] = Math.round(rnd.nextDouble() * 100_000) / 1000.0 + 0.0005;   // kerekítési határ
+                else v[k] = rnd.nextDouble() * Math.pow(10, rnd.nextInt(8));
+            }
+            NetworkMonitor.Measurement m = new NetworkMonitor.Measurement(new Date(ts), name,
+                    v[0], v[1], v[2], v[3], v[4], v[5]);
+            String where = context + " #" + i;
+            assertArrayEquals(utf8(legacyCsvLine(m, csvDate)), bytes(enc.reset().csv(m)), where + " csv");
+            assertArrayEquals(utf8(legacyJson(m)), bytes(enc.reset().json(m)), where + " json");
+        }
+    }
+
+    // A RecordEncoder előtti NetworkMonitor formázás (lásd EncodingBenchmark.legacy*)
+    private static String legacyCsvLine(NetworkMonitor.Measurement m, SimpleDateFormat dateFormat) {
+        return String.format("%s;\"%s\";%.2f;%.2f;%.2f;%.2f;%.2f;%.2f",
+                dateFormat.format(m.timestamp),
+                m.interfaceName.replace("\"", "'"),
+                m.downloadMbps, m.uploadMbps, m.pingAvgMs, m.jitterMs, m.packetLossPercent, m.httpResponseMs);
+    }
+
+    private static String legacyJson(NetworkMonitor.Measurement m) {
+        SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+        return String.format(
+                "{\"timestamp\":\"%s\",\"interface\":\"%s\",\"download_mbps\":%.4f," +
+                "\"upload_mbps\":%.4f,\"ping_avg_ms\":%.4f,\"jitter_ms\":%.4f," +
+                "\"packet_loss_percent\":%.4f,\"http_response_ms\":%.4f}",
+                df.format(m.timestamp),
+                m.interfaceName.replace("\\", "\\\\").replace("\"", "\\\""),
+                m.downloadMbps, m.uploadMbps, m.pingAvgMs, m.jitterMs, m.packetLossPercent, m.httpResponseMs);
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(RecordEncoder enc) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        enc.writeTo(out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,61 @@
+package networkmon;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SequenceStatsTest {
+
+    private static void feed(SequenceStats st, long... seqs) {
+        long t = 1_000_000L;
+        for (long seq : seqs) {
+            st.onPacket(seq, t, t + 500, 100, t * 1000);
+            t += 1000;
+        }
+    }
+
+    @Test
+    void reorderedPacketsAreNotLossBursts() {
+        SequenceStats st = new SequenceStats();
+        feed(st, 0, 1, 3, 4, 2, 5, 8, 6, 7, 9);
+        assertEquals(0, st.lost());
+        assertEquals(0, st.lossBursts());
+        assertEquals(0, st.maxBurst());
+        assertEquals(3, st.reordered());   // 2, 6, 7
+    }
+
+    @Test
+    void gapsCountAsBurstsUntilFilled() {
+        SequenceStats st = new SequenceStats();
+        feed(st, 0, 1, 5, 6, 9);
+        assertEquals(2, st.lossBursts());
+        assertEquals(3, st.maxBurst());
+        feed(st, 3);   // a 2-4 löket kettévált: 2 és 4 hiányzik
+        assertEquals(3, st.lossBursts());
+        assertEquals(2, st.maxBurst());
+        assertEquals(4, st.lost());
+    }
+
+    @Test
+    void burstsSettleWhenLeavingTheWindow() {
+        SequenceStats st = new SequenceStats();
+        feed(st, 0);
+        long seq = 11;   // 1..10 hiányzik
+        for (int i = 0; i < 10_000; i++) feed(st, seq++);
+        feed(st, 5);     // az ablakon kívül: sorrenden kívüli, de a löket már végleges
+        assertEquals(1, st.lossBursts());
+        assertEquals(10, st.maxBurst());
+        feed(st, seq + 20_000);   // nagy ugrás: a köztes sorszámok egy löket
+        assertEquals(2, st.lossBursts());
+        assertEquals(20_000, st.maxBurst());
+    }
+
+    @Test
+    void duplicatesAreIgnored() {
+        SequenceStats st = new SequenceStats();
+        feed(st, 0, 1, 1, 2, 2, 3);
+        assertEquals(2, st.duplicates());
+        assertEquals(4, st.received());
+        assertEquals(0, st.lossBursts());
+    }
+}